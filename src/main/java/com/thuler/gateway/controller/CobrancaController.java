@@ -1,14 +1,29 @@
 package com.thuler.gateway.controller;
 
 import com.thuler.gateway.dto.request.CriarCobrancaRequest;
+import com.thuler.gateway.dto.request.CriarCobrancasLoteRequest;
 import com.thuler.gateway.dto.request.PagarCobrancaCartaoRequest;
 import com.thuler.gateway.dto.request.PagarCobrancaSaldoRequest;
+import com.thuler.gateway.dto.request.PagarCobrancasLoteRequest;
 import com.thuler.gateway.dto.response.CobrancaResponse;
+import com.thuler.gateway.dto.response.LoteCobrancaResponse;
+import com.thuler.gateway.dto.response.PagamentoLoteResponse;
+import com.thuler.gateway.dto.response.PaginaCobrancasResponse;
+import com.thuler.gateway.dto.response.SolicitacaoPagamentoResponse;
 import com.thuler.gateway.usecase.cobranca.CancelarCobrancaUseCase;
 import com.thuler.gateway.usecase.cobranca.ConsultarCobrancasUseCase;
+import com.thuler.gateway.usecase.cobranca.ConsultarLoteCobrancaUseCase;
+import com.thuler.gateway.usecase.cobranca.ConsultarPagamentoUseCase;
 import com.thuler.gateway.usecase.cobranca.CriarCobrancaUseCase;
+import com.thuler.gateway.usecase.cobranca.CriarCobrancasEmLoteUseCase;
+import com.thuler.gateway.usecase.cobranca.ExportarCobrancasUseCase;
+import com.thuler.gateway.usecase.cobranca.FormatoExportacao;
 import com.thuler.gateway.usecase.cobranca.PagarCobrancaUseCase;
+import com.thuler.gateway.usecase.cobranca.PagarCobrancasEmLoteUseCase;
+import com.thuler.gateway.usecase.cobranca.SolicitarPagamentoCartaoUseCase;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.StatusLoteCobranca;
+import com.thuler.gateway.domain.enums.StatusSolicitacaoPagamento;
 import com.thuler.gateway.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,12 +35,17 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/cobrancas")
@@ -34,10 +54,19 @@ import java.util.List;
 @Tag(name = "Cobranças", description = "Endpoints para gerenciamento de cobranças")
 public class CobrancaController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String GZIP = "gzip";
+
     private final CriarCobrancaUseCase criarCobrancaUseCase;
+    private final CriarCobrancasEmLoteUseCase criarCobrancasEmLoteUseCase;
+    private final ConsultarLoteCobrancaUseCase consultarLoteCobrancaUseCase;
     private final ConsultarCobrancasUseCase consultarCobrancasUseCase;
+    private final ExportarCobrancasUseCase exportarCobrancasUseCase;
     private final PagarCobrancaUseCase pagarCobrancaUseCase;
+    private final PagarCobrancasEmLoteUseCase pagarCobrancasEmLoteUseCase;
     private final CancelarCobrancaUseCase cancelarCobrancaUseCase;
+    private final SolicitarPagamentoCartaoUseCase solicitarPagamentoCartaoUseCase;
+    private final ConsultarPagamentoUseCase consultarPagamentoUseCase;
 
     @PostMapping
     @Operation(summary = "Criar nova cobrança", description = "Cria uma cobrança para outro usuário usando o CPF do destinatário")
@@ -56,36 +85,146 @@ public class CobrancaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/lote")
+    @Operation(summary = "Criar cobranças em lote", description = "Cria até "
+            + CriarCobrancasLoteRequest.MAXIMO_COBRANCAS + " cobranças em segundo plano, uma por CPF informado. "
+            + "O progresso deve ser consultado em /api/cobrancas/lote/{loteId}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Lote aceito para processamento",
+                    content = @Content(schema = @Schema(implementation = LoteCobrancaResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Lote vazio, acima do limite ou com itens inválidos"),
+            @ApiResponse(responseCode = "503", description = "Fila de lotes cheia"),
+            @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    public ResponseEntity<LoteCobrancaResponse> criarEmLote(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody CriarCobrancasLoteRequest request) {
+
+        LoteCobrancaResponse response = criarCobrancasEmLoteUseCase.execute(user.getId(), request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/cobrancas/lote/" + response.getId()))
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    @GetMapping("/lote/{loteId}")
+    @Operation(summary = "Consultar lote de cobranças", description = "Retorna o progresso e as recusas de um lote de cobranças")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progresso do lote",
+                    content = @Content(schema = @Schema(implementation = LoteCobrancaResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Lote não encontrado"),
+            @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    public ResponseEntity<LoteCobrancaResponse> consultarLote(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Parameter(description = "ID do lote")
+            @PathVariable Long loteId) {
+
+        LoteCobrancaResponse response = consultarLoteCobrancaUseCase.execute(user.getId(), loteId);
+
+        if (response.getStatus() == StatusLoteCobranca.PROCESSANDO) {
+            return ResponseEntity.ok().header(HttpHeaders.RETRY_AFTER, "1").body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/enviadas")
-    @Operation(summary = "Consultar cobranças enviadas", description = "Lista cobranças criadas pelo usuário autenticado")
+    @Operation(summary = "Consultar cobranças enviadas", description = "Lista cobranças criadas pelo usuário autenticado, "
+            + "da mais recente para a mais antiga. A próxima página é buscada com o proximoCursor da resposta")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Cobranças listadas com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Cobranças listadas com sucesso",
+                    content = @Content(schema = @Schema(implementation = PaginaCobrancasResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor ou limite inválido"),
             @ApiResponse(responseCode = "401", description = "Não autenticado")
     })
-    public ResponseEntity<List<CobrancaResponse>> consultarEnviadas(
+    public ResponseEntity<PaginaCobrancasResponse> consultarEnviadas(
             @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "Filtrar por status (opcional)")
-            @RequestParam(required = false) CobrancaStatus status) {
+            @RequestParam(required = false) CobrancaStatus status,
+            @Parameter(description = "proximoCursor da página anterior (opcional)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cobranças por página (opcional, limitado pelo máximo configurado)")
+            @RequestParam(required = false) Integer limite) {
 
-        List<CobrancaResponse> response = consultarCobrancasUseCase.consultarCobrancasEnviadas(user.getId(), status);
+        PaginaCobrancasResponse response = consultarCobrancasUseCase.consultarCobrancasEnviadas(
+                user.getId(), status, cursor, limite);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/recebidas")
-    @Operation(summary = "Consultar cobranças recebidas", description = "Lista cobranças recebidas pelo usuário autenticado")
+    @Operation(summary = "Consultar cobranças recebidas", description = "Lista cobranças recebidas pelo usuário autenticado, "
+            + "da mais recente para a mais antiga. A próxima página é buscada com o proximoCursor da resposta")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Cobranças listadas com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Cobranças listadas com sucesso",
+                    content = @Content(schema = @Schema(implementation = PaginaCobrancasResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor ou limite inválido"),
             @ApiResponse(responseCode = "401", description = "Não autenticado")
     })
-    public ResponseEntity<List<CobrancaResponse>> consultarRecebidas(
+    public ResponseEntity<PaginaCobrancasResponse> consultarRecebidas(
             @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "Filtrar por status (opcional)")
-            @RequestParam(required = false) CobrancaStatus status) {
+            @RequestParam(required = false) CobrancaStatus status,
+            @Parameter(description = "proximoCursor da página anterior (opcional)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cobranças por página (opcional, limitado pelo máximo configurado)")
+            @RequestParam(required = false) Integer limite) {
 
-        List<CobrancaResponse> response = consultarCobrancasUseCase.consultarCobrancasRecebidas(user.getId(), status);
+        PaginaCobrancasResponse response = consultarCobrancasUseCase.consultarCobrancasRecebidas(
+                user.getId(), status, cursor, limite);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Exportar cobranças", description = "Exporta todas as cobranças enviadas e recebidas pelo usuário "
+            + "autenticado, em NDJSON ou CSV. O arquivo é escrito à medida que é lido do banco; com "
+            + "'Accept-Encoding: gzip' vem comprimido")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportação das cobranças"),
+            @ApiResponse(responseCode = "400", description = "Formato inválido"),
+            @ApiResponse(responseCode = "401", description = "Não autenticado"),
+            @ApiResponse(responseCode = "503", description = "Muitas exportações em andamento")
+    })
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Parameter(description = "ndjson (padrão) ou csv")
+            @RequestParam(required = false) String format,
+            @Parameter(description = "Filtrar por status (opcional)")
+            @RequestParam(required = false) CobrancaStatus status,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        // Validado antes da resposta começar: depois do primeiro byte não há mais como responder 400
+        FormatoExportacao formato = FormatoExportacao.of(format);
+        Long usuarioId = user.getId();
+        boolean gzip = aceitaGzip(acceptEncoding);
+
+        // Também antes da resposta: sem vaga ainda dá para responder 503
+        exportarCobrancasUseCase.reservarVaga();
+
+        // Escrito em outra thread, depois que o controller retorna
+        StreamingResponseBody corpo = saida -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream comprimida = new GZIPOutputStream(saida, 8192);
+                    exportarCobrancasUseCase.exportar(usuarioId, status, formato, comprimida);
+                    comprimida.finish();
+                } else {
+                    exportarCobrancasUseCase.exportar(usuarioId, status, formato, saida);
+                }
+            } finally {
+                exportarCobrancasUseCase.liberarVaga();
+            }
+        };
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(formato.getContentType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cobrancas." + formato.getExtensao() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return resposta.body(corpo);
+    }
+
     @PostMapping("/pagar/saldo")
     @Operation(summary = "Pagar cobrança com saldo", description = "Paga uma cobrança usando saldo em conta")
     @ApiResponses(value = {
@@ -103,24 +242,78 @@ public class CobrancaController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/pagar/saldo/lote")
+    @Operation(summary = "Pagar várias cobranças com saldo", description = "Paga até "
+            + PagarCobrancasLoteRequest.MAXIMO_COBRANCAS + " cobranças em uma única transação. "
+            + "Cada cobrança é avaliada na ordem enviada; as inválidas ou sem saldo são recusadas sem impedir as demais")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultado de cada cobrança do lote",
+                    content = @Content(schema = @Schema(implementation = PagamentoLoteResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do limite"),
+            @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    public ResponseEntity<PagamentoLoteResponse> pagarComSaldoEmLote(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody PagarCobrancasLoteRequest request) {
+
+        PagamentoLoteResponse response = pagarCobrancasEmLoteUseCase.execute(user.getId(), request);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/pagar/cartao")
-    @Operation(summary = "Pagar cobrança com cartão de crédito", description = "Paga uma cobrança usando cartão de crédito (integra com autorizador externo)")
+    @Operation(summary = "Pagar cobrança com cartão de crédito", description = "Paga uma cobrança usando cartão de crédito (integra com autorizador externo). "
+            + "Com o header 'Prefer: respond-async' o pagamento é processado em segundo plano e o status deve ser consultado em /api/cobrancas/{cobrancaId}/pagamento")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cobrança paga com sucesso",
                     content = @Content(schema = @Schema(implementation = CobrancaResponse.class))),
+            @ApiResponse(responseCode = "202", description = "Pagamento aceito para processamento assíncrono",
+                    content = @Content(schema = @Schema(implementation = SolicitacaoPagamentoResponse.class))),
             @ApiResponse(responseCode = "400", description = "Dados do cartão inválidos"),
             @ApiResponse(responseCode = "404", description = "Cobrança não encontrada"),
             @ApiResponse(responseCode = "422", description = "Pagamento não autorizado"),
+            @ApiResponse(responseCode = "503", description = "Autorizador ou fila de pagamentos indisponível"),
             @ApiResponse(responseCode = "401", description = "Não autenticado")
     })
-    public ResponseEntity<CobrancaResponse> pagarComCartao(
+    public ResponseEntity<?> pagarComCartao(
             @AuthenticationPrincipal AuthenticatedUser user,
+            @Parameter(description = "Use 'respond-async' para processar em segundo plano (opcional)")
+            @RequestHeader(value = "Prefer", required = false) String prefer,
             @Valid @RequestBody PagarCobrancaCartaoRequest request) {
 
+        if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            SolicitacaoPagamentoResponse response = solicitarPagamentoCartaoUseCase.execute(user.getId(), request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/cobrancas/" + response.getCobrancaId() + "/pagamento"))
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(response);
+        }
+
         CobrancaResponse response = pagarCobrancaUseCase.pagarComCartao(user.getId(), request);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{cobrancaId}/pagamento")
+    @Operation(summary = "Consultar pagamento assíncrono", description = "Retorna o status da última solicitação de pagamento com cartão da cobrança")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status do pagamento",
+                    content = @Content(schema = @Schema(implementation = SolicitacaoPagamentoResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Cobrança ou solicitação não encontrada"),
+            @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    public ResponseEntity<SolicitacaoPagamentoResponse> consultarPagamento(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Parameter(description = "ID da cobrança")
+            @PathVariable Long cobrancaId) {
+
+        SolicitacaoPagamentoResponse response = consultarPagamentoUseCase.execute(user.getId(), cobrancaId);
+
+        if (response.getStatus() == StatusSolicitacaoPagamento.PROCESSANDO) {
+            return ResponseEntity.ok().header(HttpHeaders.RETRY_AFTER, "1").body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{cobrancaId}")
     @Operation(summary = "Cancelar cobrança", description = "Cancela uma cobrança (pendente ou paga com estorno)")
     @ApiResponses(value = {
@@ -139,4 +332,29 @@ public class CobrancaController {
         CobrancaResponse response = cancelarCobrancaUseCase.execute(user.getId(), cobrancaId);
         return ResponseEntity.ok(response);
     }
+
+    // gzip aceito, a menos que venha com q=0
+    private static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.split(";");
+            if (!partes[0].trim().equalsIgnoreCase(GZIP)) {
+                continue;
+            }
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parametro.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
 }
\ No newline at end of file
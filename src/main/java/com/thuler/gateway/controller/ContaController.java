@@ -1,10 +1,13 @@
 package com.thuler.gateway.controller;
 
+import com.thuler.gateway.dto.request.AtivarFaixasRequest;
 import com.thuler.gateway.dto.request.DepositoRequest;
 import com.thuler.gateway.dto.response.ContaResponse;
+import com.thuler.gateway.usecase.conta.AtivarFaixasUseCase;
 import com.thuler.gateway.usecase.conta.DepositarUseCase;
 import com.thuler.gateway.domain.model.Conta;
 import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
 import com.thuler.gateway.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -27,7 +30,9 @@ import org.springframework.web.bind.annotation.*;
 public class ContaController {
 
     private final DepositarUseCase depositarUseCase;
+    private final AtivarFaixasUseCase ativarFaixasUseCase;
     private final ContaRepository contaRepository;
+    private final LancamentoService lancamentoService;
 
     @PostMapping("/deposito")
     @Operation(summary = "Realizar depósito", description = "Adiciona saldo na conta do usuário")
@@ -58,6 +63,24 @@ public class ContaController {
         Conta conta = contaRepository.findByUsuarioId(user.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada"));
 
-        return ResponseEntity.ok(ContaResponse.fromEntity(conta));
+        return ResponseEntity.ok(ContaResponse.fromEntity(conta, lancamentoService.saldo(conta.getId())));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/faixas")
+    @Operation(summary = "Ativar faixas de crédito",
+            description = "Espalha as travas dos créditos recebidos pela conta em faixas, para suportar muitos " +
+                    "pagamentos simultâneos para a mesma conta. O saldo não muda")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Faixas ativadas com sucesso",
+                    content = @Content(schema = @Schema(implementation = ContaResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Quantidade inválida"),
+            @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    public ResponseEntity<ContaResponse> ativarFaixas(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody AtivarFaixasRequest request) {
+
+        ContaResponse response = ativarFaixasUseCase.execute(user.getId(), request);
+        return ResponseEntity.ok(response);
+    }
+}
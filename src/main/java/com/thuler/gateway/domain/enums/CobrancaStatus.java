@@ -3,5 +3,6 @@ package com.thuler.gateway.domain.enums;
 public enum CobrancaStatus {
     PENDENTE,
     PAGA,
-    CANCELADA
+    CANCELADA,
+    EXPIRADA
 }
@@ -0,0 +1,7 @@
+package com.thuler.gateway.domain.enums;
+
+public enum StatusLiquidacao {
+    PENDENTE,
+    LIQUIDADA,
+    CANCELADA
+}
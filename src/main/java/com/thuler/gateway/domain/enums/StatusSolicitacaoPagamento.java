@@ -0,0 +1,8 @@
+package com.thuler.gateway.domain.enums;
+
+public enum StatusSolicitacaoPagamento {
+    PROCESSANDO,
+    APROVADO,
+    RECUSADO,
+    FALHOU
+}
@@ -0,0 +1,9 @@
+package com.thuler.gateway.domain.enums;
+
+public enum TipoLancamento {
+    DEPOSITO,
+    PAGAMENTO_ENVIADO,
+    PAGAMENTO_RECEBIDO,
+    ESTORNO_ENVIADO,
+    ESTORNO_RECEBIDO
+}
@@ -0,0 +1,57 @@
+package com.thuler.gateway.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key recebida de um usuário e a resposta da primeira execução.
+ * Enquanto {@code statusHttp} é nulo a requisição original ainda está em processamento.
+ */
+@Entity
+@Table(name = "chaves_idempotencia", uniqueConstraints = @UniqueConstraint(columnNames = {"usuario_id", "chave"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class ChaveIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private String chave;
+
+    // SHA-256 do método, caminho e corpo da requisição original
+    @Column(nullable = false, length = 64)
+    private String impressao;
+
+    private Integer statusHttp;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Column(length = 500)
+    private String location;
+
+    @Column(columnDefinition = "TEXT")
+    private String corpo;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime concluidaEm;
+
+    public boolean isConcluida() {
+        return statusHttp != null;
+    }
+}
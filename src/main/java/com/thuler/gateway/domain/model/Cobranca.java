@@ -11,6 +11,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = Cobranca.COM_USUARIOS,
+        attributeNodes = {
+                @NamedAttributeNode(value = "originador", subgraph = "usuario"),
+                @NamedAttributeNode(value = "destinatario", subgraph = "usuario")
+        },
+        // A conta é o lado inverso do @OneToOne e não vira proxy: sem ela no grafo, cada usuário custa um SELECT
+        subgraphs = @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("conta")))
+// Esquema e índices: db/migration
 @Table(name = "cobrancas")
 @Getter
 @Setter
@@ -20,15 +28,22 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = "id")
 public class Cobranca {
 
+    /**
+     * Plano de carga das consultas que devolvem cobranças ao cliente: originador e destinatário no mesmo SELECT.
+     */
+    public static final String COM_USUARIOS = "Cobranca.comUsuarios";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cobrancas_seq")
+    @SequenceGenerator(name = "cobrancas_seq", sequenceName = "cobrancas_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    // Lazy: quem precisa dos usuários usa o grafo COM_USUARIOS
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "originador_id", nullable = false)
     private Usuario originador;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "destinatario_id", nullable = false)
     private Usuario destinatario;
 
@@ -65,6 +80,13 @@ public class Cobranca {
 
     private LocalDateTime cancelledAt;
 
+    private LocalDateTime expiredAt;
+
+    // Controle otimista: o UPDATE só grava se ninguém alterou a cobrança desde a leitura
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+
     public void marcarComoPaga(TipoPagamento tipoPagamento, String numeroCartao, String autorizadorResponse) {
         if (this.status != CobrancaStatus.PENDENTE) {
             throw new IllegalStateException("Apenas cobranças pendentes podem ser pagas");
@@ -80,6 +102,9 @@ public class Cobranca {
         if (this.status == CobrancaStatus.CANCELADA) {
             throw new IllegalStateException("Cobrança já está cancelada");
         }
+        if (this.status == CobrancaStatus.EXPIRADA) {
+            throw new IllegalStateException("Cobrança expirada não pode ser cancelada");
+        }
         this.status = CobrancaStatus.CANCELADA;
         if (autorizadorResponse != null) {
             this.autorizadorResponse = autorizadorResponse;
@@ -99,6 +124,10 @@ public class Cobranca {
         return this.status == CobrancaStatus.CANCELADA;
     }
 
+    public boolean isExpirada() {
+        return this.status == CobrancaStatus.EXPIRADA;
+    }
+
     public boolean foiPagaComSaldo() {
         return isPaga() && this.tipoPagamento == TipoPagamento.SALDO;
     }
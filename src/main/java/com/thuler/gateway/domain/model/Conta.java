@@ -19,17 +19,27 @@ import java.time.LocalDateTime;
 public class Conta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conta_seq")
+    @SequenceGenerator(name = "conta_seq", sequenceName = "conta_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne
     @JoinColumn(name = "usuario_id", nullable = false, unique = true)
     private Usuario usuario;
 
+    // Saldo no último snapshot; o saldo atual soma os lançamentos posteriores (ver Lancamento)
     @Column(nullable = false, precision = 19, scale = 2)
     @Builder.Default
     private BigDecimal saldo = BigDecimal.ZERO;
 
+    // Último lançamento incluído em saldo
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long ultimoLancamentoId = 0L;
+
+    // Quantidade de faixas de trava para créditos; nulo quando a conta não usa faixas
+    private Integer faixas;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -38,31 +48,12 @@ public class Conta {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
-    public void depositar(BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Valor do depósito deve ser positivo");
-        }
-        this.saldo = this.saldo.add(valor);
-    }
-
-    public void debitar(BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Valor do débito deve ser positivo");
-        }
-        if (this.saldo.compareTo(valor) < 0) {
-            throw new IllegalArgumentException("Saldo insuficiente");
-        }
-        this.saldo = this.saldo.subtract(valor);
-    }
-
-    public void creditar(BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Valor do crédito deve ser positivo");
-        }
-        this.saldo = this.saldo.add(valor);
+    public boolean isFaixada() {
+        return faixas != null;
     }
 
-    public boolean temSaldoSuficiente(BigDecimal valor) {
-        return this.saldo.compareTo(valor) >= 0;
+    public void aplicarSnapshot(BigDecimal saldo, Long ultimoLancamentoId) {
+        this.saldo = saldo;
+        this.ultimoLancamentoId = ultimoLancamentoId;
     }
 }
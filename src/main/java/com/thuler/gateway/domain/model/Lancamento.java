@@ -0,0 +1,53 @@
+package com.thuler.gateway.domain.model;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Movimentação de saldo. Lançamentos só são inseridos, nunca alterados: o saldo de uma conta é o saldo
+ * do último snapshot ({@link Conta#getSaldo()}) mais a soma dos lançamentos com id acima de
+ * {@link Conta#getUltimoLancamentoId()}.
+ * <p>
+ * O id vem de IDENTITY de propósito: ele é gerado no INSERT, depois da trava da conta, o que garante que
+ * um snapshot nunca pula um lançamento ainda não commitado (ver {@link com.thuler.gateway.domain.service.ContaLockService}).
+ */
+@Entity
+@Immutable
+@Table(name = "lancamentos")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class Lancamento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_id", nullable = false)
+    private Conta conta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoLancamento tipo;
+
+    // Positivo para créditos, negativo para débitos
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal valor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cobranca_id")
+    private Cobranca cobranca;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,71 @@
+package com.thuler.gateway.domain.model;
+
+import com.thuler.gateway.domain.enums.StatusLiquidacao;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Crédito de um pagamento com cartão ainda a repassar ao recebedor. Gravada na mesma transação que marca a
+ * cobrança como paga e liquidada depois, em lote, pelo
+ * {@link com.thuler.gateway.usecase.cobranca.LiquidarPagamentosCartaoUseCase}.
+ */
+@Entity
+@Table(name = "liquidacoes_cartao", uniqueConstraints = @UniqueConstraint(columnNames = "cobranca_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class LiquidacaoCartao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cobranca_id", nullable = false)
+    private Cobranca cobranca;
+
+    // Conta do recebedor
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_id", nullable = false)
+    private Conta conta;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal valor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatusLiquidacao status = StatusLiquidacao.PENDENTE;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime liquidadaEm;
+
+    public boolean isPendente() {
+        return this.status == StatusLiquidacao.PENDENTE;
+    }
+
+    public void liquidar(LocalDateTime liquidadaEm) {
+        if (!isPendente()) {
+            throw new IllegalStateException("Liquidação já foi concluída");
+        }
+        this.status = StatusLiquidacao.LIQUIDADA;
+        this.liquidadaEm = liquidadaEm;
+    }
+
+    public void cancelar() {
+        if (!isPendente()) {
+            throw new IllegalStateException("Apenas liquidações pendentes podem ser canceladas");
+        }
+        this.status = StatusLiquidacao.CANCELADA;
+    }
+}
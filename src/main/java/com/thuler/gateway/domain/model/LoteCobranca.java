@@ -0,0 +1,117 @@
+package com.thuler.gateway.domain.model;
+
+import com.thuler.gateway.domain.enums.StatusLoteCobranca;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Criação de cobranças em massa, processada em blocos em segundo plano. Cada bloco confirmado atualiza o
+ * progresso na mesma transação que grava as cobranças.
+ */
+@Entity
+@Table(name = "lotes_cobranca")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class LoteCobranca {
+
+    /**
+     * Quantidade de recusas guardadas com o motivo; as demais só entram na contagem.
+     */
+    public static final int MAXIMO_RECUSAS_DETALHADAS = 100;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "originador_id", nullable = false)
+    private Usuario originador;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatusLoteCobranca status = StatusLoteCobranca.PROCESSANDO;
+
+    @Column(nullable = false)
+    private int total;
+
+    @Column(nullable = false)
+    private int processadas;
+
+    @Column(nullable = false)
+    private int criadas;
+
+    @Column(nullable = false)
+    private int recusadas;
+
+    // Uma recusa por linha, no formato "linha N: motivo"
+    @Column(columnDefinition = "TEXT")
+    private String recusas;
+
+    @Column(columnDefinition = "TEXT")
+    private String mensagem;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime concluidoEm;
+
+    public void registrarBloco(int processadasNoBloco, int criadasNoBloco, List<String> recusasNoBloco) {
+        if (!isProcessando()) {
+            throw new IllegalStateException("Lote de cobranças já foi concluído");
+        }
+        this.processadas += processadasNoBloco;
+        this.criadas += criadasNoBloco;
+
+        int detalhadas = this.recusadas;
+        this.recusadas += recusasNoBloco.size();
+
+        List<String> novas = recusasNoBloco.stream()
+                .limit(Math.max(0, MAXIMO_RECUSAS_DETALHADAS - detalhadas))
+                .toList();
+        if (!novas.isEmpty()) {
+            String texto = String.join("\n", novas);
+            this.recusas = this.recusas == null ? texto : this.recusas + "\n" + texto;
+        }
+    }
+
+    public void concluir() {
+        finalizar(StatusLoteCobranca.CONCLUIDO, null);
+    }
+
+    public void falhar(String motivo) {
+        finalizar(StatusLoteCobranca.FALHOU, motivo);
+    }
+
+    public boolean isProcessando() {
+        return this.status == StatusLoteCobranca.PROCESSANDO;
+    }
+
+    public List<String> listarRecusas() {
+        return recusas == null ? List.of() : Arrays.asList(recusas.split("\n"));
+    }
+
+    private void finalizar(StatusLoteCobranca novoStatus, String mensagem) {
+        if (!isProcessando()) {
+            throw new IllegalStateException("Lote de cobranças já foi concluído");
+        }
+        this.status = novoStatus;
+        this.mensagem = mensagem;
+        this.concluidoEm = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,28 @@
+package com.thuler.gateway.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Última sequência do journal de cada partição da engine de contas já gravada em {@code lancamentos}.
+ * Atualizada na mesma transação dos lançamentos, para que nenhuma movimentação seja gravada duas vezes.
+ */
+@Entity
+@Table(name = "engine_journal_posicoes")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PosicaoJournal {
+
+    @Id
+    private Integer particao;
+
+    @Column(nullable = false)
+    private Long ultimaSequencia;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.thuler.gateway.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Histórico dos snapshots de saldo de uma conta. O snapshot mais recente também fica na própria
+ * {@link Conta} (saldo e último lançamento), que é o que a leitura de saldo usa.
+ */
+@Entity
+@Immutable
+@Table(name = "saldo_snapshots")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class SaldoSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_id", nullable = false)
+    private Conta conta;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal saldo;
+
+    // Lançamentos com id até este valor estão incluídos no saldo
+    @Column(nullable = false)
+    private Long ultimoLancamentoId;
+
+    // Quantos lançamentos foram incorporados neste snapshot
+    @Column(nullable = false)
+    private Long lancamentos;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
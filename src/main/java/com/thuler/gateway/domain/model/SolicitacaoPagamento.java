@@ -0,0 +1,86 @@
+package com.thuler.gateway.domain.model;
+
+import com.thuler.gateway.domain.enums.StatusSolicitacaoPagamento;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "solicitacoes_pagamento")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class SolicitacaoPagamento {
+
+    /**
+     * Mensagem das solicitações marcadas como FALHOU pela expiração. O resultado real que chegar depois
+     * substitui essa falha.
+     */
+    public static final String MOTIVO_EXPIRACAO = "Pagamento não concluído dentro do prazo";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "cobranca_id", nullable = false)
+    private Cobranca cobranca;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatusSolicitacaoPagamento status = StatusSolicitacaoPagamento.PROCESSANDO;
+
+    @Column(length = 4)
+    private String numeroCartao;
+
+    @Column(columnDefinition = "TEXT")
+    private String mensagem;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime iniciadaEm;
+
+    private LocalDateTime concluidaEm;
+
+    public void aprovar() {
+        concluir(StatusSolicitacaoPagamento.APROVADO, null);
+    }
+
+    public void recusar(String motivo) {
+        concluir(StatusSolicitacaoPagamento.RECUSADO, motivo);
+    }
+
+    public void falhar(String motivo) {
+        concluir(StatusSolicitacaoPagamento.FALHOU, motivo);
+    }
+
+    public boolean isProcessando() {
+        return this.status == StatusSolicitacaoPagamento.PROCESSANDO;
+    }
+
+    public boolean isExpirada() {
+        return this.status == StatusSolicitacaoPagamento.FALHOU && MOTIVO_EXPIRACAO.equals(this.mensagem);
+    }
+
+    private void concluir(StatusSolicitacaoPagamento novoStatus, String mensagem) {
+        if (!isProcessando() && !isExpirada()) {
+            throw new IllegalStateException("Solicitação de pagamento já foi concluída");
+        }
+        this.status = novoStatus;
+        this.mensagem = mensagem;
+        this.concluidaEm = LocalDateTime.now();
+    }
+}
@@ -1,6 +1,7 @@
 package com.thuler.gateway.domain.model;
 
 import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.security.UsuarioStatusListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "USUARIO")
+@EntityListeners(UsuarioStatusListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,8 +20,10 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = "id")
 public class Usuario {
 
+    // Sequência com incremento 50: o Hibernate reserva 50 ids por consulta e agrupa os INSERTs em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "usuario_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -0,0 +1,86 @@
+package com.thuler.gateway.domain.repository;
+
+import com.thuler.gateway.domain.model.ChaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, Long> {
+
+    Optional<ChaveIdempotencia> findByUsuarioIdAndChave(Long usuarioId, String chave);
+
+    /**
+     * Reserva a chave para a requisição corrente. Uma reserva não concluída feita antes de
+     * {@code abandonadasAntesDe} (processo encerrado no meio da requisição) é assumida no mesmo comando.
+     *
+     * @return 1 se reservada, 0 se outra requisição já usou a chave
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO chaves_idempotencia (usuario_id, chave, impressao, created_at)
+            VALUES (:usuarioId, :chave, :impressao, now())
+            ON CONFLICT (usuario_id, chave) DO UPDATE
+            SET impressao = EXCLUDED.impressao,
+                created_at = EXCLUDED.created_at
+            WHERE chaves_idempotencia.concluida_em IS NULL
+              AND chaves_idempotencia.created_at < :abandonadasAntesDe
+            """, nativeQuery = true)
+    int reservar(@Param("usuarioId") Long usuarioId,
+                 @Param("chave") String chave,
+                 @Param("impressao") String impressao,
+                 @Param("abandonadasAntesDe") LocalDateTime abandonadasAntesDe);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE chaves_idempotencia
+            SET status_http = :statusHttp,
+                content_type = :contentType,
+                location = :location,
+                corpo = :corpo,
+                concluida_em = now()
+            WHERE usuario_id = :usuarioId
+              AND chave = :chave
+              AND status_http IS NULL
+            """, nativeQuery = true)
+    int concluir(@Param("usuarioId") Long usuarioId,
+                 @Param("chave") String chave,
+                 @Param("statusHttp") int statusHttp,
+                 @Param("contentType") String contentType,
+                 @Param("location") String location,
+                 @Param("corpo") String corpo);
+
+    /**
+     * Libera uma chave reservada cuja resposta não deve ser repetida (ex.: erro transitório).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM chaves_idempotencia
+            WHERE usuario_id = :usuarioId
+              AND chave = :chave
+              AND status_http IS NULL
+            """, nativeQuery = true)
+    int liberar(@Param("usuarioId") Long usuarioId, @Param("chave") String chave);
+
+    /**
+     * Remove respostas expiradas e reservas abandonadas (processo encerrado no meio da requisição).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM chaves_idempotencia
+            WHERE created_at < :expiradasAntesDe
+               OR (status_http IS NULL AND created_at < :abandonadasAntesDe)
+            """, nativeQuery = true)
+    int removerExpiradas(@Param("expiradasAntesDe") LocalDateTime expiradasAntesDe,
+                         @Param("abandonadasAntesDe") LocalDateTime abandonadasAntesDe);
+}
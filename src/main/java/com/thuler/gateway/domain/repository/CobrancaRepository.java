@@ -2,19 +2,233 @@ package com.thuler.gateway.domain.repository;
 
 import com.thuler.gateway.domain.model.Cobranca;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.TipoPagamento;
+import com.thuler.gateway.dto.response.CobrancaResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CobrancaRepository extends JpaRepository<Cobranca, Long> {
 
+    // Linhas por ida ao banco nas exportações; o driver do Postgres só usa cursor dentro de uma transação
+    String TAMANHO_FETCH_EXPORTACAO = "500";
+
+    /**
+     * As consultas que devolvem entidades carregam originador e destinatário (e a conta de cada um) no mesmo
+     * SELECT, pelo grafo {@link Cobranca#COM_USUARIOS}; sem ele as associações ficam lazy. As listagens
+     * paginadas não carregam entidades: projetam direto em {@link CobrancaResponse}.
+     */
+    @Override
+    @EntityGraph(Cobranca.COM_USUARIOS)
+    Optional<Cobranca> findById(Long id);
+
+    @EntityGraph(Cobranca.COM_USUARIOS)
     List<Cobranca> findByOriginadorIdAndStatus(Long originadorId, CobrancaStatus status);
 
+    @EntityGraph(Cobranca.COM_USUARIOS)
     List<Cobranca> findByDestinatarioIdAndStatus(Long destinatarioId, CobrancaStatus status);
 
+    @EntityGraph(Cobranca.COM_USUARIOS)
     List<Cobranca> findByOriginadorId(Long originadorId);
 
+    @EntityGraph(Cobranca.COM_USUARIOS)
     List<Cobranca> findByDestinatarioId(Long destinatarioId);
-}
\ No newline at end of file
+
+    /**
+     * Primeira página das cobranças enviadas, da mais recente para a mais antiga, projetada direto em
+     * {@link CobrancaResponse}: só as colunas da resposta e o nome dos dois usuários, sem entidades gerenciadas.
+     * O {@link Slice} lê uma linha a mais para saber se há próxima página, sem COUNT.
+     */
+    @Query("""
+            select new com.thuler.gateway.dto.response.CobrancaResponse(
+                c.id, o.id, o.nome, d.id, d.nome, c.valor, c.descricao, c.status, c.tipoPagamento,
+                c.numeroCartao, c.createdAt, c.paidAt, c.cancelledAt, c.expiredAt)
+            from Cobranca c
+            join c.originador o
+            join c.destinatario d
+            where o.id = :usuarioId
+              and c.status in :status
+            order by c.createdAt desc, c.id desc
+            """)
+    Slice<CobrancaResponse> findEnviadas(@Param("usuarioId") Long usuarioId,
+                                         @Param("status") Collection<CobrancaStatus> status,
+                                         Pageable pagina);
+
+    /**
+     * Páginas seguintes das cobranças enviadas: as que vêm depois de ({@code createdAt}, {@code id}) na ordem
+     * da listagem. A comparação por tupla vira um único intervalo no índice (originador_id, created_at, id),
+     * então qualquer página custa o mesmo que a primeira.
+     */
+    @Query("""
+            select new com.thuler.gateway.dto.response.CobrancaResponse(
+                c.id, o.id, o.nome, d.id, d.nome, c.valor, c.descricao, c.status, c.tipoPagamento,
+                c.numeroCartao, c.createdAt, c.paidAt, c.cancelledAt, c.expiredAt)
+            from Cobranca c
+            join c.originador o
+            join c.destinatario d
+            where o.id = :usuarioId
+              and c.status in :status
+              and (c.createdAt, c.id) < (:createdAt, :id)
+            order by c.createdAt desc, c.id desc
+            """)
+    Slice<CobrancaResponse> findEnviadasApos(@Param("usuarioId") Long usuarioId,
+                                             @Param("status") Collection<CobrancaStatus> status,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pagina);
+
+    /**
+     * Primeira página das cobranças recebidas. Ver {@link #findEnviadas}.
+     */
+    @Query("""
+            select new com.thuler.gateway.dto.response.CobrancaResponse(
+                c.id, o.id, o.nome, d.id, d.nome, c.valor, c.descricao, c.status, c.tipoPagamento,
+                c.numeroCartao, c.createdAt, c.paidAt, c.cancelledAt, c.expiredAt)
+            from Cobranca c
+            join c.originador o
+            join c.destinatario d
+            where d.id = :usuarioId
+              and c.status in :status
+            order by c.createdAt desc, c.id desc
+            """)
+    Slice<CobrancaResponse> findRecebidas(@Param("usuarioId") Long usuarioId,
+                                          @Param("status") Collection<CobrancaStatus> status,
+                                          Pageable pagina);
+
+    /**
+     * Páginas seguintes das cobranças recebidas, pelo índice (destinatario_id, created_at, id). Ver
+     * {@link #findEnviadasApos}.
+     */
+    @Query("""
+            select new com.thuler.gateway.dto.response.CobrancaResponse(
+                c.id, o.id, o.nome, d.id, d.nome, c.valor, c.descricao, c.status, c.tipoPagamento,
+                c.numeroCartao, c.createdAt, c.paidAt, c.cancelledAt, c.expiredAt)
+            from Cobranca c
+            join c.originador o
+            join c.destinatario d
+            where d.id = :usuarioId
+              and c.status in :status
+              and (c.createdAt, c.id) < (:createdAt, :id)
+            order by c.createdAt desc, c.id desc
+            """)
+    Slice<CobrancaResponse> findRecebidasApos(@Param("usuarioId") Long usuarioId,
+                                              @Param("status") Collection<CobrancaStatus> status,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Pageable pagina);
+
+    /**
+     * Todas as cobranças enviadas, da mais antiga para a mais recente, para exportação. O {@link Stream} lê por
+     * cursor, {@value #TAMANHO_FETCH_EXPORTACAO} linhas por ida ao banco, e precisa ser consumido e fechado dentro
+     * de uma transação. A ordem percorre o índice (originador_id, created_at, id) sem ordenar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANHO_FETCH_EXPORTACAO))
+    @Query("""
+            select new com.thuler.gateway.dto.response.CobrancaResponse(
+                c.id, o.id, o.nome, d.id, d.nome, c.valor, c.descricao, c.status, c.tipoPagamento,
+                c.numeroCartao, c.createdAt, c.paidAt, c.cancelledAt, c.expiredAt)
+            from Cobranca c
+            join c.originador o
+            join c.destinatario d
+            where o.id = :usuarioId
+              and c.status in :status
+            order by c.createdAt, c.id
+            """)
+    Stream<CobrancaResponse> exportarEnviadas(@Param("usuarioId") Long usuarioId,
+                                              @Param("status") Collection<CobrancaStatus> status);
+
+    /**
+     * Todas as cobranças recebidas, pelo índice (destinatario_id, created_at, id). Ver {@link #exportarEnviadas}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANHO_FETCH_EXPORTACAO))
+    @Query("""
+            select new com.thuler.gateway.dto.response.CobrancaResponse(
+                c.id, o.id, o.nome, d.id, d.nome, c.valor, c.descricao, c.status, c.tipoPagamento,
+                c.numeroCartao, c.createdAt, c.paidAt, c.cancelledAt, c.expiredAt)
+            from Cobranca c
+            join c.originador o
+            join c.destinatario d
+            where d.id = :usuarioId
+              and c.status in :status
+            order by c.createdAt, c.id
+            """)
+    Stream<CobrancaResponse> exportarRecebidas(@Param("usuarioId") Long usuarioId,
+                                               @Param("status") Collection<CobrancaStatus> status);
+
+    /**
+     * Cobranças com originador e destinatário em uma única consulta. Carregadas só para leitura: alterações
+     * em memória não são gravadas no flush.
+     */
+    @EntityGraph(Cobranca.COM_USUARIOS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select c from Cobranca c where c.id in :ids")
+    List<Cobranca> findComUsuariosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Marca como pagas, com um único UPDATE, cobranças já validadas. Só altera as que continuam pendentes e
+     * incrementa a versão, como o UPDATE de uma entidade {@code @Version}.
+     *
+     * @return quantas cobranças foram alteradas; menos que o informado indica que outra transação chegou antes
+     */
+    @Modifying
+    @Query("""
+            update Cobranca c
+            set c.status = :paga,
+                c.versao = c.versao + 1,
+                c.tipoPagamento = :tipoPagamento,
+                c.autorizadorResponse = :autorizadorResponse,
+                c.paidAt = :pagoEm,
+                c.updatedAt = :pagoEm
+            where c.id in :ids
+              and c.status = :pendente
+            """)
+    int marcarComoPagas(@Param("ids") Collection<Long> ids,
+                        @Param("tipoPagamento") TipoPagamento tipoPagamento,
+                        @Param("autorizadorResponse") String autorizadorResponse,
+                        @Param("pagoEm") LocalDateTime pagoEm,
+                        @Param("paga") CobrancaStatus paga,
+                        @Param("pendente") CobrancaStatus pendente);
+
+    /**
+     * Expira, com um único UPDATE, até {@code limite} cobranças pendentes criadas antes de
+     * {@code criadasAntesDe}. {@code SKIP LOCKED} pula as linhas que outra instância está expirando ou que um
+     * pagamento está gravando; elas ficam para o próximo bloco. A versão é incrementada: um pagamento que leu a
+     * cobrança ainda pendente perde no {@code @Version}. A ordem segue o índice parcial das pendentes.
+     *
+     * @return quantas cobranças foram expiradas
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE cobrancas
+            SET status = 'EXPIRADA',
+                versao = versao + 1,
+                expired_at = :agora,
+                updated_at = :agora
+            WHERE id IN (
+                SELECT id FROM cobrancas
+                WHERE status = 'PENDENTE'
+                  AND created_at < :criadasAntesDe
+                ORDER BY created_at, id
+                LIMIT :limite
+                FOR UPDATE SKIP LOCKED
+            )
+            """, nativeQuery = true)
+    int expirarPendentes(@Param("criadasAntesDe") LocalDateTime criadasAntesDe,
+                         @Param("agora") LocalDateTime agora,
+                         @Param("limite") int limite);
+}
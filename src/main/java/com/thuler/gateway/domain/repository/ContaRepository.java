@@ -2,12 +2,148 @@ package com.thuler.gateway.domain.repository;
 
 import com.thuler.gateway.domain.model.Conta;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ContaRepository extends JpaRepository<Conta, Long> {
 
     Optional<Conta> findByUsuarioId(Long usuarioId);
+
+    @Query("select c.id from Conta c where c.usuario.id = :usuarioId")
+    Optional<Long> findIdByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    @Query("select c.usuario.id as usuarioId, c.id as contaId from Conta c where c.usuario.id in :usuarioIds")
+    List<ContaDoUsuario> findIdsByUsuarioIds(@Param("usuarioIds") Collection<Long> usuarioIds);
+
+    /**
+     * Contas do pagador e do recebedor de uma cobrança pendente endereçada ao pagador, em uma única consulta.
+     */
+    @Query(value = """
+            SELECT p.id AS contaPagadorId, r.id AS contaRecebedorId
+            FROM cobrancas c
+            JOIN conta p ON p.usuario_id = c.destinatario_id
+            JOIN conta r ON r.usuario_id = c.originador_id
+            WHERE c.id = :cobrancaId
+              AND c.destinatario_id = :pagadorId
+              AND c.status = 'PENDENTE'
+            """, nativeQuery = true)
+    Optional<ContasDoPagamento> findContasDoPagamento(@Param("cobrancaId") Long cobrancaId,
+                                                      @Param("pagadorId") Long pagadorId);
+
+    /**
+     * Saldo atual: saldo do último snapshot mais os lançamentos posteriores, lidos no mesmo comando.
+     */
+    @Query(value = """
+            SELECT c.saldo + COALESCE((
+                SELECT SUM(l.valor)
+                FROM lancamentos l
+                WHERE l.conta_id = c.id
+                  AND l.id > c.ultimo_lancamento_id
+            ), 0)
+            FROM conta c
+            WHERE c.id = :contaId
+            """, nativeQuery = true)
+    BigDecimal calcularSaldo(@Param("contaId") Long contaId);
+
+    /**
+     * Trava exclusiva entre débitos e snapshot, mas compatível com {@link #travarParaCredito}:
+     * créditos simultâneos não esperam pelo débito.
+     */
+    @Query(value = "SELECT id FROM conta WHERE id = :contaId FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<Long> travarParaDebito(@Param("contaId") Long contaId);
+
+    /**
+     * Trava compartilhada: vários créditos na mesma conta seguem em paralelo. Vazio também quando a conta usa
+     * faixas; aí o crédito trava uma faixa com {@link #travarFaixaParaCredito}.
+     */
+    @Query(value = "SELECT id FROM conta WHERE id = :contaId AND faixas IS NULL FOR KEY SHARE", nativeQuery = true)
+    Optional<Long> travarParaCredito(@Param("contaId") Long contaId);
+
+    /**
+     * Trava compartilhada da faixa {@code sorteio mod faixas}: os créditos de uma conta muito procurada se
+     * espalham por várias linhas em vez de disputar a da conta.
+     */
+    @Query(value = """
+            SELECT f.indice
+            FROM conta_faixas f
+            JOIN conta c ON c.id = f.conta_id
+            WHERE f.conta_id = :contaId
+              AND f.indice = mod(:sorteio, c.faixas)
+            FOR KEY SHARE OF f
+            """, nativeQuery = true)
+    Optional<Integer> travarFaixaParaCredito(@Param("contaId") Long contaId, @Param("sorteio") int sorteio);
+
+    /**
+     * Trava compartilhada de várias contas, em ordem crescente de id, para lançar movimentações já decididas
+     * (engine de contas): só precisa impedir que um snapshot corra junto.
+     */
+    @Query(value = "SELECT id FROM conta WHERE id IN (:contaIds) ORDER BY id FOR KEY SHARE", nativeQuery = true)
+    List<Long> travarParaLancamentos(@Param("contaIds") Collection<Long> contaIds);
+
+    /**
+     * Trava exclusiva contra débitos e créditos: espera os lançamentos em andamento serem commitados.
+     */
+    @Query(value = "SELECT id FROM conta WHERE id = :contaId FOR UPDATE", nativeQuery = true)
+    Optional<Long> travarParaSnapshot(@Param("contaId") Long contaId);
+
+    /**
+     * Trava exclusiva de todas as faixas da conta, em ordem de índice: espera os créditos feitos por faixa.
+     */
+    @Query(value = "SELECT indice FROM conta_faixas WHERE conta_id = :contaId ORDER BY indice FOR UPDATE",
+            nativeQuery = true)
+    List<Integer> travarFaixasParaSnapshot(@Param("contaId") Long contaId);
+
+    /**
+     * Cria as faixas {@code 0..quantidade-1} que ainda não existem.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO conta_faixas (conta_id, indice)
+            SELECT :contaId, indice FROM generate_series(0, :quantidade - 1) AS indice
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int criarFaixas(@Param("contaId") Long contaId, @Param("quantidade") int quantidade);
+
+    // Só a coluna de faixas: saldo e ultimo_lancamento_id são do snapshot
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE conta SET faixas = :faixas, updated_at = now() WHERE id = :contaId", nativeQuery = true)
+    int definirFaixas(@Param("contaId") Long contaId, @Param("faixas") int faixas);
+
+    /**
+     * Define o lock_timeout apenas para a transação corrente ({@code is_local = true}).
+     */
+    @Query(value = "SELECT set_config('lock_timeout', :timeout, true)", nativeQuery = true)
+    String definirLockTimeout(@Param("timeout") String timeout);
+
+    @Query(value = """
+            SELECT c.id
+            FROM conta c
+            WHERE (
+                SELECT COUNT(*)
+                FROM lancamentos l
+                WHERE l.conta_id = c.id
+                  AND l.id > c.ultimo_lancamento_id
+            ) >= :minimoLancamentos
+            """, nativeQuery = true)
+    List<Long> findIdsParaSnapshot(@Param("minimoLancamentos") long minimoLancamentos);
+
+    interface ContaDoUsuario {
+        Long getUsuarioId();
+
+        Long getContaId();
+    }
+
+    interface ContasDoPagamento {
+        Long getContaPagadorId();
+
+        Long getContaRecebedorId();
+    }
 }
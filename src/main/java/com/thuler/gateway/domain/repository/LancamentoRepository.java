@@ -0,0 +1,97 @@
+package com.thuler.gateway.domain.repository;
+
+import com.thuler.gateway.domain.model.Lancamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
+
+    List<Lancamento> findByContaIdOrderByIdAsc(Long contaId);
+
+    /**
+     * Grava os dois lados de uma transferência em um único INSERT.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO lancamentos (conta_id, tipo, valor, cobranca_id, created_at)
+            VALUES (:contaOrigemId, :tipoDebito, -(:valor), :cobrancaId, now()),
+                   (:contaDestinoId, :tipoCredito, :valor, :cobrancaId, now())
+            """, nativeQuery = true)
+    int registrarTransferencia(@Param("contaOrigemId") Long contaOrigemId,
+                               @Param("contaDestinoId") Long contaDestinoId,
+                               @Param("valor") BigDecimal valor,
+                               @Param("tipoDebito") String tipoDebito,
+                               @Param("tipoCredito") String tipoCredito,
+                               @Param("cobrancaId") Long cobrancaId);
+
+    /**
+     * Paga a cobrança com saldo em um único comando: marca a cobrança como paga e grava o débito do pagador e o
+     * crédito do recebedor, só se ela ainda estiver pendente para o pagador e o saldo dele cobrir o valor.
+     * As contas já devem estar travadas: o saldo é lido no snapshot do comando, que começa depois das travas.
+     *
+     * @return 2 (os dois lançamentos) se pagou, 0 se alguma condição falhou; nesse caso nada é alterado
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            WITH paga AS (
+                UPDATE cobrancas c
+                SET status = 'PAGA',
+                    tipo_pagamento = 'SALDO',
+                    autorizador_response = 'PAGAMENTO_SALDO',
+                    paid_at = now(),
+                    updated_at = now(),
+                    versao = c.versao + 1
+                WHERE c.id = :cobrancaId
+                  AND c.destinatario_id = :pagadorId
+                  AND c.status = 'PENDENTE'
+                  AND (
+                      SELECT p.saldo + COALESCE((
+                          SELECT SUM(l.valor)
+                          FROM lancamentos l
+                          WHERE l.conta_id = p.id
+                            AND l.id > p.ultimo_lancamento_id
+                      ), 0)
+                      FROM conta p
+                      WHERE p.id = :contaPagadorId
+                  ) >= c.valor
+                RETURNING c.id, c.valor
+            )
+            INSERT INTO lancamentos (conta_id, tipo, valor, cobranca_id, created_at)
+            SELECT :contaPagadorId, 'PAGAMENTO_ENVIADO', -paga.valor, paga.id, now() FROM paga
+            UNION ALL
+            SELECT :contaRecebedorId, 'PAGAMENTO_RECEBIDO', paga.valor, paga.id, now() FROM paga
+            """, nativeQuery = true)
+    int pagarCobrancaComSaldo(@Param("cobrancaId") Long cobrancaId,
+                              @Param("pagadorId") Long pagadorId,
+                              @Param("contaPagadorId") Long contaPagadorId,
+                              @Param("contaRecebedorId") Long contaRecebedorId);
+
+    /**
+     * Soma, último id e quantidade dos lançamentos da conta posteriores ao último snapshot.
+     */
+    @Query(value = """
+            SELECT COALESCE(SUM(l.valor), 0) AS total,
+                   COALESCE(MAX(l.id), :ultimoLancamentoId) AS ultimoId,
+                   COUNT(*) AS quantidade
+            FROM lancamentos l
+            WHERE l.conta_id = :contaId
+              AND l.id > :ultimoLancamentoId
+            """, nativeQuery = true)
+    ResumoLancamentos resumirDesde(@Param("contaId") Long contaId,
+                                   @Param("ultimoLancamentoId") Long ultimoLancamentoId);
+
+    interface ResumoLancamentos {
+        BigDecimal getTotal();
+
+        Long getUltimoId();
+
+        Long getQuantidade();
+    }
+}
@@ -0,0 +1,22 @@
+package com.thuler.gateway.domain.repository;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LancamentoRepositoryCustom {
+
+    /**
+     * Grava os lançamentos com um único batch JDBC. O id IDENTITY impede o Hibernate de agrupar os INSERTs.
+     */
+    void registrarEmLote(List<NovoLancamento> lancamentos);
+
+    /**
+     * @param valor com sinal: negativo para débitos
+     */
+    record NovoLancamento(Long contaId, TipoLancamento tipo, BigDecimal valor, Long cobrancaId,
+                          LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.thuler.gateway.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+class LancamentoRepositoryCustomImpl implements LancamentoRepositoryCustom {
+
+    private static final String INSERIR = """
+            INSERT INTO lancamentos (conta_id, tipo, valor, cobranca_id, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final int[] TIPOS = {Types.BIGINT, Types.VARCHAR, Types.NUMERIC, Types.BIGINT, Types.TIMESTAMP};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void registrarEmLote(List<NovoLancamento> lancamentos) {
+        if (lancamentos.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> linhas = lancamentos.stream()
+                .map(lancamento -> new Object[]{
+                        lancamento.contaId(),
+                        lancamento.tipo().name(),
+                        lancamento.valor(),
+                        lancamento.cobrancaId(),
+                        Timestamp.valueOf(lancamento.createdAt())})
+                .toList();
+
+        jdbcTemplate.batchUpdate(INSERIR, linhas, TIPOS);
+    }
+}
@@ -0,0 +1,38 @@
+package com.thuler.gateway.domain.repository;
+
+import com.thuler.gateway.domain.model.LiquidacaoCartao;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LiquidacaoCartaoRepository extends JpaRepository<LiquidacaoCartao, Long> {
+
+    /**
+     * Reserva as liquidações pendentes mais antigas. {@code SKIP LOCKED} pula as que outra instância já
+     * reservou, e as que um cancelamento está avaliando. Alteradas na mesma transação, são gravadas no flush
+     * em batches de {@code hibernate.jdbc.batch_size}.
+     */
+    @Query(value = """
+            SELECT * FROM liquidacoes_cartao
+            WHERE status = 'PENDENTE'
+            ORDER BY id
+            LIMIT :limite
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<LiquidacaoCartao> reservarPendentes(@Param("limite") int limite);
+
+    /**
+     * Trava a liquidação da cobrança com {@code FOR UPDATE}: se o liquidante estiver com ela, espera o commit
+     * e enxerga o novo status.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from LiquidacaoCartao l where l.cobranca.id = :cobrancaId")
+    Optional<LiquidacaoCartao> travarPorCobrancaId(@Param("cobrancaId") Long cobrancaId);
+}
@@ -0,0 +1,9 @@
+package com.thuler.gateway.domain.repository;
+
+import com.thuler.gateway.domain.model.LoteCobranca;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoteCobrancaRepository extends JpaRepository<LoteCobranca, Long> {
+}
@@ -0,0 +1,22 @@
+package com.thuler.gateway.domain.repository;
+
+import com.thuler.gateway.domain.model.PosicaoJournal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PosicaoJournalRepository extends JpaRepository<PosicaoJournal, Integer> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO engine_journal_posicoes (particao, ultima_sequencia, updated_at)
+            VALUES (:particao, :ultimaSequencia, now())
+            ON CONFLICT (particao) DO UPDATE
+            SET ultima_sequencia = EXCLUDED.ultima_sequencia,
+                updated_at = now()
+            """, nativeQuery = true)
+    int registrar(@Param("particao") int particao, @Param("ultimaSequencia") long ultimaSequencia);
+}
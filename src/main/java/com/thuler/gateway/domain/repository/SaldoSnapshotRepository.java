@@ -0,0 +1,13 @@
+package com.thuler.gateway.domain.repository;
+
+import com.thuler.gateway.domain.model.SaldoSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SaldoSnapshotRepository extends JpaRepository<SaldoSnapshot, Long> {
+
+    List<SaldoSnapshot> findByContaIdOrderByIdDesc(Long contaId);
+}
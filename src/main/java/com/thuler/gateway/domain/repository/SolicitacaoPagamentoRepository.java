@@ -0,0 +1,61 @@
+package com.thuler.gateway.domain.repository;
+
+import com.thuler.gateway.domain.enums.StatusSolicitacaoPagamento;
+import com.thuler.gateway.domain.model.SolicitacaoPagamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SolicitacaoPagamentoRepository extends JpaRepository<SolicitacaoPagamento, Long> {
+
+    Optional<SolicitacaoPagamento> findFirstByCobrancaIdOrderByIdDesc(Long cobrancaId);
+
+    boolean existsByCobrancaIdAndStatus(Long cobrancaId, StatusSolicitacaoPagamento status);
+
+    /**
+     * Assume a solicitação antes de chamar o autorizador. Feito num único UPDATE, não corre com a expiração:
+     * uma solicitação já expirada não é iniciada e uma iniciada deixa de ser expirada.
+     *
+     * @return 1 se iniciada, 0 se já foi concluída ou expirada
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE solicitacoes_pagamento
+            SET iniciada_em = :agora,
+                updated_at = :agora
+            WHERE id = :id
+              AND status = 'PROCESSANDO'
+              AND iniciada_em IS NULL
+            """, nativeQuery = true)
+    int iniciar(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Marca como FALHOU as solicitações em processamento que não foram iniciadas até o limite (ex.: perdidas
+     * num reinício com a fila cheia) ou que foram iniciadas antes dele (processo encerrado no meio do pagamento),
+     * liberando a cobrança para uma nova solicitação. Uma solicitação iniciada depois do limite ainda está com a
+     * tarefa rodando e não é tocada.
+     *
+     * @return quantidade de solicitações marcadas
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE solicitacoes_pagamento
+            SET status = 'FALHOU',
+                mensagem = :motivo,
+                concluida_em = :agora,
+                updated_at = :agora
+            WHERE status = 'PROCESSANDO'
+              AND COALESCE(iniciada_em, created_at) < :limite
+            """, nativeQuery = true)
+    int falharProcessandoAntesDe(@Param("limite") LocalDateTime limite,
+                                 @Param("agora") LocalDateTime agora,
+                                 @Param("motivo") String motivo);
+}
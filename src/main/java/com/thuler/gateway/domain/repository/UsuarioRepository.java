@@ -3,8 +3,12 @@ package com.thuler.gateway.domain.repository;
 import com.thuler.gateway.domain.model.Usuario;
 import com.thuler.gateway.domain.valueobject.CPF;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +21,19 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     boolean existsByCpf(CPF cpf);
 
     boolean existsByEmail(String email);
+
+    @Query("select u.active from Usuario u where u.id = :id")
+    Optional<Boolean> findActiveById(@Param("id") Long id);
+
+    /**
+     * Resolve vários CPFs (sem formatação) com uma única consulta, sem carregar os usuários.
+     */
+    @Query("select u.id as id, u.cpf.numero as cpf from Usuario u where u.cpf.numero in :cpfs")
+    List<UsuarioPorCpf> findIdsByCpfIn(@Param("cpfs") Collection<String> cpfs);
+
+    interface UsuarioPorCpf {
+        Long getId();
+
+        String getCpf();
+    }
 }
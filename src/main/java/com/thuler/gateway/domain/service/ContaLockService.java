@@ -0,0 +1,141 @@
+package com.thuler.gateway.domain.service;
+
+import com.thuler.gateway.domain.repository.ContaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ponto único para travar contas antes de lançar movimentações.
+ * <p>
+ * Cada conta é travada no modo do papel que tem na operação:
+ * <ul>
+ *     <li>débito: {@code FOR NO KEY UPDATE}, um débito por vez, para o saldo conferido valer até o commit;</li>
+ *     <li>crédito: {@code FOR KEY SHARE}, que não bloqueia outros créditos nem débitos. Em contas com faixas
+ *     a trava é de uma faixa sorteada, e os créditos deixam de disputar a linha da conta;</li>
+ *     <li>snapshot: {@code FOR UPDATE} na conta e em todas as faixas, que espera todos os lançamentos em
+ *     andamento na conta.</li>
+ * </ul>
+ * Travar antes do INSERT do lançamento garante que todo id gerado depois do snapshot seja maior que o
+ * último id incluído nele.
+ * <p>
+ * Quando a operação envolve duas contas, elas são travadas em ordem crescente de id, qualquer que seja o papel
+ * de cada uma. Assim fluxos opostos entre os mesmos usuários (pagamento de A para B e estorno de B para A)
+ * esperam um pelo outro em vez de entrar em deadlock. A espera é limitada por {@code conta.lock-timeout};
+ * estourado o limite o Postgres aborta o comando e a requisição recebe 409.
+ * <p>
+ * A cobrança não é travada: ela é gravada por último, depois das contas, com controle otimista
+ * (ver {@link RetentativaOtimista}). Liquidações de cartão, quando envolvidas, são travadas antes das contas,
+ * tanto pelo liquidante quanto pelo cancelamento.
+ */
+@Service
+@Slf4j
+public class ContaLockService {
+
+    private final ContaRepository contaRepository;
+    private final String lockTimeout;
+
+    public ContaLockService(ContaRepository contaRepository,
+                            @Value("${conta.lock-timeout:2s}") Duration lockTimeout) {
+        this.contaRepository = contaRepository;
+        this.lockTimeout = lockTimeout.toMillis() + "ms";
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void travarParaDebito(Long contaId) {
+        aplicarLockTimeout();
+        debito(contaId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void travarParaCredito(Long contaId) {
+        aplicarLockTimeout();
+        credito(contaId);
+    }
+
+    /**
+     * Trava a conta de origem para débito e a de destino para crédito, em ordem crescente de id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void travarParaTransferencia(Long contaOrigemId, Long contaDestinoId) {
+        aplicarLockTimeout();
+
+        if (contaOrigemId < contaDestinoId) {
+            debito(contaOrigemId);
+            credito(contaDestinoId);
+        } else {
+            credito(contaDestinoId);
+            debito(contaOrigemId);
+        }
+    }
+
+    /**
+     * Trava a conta de origem para débito e cada conta de destino, uma única vez, para crédito; todas em ordem
+     * crescente de id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void travarParaLote(Long contaOrigemId, Collection<Long> contasDestinoIds) {
+        aplicarLockTimeout();
+
+        TreeSet<Long> contas = new TreeSet<>(contasDestinoIds);
+        contas.add(contaOrigemId);
+
+        for (Long contaId : contas) {
+            if (contaId.equals(contaOrigemId)) {
+                debito(contaId);
+            } else {
+                credito(contaId);
+            }
+        }
+    }
+
+    /**
+     * Trava várias contas para crédito, em ordem crescente de id, com um único comando. Usa sempre a linha da
+     * conta, mesmo com faixas: o snapshot também trava a conta, então continua esperando esses lançamentos.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void travarParaCreditos(Collection<Long> contaIds) {
+        aplicarLockTimeout();
+        contaRepository.travarParaLancamentos(contaIds);
+        log.debug("Contas IDs: {} travadas para crédito", contaIds);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void travarParaSnapshot(Long contaId) {
+        aplicarLockTimeout();
+        contaRepository.travarParaSnapshot(contaId)
+                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada"));
+        contaRepository.travarFaixasParaSnapshot(contaId);
+    }
+
+    // Limita a espera por travas na transação corrente
+    private void aplicarLockTimeout() {
+        contaRepository.definirLockTimeout(lockTimeout);
+    }
+
+    private void debito(Long contaId) {
+        contaRepository.travarParaDebito(contaId)
+                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada"));
+        log.debug("Conta ID: {} travada para débito", contaId);
+    }
+
+    private void credito(Long contaId) {
+        if (contaRepository.travarParaCredito(contaId).isPresent()) {
+            log.debug("Conta ID: {} travada para crédito", contaId);
+            return;
+        }
+
+        // Conta com faixas (ou inexistente): trava uma faixa sorteada
+        int sorteio = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        int faixa = contaRepository.travarFaixaParaCredito(contaId, sorteio)
+                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada"));
+        log.debug("Conta ID: {} travada para crédito na faixa {}", contaId, faixa);
+    }
+}
@@ -0,0 +1,278 @@
+package com.thuler.gateway.domain.service;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.Lancamento;
+import com.thuler.gateway.domain.model.SaldoSnapshot;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository.ResumoLancamentos;
+import com.thuler.gateway.domain.repository.LancamentoRepositoryCustom.NovoLancamento;
+import com.thuler.gateway.domain.repository.SaldoSnapshotRepository;
+import com.thuler.gateway.infrastructure.engine.ContaEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Livro de lançamentos: toda movimentação de saldo vira um INSERT em {@code lancamentos}, e o saldo
+ * é o último snapshot mais os lançamentos seguintes.
+ * <p>
+ * Créditos não disputam a linha da conta entre si. Débitos são serializados por conta para que o saldo
+ * conferido continue valendo até o commit.
+ * <p>
+ * Com {@code conta.engine.habilitado=true}, saldo e movimentações passam pela {@link ContaEngine}, que decide
+ * em memória e grava os lançamentos depois, em lote.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LancamentoService {
+
+    private final ContaRepository contaRepository;
+    private final LancamentoRepository lancamentoRepository;
+    private final SaldoSnapshotRepository saldoSnapshotRepository;
+    private final ContaLockService contaLockService;
+
+    @Autowired(required = false)
+    private ContaEngine contaEngine;
+
+    /**
+     * Com a engine o saldo fica em memória, então a movimentação não pode ser conferida e gravada no mesmo
+     * comando SQL que altera outras tabelas.
+     */
+    public boolean usaEngine() {
+        return contaEngine != null;
+    }
+
+    public BigDecimal saldo(Long contaId) {
+        if (contaEngine != null) {
+            return contaEngine.saldo(contaId);
+        }
+        return contaRepository.calcularSaldo(contaId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void creditar(Long contaId, BigDecimal valor, TipoLancamento tipo, Cobranca cobranca) {
+        validarValor(valor);
+        if (contaEngine != null) {
+            contaEngine.creditar(contaId, valor, tipo, idDa(cobranca));
+            return;
+        }
+        contaLockService.travarParaCredito(contaId);
+        registrar(contaId, valor, tipo, cobranca);
+    }
+
+    /**
+     * Credita várias contas de uma vez: cada conta é travada uma única vez e todos os lançamentos são gravados
+     * em um único batch, um por cobrança.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void creditarEmLote(List<Transferencia> creditos, TipoLancamento tipo) {
+        creditos.forEach(credito -> validarValor(credito.valor()));
+        if (creditos.isEmpty()) {
+            return;
+        }
+
+        if (contaEngine != null) {
+            creditos.forEach(credito ->
+                    contaEngine.creditar(credito.contaDestinoId(), credito.valor(), tipo, credito.cobrancaId()));
+            return;
+        }
+
+        contaLockService.travarParaCreditos(
+                creditos.stream().map(Transferencia::contaDestinoId).collect(Collectors.toSet()));
+
+        LocalDateTime agora = LocalDateTime.now();
+        lancamentoRepository.registrarEmLote(creditos.stream()
+                .map(credito -> new NovoLancamento(credito.contaDestinoId(), tipo, credito.valor(),
+                        credito.cobrancaId(), agora))
+                .toList());
+    }
+
+    /**
+     * @return false, sem lançar nada, se o saldo não cobrir o débito
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean debitar(Long contaId, BigDecimal valor, TipoLancamento tipo, Cobranca cobranca) {
+        validarValor(valor);
+        if (contaEngine != null) {
+            return contaEngine.debitar(contaId, valor, tipo, idDa(cobranca));
+        }
+        contaLockService.travarParaDebito(contaId);
+
+        if (!temSaldoSuficiente(contaId, valor)) {
+            return false;
+        }
+
+        registrar(contaId, valor.negate(), tipo, cobranca);
+        return true;
+    }
+
+    /**
+     * Debita a origem e credita o destino com um único INSERT.
+     *
+     * @return false, sem lançar nada, se o saldo da origem não cobrir o valor
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean transferir(Long contaOrigemId, Long contaDestinoId, BigDecimal valor,
+                              TipoLancamento tipoDebito, TipoLancamento tipoCredito, Cobranca cobranca) {
+        validarValor(valor);
+        if (contaEngine != null) {
+            return contaEngine.transferir(contaOrigemId, contaDestinoId, valor, tipoDebito, tipoCredito,
+                    idDa(cobranca));
+        }
+        contaLockService.travarParaTransferencia(contaOrigemId, contaDestinoId);
+
+        if (!temSaldoSuficiente(contaOrigemId, valor)) {
+            return false;
+        }
+
+        lancamentoRepository.registrarTransferencia(contaOrigemId, contaDestinoId, valor,
+                tipoDebito.name(), tipoCredito.name(), idDa(cobranca));
+        return true;
+    }
+
+    /**
+     * Paga a cobrança com saldo sem a engine: trava as contas e, em um único comando, marca a cobrança como paga
+     * e grava o débito e o crédito, se ela ainda estiver pendente e o saldo cobrir o valor.
+     *
+     * @return false, sem alterar nada, se alguma condição falhou
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean pagarCobranca(Long contaPagadorId, Long contaRecebedorId, Long cobrancaId, Long pagadorId) {
+        if (contaEngine != null) {
+            throw new IllegalStateException("Pagamento em um único comando indisponível com a engine de contas");
+        }
+        contaLockService.travarParaTransferencia(contaPagadorId, contaRecebedorId);
+
+        return lancamentoRepository.pagarCobrancaComSaldo(cobrancaId, pagadorId, contaPagadorId,
+                contaRecebedorId) > 0;
+    }
+
+    /**
+     * Transfere da mesma origem para vários destinos: cada conta é travada uma vez, o saldo é lido uma vez e
+     * todos os lançamentos são gravados em um único batch. As transferências são avaliadas na ordem recebida;
+     * a que o saldo restante não cobrir é pulada.
+     *
+     * @return as transferências realizadas
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Transferencia> transferirEmLote(Long contaOrigemId, List<Transferencia> transferencias,
+                                                TipoLancamento tipoDebito, TipoLancamento tipoCredito) {
+        transferencias.forEach(transferencia -> validarValor(transferencia.valor()));
+        if (transferencias.isEmpty()) {
+            return List.of();
+        }
+
+        if (contaEngine != null) {
+            List<Boolean> resultados = contaEngine.transferirEmLote(contaOrigemId, transferencias,
+                    tipoDebito, tipoCredito);
+            return IntStream.range(0, transferencias.size())
+                    .filter(resultados::get)
+                    .mapToObj(transferencias::get)
+                    .toList();
+        }
+
+        contaLockService.travarParaLote(contaOrigemId,
+                transferencias.stream().map(Transferencia::contaDestinoId).collect(Collectors.toSet()));
+
+        BigDecimal disponivel = contaRepository.calcularSaldo(contaOrigemId);
+        LocalDateTime agora = LocalDateTime.now();
+        List<Transferencia> realizadas = new ArrayList<>();
+        List<NovoLancamento> lancamentos = new ArrayList<>(transferencias.size() * 2);
+
+        for (Transferencia transferencia : transferencias) {
+            if (disponivel.compareTo(transferencia.valor()) < 0) {
+                log.warn("Saldo insuficiente na conta ID: {} para a cobrança ID: {}. Disponível: R$ {}, Valor: R$ {}",
+                        contaOrigemId, transferencia.cobrancaId(), disponivel, transferencia.valor());
+                continue;
+            }
+
+            disponivel = disponivel.subtract(transferencia.valor());
+            realizadas.add(transferencia);
+            lancamentos.add(new NovoLancamento(contaOrigemId, tipoDebito, transferencia.valor().negate(),
+                    transferencia.cobrancaId(), agora));
+            lancamentos.add(new NovoLancamento(transferencia.contaDestinoId(), tipoCredito, transferencia.valor(),
+                    transferencia.cobrancaId(), agora));
+        }
+
+        lancamentoRepository.registrarEmLote(lancamentos);
+        return realizadas;
+    }
+
+    /**
+     * Incorpora ao saldo da conta os lançamentos desde o último snapshot e registra o novo snapshot.
+     *
+     * @return o snapshot gerado, ou vazio se não havia lançamentos novos
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<SaldoSnapshot> gerarSnapshot(Long contaId) {
+        contaLockService.travarParaSnapshot(contaId);
+
+        Conta conta = contaRepository.findById(contaId)
+                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada"));
+
+        ResumoLancamentos resumo = lancamentoRepository.resumirDesde(contaId, conta.getUltimoLancamentoId());
+        if (resumo.getQuantidade() == 0) {
+            return Optional.empty();
+        }
+
+        conta.aplicarSnapshot(conta.getSaldo().add(resumo.getTotal()), resumo.getUltimoId());
+        contaRepository.save(conta);
+
+        SaldoSnapshot snapshot = saldoSnapshotRepository.save(SaldoSnapshot.builder()
+                .conta(conta)
+                .saldo(conta.getSaldo())
+                .ultimoLancamentoId(resumo.getUltimoId())
+                .lancamentos(resumo.getQuantidade())
+                .build());
+
+        log.debug("Snapshot de saldo da conta ID: {} gerado com {} lançamentos. Saldo: R$ {}",
+                contaId, resumo.getQuantidade(), conta.getSaldo());
+
+        return Optional.of(snapshot);
+    }
+
+    // Chamado com a conta travada para débito: o saldo lido só muda com créditos, que só aumentam
+    private boolean temSaldoSuficiente(Long contaId, BigDecimal valor) {
+        BigDecimal saldo = contaRepository.calcularSaldo(contaId);
+
+        if (saldo.compareTo(valor) < 0) {
+            log.warn("Saldo insuficiente na conta ID: {}. Saldo: R$ {}, Valor: R$ {}", contaId, saldo, valor);
+            return false;
+        }
+        return true;
+    }
+
+    private void registrar(Long contaId, BigDecimal valor, TipoLancamento tipo, Cobranca cobranca) {
+        lancamentoRepository.save(Lancamento.builder()
+                .conta(contaRepository.getReferenceById(contaId))
+                .tipo(tipo)
+                .valor(valor)
+                .cobranca(cobranca)
+                .build());
+    }
+
+    private Long idDa(Cobranca cobranca) {
+        return cobranca != null ? cobranca.getId() : null;
+    }
+
+    private void validarValor(BigDecimal valor) {
+        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor do lançamento deve ser positivo");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.thuler.gateway.domain.service;
+
+import com.thuler.gateway.infrastructure.web.RequestDeadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Executa uma alteração de cobrança em transação própria e a repete quando outra transação alterou a mesma
+ * cobrança antes do commit (conflito de {@code @Version}, ou UPDATE condicionado ao status que não encontrou
+ * a linha). Cada tentativa relê a cobrança; se o novo status não permitir mais a operação, a própria regra de
+ * negócio recusa com 409.
+ * <p>
+ * As tentativas são limitadas por {@code cobranca.concorrencia.tentativas} e pelo prazo da requisição;
+ * esgotadas, o conflito vira {@link IllegalStateException} (409).
+ */
+@Service
+@Slf4j
+public class RetentativaOtimista {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int tentativas;
+    private final Duration espera;
+
+    public RetentativaOtimista(TransactionTemplate transactionTemplate,
+                               @Value("${cobranca.concorrencia.tentativas:3}") int tentativas,
+                               @Value("${cobranca.concorrencia.espera:20ms}") Duration espera) {
+        this.transactionTemplate = transactionTemplate;
+        this.tentativas = tentativas;
+        this.espera = espera;
+    }
+
+    public <T> T executar(TransactionCallback<T> alteracao) {
+        // Dentro de uma transação já aberta o conflito a marca como rollback-only: repetir não adianta
+        int maximo = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : tentativas;
+
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(alteracao);
+            } catch (OptimisticLockingFailureException e) {
+                Duration pausa = pausa(tentativa);
+                if (tentativa >= maximo || !cabeNoPrazo(pausa)) {
+                    log.warn("Conflito de concorrência na cobrança persistiu após {} tentativa(s): {}",
+                            tentativa, e.getMessage());
+                    throw new IllegalStateException("Cobrança foi alterada por outra operação, tente novamente");
+                }
+
+                log.debug("Conflito de concorrência na cobrança, tentativa {} de {}", tentativa, maximo);
+                aguardar(pausa);
+            }
+        }
+    }
+
+    // Espera crescente com jitter, para que as transações em conflito não colidam de novo
+    private Duration pausa(int tentativa) {
+        long limite = espera.toMillis() * tentativa;
+        return Duration.ofMillis(limite <= 0 ? 0 : ThreadLocalRandom.current().nextLong(limite / 2, limite + 1));
+    }
+
+    private boolean cabeNoPrazo(Duration pausa) {
+        return RequestDeadline.restante().map(restante -> restante.compareTo(pausa) > 0).orElse(true);
+    }
+
+    private void aguardar(Duration pausa) {
+        try {
+            Thread.sleep(pausa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cobrança foi alterada por outra operação, tente novamente");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.thuler.gateway.domain.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Uma das transferências de um lote que sai da mesma conta de origem. Nos créditos em lote
+ * ({@link LancamentoService#creditarEmLote}) não há conta de origem.
+ */
+public record Transferencia(Long contaDestinoId, BigDecimal valor, Long cobrancaId) {
+}
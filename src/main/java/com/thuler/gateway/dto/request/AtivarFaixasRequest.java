@@ -0,0 +1,21 @@
+package com.thuler.gateway.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtivarFaixasRequest {
+
+    @NotNull(message = "Quantidade de faixas é obrigatória")
+    @Min(value = 2, message = "Quantidade de faixas deve ser no mínimo 2")
+    @Max(value = 64, message = "Quantidade de faixas deve ser no máximo 64")
+    private Integer quantidade;
+}
@@ -0,0 +1,25 @@
+package com.thuler.gateway.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CriarCobrancasLoteRequest {
+
+    public static final int MAXIMO_COBRANCAS = 10_000;
+
+    @NotEmpty(message = "Informe ao menos uma cobrança")
+    @Size(max = MAXIMO_COBRANCAS, message = "Máximo de " + MAXIMO_COBRANCAS + " cobranças por lote")
+    private List<@Valid @NotNull(message = "Cobrança é obrigatória") CriarCobrancaRequest> cobrancas;
+}
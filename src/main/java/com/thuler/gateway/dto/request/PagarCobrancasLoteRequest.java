@@ -0,0 +1,24 @@
+package com.thuler.gateway.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PagarCobrancasLoteRequest {
+
+    public static final int MAXIMO_COBRANCAS = 100;
+
+    @NotEmpty(message = "Informe ao menos uma cobrança")
+    @Size(max = MAXIMO_COBRANCAS, message = "Máximo de " + MAXIMO_COBRANCAS + " cobranças por lote")
+    private List<@NotNull(message = "ID da cobrança é obrigatório") Long> cobrancaIds;
+}
@@ -3,7 +3,6 @@ package com.thuler.gateway.dto.response;
 import com.thuler.gateway.domain.model.Cobranca;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
 import com.thuler.gateway.domain.enums.TipoPagamento;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,9 +11,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
 @NoArgsConstructor
-@AllArgsConstructor
 public class CobrancaResponse {
 
     private Long id;
@@ -30,6 +27,32 @@ public class CobrancaResponse {
     private LocalDateTime createdAt;
     private LocalDateTime paidAt;
     private LocalDateTime cancelledAt;
+    private LocalDateTime expiredAt;
+
+    /**
+     * Construtor das projeções das listagens e da exportação (ver CobrancaRepository): os parâmetros seguem a
+     * ordem do {@code select new}, independentemente da ordem dos campos.
+     */
+    @Builder
+    public CobrancaResponse(Long id, Long originadorId, String originadorNome, Long destinatarioId,
+                            String destinatarioNome, BigDecimal valor, String descricao, CobrancaStatus status,
+                            TipoPagamento tipoPagamento, String numeroCartao, LocalDateTime createdAt,
+                            LocalDateTime paidAt, LocalDateTime cancelledAt, LocalDateTime expiredAt) {
+        this.id = id;
+        this.originadorId = originadorId;
+        this.originadorNome = originadorNome;
+        this.destinatarioId = destinatarioId;
+        this.destinatarioNome = destinatarioNome;
+        this.valor = valor;
+        this.descricao = descricao;
+        this.status = status;
+        this.tipoPagamento = tipoPagamento;
+        this.numeroCartao = numeroCartao;
+        this.createdAt = createdAt;
+        this.paidAt = paidAt;
+        this.cancelledAt = cancelledAt;
+        this.expiredAt = expiredAt;
+    }
 
     public static CobrancaResponse fromEntity(Cobranca cobranca) {
         return CobrancaResponse.builder()
@@ -46,6 +69,7 @@ public class CobrancaResponse {
                 .createdAt(cobranca.getCreatedAt())
                 .paidAt(cobranca.getPaidAt())
                 .cancelledAt(cobranca.getCancelledAt())
+                .expiredAt(cobranca.getExpiredAt())
                 .build();
     }
 }
\ No newline at end of file
@@ -20,11 +20,12 @@ public class ContaResponse {
     private BigDecimal saldo;
     private LocalDateTime createdAt;
 
-    public static ContaResponse fromEntity(Conta conta) {
+    // O saldo da conta é o do último snapshot; quem chama informa o saldo atual
+    public static ContaResponse fromEntity(Conta conta, BigDecimal saldoAtual) {
         return ContaResponse.builder()
                 .id(conta.getId())
                 .usuarioId(conta.getUsuario().getId())
-                .saldo(conta.getSaldo())
+                .saldo(saldoAtual)
                 .createdAt(conta.getCreatedAt())
                 .build();
     }
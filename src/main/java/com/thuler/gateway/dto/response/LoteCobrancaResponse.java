@@ -0,0 +1,44 @@
+package com.thuler.gateway.dto.response;
+
+import com.thuler.gateway.domain.enums.StatusLoteCobranca;
+import com.thuler.gateway.domain.model.LoteCobranca;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteCobrancaResponse {
+
+    private Long id;
+    private StatusLoteCobranca status;
+    private int total;
+    private int processadas;
+    private int criadas;
+    private int recusadas;
+    private List<String> recusas;
+    private String mensagem;
+    private LocalDateTime createdAt;
+    private LocalDateTime concluidoEm;
+
+    public static LoteCobrancaResponse fromEntity(LoteCobranca lote) {
+        return LoteCobrancaResponse.builder()
+                .id(lote.getId())
+                .status(lote.getStatus())
+                .total(lote.getTotal())
+                .processadas(lote.getProcessadas())
+                .criadas(lote.getCriadas())
+                .recusadas(lote.getRecusadas())
+                .recusas(lote.listarRecusas())
+                .mensagem(lote.getMensagem())
+                .createdAt(lote.getCreatedAt())
+                .concluidoEm(lote.getConcluidoEm())
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.thuler.gateway.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PagamentoLoteResponse {
+
+    private int pagas;
+    private int recusadas;
+    private BigDecimal valorPago;
+    // Na ordem em que as cobranças foram enviadas
+    private List<Resultado> resultados;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Resultado {
+        private Long cobrancaId;
+        private boolean paga;
+        // Motivo da recusa; nulo quando paga
+        private String motivo;
+        // Nulo quando a cobrança não foi encontrada
+        private CobrancaResponse cobranca;
+    }
+}
@@ -0,0 +1,19 @@
+package com.thuler.gateway.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCobrancasResponse {
+
+    private List<CobrancaResponse> cobrancas;
+    // Enviado no parâmetro cursor para buscar a próxima página; nulo na última
+    private String proximoCursor;
+}
@@ -0,0 +1,40 @@
+package com.thuler.gateway.dto.response;
+
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.StatusSolicitacaoPagamento;
+import com.thuler.gateway.domain.model.SolicitacaoPagamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolicitacaoPagamentoResponse {
+
+    private Long id;
+    private Long cobrancaId;
+    private StatusSolicitacaoPagamento status;
+    private CobrancaStatus cobrancaStatus;
+    private String numeroCartao;
+    private String mensagem;
+    private LocalDateTime createdAt;
+    private LocalDateTime concluidaEm;
+
+    public static SolicitacaoPagamentoResponse fromEntity(SolicitacaoPagamento solicitacao) {
+        return SolicitacaoPagamentoResponse.builder()
+                .id(solicitacao.getId())
+                .cobrancaId(solicitacao.getCobranca().getId())
+                .status(solicitacao.getStatus())
+                .cobrancaStatus(solicitacao.getCobranca().getStatus())
+                .numeroCartao(solicitacao.getNumeroCartao())
+                .mensagem(solicitacao.getMensagem())
+                .createdAt(solicitacao.getCreatedAt())
+                .concluidaEm(solicitacao.getConcluidaEm())
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.thuler.gateway.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Fila limitada: quando enche, a solicitação é rejeitada (503) em vez de acumular sem limite
+    @Bean
+    public ThreadPoolTaskExecutor pagamentoExecutor(
+            @Value("${pagamento.async.core-size:8}") int coreSize,
+            @Value("${pagamento.async.max-size:32}") int maxSize,
+            @Value("${pagamento.async.queue-capacity:500}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("pagamento-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Lotes de cobranças são longos: poucas threads, para não disputar o pool de conexões com as requisições
+    @Bean
+    public ThreadPoolTaskExecutor cobrancaLoteExecutor(
+            @Value("${cobranca.lote.async.core-size:2}") int coreSize,
+            @Value("${cobranca.lote.async.queue-capacity:20}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("cobranca-lote-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(coreSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,61 @@
+package com.thuler.gateway.infrastructure.config;
+
+import com.thuler.gateway.infrastructure.external.http.MeteredConnectionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AuthorizerProperties.class)
+public class AuthorizerHttpClientConfig {
+
+    private static final String POOL_AUTORIZADOR = "authorizer";
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient authorizerHttpClient(AuthorizerProperties properties, MeterRegistry meterRegistry) {
+        AuthorizerProperties.Pool pool = properties.getPool();
+
+        // Todas as chamadas vão para o mesmo host, então o limite por rota é o limite total
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxConnections())
+                .setMaxConnPerRoute(pool.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(pool.getTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.of(pool.getValidateAfterInactivity()))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_AUTORIZADOR).bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .setConnectionManager(new MeteredConnectionManager(connectionManager, meterRegistry, POOL_AUTORIZADOR))
+                .setDefaultRequestConfig(requestConfig(properties).build())
+                // Novas tentativas ficam a cargo do AuthorizerClient, dentro do orçamento de retries
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(pool.getIdleTimeout()))
+                .build();
+    }
+
+    /**
+     * Configuração padrão das requisições ao autorizador. O AuthorizerClient parte dela para definir o limite de
+     * cada tentativa, porque a configuração da requisição substitui a padrão por inteiro.
+     */
+    public static RequestConfig.Builder requestConfig(AuthorizerProperties properties) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getPool().getLeaseTimeout()))
+                .setResponseTimeout(Timeout.of(properties.getReadTimeout()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.thuler.gateway.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "authorizer")
+public class AuthorizerProperties {
+
+    private String url;
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    private Pool pool = new Pool();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Bulkhead bulkhead = new Bulkhead();
+    private Retry retry = new Retry();
+    private Hedging hedging = new Hedging();
+
+    @Data
+    public static class Pool {
+        private int maxConnections = 50;
+        // Tempo máximo esperando uma conexão livre no pool
+        private Duration leaseTimeout = Duration.ofSeconds(1);
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        // Quantidade das últimas chamadas consideradas no cálculo das taxas
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private int failureRateThreshold = 50;
+        private int slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 3;
+    }
+
+    @Data
+    public static class Bulkhead {
+        private int maxConcurrentCalls = 20;
+        // Tempo máximo aguardando uma vaga antes de rejeitar a chamada
+        private Duration maxWait = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Retry {
+        private int maxAttempts = 3;
+        // Limite de cada tentativa, para que um pacote perdido não consuma todo o prazo
+        private Duration attemptTimeout = Duration.ofSeconds(3);
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(1);
+        // Fração de ficha depositada por chamada (0.1 = no máximo ~10% de tentativas extras)
+        private double budgetRatio = 0.1;
+        private int budgetMaxTokens = 10;
+    }
+
+    @Data
+    public static class Hedging {
+        private boolean enabled = false;
+        // Atraso mínimo antes de disparar a segunda requisição
+        private Duration minDelay = Duration.ofMillis(50);
+        // Amostras de latência necessárias antes de usar o p95 como atraso
+        private int minSamples = 20;
+    }
+}
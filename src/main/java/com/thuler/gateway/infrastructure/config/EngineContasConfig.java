@@ -0,0 +1,32 @@
+package com.thuler.gateway.infrastructure.config;
+
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.PosicaoJournalRepository;
+import com.thuler.gateway.infrastructure.engine.ContaEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Liga a engine de contas em memória. Desligada, os saldos são movimentados direto no livro de lançamentos.
+ */
+@Configuration
+@ConditionalOnProperty(name = "conta.engine.habilitado", havingValue = "true")
+@EnableConfigurationProperties(EngineContasProperties.class)
+public class EngineContasConfig {
+
+    @Bean(initMethod = "iniciar", destroyMethod = "parar")
+    public ContaEngine contaEngine(EngineContasProperties properties,
+                                   ContaRepository contaRepository,
+                                   PosicaoJournalRepository posicaoJournalRepository,
+                                   LancamentoRepository lancamentoRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry) {
+        return new ContaEngine(properties, contaRepository, posicaoJournalRepository,
+                lancamentoRepository, transactionTemplate, meterRegistry);
+    }
+}
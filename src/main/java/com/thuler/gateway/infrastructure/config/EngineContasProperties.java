@@ -0,0 +1,38 @@
+package com.thuler.gateway.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "conta.engine")
+public class EngineContasProperties {
+
+    private boolean habilitado = false;
+    // Cada partição tem uma thread e um arquivo de journal; não pode ser reduzido com journals pendentes
+    private int particoes = 4;
+    // Pedidos aguardando em cada partição; acima disso a API responde 503
+    private int capacidadeFila = 10_000;
+    // Pedidos aplicados e gravados no journal com um único fsync
+    private int loteMaximo = 256;
+    // Espera máxima da requisição pela resposta da partição
+    private Duration timeout = Duration.ofSeconds(5);
+    private Journal journal = new Journal();
+    private Persistencia persistencia = new Persistencia();
+
+    @Data
+    public static class Journal {
+        private String diretorio = "./data/journal";
+        // Acima disso o journal é truncado assim que tudo nele estiver no banco
+        private DataSize tamanhoMaximo = DataSize.ofMegabytes(64);
+    }
+
+    @Data
+    public static class Persistencia {
+        private Duration intervalo = Duration.ofMillis(50);
+        // Movimentações gravadas no Postgres por transação
+        private int lote = 1_000;
+    }
+}
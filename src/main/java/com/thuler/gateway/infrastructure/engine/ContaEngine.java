@@ -0,0 +1,435 @@
+package com.thuler.gateway.infrastructure.engine;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.domain.model.PosicaoJournal;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepositoryCustom.NovoLancamento;
+import com.thuler.gateway.domain.repository.PosicaoJournalRepository;
+import com.thuler.gateway.domain.service.Transferencia;
+import com.thuler.gateway.infrastructure.config.EngineContasProperties;
+import com.thuler.gateway.infrastructure.engine.ParticaoContas.ConsultarSaldo;
+import com.thuler.gateway.infrastructure.engine.ParticaoContas.Movimentar;
+import com.thuler.gateway.infrastructure.engine.ParticaoContas.Parar;
+import com.thuler.gateway.infrastructure.engine.ParticaoContas.Repasse;
+import com.thuler.gateway.infrastructure.engine.ParticaoContas.Sincronizar;
+import com.thuler.gateway.infrastructure.exception.EngineContasException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Engine de contas em memória, ligada por {@code conta.engine.habilitado}.
+ * <p>
+ * Os saldos ficam particionados por id da conta, cada partição com uma única thread escritora (ver
+ * {@link ParticaoContas}); pagamentos, depósitos e estornos não travam nenhuma linha do Postgres. Uma
+ * movimentação só é confirmada depois de gravada no journal local da partição. Em segundo plano, as
+ * movimentações são gravadas em lotes no livro de lançamentos, junto com a posição do journal já persistida.
+ * Na inicialização, o que está no journal depois dessa posição é reaplicado sobre os saldos do banco.
+ * <p>
+ * Pressupõe uma única instância da aplicação escrevendo nas contas: o saldo em memória é a fonte da verdade
+ * até a movimentação chegar ao banco.
+ */
+@Slf4j
+public class ContaEngine {
+
+    private static final Pattern ARQUIVO_JOURNAL = Pattern.compile("journal-(\\d+)\\.log");
+
+    private final EngineContasProperties properties;
+    private final ContaRepository contaRepository;
+    private final PosicaoJournalRepository posicaoJournalRepository;
+    private final LancamentoRepository lancamentoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+
+    private final List<ParticaoContas> particoes = new ArrayList<>();
+    private final List<JournalParticao> journals = new ArrayList<>();
+    private final List<Thread> escritoras = new ArrayList<>();
+    private ScheduledExecutorService persistencia;
+    private volatile boolean aceitando;
+
+    public ContaEngine(EngineContasProperties properties,
+                       ContaRepository contaRepository,
+                       PosicaoJournalRepository posicaoJournalRepository,
+                       LancamentoRepository lancamentoRepository,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.contaRepository = contaRepository;
+        this.posicaoJournalRepository = posicaoJournalRepository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.timeout = properties.getTimeout();
+    }
+
+    static int particaoDe(long contaId, int particoes) {
+        return Math.floorMod(contaId, particoes);
+    }
+
+    public void iniciar() throws IOException {
+        int quantidade = properties.getParticoes();
+        Path diretorio = Path.of(properties.getJournal().getDiretorio());
+        Files.createDirectories(diretorio);
+        verificarJournalsSemParticao(diretorio, quantidade);
+
+        Map<Integer, Long> posicoes = posicaoJournalRepository.findAll().stream()
+                .collect(Collectors.toMap(PosicaoJournal::getParticao, PosicaoJournal::getUltimaSequencia));
+
+        for (int indice = 0; indice < quantidade; indice++) {
+            JournalParticao journal = new JournalParticao(diretorio.resolve("journal-" + indice + ".log"));
+            journals.add(journal);
+            particoes.add(new ParticaoContas(indice, quantidade, journal, this::carregarSaldo,
+                    this::repassar, properties.getCapacidadeFila(), properties.getLoteMaximo(),
+                    properties.getJournal().getTamanhoMaximo().toBytes()));
+        }
+
+        // Cada lado é reaplicado na partição atual da conta, que pode não ser a do journal que o gravou
+        for (ParticaoContas particao : particoes) {
+            for (Movimento movimento : particao.recuperar(posicoes.getOrDefault(particao.indice(), 0L))) {
+                if (movimento.temDebito()) {
+                    particao(movimento.contaDebitoId()).reaplicar(movimento.contaDebitoId(), -movimento.centavos());
+                }
+                if (movimento.temCredito()) {
+                    particao(movimento.contaCreditoId()).reaplicar(movimento.contaCreditoId(), movimento.centavos());
+                }
+            }
+        }
+
+        for (ParticaoContas particao : particoes) {
+            escritoras.add(Thread.ofPlatform().name("conta-engine-" + particao.indice()).start(particao));
+            Gauge.builder("conta.engine.fila", particao, ParticaoContas::tamanhoFila)
+                    .tag("particao", String.valueOf(particao.indice()))
+                    .register(meterRegistry);
+            Gauge.builder("conta.engine.pendentes", particao, ParticaoContas::quantidadePendentes)
+                    .description("Movimentações confirmadas ainda não gravadas no banco")
+                    .tag("particao", String.valueOf(particao.indice()))
+                    .register(meterRegistry);
+        }
+
+        long intervalo = properties.getPersistencia().getIntervalo().toMillis();
+        persistencia = Executors.newSingleThreadScheduledExecutor(
+                tarefa -> Thread.ofPlatform().name("conta-engine-persistencia").daemon().unstarted(tarefa));
+        persistencia.scheduleWithFixedDelay(this::persistirPendentes, intervalo, intervalo, TimeUnit.MILLISECONDS);
+
+        aceitando = true;
+        log.info("Engine de contas iniciada com {} partições. Journal em {}", quantidade, diretorio.toAbsolutePath());
+    }
+
+    /**
+     * Para de aceitar movimentações, espera as partições esvaziarem e grava no banco o que faltar.
+     */
+    public void parar() {
+        aceitando = false;
+
+        // Duas rodadas: a primeira processa os pedidos externos; a segunda, os créditos repassados por eles
+        sincronizarParticoes();
+        sincronizarParticoes();
+
+        particoes.forEach(particao -> particao.submeterInterno(new Parar()));
+        for (Thread escritora : escritoras) {
+            try {
+                escritora.join(timeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (persistencia != null) {
+            persistencia.shutdown();
+            try {
+                persistencia.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try {
+            persistirPendentes();
+        } finally {
+            for (JournalParticao journal : journals) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    log.warn("Falha ao fechar journal da engine de contas", e);
+                }
+            }
+        }
+
+        log.info("Engine de contas encerrada");
+    }
+
+    /**
+     * Debita a origem e credita o destino.
+     *
+     * @return false, sem movimentar nada, se o saldo da origem não cobrir o valor
+     */
+    public boolean transferir(Long contaOrigemId, Long contaDestinoId, BigDecimal valor,
+                              TipoLancamento tipoDebito, TipoLancamento tipoCredito, Long cobrancaId) {
+        return executar(new Movimento(0, contaOrigemId, contaDestinoId, centavos(valor),
+                tipoDebito, tipoCredito, cobrancaId, 0), true);
+    }
+
+    /**
+     * Envia todas as transferências de uma vez para a partição da origem, que as avalia na ordem recebida
+     * (normalmente no mesmo lote do journal).
+     *
+     * @return para cada transferência, se foi realizada
+     */
+    public List<Boolean> transferirEmLote(Long contaOrigemId, List<Transferencia> transferencias,
+                                          TipoLancamento tipoDebito, TipoLancamento tipoCredito) {
+        verificarAceitando();
+        ParticaoContas particao = particao(contaOrigemId);
+
+        List<CompletableFuture<Boolean>> resultados = new ArrayList<>(transferencias.size());
+        for (Transferencia transferencia : transferencias) {
+            Movimento movimento = new Movimento(0, contaOrigemId, transferencia.contaDestinoId(),
+                    centavos(transferencia.valor()), tipoDebito, tipoCredito, transferencia.cobrancaId(), 0);
+            CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+
+            particao.submeter(new Movimentar(movimento, true, resultado));
+            desfazerSeTransacaoNaoConfirmar(movimento, resultado);
+            resultados.add(resultado);
+        }
+
+        return resultados.stream().map(this::aguardar).toList();
+    }
+
+    public void creditar(Long contaId, BigDecimal valor, TipoLancamento tipo, Long cobrancaId) {
+        executar(new Movimento(0, null, contaId, centavos(valor), null, tipo, cobrancaId, 0), false);
+    }
+
+    /**
+     * @return false, sem movimentar nada, se o saldo não cobrir o débito
+     */
+    public boolean debitar(Long contaId, BigDecimal valor, TipoLancamento tipo, Long cobrancaId) {
+        return executar(new Movimento(0, contaId, null, centavos(valor), tipo, null, cobrancaId, 0), true);
+    }
+
+    /**
+     * Saldo incluindo todas as movimentações já confirmadas, mesmo as que ainda não chegaram ao banco.
+     */
+    public BigDecimal saldo(Long contaId) {
+        verificarAceitando();
+        CompletableFuture<Long> resultado = new CompletableFuture<>();
+        particao(contaId).submeter(new ConsultarSaldo(contaId, resultado));
+        return BigDecimal.valueOf(aguardar(resultado), 2);
+    }
+
+    /**
+     * Grava no banco as movimentações já confirmadas por todas as partições.
+     */
+    public synchronized void persistirPendentes() {
+        int lote = properties.getPersistencia().getLote();
+        boolean gravou = true;
+
+        while (gravou) {
+            gravou = false;
+            for (ParticaoContas particao : particoes) {
+                List<Movimento> prontos = particao.prontosParaPersistir(lote);
+                if (prontos.isEmpty()) {
+                    continue;
+                }
+                try {
+                    gravarLancamentos(particao.indice(), prontos);
+                } catch (RuntimeException e) {
+                    // Continuam no journal e na fila; a próxima rodada tenta de novo
+                    log.error("Falha ao gravar {} movimentações da partição {} no banco",
+                            prontos.size(), particao.indice(), e);
+                    return;
+                }
+                particao.confirmarPersistencia(prontos.size(), prontos.getLast().sequencia());
+                gravou = true;
+            }
+        }
+    }
+
+    private boolean executar(Movimento movimento, boolean verificarSaldo) {
+        verificarAceitando();
+        CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+        Long contaId = movimento.temDebito() ? movimento.contaDebitoId() : movimento.contaCreditoId();
+
+        particao(contaId).submeter(new Movimentar(movimento, verificarSaldo, resultado));
+        desfazerSeTransacaoNaoConfirmar(movimento, resultado);
+
+        return aguardar(resultado);
+    }
+
+    /**
+     * A movimentação confirmada pela engine não participa da transação de quem a pediu. Se essa transação não
+     * for commitada (ou a espera pela engine estourar), a movimentação é desfeita com um estorno.
+     */
+    private void desfazerSeTransacaoNaoConfirmar(Movimento movimento, CompletableFuture<Boolean> resultado) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    resultado.thenAccept(aplicado -> {
+                        if (aplicado) {
+                            desfazer(movimento);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void desfazer(Movimento movimento) {
+        Movimento estorno = new Movimento(0, movimento.contaCreditoId(), movimento.contaDebitoId(),
+                movimento.centavos(),
+                movimento.temCredito() ? TipoLancamento.ESTORNO_ENVIADO : null,
+                movimento.temDebito() ? TipoLancamento.ESTORNO_RECEBIDO : null,
+                movimento.cobrancaId(), 0);
+        Long contaId = estorno.temDebito() ? estorno.contaDebitoId() : estorno.contaCreditoId();
+
+        log.warn("Transação não confirmada: desfazendo movimentação de {} centavos (débito: {}, crédito: {})",
+                movimento.centavos(), movimento.contaDebitoId(), movimento.contaCreditoId());
+
+        CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+        resultado.exceptionally(erro -> {
+            log.error("Falha ao desfazer movimentação da cobrança ID: {}", movimento.cobrancaId(), erro);
+            return false;
+        });
+        particao(contaId).submeterInterno(new Movimentar(estorno, false, resultado));
+    }
+
+    private void gravarLancamentos(int particao, List<Movimento> movimentos) {
+        TreeSet<Long> contas = new TreeSet<>();
+        List<NovoLancamento> lancamentos = new ArrayList<>(movimentos.size() * 2);
+
+        for (Movimento movimento : movimentos) {
+            BigDecimal valor = BigDecimal.valueOf(movimento.centavos(), 2);
+            LocalDateTime criadoEm = LocalDateTime.ofInstant(Instant.ofEpochMilli(movimento.criadoEm()),
+                    ZoneId.systemDefault());
+
+            if (movimento.temDebito()) {
+                contas.add(movimento.contaDebitoId());
+                lancamentos.add(new NovoLancamento(movimento.contaDebitoId(), movimento.tipoDebito(),
+                        valor.negate(), movimento.cobrancaId(), criadoEm));
+            }
+            if (movimento.temCredito()) {
+                contas.add(movimento.contaCreditoId());
+                lancamentos.add(new NovoLancamento(movimento.contaCreditoId(), movimento.tipoCredito(),
+                        valor, movimento.cobrancaId(), criadoEm));
+            }
+        }
+
+        long ultimaSequencia = movimentos.getLast().sequencia();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Mesma trava dos créditos: um snapshot concorrente espera estes lançamentos
+            contaRepository.travarParaLancamentos(contas);
+            lancamentoRepository.registrarEmLote(lancamentos);
+            posicaoJournalRepository.registrar(particao, ultimaSequencia);
+        });
+
+        log.debug("Partição {}: {} movimentações gravadas no banco até a sequência {}",
+                particao, movimentos.size(), ultimaSequencia);
+    }
+
+    private void repassar(Repasse repasse) {
+        particao(repasse.movimento().contaCreditoId()).submeterInterno(repasse);
+    }
+
+    private Long carregarSaldo(long contaId) {
+        BigDecimal saldo = contaRepository.calcularSaldo(contaId);
+        return saldo != null ? saldo.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact() : null;
+    }
+
+    private void sincronizarParticoes() {
+        List<CompletableFuture<Void>> concluidos = new ArrayList<>();
+        for (ParticaoContas particao : particoes) {
+            CompletableFuture<Void> concluido = new CompletableFuture<>();
+            particao.submeterInterno(new Sincronizar(concluido));
+            concluidos.add(concluido);
+        }
+        try {
+            CompletableFuture.allOf(concluidos.toArray(CompletableFuture[]::new))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Partições da engine de contas não esvaziaram a fila no encerramento", e);
+        }
+    }
+
+    private void verificarJournalsSemParticao(Path diretorio, int quantidade) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            for (Path arquivo : arquivos.toList()) {
+                Matcher matcher = ARQUIVO_JOURNAL.matcher(arquivo.getFileName().toString());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) >= quantidade && Files.size(arquivo) > 0) {
+                    throw new IllegalStateException("Journal " + arquivo + " pertence a uma partição inexistente. "
+                            + "Restaure conta.engine.particoes até que ele seja gravado no banco");
+                }
+            }
+        }
+    }
+
+    private void verificarAceitando() {
+        if (!aceitando) {
+            throw new EngineContasException("Engine de contas não está aceitando movimentações");
+        }
+    }
+
+    private ParticaoContas particao(long contaId) {
+        return particoes.get(particaoDe(contaId, particoes.size()));
+    }
+
+    private <T> T aguardar(CompletableFuture<T> resultado) {
+        try {
+            return resultado.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new EngineContasException("Tempo esgotado aguardando a engine de contas");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EngineContasException("Interrompido aguardando a engine de contas", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new EngineContasException("Falha na engine de contas", e.getCause());
+        }
+    }
+
+    private static long centavos(BigDecimal valor) {
+        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor do lançamento deve ser positivo");
+        }
+        try {
+            return valor.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Valor do lançamento deve ter no máximo duas casas decimais");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.thuler.gateway.infrastructure.engine;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Journal append-only de uma partição: uma linha de texto por movimentação, terminada por um CRC32.
+ * <p>
+ * As linhas de um lote são escritas juntas e seguidas de um único {@code force}; só depois disso as
+ * movimentações são confirmadas a quem pediu. Uma linha incompleta ou com CRC inválido no final do arquivo
+ * (queda no meio da escrita) é descartada na leitura.
+ */
+@Slf4j
+final class JournalParticao implements Closeable {
+
+    private static final String SEPARADOR = "|";
+    private static final String NULO = "-";
+
+    private final Path arquivo;
+    private final FileChannel canal;
+
+    JournalParticao(Path arquivo) throws IOException {
+        this.arquivo = arquivo;
+        this.canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Lê as movimentações válidas e posiciona o arquivo logo depois da última, descartando o resto.
+     */
+    List<Movimento> ler() throws IOException {
+        byte[] conteudo = Files.readAllBytes(arquivo);
+        List<Movimento> movimentos = new ArrayList<>();
+
+        int inicio = 0;
+        int fim;
+        while ((fim = indiceQuebra(conteudo, inicio)) >= 0) {
+            String linha = new String(conteudo, inicio, fim - inicio, StandardCharsets.UTF_8);
+            Movimento movimento = decodificar(linha);
+            if (movimento == null) {
+                break;
+            }
+            movimentos.add(movimento);
+            inicio = fim + 1;
+        }
+
+        if (inicio < conteudo.length) {
+            log.warn("Journal {}: {} bytes inválidos no final descartados", arquivo, conteudo.length - inicio);
+        }
+
+        canal.truncate(inicio);
+        canal.position(inicio);
+        return movimentos;
+    }
+
+    void acrescentar(List<Movimento> movimentos) throws IOException {
+        StringBuilder linhas = new StringBuilder(movimentos.size() * 96);
+        for (Movimento movimento : movimentos) {
+            linhas.append(codificar(movimento)).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(linhas.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        canal.force(false);
+    }
+
+    long tamanho() throws IOException {
+        return canal.size();
+    }
+
+    /**
+     * Esvazia o journal; só pode ser chamado quando todas as movimentações já estão no Postgres.
+     */
+    void truncar() throws IOException {
+        canal.truncate(0);
+        canal.position(0);
+        canal.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    static String codificar(Movimento movimento) {
+        String dados = String.join(SEPARADOR,
+                Long.toString(movimento.sequencia()),
+                texto(movimento.contaDebitoId()),
+                texto(movimento.contaCreditoId()),
+                Long.toString(movimento.centavos()),
+                movimento.tipoDebito() != null ? movimento.tipoDebito().name() : NULO,
+                movimento.tipoCredito() != null ? movimento.tipoCredito().name() : NULO,
+                texto(movimento.cobrancaId()),
+                Long.toString(movimento.criadoEm()));
+        return dados + SEPARADOR + crc(dados);
+    }
+
+    static Movimento decodificar(String linha) {
+        int ultimoSeparador = linha.lastIndexOf(SEPARADOR);
+        if (ultimoSeparador < 0) {
+            return null;
+        }
+
+        String dados = linha.substring(0, ultimoSeparador);
+        if (!crc(dados).equals(linha.substring(ultimoSeparador + 1))) {
+            return null;
+        }
+
+        String[] campos = dados.split("\\" + SEPARADOR, -1);
+        if (campos.length != 8) {
+            return null;
+        }
+
+        try {
+            return new Movimento(
+                    Long.parseLong(campos[0]),
+                    numero(campos[1]),
+                    numero(campos[2]),
+                    Long.parseLong(campos[3]),
+                    NULO.equals(campos[4]) ? null : TipoLancamento.valueOf(campos[4]),
+                    NULO.equals(campos[5]) ? null : TipoLancamento.valueOf(campos[5]),
+                    numero(campos[6]),
+                    Long.parseLong(campos[7]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int indiceQuebra(byte[] conteudo, int inicio) {
+        for (int i = inicio; i < conteudo.length; i++) {
+            if (conteudo[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String texto(Long valor) {
+        return valor != null ? valor.toString() : NULO;
+    }
+
+    private static Long numero(String campo) {
+        return NULO.equals(campo) ? null : Long.valueOf(campo);
+    }
+
+    private static String crc(String dados) {
+        CRC32 crc = new CRC32();
+        crc.update(dados.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,34 @@
+package com.thuler.gateway.infrastructure.engine;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+
+/**
+ * Movimentação aceita pela engine: débito, crédito ou os dois (transferência).
+ * Vira uma linha do journal da partição que a aceitou e, depois, um ou dois lançamentos no Postgres.
+ *
+ * @param sequencia posição no journal da partição (0 enquanto não foi aceita)
+ * @param centavos  valor sempre positivo, em centavos
+ * @param criadoEm  instante em que foi aceita, em milissegundos desde a época
+ */
+record Movimento(long sequencia,
+                 Long contaDebitoId,
+                 Long contaCreditoId,
+                 long centavos,
+                 TipoLancamento tipoDebito,
+                 TipoLancamento tipoCredito,
+                 Long cobrancaId,
+                 long criadoEm) {
+
+    boolean temDebito() {
+        return contaDebitoId != null;
+    }
+
+    boolean temCredito() {
+        return contaCreditoId != null;
+    }
+
+    Movimento aceito(long sequencia, long criadoEm) {
+        return new Movimento(sequencia, contaDebitoId, contaCreditoId, centavos,
+                tipoDebito, tipoCredito, cobrancaId, criadoEm);
+    }
+}
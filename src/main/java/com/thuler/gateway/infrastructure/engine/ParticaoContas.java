@@ -0,0 +1,338 @@
+package com.thuler.gateway.infrastructure.engine;
+
+import com.thuler.gateway.infrastructure.exception.EngineContasException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Uma partição da engine: os saldos das contas com {@code id % particoes == indice}, alterados por uma única
+ * thread. Sem travas: a fila serializa os pedidos, e cada volta do laço drena um lote, aplica os pedidos em
+ * sequência, grava o lote no journal com um único {@code force} e só então responde.
+ * <p>
+ * Na transferência entre partições, o débito é decidido aqui e o crédito é repassado à partição do destino.
+ * A movimentação só fica pronta para ir ao Postgres depois de o destino aplicar o crédito; assim o saldo
+ * carregado do banco por uma partição nunca inclui um lançamento que ela ainda vai aplicar.
+ */
+@Slf4j
+final class ParticaoContas implements Runnable {
+
+    private final int indice;
+    private final int particoes;
+    private final JournalParticao journal;
+    private final LongFunction<Long> carregarSaldo;
+    private final Consumer<Repasse> repassarCredito;
+    private final int capacidadeFila;
+    private final int loteMaximo;
+    private final long tamanhoMaximoJournal;
+
+    private final LinkedBlockingQueue<Pedido> fila = new LinkedBlockingQueue<>();
+    private final ConcurrentLinkedQueue<Pendente> pendentes = new ConcurrentLinkedQueue<>();
+
+    // Acessados só pela thread da partição
+    private final Map<Long, long[]> saldos = new HashMap<>();
+    private long proximaSequencia;
+    private long ultimaSequenciaGravada;
+
+    private volatile long ultimaSequenciaPersistida;
+    private volatile boolean ativa = true;
+
+    ParticaoContas(int indice, int particoes, JournalParticao journal, LongFunction<Long> carregarSaldo,
+                   Consumer<Repasse> repassarCredito, int capacidadeFila, int loteMaximo,
+                   long tamanhoMaximoJournal) {
+        this.indice = indice;
+        this.particoes = particoes;
+        this.journal = journal;
+        this.carregarSaldo = carregarSaldo;
+        this.repassarCredito = repassarCredito;
+        this.capacidadeFila = capacidadeFila;
+        this.loteMaximo = loteMaximo;
+        this.tamanhoMaximoJournal = tamanhoMaximoJournal;
+    }
+
+    sealed interface Pedido permits Movimentar, Repasse, ConsultarSaldo, Sincronizar, Parar {
+    }
+
+    record Movimentar(Movimento movimento, boolean verificarSaldo, CompletableFuture<Boolean> resultado)
+            implements Pedido {
+    }
+
+    /**
+     * Crédito de uma transferência aceita por outra partição; aplicado, libera a movimentação para o banco.
+     */
+    record Repasse(Movimento movimento, Pendente pendente) implements Pedido {
+    }
+
+    record ConsultarSaldo(long contaId, CompletableFuture<Long> resultado) implements Pedido {
+    }
+
+    record Sincronizar(CompletableFuture<Void> concluido) implements Pedido {
+    }
+
+    record Parar() implements Pedido {
+    }
+
+    static final class Pendente {
+        final Movimento movimento;
+        volatile boolean pronto;
+
+        Pendente(Movimento movimento, boolean pronto) {
+            this.movimento = movimento;
+            this.pronto = pronto;
+        }
+    }
+
+    int indice() {
+        return indice;
+    }
+
+    /**
+     * Lê o journal e enfileira para o banco as movimentações ainda não persistidas; chamado antes de a thread
+     * começar.
+     *
+     * @return as movimentações não persistidas, que a engine reaplica nos saldos das partições de cada conta
+     */
+    List<Movimento> recuperar(long sequenciaPersistida) throws IOException {
+        List<Movimento> movimentos = journal.ler();
+        List<Movimento> naoPersistidos = new ArrayList<>();
+        long ultima = sequenciaPersistida;
+
+        for (Movimento movimento : movimentos) {
+            ultima = Math.max(ultima, movimento.sequencia());
+            if (movimento.sequencia() > sequenciaPersistida) {
+                pendentes.add(new Pendente(movimento, true));
+                naoPersistidos.add(movimento);
+            }
+        }
+
+        this.ultimaSequenciaPersistida = sequenciaPersistida;
+        this.ultimaSequenciaGravada = ultima;
+        this.proximaSequencia = ultima + 1;
+
+        log.info("Partição {} recuperada: {} movimentações no journal, {} a persistir, próxima sequência {}",
+                indice, movimentos.size(), naoPersistidos.size(), proximaSequencia);
+        return naoPersistidos;
+    }
+
+    void reaplicar(long contaId, long centavos) {
+        saldo(contaId)[0] += centavos;
+    }
+
+    void submeter(Pedido pedido) {
+        if (!ativa) {
+            throw new EngineContasException("Partição " + indice + " da engine de contas está parada");
+        }
+        if (fila.size() >= capacidadeFila) {
+            throw new EngineContasException("Engine de contas sobrecarregada, tente novamente");
+        }
+        fila.add(pedido);
+    }
+
+    // Repasses e controle internos não passam pelo limite da fila: recusá-los perderia um crédito já aceito
+    void submeterInterno(Pedido pedido) {
+        fila.add(pedido);
+    }
+
+    int tamanhoFila() {
+        return fila.size();
+    }
+
+    int quantidadePendentes() {
+        return pendentes.size();
+    }
+
+    List<Movimento> prontosParaPersistir(int limite) {
+        List<Movimento> prontos = new ArrayList<>();
+        for (Pendente pendente : pendentes) {
+            if (!pendente.pronto || prontos.size() >= limite) {
+                break;
+            }
+            prontos.add(pendente.movimento);
+        }
+        return prontos;
+    }
+
+    void confirmarPersistencia(int quantidade, long ultimaSequencia) {
+        for (int i = 0; i < quantidade; i++) {
+            pendentes.poll();
+        }
+        this.ultimaSequenciaPersistida = ultimaSequencia;
+    }
+
+    @Override
+    public void run() {
+        List<Pedido> lote = new ArrayList<>(loteMaximo);
+        boolean continuar = true;
+
+        while (continuar) {
+            lote.clear();
+            try {
+                lote.add(fila.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            fila.drainTo(lote, loteMaximo - 1);
+            try {
+                continuar = processar(lote);
+            } catch (RuntimeException e) {
+                log.error("Erro inesperado na partição {}. Partição desativada", indice, e);
+                falhar(lote, new EngineContasException("Partição " + indice + " da engine de contas falhou", e));
+                continuar = false;
+            }
+        }
+
+        ativa = false;
+        log.info("Partição {} da engine de contas encerrada", indice);
+    }
+
+    private boolean processar(List<Pedido> lote) {
+        List<Pendente> aceitos = new ArrayList<>();
+        List<Runnable> respostas = new ArrayList<>(lote.size());
+        boolean continuar = true;
+
+        for (Pedido pedido : lote) {
+            switch (pedido) {
+                case Movimentar movimentar -> aplicar(movimentar, aceitos, respostas);
+                case Repasse repasse -> creditarRepasse(repasse);
+                case ConsultarSaldo consulta -> {
+                    try {
+                        long saldo = saldo(consulta.contaId())[0];
+                        respostas.add(() -> consulta.resultado().complete(saldo));
+                    } catch (RuntimeException e) {
+                        respostas.add(() -> consulta.resultado().completeExceptionally(e));
+                    }
+                }
+                case Sincronizar sincronizar -> respostas.add(() -> sincronizar.concluido().complete(null));
+                case Parar parar -> continuar = false;
+            }
+        }
+
+        if (!aceitos.isEmpty() && !gravar(aceitos, lote)) {
+            return false;
+        }
+
+        respostas.forEach(Runnable::run);
+        compactarJournal();
+        return continuar;
+    }
+
+    private void aplicar(Movimentar pedido, List<Pendente> aceitos, List<Runnable> respostas) {
+        Movimento movimento = pedido.movimento();
+        try {
+            if (movimento.temDebito()) {
+                long[] saldoDebito = saldo(movimento.contaDebitoId());
+                if (pedido.verificarSaldo() && saldoDebito[0] < movimento.centavos()) {
+                    log.warn("Saldo insuficiente na conta ID: {}. Saldo: {} centavos, Valor: {} centavos",
+                            movimento.contaDebitoId(), saldoDebito[0], movimento.centavos());
+                    respostas.add(() -> pedido.resultado().complete(false));
+                    return;
+                }
+                // Conta de destino local precisa existir antes de debitar a origem
+                boolean creditoLocal = movimento.temCredito() && local(movimento.contaCreditoId());
+                long[] saldoCredito = creditoLocal ? saldo(movimento.contaCreditoId()) : null;
+
+                saldoDebito[0] -= movimento.centavos();
+                if (saldoCredito != null) {
+                    saldoCredito[0] += movimento.centavos();
+                }
+            } else {
+                saldo(movimento.contaCreditoId())[0] += movimento.centavos();
+            }
+        } catch (RuntimeException e) {
+            respostas.add(() -> pedido.resultado().completeExceptionally(e));
+            return;
+        }
+
+        Movimento aceito = movimento.aceito(proximaSequencia++, System.currentTimeMillis());
+        boolean repassar = aceito.temDebito() && aceito.temCredito() && !local(aceito.contaCreditoId());
+        aceitos.add(new Pendente(aceito, !repassar));
+        respostas.add(() -> pedido.resultado().complete(true));
+    }
+
+    private void creditarRepasse(Repasse repasse) {
+        Movimento movimento = repasse.movimento();
+        try {
+            saldo(movimento.contaCreditoId())[0] += movimento.centavos();
+        } catch (RuntimeException e) {
+            // O débito já foi confirmado na origem; a gravação no banco é que vai acusar a conta inválida
+            log.error("Crédito repassado para conta ID: {} não pôde ser aplicado", movimento.contaCreditoId(), e);
+        }
+        repasse.pendente().pronto = true;
+    }
+
+    private boolean gravar(List<Pendente> aceitos, List<Pedido> lote) {
+        List<Movimento> movimentos = aceitos.stream().map(pendente -> pendente.movimento).toList();
+        try {
+            journal.acrescentar(movimentos);
+        } catch (IOException e) {
+            // O estado em memória já inclui o lote, que não é durável: a partição para e tudo é recusado
+            log.error("Falha ao gravar o journal da partição {}. Partição desativada", indice, e);
+            falhar(lote, new EngineContasException("Journal da partição " + indice + " indisponível", e));
+            return false;
+        }
+
+        ultimaSequenciaGravada = movimentos.getLast().sequencia();
+        for (Pendente pendente : aceitos) {
+            pendentes.add(pendente);
+            if (!pendente.pronto) {
+                repassarCredito.accept(new Repasse(pendente.movimento, pendente));
+            }
+        }
+        return true;
+    }
+
+    private void falhar(List<Pedido> lote, EngineContasException falha) {
+        ativa = false;
+        for (Pedido pedido : lote) {
+            switch (pedido) {
+                case Movimentar movimentar -> movimentar.resultado().completeExceptionally(falha);
+                case ConsultarSaldo consulta -> consulta.resultado().completeExceptionally(falha);
+                case Sincronizar sincronizar -> sincronizar.concluido().completeExceptionally(falha);
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void compactarJournal() {
+        if (ultimaSequenciaGravada == 0 || ultimaSequenciaPersistida < ultimaSequenciaGravada) {
+            return;
+        }
+        try {
+            if (journal.tamanho() > tamanhoMaximoJournal) {
+                journal.truncar();
+                log.info("Journal da partição {} truncado: tudo até a sequência {} já está no banco",
+                        indice, ultimaSequenciaGravada);
+            }
+        } catch (IOException e) {
+            log.warn("Não foi possível truncar o journal da partição {}", indice, e);
+        }
+    }
+
+    private long[] saldo(long contaId) {
+        long[] saldo = saldos.get(contaId);
+        if (saldo == null) {
+            Long centavos = carregarSaldo.apply(contaId);
+            if (centavos == null) {
+                throw new IllegalArgumentException("Conta não encontrada");
+            }
+            saldo = new long[]{centavos};
+            saldos.put(contaId, saldo);
+        }
+        return saldo;
+    }
+
+    private boolean local(long contaId) {
+        return ContaEngine.particaoDe(contaId, particoes) == indice;
+    }
+}
@@ -0,0 +1,12 @@
+package com.thuler.gateway.infrastructure.exception;
+
+public class EngineContasException extends RuntimeException {
+
+    public EngineContasException(String message) {
+        super(message);
+    }
+
+    public EngineContasException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.thuler.gateway.infrastructure.exception;
+
+public class ExportacaoIndisponivelException extends RuntimeException {
+
+    public ExportacaoIndisponivelException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,67 @@
+package com.thuler.gateway.infrastructure.external.authorizer;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita quantas chamadas ao autorizador podem estar em andamento ao mesmo tempo,
+ * para que um autorizador lento não consuma todas as threads do Tomcat.
+ */
+@Component
+public class AuthorizerBulkhead {
+
+    private final Semaphore vagas;
+    private final long esperaMaximaNanos;
+    private final Counter chamadasRejeitadas;
+
+    public AuthorizerBulkhead(AuthorizerProperties properties, MeterRegistry meterRegistry) {
+        AuthorizerProperties.Bulkhead config = properties.getBulkhead();
+        this.vagas = new Semaphore(config.getMaxConcurrentCalls(), true);
+        this.esperaMaximaNanos = config.getMaxWait().toNanos();
+
+        Gauge.builder("authorizer.bulkhead.available", vagas, Semaphore::availablePermits)
+                .description("Vagas livres para chamadas simultâneas ao autorizador")
+                .register(meterRegistry);
+        Gauge.builder("authorizer.bulkhead.max", config, AuthorizerProperties.Bulkhead::getMaxConcurrentCalls)
+                .register(meterRegistry);
+        this.chamadasRejeitadas = Counter.builder("authorizer.bulkhead.rejected")
+                .description("Chamadas rejeitadas por falta de vaga no bulkhead")
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire() {
+        try {
+            if (vagas.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        chamadasRejeitadas.increment();
+        return false;
+    }
+
+    // Para requisições opcionais, como o hedge, que não valem a espera por uma vaga
+    public boolean tryAcquireSemEspera() {
+        // Com timeout zero o semáforo respeita a fila, sem passar à frente de quem já espera
+        try {
+            if (vagas.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        chamadasRejeitadas.increment();
+        return false;
+    }
+
+    public void release() {
+        vagas.release();
+    }
+}
@@ -0,0 +1,183 @@
+package com.thuler.gateway.infrastructure.external.authorizer;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker com janela deslizante das últimas N chamadas ao autorizador.
+ * <p>
+ * FECHADO: todas as chamadas passam; se a taxa de falhas ou de chamadas lentas da janela
+ * ultrapassar o limite, abre. ABERTO: rejeita imediatamente até o tempo de espera
+ * expirar. MEIO_ABERTO: libera algumas chamadas de teste e decide entre fechar e reabrir.
+ */
+@Component
+@Slf4j
+public class AuthorizerCircuitBreaker {
+
+    public enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    private final AuthorizerProperties.CircuitBreaker config;
+    private final LongSupplier relogio;
+    private final MeterRegistry meterRegistry;
+    private final long duracaoLentaNanos;
+    private final long esperaAbertoNanos;
+
+    private final boolean[] falhas;
+    private final boolean[] lentas;
+    private int proximaPosicao;
+    private int chamadasRegistradas;
+    private int totalFalhas;
+    private int totalLentas;
+
+    private Estado estado = Estado.FECHADO;
+    private long abertoDesde;
+    private int chamadasDeTesteLiberadas;
+
+    private final Counter chamadasRejeitadas;
+
+    @Autowired
+    public AuthorizerCircuitBreaker(AuthorizerProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getCircuitBreaker(), meterRegistry, System::nanoTime);
+    }
+
+    AuthorizerCircuitBreaker(AuthorizerProperties.CircuitBreaker config, MeterRegistry meterRegistry, LongSupplier relogio) {
+        this.config = config;
+        this.relogio = relogio;
+        this.meterRegistry = meterRegistry;
+        this.duracaoLentaNanos = config.getSlowCallDuration().toNanos();
+        this.esperaAbertoNanos = config.getWaitDurationInOpenState().toNanos();
+        this.falhas = new boolean[config.getSlidingWindowSize()];
+        this.lentas = new boolean[config.getSlidingWindowSize()];
+
+        for (Estado possivel : Estado.values()) {
+            Gauge.builder("authorizer.circuitbreaker.state", this, cb -> cb.getEstado() == possivel ? 1 : 0)
+                    .description("Estado atual do circuit breaker do autorizador (1 = ativo)")
+                    .tag("state", nomeMetrica(possivel))
+                    .register(meterRegistry);
+        }
+        this.chamadasRejeitadas = Counter.builder("authorizer.circuitbreaker.calls")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * Retorna false quando a chamada deve falhar imediatamente sem chegar ao autorizador.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (estado == Estado.ABERTO && relogio.getAsLong() - abertoDesde >= esperaAbertoNanos) {
+            transicionar(Estado.MEIO_ABERTO);
+        }
+
+        boolean permitido = switch (estado) {
+            case FECHADO -> true;
+            case ABERTO -> false;
+            case MEIO_ABERTO -> {
+                if (chamadasDeTesteLiberadas < config.getPermittedCallsInHalfOpenState()) {
+                    chamadasDeTesteLiberadas++;
+                    yield true;
+                }
+                yield false;
+            }
+        };
+
+        if (!permitido) {
+            chamadasRejeitadas.increment();
+        }
+        return permitido;
+    }
+
+    /**
+     * Devolve uma permissão obtida mas não utilizada (ex.: rejeitada pelo bulkhead).
+     */
+    public synchronized void releasePermission() {
+        if (estado == Estado.MEIO_ABERTO && chamadasDeTesteLiberadas > 0) {
+            chamadasDeTesteLiberadas--;
+        }
+    }
+
+    public void onSuccess(long duracaoNanos) {
+        registrar(false, duracaoNanos);
+    }
+
+    public void onError(long duracaoNanos) {
+        registrar(true, duracaoNanos);
+    }
+
+    private synchronized void registrar(boolean falha, long duracaoNanos) {
+        boolean lenta = duracaoNanos >= duracaoLentaNanos;
+        meterRegistry.counter("authorizer.circuitbreaker.calls",
+                "outcome", falha ? "failure" : lenta ? "slow" : "success").increment();
+
+        if (estado == Estado.ABERTO) {
+            // Chamada iniciada antes da abertura; não altera a decisão já tomada
+            return;
+        }
+
+        if (falhas[proximaPosicao]) totalFalhas--;
+        if (lentas[proximaPosicao]) totalLentas--;
+        falhas[proximaPosicao] = falha;
+        lentas[proximaPosicao] = lenta;
+        if (falha) totalFalhas++;
+        if (lenta) totalLentas++;
+        proximaPosicao = (proximaPosicao + 1) % falhas.length;
+        chamadasRegistradas = Math.min(chamadasRegistradas + 1, falhas.length);
+
+        if (estado == Estado.MEIO_ABERTO) {
+            if (chamadasRegistradas >= config.getPermittedCallsInHalfOpenState()) {
+                transicionar(limiteUltrapassado() ? Estado.ABERTO : Estado.FECHADO);
+            }
+        } else if (chamadasRegistradas >= config.getMinimumCalls() && limiteUltrapassado()) {
+            transicionar(Estado.ABERTO);
+        }
+    }
+
+    private boolean limiteUltrapassado() {
+        int taxaFalhas = totalFalhas * 100 / chamadasRegistradas;
+        int taxaLentas = totalLentas * 100 / chamadasRegistradas;
+        return taxaFalhas >= config.getFailureRateThreshold() || taxaLentas >= config.getSlowCallRateThreshold();
+    }
+
+    private void transicionar(Estado novoEstado) {
+        log.warn("Circuit breaker do autorizador: {} -> {} (falhas: {}, lentas: {}, chamadas: {})",
+                estado, novoEstado, totalFalhas, totalLentas, chamadasRegistradas);
+
+        meterRegistry.counter("authorizer.circuitbreaker.transitions",
+                "from", nomeMetrica(estado), "to", nomeMetrica(novoEstado)).increment();
+
+        estado = novoEstado;
+        if (novoEstado == Estado.ABERTO) {
+            abertoDesde = relogio.getAsLong();
+        }
+        chamadasDeTesteLiberadas = 0;
+        limparJanela();
+    }
+
+    private void limparJanela() {
+        Arrays.fill(falhas, false);
+        Arrays.fill(lentas, false);
+        proximaPosicao = 0;
+        chamadasRegistradas = 0;
+        totalFalhas = 0;
+        totalLentas = 0;
+    }
+
+    private static String nomeMetrica(Estado estado) {
+        return switch (estado) {
+            case FECHADO -> "closed";
+            case ABERTO -> "open";
+            case MEIO_ABERTO -> "half_open";
+        };
+    }
+}
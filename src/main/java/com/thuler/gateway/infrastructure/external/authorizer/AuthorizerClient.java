@@ -1,45 +1,349 @@
 package com.thuler.gateway.infrastructure.external.authorizer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import com.thuler.gateway.infrastructure.config.AuthorizerHttpClientConfig;
 import com.thuler.gateway.infrastructure.exception.AuthorizerException;
+import com.thuler.gateway.infrastructure.web.RequestDeadline;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cliente do autorizador externo, com circuit breaker, bulkhead, novas tentativas e hedging.
+ * <p>
+ * Cada requisição enviada ocupa uma vaga do bulkhead até terminar de fato. A que passa do limite da tentativa
+ * é abortada no HttpClient, o que fecha a conexão e devolve a vaga na hora, em vez de seguir em segundo plano
+ * até o read-timeout.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class AuthorizerClient {
 
-    private final RestTemplate restTemplate;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final AuthorizerCircuitBreaker circuitBreaker;
+    private final AuthorizerBulkhead bulkhead;
+    private final AuthorizerRetryBudget retryBudget;
+    private final AuthorizerProperties properties;
 
-    @Value("${authorizer.url}")
-    private String authorizerUrl;
+    private final LatencyTracker latencias = new LatencyTracker(256);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
     public AuthorizerResponse authorize() {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            log.warn("Circuit breaker aberto, chamada ao autorizador rejeitada");
+            throw new AuthorizerException("Autorizador indisponível no momento, tente novamente mais tarde");
+        }
+
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            log.warn("Limite de chamadas simultâneas ao autorizador atingido");
+            throw new AuthorizerException("Autorizador sobrecarregado, tente novamente mais tarde");
+        }
+
+        // A vaga passa para a primeira requisição, que a devolve quando terminar
+        long inicio = System.nanoTime();
         try {
-            log.info("Consultando autorizador externo: {}", authorizerUrl);
+            AuthorizerResponse response = autorizarComRetentativas(inicio);
+            circuitBreaker.onSuccess(System.nanoTime() - inicio);
+            return response;
+        } catch (AuthorizerException e) {
+            circuitBreaker.onError(System.nanoTime() - inicio);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // Cada volta começa com uma vaga do bulkhead reservada para a tentativa
+    private AuthorizerResponse autorizarComRetentativas(long inicio) {
+        AuthorizerProperties.Retry retry = properties.getRetry();
+        // Fora de uma requisição HTTP o prazo é o próprio read-timeout
+        long prazo = inicio + RequestDeadline.restante().orElse(properties.getReadTimeout()).toNanos();
+
+        retryBudget.registrarChamada();
+
+        for (int tentativa = 1; ; tentativa++) {
+            long restante = prazo - System.nanoTime();
+            if (restante <= 0) {
+                bulkhead.release();
+                throw new AuthorizerException("Prazo da requisição esgotado aguardando o autorizador");
+            }
+
+            try {
+                return tentarComHedging(Math.min(restante, retry.getAttemptTimeout().toNanos()));
+            } catch (AuthorizerException e) {
+                if (!deveRetentar(e) || tentativa >= retry.getMaxAttempts()) {
+                    throw e;
+                }
+
+                long backoff = backoffComJitter(tentativa);
+                if (System.nanoTime() + backoff >= prazo || !retryBudget.tryAcquire()) {
+                    throw e;
+                }
+
+                log.warn("Tentativa {} ao autorizador falhou ({}), nova tentativa em {} ms",
+                        tentativa, e.getMessage(), TimeUnit.NANOSECONDS.toMillis(backoff));
+                aguardar(backoff);
+
+                if (!bulkhead.tryAcquire()) {
+                    log.warn("Sem vaga no bulkhead para nova tentativa ao autorizador");
+                    throw e;
+                }
+            }
+        }
+    }
 
-            ResponseEntity<AuthorizerResponse> response = restTemplate.getForEntity(
-                    authorizerUrl,
-                    AuthorizerResponse.class
-            );
+    private AuthorizerResponse tentarComHedging(long limiteNanos) {
+        Envio primeira = new Envio(limiteNanos);
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                log.info("Resposta do autorizador: {}", response.getBody());
-                return response.getBody();
+        AuthorizerProperties.Hedging hedging = properties.getHedging();
+        if (!hedging.isEnabled() || latencias.quantidade() < hedging.getMinSamples()) {
+            return aguardarResposta(primeira.resposta, limiteNanos, primeira);
+        }
+
+        long atraso = Math.max(latencias.percentil(0.95), hedging.getMinDelay().toNanos());
+        if (atraso >= limiteNanos) {
+            return aguardarResposta(primeira.resposta, limiteNanos, primeira);
+        }
+
+        try {
+            return primeira.resposta.get(atraso, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!reservarHedge()) {
+                return aguardarResposta(primeira.resposta, limiteNanos - atraso, primeira);
             }
+            log.info("Autorizador acima do p95 ({} ms), disparando requisição de hedge",
+                    TimeUnit.NANOSECONDS.toMillis(atraso));
+            Envio hedge;
+            try {
+                hedge = new Envio(limiteNanos - atraso);
+            } catch (AuthorizerException erro) {
+                // O hedge é opcional: segue só com a primeira requisição
+                log.warn("Requisição de hedge não enviada: {}", erro.getMessage());
+                return aguardarResposta(primeira.resposta, limiteNanos - atraso, primeira);
+            }
+            return aguardarResposta(primeiraComSucesso(primeira, hedge), limiteNanos - atraso, primeira, hedge);
+        } catch (ExecutionException e) {
+            throw desembrulhar(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primeira.abortar();
+            throw new AuthorizerException("Consulta ao autorizador interrompida", e);
+        }
+    }
+
+    /**
+     * O hedge é uma requisição a mais: ocupa uma vaga do bulkhead e uma ficha do orçamento de tentativas extras.
+     * Sem vaga livre na hora, a tentativa segue só com a primeira requisição em vez de esperar.
+     */
+    private boolean reservarHedge() {
+        if (!bulkhead.tryAcquireSemEspera()) {
+            return false;
+        }
+        if (!retryBudget.tryAcquire()) {
+            bulkhead.release();
+            return false;
+        }
+        return true;
+    }
+
+    private AuthorizerResponse aguardarResposta(CompletableFuture<AuthorizerResponse> resposta, long limiteNanos,
+                                                Envio... envios) {
+        try {
+            return resposta.get(limiteNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abortar(envios);
+            throw new AuthorizerException("Autorizador não respondeu dentro do prazo", e);
+        } catch (ExecutionException e) {
+            throw desembrulhar(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortar(envios);
+            throw new AuthorizerException("Consulta ao autorizador interrompida", e);
+        }
+    }
 
-            log.warn("Autorizador retornou status não esperado: {}", response.getStatusCode());
-            throw new AuthorizerException("Autorizador não disponível");
+    private static void abortar(Envio... envios) {
+        for (Envio envio : envios) {
+            envio.abortar();
+        }
+    }
 
-        } catch (RestClientException e) {
+    private static CompletableFuture<AuthorizerResponse> primeiraComSucesso(Envio primeira, Envio segunda) {
+        CompletableFuture<AuthorizerResponse> resultado = new CompletableFuture<>();
+        primeira.resposta.whenComplete((response, erro) -> {
+            if (erro == null) {
+                resultado.complete(response);
+            } else if (segunda.resposta.isCompletedExceptionally()) {
+                resultado.completeExceptionally(erro);
+            }
+        });
+        segunda.resposta.whenComplete((response, erro) -> {
+            if (erro == null) {
+                resultado.complete(response);
+            } else if (primeira.resposta.isCompletedExceptionally()) {
+                resultado.completeExceptionally(erro);
+            }
+        });
+        // A requisição que perdeu a corrida é abortada e devolve a vaga do bulkhead
+        resultado.whenComplete((response, erro) -> {
+            primeira.abortar();
+            segunda.abortar();
+        });
+        return resultado;
+    }
+
+    private static AuthorizerException desembrulhar(ExecutionException e) {
+        Throwable causa = e.getCause();
+        while (causa instanceof CompletionException && causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        if (causa instanceof AuthorizerException authorizerException) {
+            return authorizerException;
+        }
+        return new AuthorizerException("Falha na comunicação com o autorizador", causa);
+    }
+
+    // Erros 4xx indicam requisição rejeitada pelo autorizador; repetir não muda o resultado
+    private static boolean deveRetentar(AuthorizerException e) {
+        return !(e.getCause() instanceof HttpClientErrorException);
+    }
+
+    private long backoffComJitter(int tentativa) {
+        AuthorizerProperties.Retry retry = properties.getRetry();
+        long teto = Math.min(retry.getMaxBackoff().toNanos(), retry.getInitialBackoff().toNanos() << (tentativa - 1));
+        return ThreadLocalRandom.current().nextLong(teto + 1);
+    }
+
+    private static void aguardar(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthorizerException("Consulta ao autorizador interrompida", e);
+        }
+    }
+
+    private AuthorizerResponse consultarAutorizador(HttpGet requisicao) {
+        Resposta resposta;
+        try {
+            log.info("Consultando autorizador externo: {}", properties.getUrl());
+            resposta = httpClient.execute(requisicao, http -> new Resposta(http.getCode(),
+                    http.getEntity() != null ? EntityUtils.toByteArray(http.getEntity()) : new byte[0]));
+        } catch (IOException e) {
+            // Inclui a requisição abortada por ter passado do limite da tentativa
             log.error("Erro ao consultar autorizador externo", e);
             throw new AuthorizerException("Falha na comunicação com o autorizador", e);
         }
+
+        HttpStatusCode status = HttpStatusCode.valueOf(resposta.status());
+        if (status == HttpStatus.OK && resposta.corpo().length > 0) {
+            AuthorizerResponse response = ler(resposta);
+            log.info("Resposta do autorizador: {}", response);
+            return response;
+        }
+
+        if (status == HttpStatus.FORBIDDEN) {
+            // O autorizador responde 403 com authorized=false quando nega a operação
+            AuthorizerResponse negado = resposta.corpo().length > 0 ? ler(resposta) : null;
+            if (negado != null && negado.getData() != null) {
+                log.info("Autorizador negou a operação: {}", negado);
+                return negado;
+            }
+            log.error("Autorizador retornou 403 sem corpo reconhecido");
+        }
+
+        if (status.is4xxClientError()) {
+            log.error("Autorizador recusou a requisição com status {}", status);
+            throw new AuthorizerException("Falha na comunicação com o autorizador",
+                    HttpClientErrorException.create(status, "", HttpHeaders.EMPTY, resposta.corpo(), null));
+        }
+        if (status.is5xxServerError()) {
+            log.error("Autorizador retornou erro {}", status);
+            throw new AuthorizerException("Falha na comunicação com o autorizador",
+                    HttpServerErrorException.create(status, "", HttpHeaders.EMPTY, resposta.corpo(), null));
+        }
+
+        log.warn("Autorizador retornou status não esperado: {}", status);
+        throw new AuthorizerException("Autorizador não disponível");
+    }
+
+    private AuthorizerResponse ler(Resposta resposta) {
+        try {
+            return objectMapper.readValue(resposta.corpo(), AuthorizerResponse.class);
+        } catch (IOException e) {
+            log.error("Resposta do autorizador não reconhecida", e);
+            throw new AuthorizerException("Falha na comunicação com o autorizador", e);
+        }
+    }
+
+    private record Resposta(int status, byte[] corpo) {
+    }
+
+    /**
+     * Uma requisição ao autorizador. Assume uma vaga já reservada no bulkhead e a devolve quando a requisição
+     * termina, com resposta, erro ou abortada, ou quando nem chega a ser enviada. O response-timeout da
+     * requisição é o limite da tentativa, para o caso de ninguém abortá-la.
+     */
+    private final class Envio {
+
+        private final HttpGet requisicao;
+        private final CompletableFuture<AuthorizerResponse> resposta;
+
+        private Envio(long limiteNanos) {
+            // Até a tarefa ser aceita pelo executor, a vaga é devolvida aqui se algo falhar
+            try {
+                requisicao = new HttpGet(properties.getUrl());
+                requisicao.setConfig(AuthorizerHttpClientConfig.requestConfig(properties)
+                        // Abaixo de 1 ms o HttpClient arredondaria para zero, que significa sem limite
+                        .setResponseTimeout(Timeout.ofMilliseconds(
+                                Math.max(1, TimeUnit.NANOSECONDS.toMillis(limiteNanos))))
+                        .build());
+                resposta = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        long inicio = System.nanoTime();
+                        AuthorizerResponse response = consultarAutorizador(requisicao);
+                        latencias.registrar(System.nanoTime() - inicio);
+                        return response;
+                    } finally {
+                        bulkhead.release();
+                    }
+                }, executor);
+            } catch (RuntimeException e) {
+                bulkhead.release();
+                throw new AuthorizerException("Não foi possível enviar a consulta ao autorizador", e);
+            }
+        }
+
+        // Fecha a conexão: a thread parada na leitura recebe erro na hora
+        void abortar() {
+            requisicao.cancel();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package com.thuler.gateway.infrastructure.external.authorizer;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orçamento global de tentativas extras (retries e hedges): cada chamada nova deposita
+ * uma fração de ficha e cada tentativa extra consome uma ficha inteira. Assim as tentativas
+ * extras ficam limitadas a um percentual do tráfego e não multiplicam a carga numa queda.
+ */
+@Component
+public class AuthorizerRetryBudget {
+
+    private static final long MILI_FICHAS_POR_FICHA = 1000;
+
+    private final AtomicLong miliFichas;
+    private final long depositoPorChamada;
+    private final long maximoMiliFichas;
+    private final Counter extrasPermitidas;
+    private final Counter extrasNegadas;
+
+    public AuthorizerRetryBudget(AuthorizerProperties properties, MeterRegistry meterRegistry) {
+        AuthorizerProperties.Retry config = properties.getRetry();
+        this.depositoPorChamada = Math.round(config.getBudgetRatio() * MILI_FICHAS_POR_FICHA);
+        this.maximoMiliFichas = config.getBudgetMaxTokens() * MILI_FICHAS_POR_FICHA;
+        this.miliFichas = new AtomicLong(maximoMiliFichas);
+
+        Gauge.builder("authorizer.retry.budget.tokens", miliFichas, valor -> valor.get() / (double) MILI_FICHAS_POR_FICHA)
+                .description("Fichas disponíveis para tentativas extras ao autorizador")
+                .register(meterRegistry);
+        this.extrasPermitidas = meterRegistry.counter("authorizer.retry.extra.attempts", "result", "allowed");
+        this.extrasNegadas = meterRegistry.counter("authorizer.retry.extra.attempts", "result", "denied");
+    }
+
+    public void registrarChamada() {
+        miliFichas.accumulateAndGet(depositoPorChamada, (atual, deposito) -> Math.min(maximoMiliFichas, atual + deposito));
+    }
+
+    public boolean tryAcquire() {
+        long atual;
+        do {
+            atual = miliFichas.get();
+            if (atual < MILI_FICHAS_POR_FICHA) {
+                extrasNegadas.increment();
+                return false;
+            }
+        } while (!miliFichas.compareAndSet(atual, atual - MILI_FICHAS_POR_FICHA));
+
+        extrasPermitidas.increment();
+        return true;
+    }
+}
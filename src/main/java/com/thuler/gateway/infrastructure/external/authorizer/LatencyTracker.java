@@ -0,0 +1,37 @@
+package com.thuler.gateway.infrastructure.external.authorizer;
+
+import java.util.Arrays;
+
+/**
+ * Guarda as últimas latências observadas para estimar o p95 usado como atraso do hedging.
+ */
+class LatencyTracker {
+
+    private final long[] amostras;
+    private int proximaPosicao;
+    private int quantidade;
+
+    LatencyTracker(int tamanho) {
+        this.amostras = new long[tamanho];
+    }
+
+    synchronized void registrar(long latenciaNanos) {
+        amostras[proximaPosicao] = latenciaNanos;
+        proximaPosicao = (proximaPosicao + 1) % amostras.length;
+        quantidade = Math.min(quantidade + 1, amostras.length);
+    }
+
+    synchronized int quantidade() {
+        return quantidade;
+    }
+
+    synchronized long percentil(double percentil) {
+        if (quantidade == 0) {
+            return 0;
+        }
+        long[] ordenadas = Arrays.copyOf(amostras, quantidade);
+        Arrays.sort(ordenadas);
+        int indice = (int) Math.ceil(percentil * quantidade) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, quantidade - 1))];
+    }
+}
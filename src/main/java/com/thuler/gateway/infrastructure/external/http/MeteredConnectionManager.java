@@ -0,0 +1,161 @@
+package com.thuler.gateway.infrastructure.external.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decora o pool do HttpClient medindo o tempo de espera por uma conexão e quantas
+ * conexões entregues já estavam abertas (reutilizadas) ou precisaram de um novo handshake.
+ * <p>
+ * Implementa {@link ConnPoolControl} para que o HttpClientBuilder continue ativando o
+ * despejo de conexões ociosas, que só é ligado quando o gerenciador expõe o pool.
+ */
+public class MeteredConnectionManager implements HttpClientConnectionManager, ConnPoolControl<HttpRoute> {
+
+    private final PoolingHttpClientConnectionManager delegate;
+    private final Timer leaseTimer;
+    private final Counter conexoesReutilizadas;
+    private final Counter conexoesNovas;
+
+    public MeteredConnectionManager(PoolingHttpClientConnectionManager delegate, MeterRegistry registry, String pool) {
+        this.delegate = delegate;
+        this.leaseTimer = Timer.builder("httpcomponents.httpclient.pool.lease")
+                .description("Tempo de espera para obter uma conexão do pool")
+                .tag("httpclient", pool)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.conexoesReutilizadas = conexoes(registry, pool, true);
+        this.conexoesNovas = conexoes(registry, pool, false);
+    }
+
+    private static Counter conexoes(MeterRegistry registry, String pool, boolean reutilizada) {
+        return Counter.builder("httpcomponents.httpclient.pool.connections")
+                .description("Conexões entregues pelo pool, separadas entre reutilizadas e novas")
+                .tag("httpclient", pool)
+                .tag("reused", String.valueOf(reutilizada))
+                .register(registry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest leaseRequest = delegate.lease(id, route, requestTimeout, state);
+
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long inicio = System.nanoTime();
+                try {
+                    ConnectionEndpoint endpoint = leaseRequest.get(timeout);
+                    (endpoint.isConnected() ? conexoesReutilizadas : conexoesNovas).increment();
+                    return endpoint;
+                } finally {
+                    leaseTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return leaseRequest.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        delegate.connect(endpoint, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return delegate.getTotalStats();
+    }
+
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return delegate.getStats(route);
+    }
+
+    @Override
+    public void setMaxTotal(int max) {
+        delegate.setMaxTotal(max);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return delegate.getMaxTotal();
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        delegate.setDefaultMaxPerRoute(max);
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return delegate.getDefaultMaxPerRoute();
+    }
+
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        delegate.setMaxPerRoute(route, max);
+    }
+
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        return delegate.getMaxPerRoute(route);
+    }
+
+    @Override
+    public void closeIdle(TimeValue idleTime) {
+        delegate.closeIdle(idleTime);
+    }
+
+    @Override
+    public void closeExpired() {
+        delegate.closeExpired();
+    }
+
+    @Override
+    public Set<HttpRoute> getRoutes() {
+        return delegate.getRoutes();
+    }
+}
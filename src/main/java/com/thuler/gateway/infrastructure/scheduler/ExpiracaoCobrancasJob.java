@@ -0,0 +1,30 @@
+package com.thuler.gateway.infrastructure.scheduler;
+
+import com.thuler.gateway.usecase.cobranca.ExpirarCobrancasUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cobranca.expiracao.habilitada", havingValue = "true", matchIfMissing = true)
+public class ExpiracaoCobrancasJob {
+
+    private final ExpirarCobrancasUseCase expirarCobrancasUseCase;
+
+    @Value("${cobranca.expiracao.ttl:30d}")
+    private Duration ttl;
+
+    @Value("${cobranca.expiracao.tamanho-bloco:1000}")
+    private int tamanhoBloco;
+
+    @Scheduled(fixedDelayString = "${cobranca.expiracao.intervalo-ms:600000}",
+            initialDelayString = "${cobranca.expiracao.intervalo-ms:600000}")
+    public void expirar() {
+        expirarCobrancasUseCase.execute(ttl, tamanhoBloco);
+    }
+}
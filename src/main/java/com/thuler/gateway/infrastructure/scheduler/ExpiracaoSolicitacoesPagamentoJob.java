@@ -0,0 +1,27 @@
+package com.thuler.gateway.infrastructure.scheduler;
+
+import com.thuler.gateway.usecase.cobranca.ExpirarSolicitacoesPagamentoUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "pagamento.solicitacao.expiracao.habilitada", havingValue = "true", matchIfMissing = true)
+public class ExpiracaoSolicitacoesPagamentoJob {
+
+    private final ExpirarSolicitacoesPagamentoUseCase expirarSolicitacoesPagamentoUseCase;
+
+    @Value("${pagamento.solicitacao.expiracao.timeout:5m}")
+    private Duration timeout;
+
+    @Scheduled(fixedDelayString = "${pagamento.solicitacao.expiracao.intervalo-ms:60000}",
+            initialDelayString = "${pagamento.solicitacao.expiracao.intervalo-ms:60000}")
+    public void expirar() {
+        expirarSolicitacoesPagamentoUseCase.execute(timeout);
+    }
+}
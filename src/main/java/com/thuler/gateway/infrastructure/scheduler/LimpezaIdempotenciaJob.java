@@ -0,0 +1,21 @@
+package com.thuler.gateway.infrastructure.scheduler;
+
+import com.thuler.gateway.infrastructure.web.IdempotenciaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "idempotencia.limpeza.habilitada", havingValue = "true", matchIfMissing = true)
+public class LimpezaIdempotenciaJob {
+
+    private final IdempotenciaService idempotenciaService;
+
+    @Scheduled(fixedDelayString = "${idempotencia.limpeza.intervalo-ms:3600000}",
+            initialDelayString = "${idempotencia.limpeza.intervalo-ms:3600000}")
+    public void limpar() {
+        idempotenciaService.removerExpiradas();
+    }
+}
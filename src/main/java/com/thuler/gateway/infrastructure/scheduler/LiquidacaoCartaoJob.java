@@ -0,0 +1,25 @@
+package com.thuler.gateway.infrastructure.scheduler;
+
+import com.thuler.gateway.usecase.cobranca.LiquidarPagamentosCartaoUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cartao.liquidacao.habilitada", havingValue = "true", matchIfMissing = true)
+public class LiquidacaoCartaoJob {
+
+    private final LiquidarPagamentosCartaoUseCase liquidarPagamentosCartaoUseCase;
+
+    @Value("${cartao.liquidacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Scheduled(fixedDelayString = "${cartao.liquidacao.intervalo-ms:300}",
+            initialDelayString = "${cartao.liquidacao.intervalo-ms:300}")
+    public void liquidar() {
+        liquidarPagamentosCartaoUseCase.execute(tamanhoLote);
+    }
+}
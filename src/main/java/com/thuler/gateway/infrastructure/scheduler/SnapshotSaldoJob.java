@@ -0,0 +1,25 @@
+package com.thuler.gateway.infrastructure.scheduler;
+
+import com.thuler.gateway.usecase.conta.GerarSnapshotsSaldoUseCase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "conta.snapshot.habilitado", havingValue = "true", matchIfMissing = true)
+public class SnapshotSaldoJob {
+
+    private final GerarSnapshotsSaldoUseCase gerarSnapshotsSaldoUseCase;
+
+    @Value("${conta.snapshot.minimo-lancamentos:100}")
+    private long minimoLancamentos;
+
+    @Scheduled(fixedDelayString = "${conta.snapshot.intervalo-ms:60000}",
+            initialDelayString = "${conta.snapshot.intervalo-ms:60000}")
+    public void gerarSnapshots() {
+        gerarSnapshotsSaldoUseCase.execute(minimoLancamentos);
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,13 +15,18 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtTokenProvider tokenProvider;
+    private final JwtTokenVerifier tokenVerifier;
     private final UserDetailsServiceImpl userDetailsService;
+    private final UsuarioStatusCache usuarioStatusCache;
+
+    @Value("${jwt.claims-only-authentication:true}")
+    private boolean claimsOnlyAuthentication;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -30,10 +36,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserById(userId);
+            Optional<VerifiedToken> token = StringUtils.hasText(jwt) ? tokenVerifier.verify(jwt) : Optional.empty();
+
+            UserDetails userDetails = token.map(this::carregarUsuario).orElse(null);
 
+            if (userDetails != null && userDetails.isEnabled()) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -47,6 +54,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails carregarUsuario(VerifiedToken token) {
+        if (!claimsOnlyAuthentication) {
+            return userDetailsService.loadUserById(token.userId());
+        }
+
+        return new AuthenticatedUser(
+                token.userId(),
+                token.email(),
+                null,
+                usuarioStatusCache.isAtivo(token.userId())
+        );
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
 
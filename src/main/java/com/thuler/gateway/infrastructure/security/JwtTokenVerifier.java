@@ -0,0 +1,87 @@
+package com.thuler.gateway.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+@Component
+public class JwtTokenVerifier {
+
+    static final String CACHE_NAME = "jwt.tokens.verificados";
+
+    private final JwtTokenProvider tokenProvider;
+    private final Cache<String, VerifiedToken> tokensVerificados;
+
+    public JwtTokenVerifier(JwtTokenProvider tokenProvider,
+                            MeterRegistry meterRegistry,
+                            @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.tokenProvider = tokenProvider;
+        this.tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpiraComToken())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, tokensVerificados, CACHE_NAME);
+    }
+
+    public Optional<VerifiedToken> verify(String token) {
+        String chave = digest(token);
+
+        VerifiedToken verificado = tokensVerificados.getIfPresent(chave);
+        if (verificado != null && !verificado.isExpired()) {
+            return Optional.of(verificado);
+        }
+
+        try {
+            verificado = tokenProvider.parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        tokensVerificados.put(chave, verificado);
+        return Optional.of(verificado);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+
+    // Cada entrada vive apenas até a expiração do próprio token
+    private static class ExpiraComToken implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String chave, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String chave, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(chave, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String chave, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
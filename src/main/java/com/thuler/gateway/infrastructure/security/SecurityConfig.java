@@ -1,5 +1,6 @@
 package com.thuler.gateway.infrastructure.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -41,7 +42,10 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/usuarios/cadastro").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/usuarios/login").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html", "/api-docs/**").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        // Só o health é público; métricas expõem volume e latência e exigem autenticação
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // Só conclui respostas assíncronas (ex.: exportação) de requisições já autorizadas
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
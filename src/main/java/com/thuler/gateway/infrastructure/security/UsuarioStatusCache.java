@@ -0,0 +1,42 @@
+package com.thuler.gateway.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class UsuarioStatusCache {
+
+    static final String CACHE_NAME = "usuarios.status";
+
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<Long, Boolean> status;
+
+    public UsuarioStatusCache(UsuarioRepository usuarioRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.status-cache.max-size:10000}") long maxSize,
+                              @Value("${jwt.status-cache.ttl:1m}") Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.status = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, status, CACHE_NAME);
+    }
+
+    public boolean isAtivo(Long usuarioId) {
+        return status.get(usuarioId, id -> usuarioRepository.findActiveById(id).orElse(false));
+    }
+
+    public void invalidar(Long usuarioId) {
+        status.invalidate(usuarioId);
+    }
+}
@@ -0,0 +1,37 @@
+package com.thuler.gateway.infrastructure.security;
+
+import com.thuler.gateway.domain.model.Usuario;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class UsuarioStatusListener {
+
+    private final UsuarioStatusCache usuarioStatusCache;
+
+    // Lazy: o listener é criado junto com o EntityManagerFactory, antes dos repositórios
+    public UsuarioStatusListener(@Lazy UsuarioStatusCache usuarioStatusCache) {
+        this.usuarioStatusCache = usuarioStatusCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void invalidarStatus(Usuario usuario) {
+        Long usuarioId = usuario.getId();
+        usuarioStatusCache.invalidar(usuarioId);
+
+        // Invalida de novo após o commit para não reaproveitar um valor lido antes dele
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usuarioStatusCache.invalidar(usuarioId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.thuler.gateway.infrastructure.security;
+
+import java.time.Instant;
+
+public record VerifiedToken(Long userId, String email, Instant expiresAt) {
+
+    public boolean isExpired() {
+        return !Instant.now().isBefore(expiresAt);
+    }
+}
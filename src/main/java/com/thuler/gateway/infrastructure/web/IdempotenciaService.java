@@ -0,0 +1,243 @@
+package com.thuler.gateway.infrastructure.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thuler.gateway.domain.model.ChaveIdempotencia;
+import com.thuler.gateway.domain.repository.ChaveIdempotenciaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Guarda a resposta da primeira execução de cada Idempotency-Key.
+ * <p>
+ * Respostas concluídas ficam em um cache limitado em memória, com a tabela {@code chaves_idempotencia} como
+ * fonte durável. A reserva da chave é um INSERT na tabela, então só uma requisição executa mesmo entre
+ * instâncias diferentes. Duplicatas na mesma instância esperam a primeira sem consultar o banco; as de
+ * outra instância consultam a tabela em intervalos até a resposta aparecer.
+ */
+@Service
+@Slf4j
+public class IdempotenciaService {
+
+    static final String CACHE_NAME = "idempotencia.respostas";
+    private static final int TENTATIVAS_CONCLUSAO = 3;
+
+    private final ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+    private final Cache<String, RespostaIdempotente> concluidas;
+    private final ConcurrentMap<String, CompletableFuture<Void>> emAndamento = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration esperaMaxima;
+    private final Duration intervaloConsulta;
+    private final Duration abandonadaApos;
+
+    public IdempotenciaService(ChaveIdempotenciaRepository chaveIdempotenciaRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${idempotencia.cache.max-size:10000}") long maxSize,
+                               @Value("${idempotencia.ttl:24h}") Duration ttl,
+                               @Value("${idempotencia.espera-maxima:10s}") Duration esperaMaxima,
+                               @Value("${idempotencia.intervalo-consulta:100ms}") Duration intervaloConsulta,
+                               @Value("${idempotencia.abandonada-apos:10m}") Duration abandonadaApos) {
+        this.chaveIdempotenciaRepository = chaveIdempotenciaRepository;
+        this.ttl = ttl;
+        this.esperaMaxima = esperaMaxima;
+        this.intervaloConsulta = intervaloConsulta;
+        this.abandonadaApos = abandonadaApos;
+        this.concluidas = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, concluidas, CACHE_NAME);
+    }
+
+    public enum Situacao {
+        /** Chave reservada: a requisição deve ser executada e depois concluída ou liberada. */
+        NOVA,
+        /** Chave já concluída com a mesma requisição: repetir a resposta guardada. */
+        REPETIDA,
+        /** Chave já usada com método, caminho ou corpo diferentes. */
+        OUTRA_REQUISICAO,
+        /** A primeira execução não terminou dentro da espera permitida. */
+        EM_PROCESSAMENTO
+    }
+
+    public record Reserva(Situacao situacao, RespostaIdempotente resposta) {
+    }
+
+    public Reserva reservar(Long usuarioId, String chave, String impressao) {
+        String id = usuarioId + ":" + chave;
+        long prazo = System.nanoTime() + espera().toNanos();
+
+        while (true) {
+            RespostaIdempotente concluida = concluidas.getIfPresent(id);
+            if (concluida != null) {
+                return repetir(concluida, impressao);
+            }
+
+            CompletableFuture<Void> minha = new CompletableFuture<>();
+            CompletableFuture<Void> primeira = emAndamento.putIfAbsent(id, minha);
+            if (primeira != null) {
+                // Duplicata concorrente nesta instância: espera a primeira terminar e reavalia
+                if (!aguardar(primeira, prazo)) {
+                    return new Reserva(Situacao.EM_PROCESSAMENTO, null);
+                }
+                continue;
+            }
+
+            Optional<ChaveIdempotencia> existente;
+            try {
+                LocalDateTime abandonadasAntesDe = LocalDateTime.now().minus(abandonadaApos);
+                if (chaveIdempotenciaRepository.reservar(usuarioId, chave, impressao, abandonadasAntesDe) == 1) {
+                    return new Reserva(Situacao.NOVA, null);
+                }
+                existente = chaveIdempotenciaRepository.findByUsuarioIdAndChave(usuarioId, chave);
+            } catch (RuntimeException e) {
+                liberarLocal(id, minha);
+                throw e;
+            }
+            liberarLocal(id, minha);
+
+            if (existente.isPresent() && existente.get().isConcluida()) {
+                RespostaIdempotente resposta = paraResposta(existente.get());
+                concluidas.put(id, resposta);
+                return repetir(resposta, impressao);
+            }
+
+            if (existente.isPresent() && !existente.get().getImpressao().equals(impressao)) {
+                return new Reserva(Situacao.OUTRA_REQUISICAO, null);
+            }
+
+            // Reservada por outra instância (ou liberada agora há pouco): consulta de novo em seguida.
+            // Se a outra instância caiu, a reserva é assumida depois de abandonadaApos
+            if (!dormir(prazo)) {
+                return new Reserva(Situacao.EM_PROCESSAMENTO, null);
+            }
+        }
+    }
+
+    /**
+     * Guarda a resposta de uma requisição já executada. Se a gravação falhar em todas as tentativas a reserva
+     * continua na tabela: liberá-la permitiria executar de novo uma operação já commitada. Duplicatas de outras
+     * instâncias recebem "em processamento" até a reserva ser considerada abandonada.
+     */
+    public void concluir(Long usuarioId, String chave, RespostaIdempotente resposta) {
+        String id = usuarioId + ":" + chave;
+        // Duplicatas nesta instância já repetem a resposta, mesmo que a gravação falhe
+        concluidas.put(id, resposta);
+        try {
+            for (int tentativa = 1; ; tentativa++) {
+                try {
+                    chaveIdempotenciaRepository.concluir(usuarioId, chave, resposta.status(),
+                            resposta.contentType(), resposta.location(), resposta.corpo());
+                    return;
+                } catch (RuntimeException e) {
+                    if (tentativa >= TENTATIVAS_CONCLUSAO) {
+                        log.error("Falha ao guardar a resposta da Idempotency-Key {} do usuário ID: {}; "
+                                + "a chave fica reservada", chave, usuarioId, e);
+                        return;
+                    }
+                    log.warn("Falha ao guardar a resposta da Idempotency-Key {} (tentativa {}): {}",
+                            chave, tentativa, e.getMessage());
+                    if (!dormir(System.nanoTime() + intervaloConsulta.toNanos())) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            liberarLocal(id, emAndamento.get(id));
+        }
+    }
+
+    public void liberar(Long usuarioId, String chave) {
+        String id = usuarioId + ":" + chave;
+        try {
+            chaveIdempotenciaRepository.liberar(usuarioId, chave);
+        } finally {
+            liberarLocal(id, emAndamento.get(id));
+        }
+    }
+
+    /**
+     * Respostas que valem ser repetidas: sucesso e erros de validação. Conflitos de trava, limites e erros
+     * do servidor são transitórios e a próxima tentativa deve executar de novo.
+     */
+    public static boolean armazenavel(int status) {
+        return status < 500 && status != 409 && status != 429;
+    }
+
+    public int removerExpiradas() {
+        LocalDateTime agora = LocalDateTime.now();
+        int removidas = chaveIdempotenciaRepository.removerExpiradas(agora.minus(ttl), agora.minus(abandonadaApos));
+        if (removidas > 0) {
+            log.info("{} Idempotency-Keys expiradas removidas", removidas);
+        }
+        return removidas;
+    }
+
+    private Reserva repetir(RespostaIdempotente resposta, String impressao) {
+        if (!resposta.impressao().equals(impressao)) {
+            return new Reserva(Situacao.OUTRA_REQUISICAO, null);
+        }
+        return new Reserva(Situacao.REPETIDA, resposta);
+    }
+
+    // Limitada também pelo prazo da requisição: não adianta esperar mais do que o cliente espera
+    private Duration espera() {
+        return RequestDeadline.restante()
+                .filter(restante -> restante.compareTo(esperaMaxima) < 0)
+                .orElse(esperaMaxima);
+    }
+
+    private boolean aguardar(CompletableFuture<Void> primeira, long prazo) {
+        try {
+            primeira.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    private boolean dormir(long prazo) {
+        long restante = prazo - System.nanoTime();
+        if (restante <= 0) {
+            return false;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(Math.min(restante, intervaloConsulta.toNanos()));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void liberarLocal(String id, CompletableFuture<Void> reserva) {
+        if (reserva != null && emAndamento.remove(id, reserva)) {
+            reserva.complete(null);
+        }
+    }
+
+    private RespostaIdempotente paraResposta(ChaveIdempotencia chave) {
+        return new RespostaIdempotente(chave.getImpressao(), chave.getStatusHttp(),
+                chave.getContentType(), chave.getLocation(), chave.getCorpo());
+    }
+}
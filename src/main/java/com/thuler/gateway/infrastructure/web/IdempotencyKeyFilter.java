@@ -0,0 +1,245 @@
+package com.thuler.gateway.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thuler.gateway.infrastructure.exception.ErrorResponse;
+import com.thuler.gateway.infrastructure.security.AuthenticatedUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Suporte ao header Idempotency-Key nos endpoints que movimentam dinheiro.
+ * <p>
+ * A primeira requisição com a chave executa normalmente e sua resposta é guardada; as seguintes do mesmo
+ * usuário recebem a resposta guardada (com o header {@value #HEADER_REPETIDA}) sem executar o caso de uso
+ * nem chamar o autorizador. Duplicatas simultâneas esperam a primeira terminar.
+ * <p>
+ * Roda logo depois da cadeia do Spring Security, porque a chave vale por usuário autenticado.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final List<Rota> ROTAS = List.of(
+            new Rota(HttpMethod.POST, "/api/cobrancas/pagar/**"),
+            new Rota(HttpMethod.POST, "/api/conta/deposito"),
+            new Rota(HttpMethod.DELETE, "/api/cobrancas/*"));
+
+    private final IdempotenciaService idempotenciaService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !StringUtils.hasText(request.getHeader(HEADER))
+                || ROTAS.stream().noneMatch(rota -> rota.aceita(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        Long usuarioId = usuarioAutenticado();
+        if (usuarioId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String chave = request.getHeader(HEADER).trim();
+        if (chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            escreverErro(request, response, HttpStatus.BAD_REQUEST,
+                    HEADER + " deve ter no máximo " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+            return;
+        }
+
+        CorpoEmCacheRequest requisicao = new CorpoEmCacheRequest(request);
+        String impressao = impressao(requisicao);
+
+        IdempotenciaService.Reserva reserva = idempotenciaService.reservar(usuarioId, chave, impressao);
+
+        switch (reserva.situacao()) {
+            case REPETIDA -> {
+                log.info("Repetindo resposta da {} {} do usuário ID: {}", HEADER, chave, usuarioId);
+                repetir(reserva.resposta(), response);
+            }
+            case OUTRA_REQUISICAO -> escreverErro(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " já utilizada com outra requisição");
+            case EM_PROCESSAMENTO -> escreverErro(request, response, HttpStatus.CONFLICT,
+                    "Requisição com esta " + HEADER + " ainda em processamento, tente novamente");
+            case NOVA -> executar(requisicao, response, filterChain, usuarioId, chave, impressao);
+        }
+    }
+
+    private void executar(CorpoEmCacheRequest request, HttpServletResponse response, FilterChain filterChain,
+                          Long usuarioId, String chave, String impressao) throws ServletException, IOException {
+
+        ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+        boolean concluida = false;
+        try {
+            filterChain.doFilter(request, resposta);
+
+            if (IdempotenciaService.armazenavel(resposta.getStatus())) {
+                // A operação já foi commitada: a partir daqui a chave nunca é liberada
+                concluida = true;
+                idempotenciaService.concluir(usuarioId, chave, new RespostaIdempotente(
+                        impressao,
+                        resposta.getStatus(),
+                        resposta.getContentType(),
+                        resposta.getHeader(HttpHeaders.LOCATION),
+                        new String(resposta.getContentAsByteArray(), StandardCharsets.UTF_8)));
+            }
+        } finally {
+            if (!concluida) {
+                idempotenciaService.liberar(usuarioId, chave);
+            }
+            resposta.copyBodyToResponse();
+        }
+    }
+
+    private void repetir(RespostaIdempotente resposta, HttpServletResponse response) throws IOException {
+        response.setStatus(resposta.status());
+        response.setHeader(HEADER_REPETIDA, "true");
+        if (resposta.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, resposta.location());
+        }
+        if (resposta.contentType() != null) {
+            response.setContentType(resposta.contentType());
+        }
+        if (resposta.corpo() != null) {
+            byte[] corpo = resposta.corpo().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(corpo.length);
+            response.getOutputStream().write(corpo);
+        }
+    }
+
+    private void escreverErro(HttpServletRequest request, HttpServletResponse response,
+                              HttpStatus status, String mensagem) throws IOException {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(mensagem)
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+
+    private Long usuarioAutenticado() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    // Mesma chave com outro método, caminho ou corpo é erro do cliente, não repetição
+    private static String impressao(CorpoEmCacheRequest request) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            sha256.update(request.corpo);
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private record Rota(HttpMethod metodo, String padrao) {
+
+        boolean aceita(HttpServletRequest request) {
+            return metodo.matches(request.getMethod()) && PATH_MATCHER.match(padrao, request.getRequestURI());
+        }
+    }
+
+    // O corpo é lido uma vez para a impressão e servido de novo ao controller
+    private static final class CorpoEmCacheRequest extends HttpServletRequestWrapper {
+
+        private final byte[] corpo;
+
+        CorpoEmCacheRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.corpo = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.thuler.gateway.infrastructure.web;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Prazo final da requisição HTTP em andamento, usado para limitar chamadas externas
+ * (tentativas, backoff e hedging) ao tempo que o cliente ainda está disposto a esperar.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> PRAZO_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void iniciar(Duration orcamento) {
+        PRAZO_NANOS.set(System.nanoTime() + orcamento.toNanos());
+    }
+
+    public static void limpar() {
+        PRAZO_NANOS.remove();
+    }
+
+    /**
+     * Tempo restante até o prazo; vazio quando a thread não está atendendo uma requisição.
+     */
+    public static Optional<Duration> restante() {
+        Long prazo = PRAZO_NANOS.get();
+        if (prazo == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(Math.max(0, prazo - System.nanoTime())));
+    }
+}
@@ -0,0 +1,67 @@
+package com.thuler.gateway.infrastructure.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Define o prazo da requisição a partir do header X-Request-Timeout (em milissegundos),
+ * limitado ao máximo configurado, ou do orçamento padrão quando o header não é enviado.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    private final Duration orcamentoPadrao;
+    private final Duration orcamentoMaximo;
+
+    public RequestDeadlineFilter(@Value("${request.deadline.default:10s}") Duration orcamentoPadrao,
+                                 @Value("${request.deadline.max:30s}") Duration orcamentoMaximo) {
+        this.orcamentoPadrao = orcamentoPadrao;
+        this.orcamentoMaximo = orcamentoMaximo;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        RequestDeadline.iniciar(orcamento(request.getHeader(HEADER)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.limpar();
+        }
+    }
+
+    private Duration orcamento(String header) {
+        if (!StringUtils.hasText(header)) {
+            return orcamentoPadrao;
+        }
+
+        try {
+            Duration solicitado = Duration.ofMillis(Long.parseLong(header.trim()));
+            if (solicitado.isNegative() || solicitado.isZero()) {
+                return orcamentoPadrao;
+            }
+            return solicitado.compareTo(orcamentoMaximo) > 0 ? orcamentoMaximo : solicitado;
+        } catch (NumberFormatException e) {
+            log.debug("Header {} inválido: {}", HEADER, header);
+            return orcamentoPadrao;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.thuler.gateway.infrastructure.web;
+
+/**
+ * Resposta guardada para uma Idempotency-Key, repetida para as requisições seguintes com a mesma chave.
+ */
+public record RespostaIdempotente(String impressao, int status, String contentType, String location, String corpo) {
+}
@@ -2,15 +2,21 @@ package com.thuler.gateway.usecase.cobranca;
 
 import com.thuler.gateway.dto.response.CobrancaResponse;
 import com.thuler.gateway.domain.model.Cobranca;
-import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.LiquidacaoCartao;
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.TipoLancamento;
 import com.thuler.gateway.domain.repository.CobrancaRepository;
 import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LiquidacaoCartaoRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.service.RetentativaOtimista;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -19,9 +25,12 @@ public class CancelarCobrancaUseCase {
 
     private final CobrancaRepository cobrancaRepository;
     private final ContaRepository contaRepository;
+    private final LiquidacaoCartaoRepository liquidacaoCartaoRepository;
+    private final LancamentoService lancamentoService;
     private final AuthorizerClient authorizerClient;
+    private final RetentativaOtimista retentativaOtimista;
 
-    @Transactional
+    // Sem @Transactional: a chamada ao autorizador não pode segurar conexão do pool
     public CobrancaResponse execute(Long usuarioId, Long cobrancaId) {
         log.info("Iniciando cancelamento da cobrança ID: {} pelo usuário ID: {}", cobrancaId, usuarioId);
 
@@ -38,6 +47,37 @@ public class CancelarCobrancaUseCase {
             throw new IllegalStateException("Cobrança já está cancelada");
         }
 
+        if (cobranca.isExpirada()) {
+            log.warn("Tentativa de cancelar cobrança expirada. Cobrança ID: {}", cobrancaId);
+            throw new IllegalStateException("Cobrança expirada não pode ser cancelada");
+        }
+
+        AuthorizerResponse autorizacaoEstorno = null;
+        if (cobranca.foiPagaComCartao()) {
+            autorizacaoEstorno = autorizarEstornoCartao(cobranca);
+        }
+
+        CobrancaStatus statusValidado = cobranca.getStatus();
+        AuthorizerResponse autorizacao = autorizacaoEstorno;
+
+        cobranca = retentativaOtimista.executar(status -> cancelar(cobrancaId, statusValidado, autorizacao));
+
+        log.info("Cobrança cancelada com sucesso. Cobrança ID: {}", cobranca.getId());
+
+        return CobrancaResponse.fromEntity(cobranca);
+    }
+
+    private Cobranca cancelar(Long cobrancaId, CobrancaStatus statusValidado, AuthorizerResponse autorizacaoEstorno) {
+        Cobranca cobranca = cobrancaRepository.findById(cobrancaId)
+                .orElseThrow(() -> new IllegalArgumentException("Cobrança não encontrada"));
+
+        // Um pagamento que chegue depois desta leitura perde no @Version (ou este cancelamento, se ele chegar antes)
+        if (cobranca.getStatus() != statusValidado) {
+            log.warn("Cobrança ID: {} mudou de {} para {} durante o cancelamento",
+                    cobrancaId, statusValidado, cobranca.getStatus());
+            throw new IllegalStateException("Cobrança foi alterada durante o cancelamento, tente novamente");
+        }
+
         if (cobranca.isPendente()) {
             log.info("Cancelando cobrança pendente ID: {}", cobrancaId);
             cobranca.cancelar(null);
@@ -49,46 +89,36 @@ public class CancelarCobrancaUseCase {
             if (cobranca.foiPagaComSaldo()) {
                 estornarPagamentoSaldo(cobranca);
             } else if (cobranca.foiPagaComCartao()) {
-                estornarPagamentoCartao(cobranca);
+                estornarPagamentoCartao(cobranca, autorizacaoEstorno);
             }
         }
 
-        cobranca = cobrancaRepository.save(cobranca);
-
-        log.info("Cobrança cancelada com sucesso. Cobrança ID: {}", cobranca.getId());
-
-        return CobrancaResponse.fromEntity(cobranca);
+        return cobrancaRepository.saveAndFlush(cobranca);
     }
 
     private void estornarPagamentoSaldo(Cobranca cobranca) {
         log.info("Estornando pagamento com saldo da cobrança ID: {}", cobranca.getId());
 
-        Conta contaPagador = contaRepository.findByUsuarioId(cobranca.getDestinatario().getId())
+        Long contaPagadorId = contaRepository.findIdByUsuarioId(cobranca.getDestinatario().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Conta do pagador não encontrada"));
 
-        Conta contaRecebedor = contaRepository.findByUsuarioId(cobranca.getOriginador().getId())
+        Long contaRecebedorId = contaRepository.findIdByUsuarioId(cobranca.getOriginador().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Conta do recebedor não encontrada"));
 
-        if (!contaRecebedor.temSaldoSuficiente(cobranca.getValor())) {
-            log.error("Recebedor não tem saldo suficiente para estorno. Saldo: R$ {}, Valor estorno: R$ {}",
-                    contaRecebedor.getSaldo(), cobranca.getValor());
+        boolean estornado = lancamentoService.transferir(contaRecebedorId, contaPagadorId, cobranca.getValor(),
+                TipoLancamento.ESTORNO_ENVIADO, TipoLancamento.ESTORNO_RECEBIDO, cobranca);
+
+        if (!estornado) {
+            log.error("Recebedor não tem saldo suficiente para estorno. Valor estorno: R$ {}", cobranca.getValor());
             throw new IllegalArgumentException("Recebedor não possui saldo suficiente para estorno");
         }
 
-        contaRecebedor.debitar(cobranca.getValor());
-        contaPagador.creditar(cobranca.getValor());
-
-        contaRepository.save(contaPagador);
-        contaRepository.save(contaRecebedor);
-
         cobranca.cancelar("ESTORNO_SALDO");
 
         log.info("Estorno de pagamento com saldo realizado com sucesso. Cobrança ID: {}", cobranca.getId());
     }
 
-    private void estornarPagamentoCartao(Cobranca cobranca) {
-        log.info("Estornando pagamento com cartão da cobrança ID: {}", cobranca.getId());
-
+    private AuthorizerResponse autorizarEstornoCartao(Cobranca cobranca) {
         log.info("Consultando autorizador externo para cancelamento de pagamento com cartão");
         AuthorizerResponse authorizerResponse = authorizerClient.authorize();
 
@@ -98,27 +128,44 @@ public class CancelarCobrancaUseCase {
         }
 
         log.info("Cancelamento autorizado pelo autorizador externo");
+        return authorizerResponse;
+    }
+
+    private void estornarPagamentoCartao(Cobranca cobranca, AuthorizerResponse authorizerResponse) {
+        log.info("Estornando pagamento com cartão da cobrança ID: {}", cobranca.getId());
+
+        // Crédito ainda na fila de liquidação: o recebedor não recebeu nada, basta tirá-lo da fila
+        Optional<LiquidacaoCartao> liquidacao = liquidacaoCartaoRepository.travarPorCobrancaId(cobranca.getId());
+        if (liquidacao.isPresent() && liquidacao.get().isPendente()) {
+            liquidacao.get().cancelar();
+            liquidacaoCartaoRepository.save(liquidacao.get());
+            cobranca.cancelar(formatarEstorno(authorizerResponse));
 
-        Conta contaRecebedor = contaRepository.findByUsuarioId(cobranca.getOriginador().getId())
+            log.info("Liquidação pendente da cobrança ID: {} cancelada, sem débito ao recebedor", cobranca.getId());
+            return;
+        }
+
+        Long contaRecebedorId = contaRepository.findIdByUsuarioId(cobranca.getOriginador().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Conta do recebedor não encontrada"));
 
-        if (!contaRecebedor.temSaldoSuficiente(cobranca.getValor())) {
-            log.error("Recebedor não tem saldo suficiente para estorno. Saldo: R$ {}, Valor estorno: R$ {}",
-                    contaRecebedor.getSaldo(), cobranca.getValor());
+        boolean estornado = lancamentoService.debitar(contaRecebedorId, cobranca.getValor(),
+                TipoLancamento.ESTORNO_ENVIADO, cobranca);
+
+        if (!estornado) {
+            log.error("Recebedor não tem saldo suficiente para estorno. Valor estorno: R$ {}", cobranca.getValor());
             throw new IllegalArgumentException("Recebedor não possui saldo suficiente para estorno");
         }
 
-        contaRecebedor.debitar(cobranca.getValor());
-        contaRepository.save(contaRecebedor);
+        cobranca.cancelar(formatarEstorno(authorizerResponse));
 
-        String authorizerResponseStr = String.format(
+        log.info("Estorno de pagamento com cartão realizado com sucesso. Cobrança ID: {}", cobranca.getId());
+    }
+
+    private String formatarEstorno(AuthorizerResponse authorizerResponse) {
+        return String.format(
                 "CANCELLED - Status: %s, Authorization: %s",
                 authorizerResponse.getStatus(),
                 authorizerResponse.getData().getAuthorized()
         );
-
-        cobranca.cancelar(authorizerResponseStr);
-
-        log.info("Estorno de pagamento com cartão realizado com sucesso. Cobrança ID: {}", cobranca.getId());
     }
 }
\ No newline at end of file
@@ -1,46 +1,100 @@
 package com.thuler.gateway.usecase.cobranca;
 
 import com.thuler.gateway.dto.response.CobrancaResponse;
-import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.dto.response.PaginaCobrancasResponse;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
 import com.thuler.gateway.domain.repository.CobrancaRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Listagens de cobranças enviadas e recebidas, da mais recente para a mais antiga, paginadas por cursor
+ * (keyset em created_at, id). Cada página é uma consulta limitada que parte do cursor, sem OFFSET nem COUNT.
+ * O tamanho da página vem do cliente e é limitado por {@code cobranca.consulta.tamanho-maximo-pagina}.
+ * <p>
+ * As consultas projetam direto em {@link CobrancaResponse}, em transação somente leitura: nenhuma entidade
+ * entra no contexto de persistência.
+ */
 @Service
-@RequiredArgsConstructor
 public class ConsultarCobrancasUseCase {
 
     private final CobrancaRepository cobrancaRepository;
+    private final int tamanhoPagina;
+    private final int tamanhoMaximoPagina;
 
-    public List<CobrancaResponse> consultarCobrancasEnviadas(Long usuarioId, CobrancaStatus status) {
-        List<Cobranca> cobrancas;
+    public ConsultarCobrancasUseCase(CobrancaRepository cobrancaRepository,
+                                     @Value("${cobranca.consulta.tamanho-pagina:50}") int tamanhoPagina,
+                                     @Value("${cobranca.consulta.tamanho-maximo-pagina:200}") int tamanhoMaximoPagina) {
+        this.cobrancaRepository = cobrancaRepository;
+        this.tamanhoPagina = tamanhoPagina;
+        this.tamanhoMaximoPagina = tamanhoMaximoPagina;
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCobrancasResponse consultarCobrancasEnviadas(Long usuarioId, CobrancaStatus status,
+                                                              String cursor, Integer limite) {
+        List<CobrancaStatus> filtro = filtro(status);
+        Pageable pagina = pagina(limite);
 
-        if (status != null) {
-            cobrancas = cobrancaRepository.findByOriginadorIdAndStatus(usuarioId, status);
+        Slice<CobrancaResponse> cobrancas;
+        if (cursor != null) {
+            CursorCobrancas posicao = CursorCobrancas.decodificar(cursor);
+            cobrancas = cobrancaRepository.findEnviadasApos(usuarioId, filtro, posicao.createdAt(), posicao.id(), pagina);
         } else {
-            cobrancas = cobrancaRepository.findByOriginadorId(usuarioId);
+            cobrancas = cobrancaRepository.findEnviadas(usuarioId, filtro, pagina);
         }
 
-        return cobrancas.stream()
-                .map(CobrancaResponse::fromEntity)
-                .collect(Collectors.toList());
+        return paginaResponse(cobrancas);
     }
 
-    public List<CobrancaResponse> consultarCobrancasRecebidas(Long usuarioId, CobrancaStatus status) {
-        List<Cobranca> cobrancas;
+    @Transactional(readOnly = true)
+    public PaginaCobrancasResponse consultarCobrancasRecebidas(Long usuarioId, CobrancaStatus status,
+                                                               String cursor, Integer limite) {
+        List<CobrancaStatus> filtro = filtro(status);
+        Pageable pagina = pagina(limite);
 
-        if (status != null) {
-            cobrancas = cobrancaRepository.findByDestinatarioIdAndStatus(usuarioId, status);
+        Slice<CobrancaResponse> cobrancas;
+        if (cursor != null) {
+            CursorCobrancas posicao = CursorCobrancas.decodificar(cursor);
+            cobrancas = cobrancaRepository.findRecebidasApos(usuarioId, filtro, posicao.createdAt(), posicao.id(), pagina);
         } else {
-            cobrancas = cobrancaRepository.findByDestinatarioId(usuarioId);
+            cobrancas = cobrancaRepository.findRecebidas(usuarioId, filtro, pagina);
         }
 
-        return cobrancas.stream()
-                .map(CobrancaResponse::fromEntity)
-                .collect(Collectors.toList());
+        return paginaResponse(cobrancas);
+    }
+
+    // Sem filtro a consulta aceita todos os status, para usar a mesma query
+    private List<CobrancaStatus> filtro(CobrancaStatus status) {
+        return status != null ? List.of(status) : List.of(CobrancaStatus.values());
+    }
+
+    private Pageable pagina(Integer limite) {
+        if (limite == null) {
+            return PageRequest.ofSize(tamanhoPagina);
+        }
+        if (limite < 1) {
+            throw new IllegalArgumentException("Limite deve ser maior que zero");
+        }
+        // A ordenação já está na consulta; o Pageable só limita
+        return PageRequest.ofSize(Math.min(limite, tamanhoMaximoPagina));
+    }
+
+    private PaginaCobrancasResponse paginaResponse(Slice<CobrancaResponse> cobrancas) {
+        List<CobrancaResponse> conteudo = cobrancas.getContent();
+        String proximoCursor = cobrancas.hasNext()
+                ? CursorCobrancas.depoisDe(conteudo.get(conteudo.size() - 1)).codificar()
+                : null;
+
+        return PaginaCobrancasResponse.builder()
+                .cobrancas(conteudo)
+                .proximoCursor(proximoCursor)
+                .build();
     }
 }
@@ -0,0 +1,28 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.dto.response.LoteCobrancaResponse;
+import com.thuler.gateway.domain.model.LoteCobranca;
+import com.thuler.gateway.domain.repository.LoteCobrancaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConsultarLoteCobrancaUseCase {
+
+    private final LoteCobrancaRepository loteCobrancaRepository;
+
+    public LoteCobrancaResponse execute(Long usuarioId, Long loteId) {
+        LoteCobranca lote = loteCobrancaRepository.findById(loteId)
+                .orElseThrow(() -> new IllegalArgumentException("Lote de cobranças não encontrado"));
+
+        if (!lote.getOriginador().getId().equals(usuarioId)) {
+            log.warn("Usuário ID: {} tentou consultar lote de cobranças de terceiros", usuarioId);
+            throw new IllegalArgumentException("Apenas o originador pode consultar o lote");
+        }
+
+        return LoteCobrancaResponse.fromEntity(lote);
+    }
+}
@@ -0,0 +1,33 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.dto.response.SolicitacaoPagamentoResponse;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.SolicitacaoPagamentoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConsultarPagamentoUseCase {
+
+    private final CobrancaRepository cobrancaRepository;
+    private final SolicitacaoPagamentoRepository solicitacaoPagamentoRepository;
+
+    public SolicitacaoPagamentoResponse execute(Long usuarioId, Long cobrancaId) {
+        Cobranca cobranca = cobrancaRepository.findById(cobrancaId)
+                .orElseThrow(() -> new IllegalArgumentException("Cobrança não encontrada"));
+
+        if (!cobranca.getOriginador().getId().equals(usuarioId)
+                && !cobranca.getDestinatario().getId().equals(usuarioId)) {
+            log.warn("Usuário ID: {} tentou consultar pagamento de cobrança de terceiros", usuarioId);
+            throw new IllegalArgumentException("Apenas o originador ou o destinatário podem consultar o pagamento");
+        }
+
+        return solicitacaoPagamentoRepository.findFirstByCobrancaIdOrderByIdDesc(cobrancaId)
+                .map(SolicitacaoPagamentoResponse::fromEntity)
+                .orElseThrow(() -> new IllegalArgumentException("Nenhuma solicitação de pagamento para esta cobrança"));
+    }
+}
@@ -0,0 +1,164 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.dto.request.CriarCobrancaRequest;
+import com.thuler.gateway.dto.request.CriarCobrancasLoteRequest;
+import com.thuler.gateway.dto.response.LoteCobrancaResponse;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.LoteCobranca;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.LoteCobrancaRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository.UsuarioPorCpf;
+import com.thuler.gateway.domain.valueobject.CPF;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Cria várias cobranças do mesmo originador em segundo plano. A lista é processada em blocos de
+ * {@code cobranca.lote.tamanho-bloco}; cada bloco resolve os destinatários com uma única consulta, grava as
+ * cobranças em batches de {@code hibernate.jdbc.batch_size} e atualiza o progresso do lote na mesma transação.
+ * <p>
+ * Itens com CPF inválido ou sem usuário são recusados sem interromper o lote.
+ */
+@Service
+@Slf4j
+public class CriarCobrancasEmLoteUseCase {
+
+    private final UsuarioRepository usuarioRepository;
+    private final CobrancaRepository cobrancaRepository;
+    private final LoteCobrancaRepository loteCobrancaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor cobrancaLoteExecutor;
+    private final int tamanhoBloco;
+
+    public CriarCobrancasEmLoteUseCase(UsuarioRepository usuarioRepository,
+                                       CobrancaRepository cobrancaRepository,
+                                       LoteCobrancaRepository loteCobrancaRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       TaskExecutor cobrancaLoteExecutor,
+                                       @Value("${cobranca.lote.tamanho-bloco:500}") int tamanhoBloco) {
+        this.usuarioRepository = usuarioRepository;
+        this.cobrancaRepository = cobrancaRepository;
+        this.loteCobrancaRepository = loteCobrancaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cobrancaLoteExecutor = cobrancaLoteExecutor;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    public LoteCobrancaResponse execute(Long originadorId, CriarCobrancasLoteRequest request) {
+        List<CriarCobrancaRequest> itens = List.copyOf(request.getCobrancas());
+
+        log.info("Recebendo lote de {} cobranças do usuário ID: {}", itens.size(), originadorId);
+
+        Usuario originador = usuarioRepository.findById(originadorId)
+                .orElseThrow(() -> new IllegalArgumentException("Originador não encontrado"));
+
+        LoteCobranca lote = loteCobrancaRepository.save(LoteCobranca.builder()
+                .originador(originador)
+                .total(itens.size())
+                .build());
+
+        Long loteId = lote.getId();
+
+        try {
+            cobrancaLoteExecutor.execute(() -> processar(loteId, originadorId, itens));
+        } catch (TaskRejectedException e) {
+            log.warn("Fila de lotes de cobranças cheia, lote ID: {} rejeitado", loteId);
+            concluir(loteId, l -> l.falhar("Fila de lotes de cobranças cheia"));
+            throw e;
+        }
+
+        log.info("Lote de cobranças ID: {} aceito para processamento", loteId);
+
+        return LoteCobrancaResponse.fromEntity(lote);
+    }
+
+    private void processar(Long loteId, Long originadorId, List<CriarCobrancaRequest> itens) {
+        try {
+            for (int inicio = 0; inicio < itens.size(); inicio += tamanhoBloco) {
+                int fim = Math.min(inicio + tamanhoBloco, itens.size());
+                int primeiraLinha = inicio + 1;
+                List<CriarCobrancaRequest> bloco = itens.subList(inicio, fim);
+
+                transactionTemplate.executeWithoutResult(status ->
+                        processarBloco(loteId, originadorId, bloco, primeiraLinha));
+
+                log.info("Lote de cobranças ID: {} - {}/{} itens processados", loteId, fim, itens.size());
+            }
+
+            concluir(loteId, LoteCobranca::concluir);
+            log.info("Lote de cobranças ID: {} concluído", loteId);
+        } catch (Exception e) {
+            log.error("Erro ao processar lote de cobranças ID: {}", loteId, e);
+            concluir(loteId, l -> l.falhar(e.getMessage()));
+        }
+    }
+
+    private void processarBloco(Long loteId, Long originadorId, List<CriarCobrancaRequest> bloco, int primeiraLinha) {
+        List<String> cpfs = bloco.stream()
+                .map(item -> normalizarCpf(item.getCpfDestinatario()))
+                .toList();
+
+        Map<String, Long> destinatarios = usuarioRepository.findIdsByCpfIn(
+                        cpfs.stream().filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(UsuarioPorCpf::getCpf, UsuarioPorCpf::getId));
+
+        Usuario originador = usuarioRepository.getReferenceById(originadorId);
+        List<Cobranca> novas = new ArrayList<>(bloco.size());
+        List<String> recusas = new ArrayList<>();
+
+        for (int i = 0; i < bloco.size(); i++) {
+            CriarCobrancaRequest item = bloco.get(i);
+            String cpf = cpfs.get(i);
+            Long destinatarioId = cpf != null ? destinatarios.get(cpf) : null;
+
+            String motivo = cpf == null ? "CPF inválido"
+                    : destinatarioId == null ? "Destinatário não encontrado"
+                    : destinatarioId.equals(originadorId) ? "Não é possível criar cobrança para si mesmo"
+                    : null;
+
+            if (motivo != null) {
+                recusas.add("linha " + (primeiraLinha + i) + ": " + motivo);
+                continue;
+            }
+
+            novas.add(Cobranca.builder()
+                    .originador(originador)
+                    .destinatario(usuarioRepository.getReferenceById(destinatarioId))
+                    .valor(item.getValor())
+                    .descricao(item.getDescricao())
+                    .build());
+        }
+
+        cobrancaRepository.saveAll(novas);
+
+        LoteCobranca lote = loteCobrancaRepository.findById(loteId)
+                .orElseThrow(() -> new IllegalStateException("Lote de cobranças não encontrado"));
+        lote.registrarBloco(bloco.size(), novas.size(), recusas);
+        loteCobrancaRepository.save(lote);
+    }
+
+    private String normalizarCpf(String cpf) {
+        return CPF.isValido(cpf) ? CPF.of(cpf).getNumero() : null;
+    }
+
+    private void concluir(Long loteId, Consumer<LoteCobranca> conclusao) {
+        loteCobrancaRepository.findById(loteId).ifPresent(lote -> {
+            conclusao.accept(lote);
+            loteCobrancaRepository.save(lote);
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.dto.response.CobrancaResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posição na listagem de cobranças: a última cobrança entregue, identificada por ({@code createdAt}, {@code id}).
+ * Vai para o cliente como texto opaco (Base64 URL-safe) e volta no parâmetro {@code cursor}.
+ */
+record CursorCobrancas(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARADOR = "|";
+
+    static CursorCobrancas depoisDe(CobrancaResponse cobranca) {
+        return new CursorCobrancas(cobranca.getCreatedAt(), cobranca.getId());
+    }
+
+    String codificar() {
+        String posicao = createdAt + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CursorCobrancas decodificar(String cursor) {
+        try {
+            String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = posicao.indexOf(SEPARADOR);
+            return new CursorCobrancas(
+                    LocalDateTime.parse(posicao.substring(0, separador)),
+                    Long.valueOf(posicao.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Expira cobranças pendentes há mais tempo que o TTL. Cada bloco é um UPDATE em transação própria, sem carregar
+ * as cobranças, e várias instâncias podem rodar ao mesmo tempo: cada uma pula as linhas já travadas pelas outras.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpirarCobrancasUseCase {
+
+    private final CobrancaRepository cobrancaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param ttl          cobranças pendentes criadas há mais tempo que isso são expiradas
+     * @param tamanhoBloco cobranças por transação
+     * @return quantidade de cobranças expiradas
+     */
+    public int execute(Duration ttl, int tamanhoBloco) {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime criadasAntesDe = agora.minus(ttl);
+        int expiradas = 0;
+
+        int bloco;
+        do {
+            bloco = transactionTemplate.execute(status ->
+                    cobrancaRepository.expirarPendentes(criadasAntesDe, agora, tamanhoBloco));
+            expiradas += bloco;
+        } while (bloco == tamanhoBloco);
+
+        if (expiradas > 0) {
+            log.info("{} cobranças pendentes criadas antes de {} expiradas", expiradas, criadasAntesDe);
+        }
+
+        return expiradas;
+    }
+}
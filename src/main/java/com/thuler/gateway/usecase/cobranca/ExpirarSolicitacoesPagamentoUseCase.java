@@ -0,0 +1,50 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.model.SolicitacaoPagamento;
+import com.thuler.gateway.domain.repository.SolicitacaoPagamentoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Marca como FALHOU as solicitações de pagamento com cartão paradas há mais tempo que o limite. Sem isso, uma
+ * solicitação perdida (ex.: reinício da aplicação com a fila cheia) bloquearia novas solicitações da cobrança
+ * para sempre.
+ * <p>
+ * Conta a partir do início do processamento, não da criação: uma solicitação que esperou na fila e acabou de ser
+ * iniciada não é expirada. A tarefa de uma solicitação expirada antes de iniciar não chama o autorizador; se a
+ * expiração ainda assim chegar antes do resultado, o resultado substitui a falha.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpirarSolicitacoesPagamentoUseCase {
+
+    static final String MOTIVO = SolicitacaoPagamento.MOTIVO_EXPIRACAO;
+
+    private final SolicitacaoPagamentoRepository solicitacaoPagamentoRepository;
+
+    /**
+     * @param timeout solicitações em processamento iniciadas (ou, se não iniciadas, criadas) há mais tempo que
+     *                isso são marcadas como falha
+     * @return quantidade de solicitações marcadas
+     */
+    @Transactional
+    public int execute(Duration timeout) {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime limite = agora.minus(timeout);
+
+        int expiradas = solicitacaoPagamentoRepository.falharProcessandoAntesDe(limite, agora, MOTIVO);
+
+        if (expiradas > 0) {
+            log.warn("{} solicitações de pagamento paradas desde antes de {} marcadas como falha",
+                    expiradas, limite);
+        }
+
+        return expiradas;
+    }
+}
@@ -0,0 +1,159 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thuler.gateway.dto.response.CobrancaResponse;
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.infrastructure.exception.ExportacaoIndisponivelException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do histórico completo de cobranças do usuário: as enviadas e depois as recebidas, cada grupo da
+ * mais antiga para a mais recente. As linhas são lidas do banco por cursor, projetadas em
+ * {@link CobrancaResponse} e escritas na saída à medida que chegam, então a memória usada não depende da
+ * quantidade de cobranças.
+ * <p>
+ * A transação (e a conexão do pool) fica aberta enquanto o cliente lê a exportação. Por isso o número de
+ * exportações simultâneas é limitado ({@code cobranca.exportacao.maximo-simultaneas}), para que downloads lentos
+ * não esgotem as conexões das demais requisições, e cada exportação é interrompida depois de
+ * {@code cobranca.exportacao.tempo-maximo}.
+ * <p>
+ * O prazo só é conferido entre linhas. Um cliente que para de ler deixa a escrita bloqueada no socket, e quem a
+ * interrompe é o timeout de escrita do servidor ({@code server.tomcat.connection-timeout}, que o Tomcat também
+ * aplica às escritas bloqueantes). A vaga e a conexão ficam presas por no máximo o tempo máximo mais esse timeout.
+ */
+@Service
+@Slf4j
+public class ExportarCobrancasUseCase {
+
+    private static final String CABECALHO_CSV = "id,originadorId,originadorNome,destinatarioId,destinatarioNome,"
+            + "valor,descricao,status,tipoPagamento,numeroCartao,createdAt,paidAt,cancelledAt,expiredAt";
+
+    private final CobrancaRepository cobrancaRepository;
+    private final ObjectMapper objectMapper;
+    private final Semaphore vagas;
+    private final Duration tempoMaximo;
+
+    public ExportarCobrancasUseCase(CobrancaRepository cobrancaRepository,
+                                    ObjectMapper objectMapper,
+                                    @Value("${cobranca.exportacao.maximo-simultaneas:2}") int maximoSimultaneas,
+                                    @Value("${cobranca.exportacao.tempo-maximo:5m}") Duration tempoMaximo) {
+        this.cobrancaRepository = cobrancaRepository;
+        this.objectMapper = objectMapper;
+        this.vagas = new Semaphore(maximoSimultaneas);
+        this.tempoMaximo = tempoMaximo;
+    }
+
+    /**
+     * Reserva uma das vagas de exportação, sem esperar. Chamado antes de a resposta começar, para ainda poder
+     * responder 503; quem reserva libera com {@link #liberarVaga()} ao terminar de escrever.
+     */
+    public void reservarVaga() {
+        if (!vagas.tryAcquire()) {
+            throw new ExportacaoIndisponivelException("Muitas exportações em andamento, tente novamente mais tarde");
+        }
+    }
+
+    public void liberarVaga() {
+        vagas.release();
+    }
+
+    /**
+     * Escreve a exportação em {@code saida}, sem fechá-la.
+     *
+     * @return quantas cobranças foram exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Long usuarioId, CobrancaStatus status, FormatoExportacao formato,
+                         OutputStream saida) throws IOException {
+
+        // Sem filtro a consulta aceita todos os status, como nas listagens
+        List<CobrancaStatus> filtro = status != null ? List.of(status) : List.of(CobrancaStatus.values());
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+
+        if (formato == FormatoExportacao.CSV) {
+            escritor.write(CABECALHO_CSV);
+            escritor.write('\n');
+        }
+
+        long prazo = System.nanoTime() + tempoMaximo.toNanos();
+        long exportadas;
+        try (Stream<CobrancaResponse> enviadas = cobrancaRepository.exportarEnviadas(usuarioId, filtro)) {
+            exportadas = escrever(enviadas, formato, escritor, prazo);
+        }
+        try (Stream<CobrancaResponse> recebidas = cobrancaRepository.exportarRecebidas(usuarioId, filtro)) {
+            exportadas += escrever(recebidas, formato, escritor, prazo);
+        }
+        escritor.flush();
+
+        log.info("Exportadas {} cobranças em {} do usuário ID: {}", exportadas, formato, usuarioId);
+        return exportadas;
+    }
+
+    private long escrever(Stream<CobrancaResponse> cobrancas, FormatoExportacao formato,
+                          Writer escritor, long prazo) throws IOException {
+        long escritas = 0;
+        Iterator<CobrancaResponse> iterator = cobrancas.iterator();
+        while (iterator.hasNext()) {
+            // Cliente lento demais: encerra a exportação e devolve a conexão ao pool. Cliente parado nem chega
+            // aqui; fica em escritor.write até o timeout de escrita do servidor
+            if (System.nanoTime() - prazo >= 0) {
+                throw new IOException("Exportação excedeu o tempo máximo de " + tempoMaximo);
+            }
+            CobrancaResponse cobranca = iterator.next();
+            if (formato == FormatoExportacao.CSV) {
+                escritor.write(linhaCsv(cobranca));
+            } else {
+                escritor.write(objectMapper.writeValueAsString(cobranca));
+            }
+            escritor.write('\n');
+            escritas++;
+        }
+        return escritas;
+    }
+
+    private String linhaCsv(CobrancaResponse cobranca) {
+        return String.join(",",
+                campoCsv(cobranca.getId()),
+                campoCsv(cobranca.getOriginadorId()),
+                campoCsv(cobranca.getOriginadorNome()),
+                campoCsv(cobranca.getDestinatarioId()),
+                campoCsv(cobranca.getDestinatarioNome()),
+                cobranca.getValor() != null ? cobranca.getValor().toPlainString() : "",
+                campoCsv(cobranca.getDescricao()),
+                campoCsv(cobranca.getStatus()),
+                campoCsv(cobranca.getTipoPagamento()),
+                campoCsv(cobranca.getNumeroCartao()),
+                campoCsv(cobranca.getCreatedAt()),
+                campoCsv(cobranca.getPaidAt()),
+                campoCsv(cobranca.getCancelledAt()),
+                campoCsv(cobranca.getExpiredAt()));
+    }
+
+    // RFC 4180: campos com vírgula, aspas ou quebra de linha vão entre aspas, com as aspas duplicadas
+    private static String campoCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.contains(",") || texto.contains("\"") || texto.contains("\n") || texto.contains("\r")) {
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+        return texto;
+    }
+}
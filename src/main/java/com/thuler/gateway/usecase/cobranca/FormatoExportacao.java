@@ -0,0 +1,40 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import java.util.Arrays;
+
+/**
+ * Formatos da exportação de cobranças: NDJSON (um objeto JSON por linha, com os campos de
+ * {@link com.thuler.gateway.dto.response.CobrancaResponse}) ou CSV com cabeçalho.
+ */
+public enum FormatoExportacao {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extensao;
+
+    FormatoExportacao(String contentType, String extensao) {
+        this.contentType = contentType;
+        this.extensao = extensao;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    // Sem formato informado exporta NDJSON
+    public static FormatoExportacao of(String formato) {
+        if (formato == null || formato.isBlank()) {
+            return NDJSON;
+        }
+        return Arrays.stream(values())
+                .filter(valor -> valor.extensao.equalsIgnoreCase(formato.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Formato de exportação inválido: use ndjson ou csv"));
+    }
+}
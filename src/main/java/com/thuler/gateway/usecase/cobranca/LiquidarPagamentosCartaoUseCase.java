@@ -0,0 +1,78 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.domain.model.LiquidacaoCartao;
+import com.thuler.gateway.domain.repository.LiquidacaoCartaoRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.service.Transferencia;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repassa aos recebedores os pagamentos com cartão já aprovados. Cada transação reserva até {@code limite}
+ * liquidações pendentes, trava uma única vez a conta de cada recebedor e grava todos os créditos em um único
+ * batch; a conta do recebedor é tocada uma vez por lote em vez de uma vez por pagamento.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiquidarPagamentosCartaoUseCase {
+
+    private final LiquidacaoCartaoRepository liquidacaoCartaoRepository;
+    private final LancamentoService lancamentoService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Liquida lotes até esvaziar a fila ou encontrar as contas ocupadas.
+     *
+     * @return quantidade de pagamentos liquidados
+     */
+    public int execute(int limite) {
+        int liquidados = 0;
+
+        try {
+            int lote;
+            do {
+                lote = transactionTemplate.execute(status -> liquidarLote(limite));
+                liquidados += lote;
+            } while (lote == limite);
+        } catch (PessimisticLockingFailureException e) {
+            // Conta de recebedor ocupada (ex.: snapshot); o lote volta para a fila e fica para a próxima rodada
+            log.debug("Liquidação de pagamentos com cartão adiada: {}", e.getMessage());
+        }
+
+        if (liquidados > 0) {
+            log.info("{} pagamentos com cartão liquidados", liquidados);
+        }
+
+        return liquidados;
+    }
+
+    private int liquidarLote(int limite) {
+        List<LiquidacaoCartao> liquidacoes = liquidacaoCartaoRepository.reservarPendentes(limite);
+        if (liquidacoes.isEmpty()) {
+            return 0;
+        }
+
+        List<Transferencia> creditos = liquidacoes.stream()
+                .map(liquidacao -> new Transferencia(liquidacao.getConta().getId(), liquidacao.getValor(),
+                        liquidacao.getCobranca().getId()))
+                .toList();
+
+        lancamentoService.creditarEmLote(creditos, TipoLancamento.PAGAMENTO_RECEBIDO);
+
+        LocalDateTime liquidadaEm = LocalDateTime.now();
+        liquidacoes.forEach(liquidacao -> liquidacao.liquidar(liquidadaEm));
+
+        log.debug("Lote de {} pagamentos com cartão liquidado para {} contas", liquidacoes.size(),
+                creditos.stream().map(Transferencia::contaDestinoId).distinct().count());
+
+        return liquidacoes.size();
+    }
+}
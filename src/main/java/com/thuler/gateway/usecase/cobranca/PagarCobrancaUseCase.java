@@ -4,16 +4,21 @@ import com.thuler.gateway.dto.request.PagarCobrancaCartaoRequest;
 import com.thuler.gateway.dto.request.PagarCobrancaSaldoRequest;
 import com.thuler.gateway.dto.response.CobrancaResponse;
 import com.thuler.gateway.domain.model.Cobranca;
-import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.LiquidacaoCartao;
+import com.thuler.gateway.domain.enums.TipoLancamento;
 import com.thuler.gateway.domain.enums.TipoPagamento;
 import com.thuler.gateway.domain.repository.CobrancaRepository;
 import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository.ContasDoPagamento;
+import com.thuler.gateway.domain.repository.LiquidacaoCartaoRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.service.RetentativaOtimista;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -22,58 +27,117 @@ public class PagarCobrancaUseCase {
 
     private final CobrancaRepository cobrancaRepository;
     private final ContaRepository contaRepository;
+    private final LiquidacaoCartaoRepository liquidacaoCartaoRepository;
+    private final LancamentoService lancamentoService;
     private final AuthorizerClient authorizerClient;
+    private final RetentativaOtimista retentativaOtimista;
 
-    @Transactional
     public CobrancaResponse pagarComSaldo(Long pagadorId, PagarCobrancaSaldoRequest request) {
         log.info("Iniciando pagamento com saldo da cobrança ID: {} pelo usuário ID: {}",
                 request.getCobrancaId(), pagadorId);
 
-        Cobranca cobranca = cobrancaRepository.findById(request.getCobrancaId())
+        Cobranca cobranca = retentativaOtimista.executar(status -> lancamentoService.usaEngine()
+                ? liquidarPagamentoSaldo(pagadorId, request.getCobrancaId())
+                : liquidarPagamentoSaldoEmUmComando(pagadorId, request.getCobrancaId()));
+
+        log.info("Pagamento com saldo realizado com sucesso. Cobrança ID: {}", cobranca.getId());
+
+        return CobrancaResponse.fromEntity(cobranca);
+    }
+
+    /**
+     * Sem a engine: uma consulta acha as duas contas, as travas são tomadas e um único comando paga a cobrança,
+     * conferindo status, pagador e saldo. Só quando o comando não altera nada a cobrança é lida de novo, para
+     * devolver o mesmo erro do fluxo com a engine.
+     */
+    private Cobranca liquidarPagamentoSaldoEmUmComando(Long pagadorId, Long cobrancaId) {
+        ContasDoPagamento contas = contaRepository.findContasDoPagamento(cobrancaId, pagadorId)
+                .orElseThrow(() -> recusaDoPagamentoSaldo(pagadorId, cobrancaId));
+
+        if (!lancamentoService.pagarCobranca(contas.getContaPagadorId(), contas.getContaRecebedorId(),
+                cobrancaId, pagadorId)) {
+            throw recusaDoPagamentoSaldo(pagadorId, cobrancaId);
+        }
+
+        return cobrancaRepository.findById(cobrancaId)
                 .orElseThrow(() -> new IllegalArgumentException("Cobrança não encontrada"));
+    }
+
+    // Descobre qual condição do pagamento falhou, na mesma ordem de verificação do fluxo com a engine
+    private RuntimeException recusaDoPagamentoSaldo(Long pagadorId, Long cobrancaId) {
+        Cobranca cobranca = cobrancaRepository.findById(cobrancaId).orElse(null);
+        if (cobranca == null) {
+            return new IllegalArgumentException("Cobrança não encontrada");
+        }
 
         if (!cobranca.isPendente()) {
             log.warn("Tentativa de pagar cobrança com status: {}", cobranca.getStatus());
-            throw new IllegalStateException("Apenas cobranças pendentes podem ser pagas");
+            return new IllegalStateException("Apenas cobranças pendentes podem ser pagas");
         }
 
         if (!cobranca.getDestinatario().getId().equals(pagadorId)) {
             log.warn("Usuário ID: {} tentou pagar cobrança que não é destinatário", pagadorId);
-            throw new IllegalArgumentException("Apenas o destinatário pode pagar esta cobrança");
+            return new IllegalArgumentException("Apenas o destinatário pode pagar esta cobrança");
+        }
+
+        Long contaPagadorId = contaRepository.findIdByUsuarioId(pagadorId).orElse(null);
+        if (contaPagadorId == null) {
+            return new IllegalArgumentException("Conta do pagador não encontrada");
+        }
+
+        if (contaRepository.findIdByUsuarioId(cobranca.getOriginador().getId()).isEmpty()) {
+            return new IllegalArgumentException("Conta do recebedor não encontrada");
+        }
+
+        if (lancamentoService.saldo(contaPagadorId).compareTo(cobranca.getValor()) < 0) {
+            log.warn("Saldo insuficiente para pagamento da cobrança ID: {}. Valor cobrança: R$ {}",
+                    cobranca.getId(), cobranca.getValor());
+            return new IllegalArgumentException("Saldo insuficiente");
         }
 
+        // Tudo vale agora: a cobrança mudou entre o comando e esta leitura. A RetentativaOtimista repete
+        log.warn("Cobrança ID: {} alterada durante o pagamento com saldo", cobrancaId);
+        return new OptimisticLockingFailureException("Cobrança alterada durante o pagamento com saldo");
+    }
+
+    // Com a engine. Sem trava na cobrança: um segundo pagamento simultâneo perde no @Version e é repetido,
+    // vendo o novo status
+    private Cobranca liquidarPagamentoSaldo(Long pagadorId, Long cobrancaId) {
+        Cobranca cobranca = cobrancaRepository.findById(cobrancaId)
+                .orElseThrow(() -> new IllegalArgumentException("Cobrança não encontrada"));
+
         if (!cobranca.isPendente()) {
             log.warn("Tentativa de pagar cobrança com status: {}", cobranca.getStatus());
             throw new IllegalStateException("Apenas cobranças pendentes podem ser pagas");
         }
 
-        Conta contaPagador = contaRepository.findByUsuarioId(pagadorId)
+        if (!cobranca.getDestinatario().getId().equals(pagadorId)) {
+            log.warn("Usuário ID: {} tentou pagar cobrança que não é destinatário", pagadorId);
+            throw new IllegalArgumentException("Apenas o destinatário pode pagar esta cobrança");
+        }
+
+        Long contaPagadorId = contaRepository.findIdByUsuarioId(pagadorId)
                 .orElseThrow(() -> new IllegalArgumentException("Conta do pagador não encontrada"));
 
-        Conta contaRecebedor = contaRepository.findByUsuarioId(cobranca.getOriginador().getId())
+        Long contaRecebedorId = contaRepository.findIdByUsuarioId(cobranca.getOriginador().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Conta do recebedor não encontrada"));
 
-        if (!contaPagador.temSaldoSuficiente(cobranca.getValor())) {
-            log.warn("Saldo insuficiente para pagamento. Saldo: R$ {}, Valor cobrança: R$ {}",
-                    contaPagador.getSaldo(), cobranca.getValor());
+        boolean transferido = lancamentoService.transferir(contaPagadorId, contaRecebedorId, cobranca.getValor(),
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, cobranca);
+
+        if (!transferido) {
+            log.warn("Saldo insuficiente para pagamento da cobrança ID: {}. Valor cobrança: R$ {}",
+                    cobranca.getId(), cobranca.getValor());
             throw new IllegalArgumentException("Saldo insuficiente");
         }
 
-        contaPagador.debitar(cobranca.getValor());
-        contaRecebedor.creditar(cobranca.getValor());
-
         cobranca.marcarComoPaga(TipoPagamento.SALDO, null, "PAGAMENTO_SALDO");
 
-        contaRepository.save(contaPagador);
-        contaRepository.save(contaRecebedor);
-        cobranca = cobrancaRepository.save(cobranca);
-
-        log.info("Pagamento com saldo realizado com sucesso. Cobrança ID: {}", cobranca.getId());
-
-        return CobrancaResponse.fromEntity(cobranca);
+        // Flush aqui, depois das travas das contas: o conflito de versão aparece dentro da tentativa
+        return cobrancaRepository.saveAndFlush(cobranca);
     }
 
-    @Transactional
+    // Sem @Transactional: a chamada ao autorizador não pode segurar conexão do pool
     public CobrancaResponse pagarComCartao(Long pagadorId, PagarCobrancaCartaoRequest request) {
         log.info("Iniciando pagamento com cartão da cobrança ID: {} pelo usuário ID: {}",
                 request.getCobrancaId(), pagadorId);
@@ -113,19 +177,40 @@ public class PagarCobrancaUseCase {
                 authorizerResponse.getData().getAuthorized()
         );
 
-        Conta contaRecebedor = contaRepository.findByUsuarioId(cobranca.getOriginador().getId())
-                .orElseThrow(() -> new IllegalArgumentException("Conta do recebedor não encontrada"));
-
-        contaRecebedor.creditar(cobranca.getValor());
-
-        cobranca.marcarComoPaga(TipoPagamento.CARTAO_CREDITO, ultimos4Digitos, authorizerResponseStr);
+        Long cobrancaId = cobranca.getId();
 
-        contaRepository.save(contaRecebedor);
-        cobranca = cobrancaRepository.save(cobranca);
+        cobranca = retentativaOtimista.executar(status ->
+                confirmarPagamentoCartao(cobrancaId, ultimos4Digitos, authorizerResponseStr));
 
         log.info("Pagamento com cartão realizado com sucesso. Cobrança ID: {}, Últimos 4 dígitos: {}",
                 cobranca.getId(), ultimos4Digitos);
 
         return CobrancaResponse.fromEntity(cobranca);
     }
-}
\ No newline at end of file
+
+    // O recebedor não é creditado aqui: o crédito entra na fila de liquidação, repassada em lote
+    private Cobranca confirmarPagamentoCartao(Long cobrancaId, String ultimos4Digitos, String authorizerResponseStr) {
+        Cobranca cobranca = cobrancaRepository.findById(cobrancaId)
+                .orElseThrow(() -> new IllegalArgumentException("Cobrança não encontrada"));
+
+        if (!cobranca.isPendente()) {
+            log.error("Cobrança ID: {} deixou de estar pendente durante a autorização do cartão. Status: {}",
+                    cobrancaId, cobranca.getStatus());
+            throw new IllegalStateException("Apenas cobranças pendentes podem ser pagas");
+        }
+
+        Long contaRecebedorId = contaRepository.findIdByUsuarioId(cobranca.getOriginador().getId())
+                .orElseThrow(() -> new IllegalArgumentException("Conta do recebedor não encontrada"));
+
+        cobranca.marcarComoPaga(TipoPagamento.CARTAO_CREDITO, ultimos4Digitos, authorizerResponseStr);
+        cobranca = cobrancaRepository.saveAndFlush(cobranca);
+
+        liquidacaoCartaoRepository.save(LiquidacaoCartao.builder()
+                .cobranca(cobranca)
+                .conta(contaRepository.getReferenceById(contaRecebedorId))
+                .valor(cobranca.getValor())
+                .build());
+
+        return cobranca;
+    }
+}
@@ -0,0 +1,170 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.domain.enums.TipoPagamento;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository.ContaDoUsuario;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.service.RetentativaOtimista;
+import com.thuler.gateway.domain.service.Transferencia;
+import com.thuler.gateway.dto.request.PagarCobrancasLoteRequest;
+import com.thuler.gateway.dto.response.CobrancaResponse;
+import com.thuler.gateway.dto.response.PagamentoLoteResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Paga várias cobranças do mesmo pagador com saldo, em uma única transação.
+ * <p>
+ * As cobranças não são travadas: o UPDATE final só altera as que continuam pendentes e, se alguma mudou no meio
+ * do caminho, a transação inteira é desfeita e repetida pela {@link RetentativaOtimista}.
+ * <p>
+ * Cada cobrança é validada isoladamente: as inválidas, e as que o saldo restante não cobre, são recusadas com o
+ * motivo e não impedem o pagamento das demais.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PagarCobrancasEmLoteUseCase {
+
+    private static final String SALDO_INSUFICIENTE = "Saldo insuficiente";
+
+    private final CobrancaRepository cobrancaRepository;
+    private final ContaRepository contaRepository;
+    private final LancamentoService lancamentoService;
+    private final RetentativaOtimista retentativaOtimista;
+
+    public PagamentoLoteResponse execute(Long pagadorId, PagarCobrancasLoteRequest request) {
+        List<Long> cobrancaIds = request.getCobrancaIds().stream().distinct().toList();
+        log.info("Iniciando pagamento em lote de {} cobranças pelo usuário ID: {}", cobrancaIds.size(), pagadorId);
+
+        PagamentoLoteResponse response = retentativaOtimista.executar(status -> pagar(pagadorId, cobrancaIds));
+
+        log.info("Pagamento em lote concluído pelo usuário ID: {}. Pagas: {}, recusadas: {}, valor: R$ {}",
+                pagadorId, response.getPagas(), response.getRecusadas(), response.getValorPago());
+
+        return response;
+    }
+
+    private PagamentoLoteResponse pagar(Long pagadorId, List<Long> cobrancaIds) {
+        Long contaPagadorId = contaRepository.findIdByUsuarioId(pagadorId)
+                .orElseThrow(() -> new IllegalArgumentException("Conta do pagador não encontrada"));
+
+        Map<Long, Cobranca> cobrancas = cobrancaRepository.findComUsuariosByIdIn(cobrancaIds).stream()
+                .collect(Collectors.toMap(Cobranca::getId, Function.identity()));
+
+        Map<Long, String> recusas = new HashMap<>();
+        List<Cobranca> elegiveis = new ArrayList<>();
+        for (Long cobrancaId : cobrancaIds) {
+            String motivo = validar(pagadorId, cobrancas.get(cobrancaId));
+            if (motivo != null) {
+                recusas.put(cobrancaId, motivo);
+            } else {
+                elegiveis.add(cobrancas.get(cobrancaId));
+            }
+        }
+
+        Map<Long, Long> contasRecebedores = contasDosOriginadores(elegiveis);
+        List<Transferencia> transferencias = new ArrayList<>();
+        for (Cobranca cobranca : elegiveis) {
+            Long contaRecebedorId = contasRecebedores.get(cobranca.getOriginador().getId());
+            if (contaRecebedorId == null) {
+                recusas.put(cobranca.getId(), "Conta do recebedor não encontrada");
+            } else {
+                transferencias.add(new Transferencia(contaRecebedorId, cobranca.getValor(), cobranca.getId()));
+            }
+        }
+
+        Set<Long> pagas = lancamentoService.transferirEmLote(contaPagadorId, transferencias,
+                        TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO).stream()
+                .map(Transferencia::cobrancaId)
+                .collect(Collectors.toSet());
+
+        LocalDateTime pagoEm = LocalDateTime.now();
+        if (!pagas.isEmpty()) {
+            int alteradas = cobrancaRepository.marcarComoPagas(pagas, TipoPagamento.SALDO, "PAGAMENTO_SALDO",
+                    pagoEm, CobrancaStatus.PAGA, CobrancaStatus.PENDENTE);
+
+            if (alteradas != pagas.size()) {
+                log.warn("{} de {} cobranças do lote mudaram de status durante o pagamento",
+                        pagas.size() - alteradas, pagas.size());
+                throw new OptimisticLockingFailureException("Cobranças do lote alteradas por outra operação");
+            }
+        }
+
+        return montarResposta(cobrancaIds, cobrancas, pagas, recusas, pagoEm);
+    }
+
+    private String validar(Long pagadorId, Cobranca cobranca) {
+        if (cobranca == null) {
+            return "Cobrança não encontrada";
+        }
+        if (!cobranca.getDestinatario().getId().equals(pagadorId)) {
+            return "Apenas o destinatário pode pagar esta cobrança";
+        }
+        if (!cobranca.isPendente()) {
+            return "Apenas cobranças pendentes podem ser pagas";
+        }
+        return null;
+    }
+
+    private Map<Long, Long> contasDosOriginadores(List<Cobranca> cobrancas) {
+        Set<Long> originadores = cobrancas.stream()
+                .map(cobranca -> cobranca.getOriginador().getId())
+                .collect(Collectors.toSet());
+
+        if (originadores.isEmpty()) {
+            return Map.of();
+        }
+        return contaRepository.findIdsByUsuarioIds(originadores).stream()
+                .collect(Collectors.toMap(ContaDoUsuario::getUsuarioId, ContaDoUsuario::getContaId));
+    }
+
+    private PagamentoLoteResponse montarResposta(List<Long> cobrancaIds, Map<Long, Cobranca> cobrancas,
+                                                 Set<Long> pagas, Map<Long, String> recusas,
+                                                 LocalDateTime pagoEm) {
+        List<PagamentoLoteResponse.Resultado> resultados = new ArrayList<>(cobrancaIds.size());
+        BigDecimal valorPago = BigDecimal.ZERO;
+
+        for (Long cobrancaId : cobrancaIds) {
+            Cobranca cobranca = cobrancas.get(cobrancaId);
+            boolean paga = pagas.contains(cobrancaId);
+
+            // Cobranças carregadas só para leitura: a alteração vale apenas para a resposta
+            if (paga) {
+                cobranca.marcarComoPaga(TipoPagamento.SALDO, null, "PAGAMENTO_SALDO");
+                cobranca.setPaidAt(pagoEm);
+                valorPago = valorPago.add(cobranca.getValor());
+            }
+
+            resultados.add(PagamentoLoteResponse.Resultado.builder()
+                    .cobrancaId(cobrancaId)
+                    .paga(paga)
+                    .motivo(paga ? null : recusas.getOrDefault(cobrancaId, SALDO_INSUFICIENTE))
+                    .cobranca(cobranca != null ? CobrancaResponse.fromEntity(cobranca) : null)
+                    .build());
+        }
+
+        return PagamentoLoteResponse.builder()
+                .pagas(pagas.size())
+                .recusadas(cobrancaIds.size() - pagas.size())
+                .valorPago(valorPago)
+                .resultados(resultados)
+                .build();
+    }
+}
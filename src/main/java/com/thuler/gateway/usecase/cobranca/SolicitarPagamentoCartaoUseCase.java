@@ -0,0 +1,116 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.dto.request.PagarCobrancaCartaoRequest;
+import com.thuler.gateway.dto.response.SolicitacaoPagamentoResponse;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.SolicitacaoPagamento;
+import com.thuler.gateway.domain.enums.StatusSolicitacaoPagamento;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.SolicitacaoPagamentoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SolicitarPagamentoCartaoUseCase {
+
+    private final CobrancaRepository cobrancaRepository;
+    private final SolicitacaoPagamentoRepository solicitacaoPagamentoRepository;
+    private final PagarCobrancaUseCase pagarCobrancaUseCase;
+    private final TaskExecutor pagamentoExecutor;
+
+    public SolicitacaoPagamentoResponse execute(Long pagadorId, PagarCobrancaCartaoRequest request) {
+        log.info("Recebendo solicitação assíncrona de pagamento com cartão da cobrança ID: {} pelo usuário ID: {}",
+                request.getCobrancaId(), pagadorId);
+
+        Cobranca cobranca = cobrancaRepository.findById(request.getCobrancaId())
+                .orElseThrow(() -> new IllegalArgumentException("Cobrança não encontrada"));
+
+        if (!cobranca.isPendente()) {
+            log.warn("Tentativa de pagar cobrança com status: {}", cobranca.getStatus());
+            throw new IllegalStateException("Apenas cobranças pendentes podem ser pagas");
+        }
+
+        if (!cobranca.getDestinatario().getId().equals(pagadorId)) {
+            log.warn("Usuário ID: {} tentou pagar cobrança que não é destinatário", pagadorId);
+            throw new IllegalArgumentException("Apenas o destinatário pode pagar esta cobrança");
+        }
+
+        if (solicitacaoPagamentoRepository.existsByCobrancaIdAndStatus(
+                cobranca.getId(), StatusSolicitacaoPagamento.PROCESSANDO)) {
+            log.warn("Cobrança ID: {} já possui pagamento em processamento", cobranca.getId());
+            throw new IllegalStateException("Já existe um pagamento em processamento para esta cobrança");
+        }
+
+        // A consulta acima evita o INSERT no caso comum; duas solicitações simultâneas param no índice único
+        // parcial (uma em processamento por cobrança)
+        SolicitacaoPagamento solicitacao;
+        try {
+            solicitacao = solicitacaoPagamentoRepository.save(SolicitacaoPagamento.builder()
+                    .cobranca(cobranca)
+                    .numeroCartao(request.getNumeroCartao().substring(12))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Cobrança ID: {} recebeu outra solicitação de pagamento ao mesmo tempo", cobranca.getId());
+            throw new IllegalStateException("Já existe um pagamento em processamento para esta cobrança");
+        }
+
+        Long solicitacaoId = solicitacao.getId();
+
+        try {
+            pagamentoExecutor.execute(() -> processar(solicitacaoId, pagadorId, request));
+        } catch (TaskRejectedException e) {
+            log.warn("Fila de pagamentos cheia, solicitação ID: {} rejeitada", solicitacaoId);
+            concluir(solicitacaoId, s -> s.falhar("Fila de pagamentos cheia"));
+            throw e;
+        }
+
+        log.info("Solicitação de pagamento ID: {} aceita para processamento", solicitacaoId);
+
+        return SolicitacaoPagamentoResponse.fromEntity(solicitacao);
+    }
+
+    private void processar(Long solicitacaoId, Long pagadorId, PagarCobrancaCartaoRequest request) {
+        if (solicitacaoPagamentoRepository.iniciar(solicitacaoId, LocalDateTime.now()) == 0) {
+            // Expirada enquanto esperava na fila: a cobrança já pode ter outra solicitação
+            log.warn("Solicitação de pagamento ID: {} expirou antes de iniciar", solicitacaoId);
+            return;
+        }
+
+        try {
+            pagarCobrancaUseCase.pagarComCartao(pagadorId, request);
+            concluir(solicitacaoId, SolicitacaoPagamento::aprovar);
+            log.info("Solicitação de pagamento ID: {} aprovada", solicitacaoId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("Solicitação de pagamento ID: {} recusada: {}", solicitacaoId, e.getMessage());
+            concluir(solicitacaoId, s -> s.recusar(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Erro ao processar solicitação de pagamento ID: {}", solicitacaoId, e);
+            concluir(solicitacaoId, s -> s.falhar(e.getMessage()));
+        }
+    }
+
+    private void concluir(Long solicitacaoId, Consumer<SolicitacaoPagamento> conclusao) {
+        solicitacaoPagamentoRepository.findById(solicitacaoId).ifPresent(solicitacao -> {
+            if (solicitacao.isExpirada()) {
+                // Expirada pelo ExpiracaoSolicitacoesPagamentoJob antes de o pagamento terminar: o resultado
+                // real vale mais que a falha, senão a solicitação ficaria FALHOU com a cobrança paga
+                log.warn("Solicitação de pagamento ID: {} concluída depois de expirar", solicitacaoId);
+            } else if (!solicitacao.isProcessando()) {
+                log.warn("Solicitação de pagamento ID: {} já concluída com status: {}",
+                        solicitacaoId, solicitacao.getStatus());
+                return;
+            }
+            conclusao.accept(solicitacao);
+            solicitacaoPagamentoRepository.save(solicitacao);
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.thuler.gateway.usecase.conta;
+
+import com.thuler.gateway.dto.request.AtivarFaixasRequest;
+import com.thuler.gateway.dto.response.ContaResponse;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Liga (ou muda a quantidade de) faixas de trava na conta do usuário, para recebedores com muitos pagamentos
+ * simultâneos. As faixas não guardam saldo, então reduzir a quantidade só deixa as faixas excedentes sem uso.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AtivarFaixasUseCase {
+
+    private final ContaRepository contaRepository;
+    private final LancamentoService lancamentoService;
+
+    @Transactional
+    public ContaResponse execute(Long usuarioId, AtivarFaixasRequest request) {
+        log.info("Ativando {} faixas para usuário ID: {}", request.getQuantidade(), usuarioId);
+
+        Long contaId = contaRepository.findIdByUsuarioId(usuarioId)
+                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada"));
+
+        // As faixas existem antes de a conta passar a sorteá-las
+        contaRepository.criarFaixas(contaId, request.getQuantidade());
+        contaRepository.definirFaixas(contaId, request.getQuantidade());
+
+        Conta conta = contaRepository.findById(contaId)
+                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada"));
+
+        log.info("Conta ID: {} agora usa {} faixas", contaId, conta.getFaixas());
+
+        return ContaResponse.fromEntity(conta, lancamentoService.saldo(contaId));
+    }
+}
@@ -2,14 +2,18 @@ package com.thuler.gateway.usecase.conta;
 
 import com.thuler.gateway.dto.request.DepositoRequest;
 import com.thuler.gateway.dto.response.ContaResponse;
+import com.thuler.gateway.domain.enums.TipoLancamento;
 import com.thuler.gateway.domain.model.Conta;
 import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
 
 @Service
 @RequiredArgsConstructor
@@ -17,9 +21,11 @@ import org.springframework.transaction.annotation.Transactional;
 public class DepositarUseCase {
 
     private final ContaRepository contaRepository;
+    private final LancamentoService lancamentoService;
     private final AuthorizerClient authorizerClient;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    // Sem @Transactional: a chamada ao autorizador não pode segurar conexão do pool
     public ContaResponse execute(Long usuarioId, DepositoRequest request) {
         log.info("Iniciando depósito de R$ {} para usuário ID: {}", request.getValor(), usuarioId);
 
@@ -35,11 +41,13 @@ public class DepositarUseCase {
         }
 
         log.info("Depósito autorizado pelo autorizador externo");
-        conta.depositar(request.getValor());
-        conta = contaRepository.save(conta);
+        BigDecimal saldo = transactionTemplate.execute(status -> {
+            lancamentoService.creditar(conta.getId(), request.getValor(), TipoLancamento.DEPOSITO, null);
+            return lancamentoService.saldo(conta.getId());
+        });
 
-        log.info("Depósito realizado com sucesso. Novo saldo: R$ {}", conta.getSaldo());
+        log.info("Depósito realizado com sucesso. Novo saldo: R$ {}", saldo);
 
-        return ContaResponse.fromEntity(conta);
+        return ContaResponse.fromEntity(conta, saldo);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.thuler.gateway.usecase.conta;
+
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Gera snapshots de saldo para as contas com lançamentos acumulados, mantendo curta a soma feita
+ * a cada consulta de saldo.
+ * Cada conta é processada em uma transação curta, para não segurar travas de várias contas ao mesmo tempo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GerarSnapshotsSaldoUseCase {
+
+    private final ContaRepository contaRepository;
+    private final LancamentoService lancamentoService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param minimoLancamentos contas com menos lançamentos desde o último snapshot são ignoradas
+     * @return quantidade de snapshots gerados
+     */
+    public int execute(long minimoLancamentos) {
+        int gerados = 0;
+
+        for (Long contaId : contaRepository.findIdsParaSnapshot(minimoLancamentos)) {
+            try {
+                Boolean gerado = transactionTemplate.execute(status ->
+                        lancamentoService.gerarSnapshot(contaId).isPresent());
+                if (Boolean.TRUE.equals(gerado)) {
+                    gerados++;
+                }
+            } catch (PessimisticLockingFailureException e) {
+                // Conta ocupada por lançamentos em andamento; fica para a próxima rodada
+                log.debug("Conta ID: {} ocupada, snapshot adiado", contaId);
+            }
+        }
+
+        if (gerados > 0) {
+            log.info("Snapshots de saldo gerados para {} contas", gerados);
+        }
+
+        return gerados;
+    }
+}
@@ -0,0 +1,25 @@
+-- Usuario, Conta e Cobranca passam de IDENTITY para sequências com incremento 50 (otimizador pooled do
+-- Hibernate), o que permite agrupar os INSERTs em batch. Lançamentos continuam com IDENTITY (ver Lancamento).
+
+CREATE SEQUENCE IF NOT EXISTS usuario_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS conta_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cobrancas_seq INCREMENT BY 50;
+
+-- Bancos criados pelo ddl-auto antes desta migração: a coluna id deixa de ser IDENTITY e a sequência
+-- continua de onde os dados existentes pararam. Em banco vazio as tabelas ainda não existem e nada é feito.
+DO $$
+DECLARE
+    tabela text;
+BEGIN
+    FOREACH tabela IN ARRAY ARRAY['usuario', 'conta', 'cobrancas'] LOOP
+        IF to_regclass(tabela) IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', tabela);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', tabela);
+
+            -- No pooled o valor da sequência é o topo do bloco reservado: o primeiro bloco vai de max(id) + 1
+            -- a max(id) + 50
+            EXECUTE format('SELECT setval(%L, (SELECT COALESCE(MAX(id), 0) + 50 FROM %I), false)',
+                           tabela || '_seq', tabela);
+        END IF;
+    END LOOP;
+END $$;
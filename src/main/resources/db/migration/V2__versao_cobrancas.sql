@@ -0,0 +1,8 @@
+-- Versão para controle otimista de Cobranca (@Version). Cobranças existentes começam na versão 0;
+-- em banco vazio a coluna é criada pelo ddl-auto junto com a tabela.
+DO $$
+BEGIN
+    IF to_regclass('cobrancas') IS NOT NULL THEN
+        ALTER TABLE cobrancas ADD COLUMN IF NOT EXISTS versao bigint NOT NULL DEFAULT 0;
+    END IF;
+END $$;
@@ -0,0 +1,193 @@
+-- A partir desta migração o esquema é das migrações e o Hibernate só valida (ddl-auto: validate).
+-- Em banco vazio as tabelas são criadas aqui; em bancos criados pelo ddl-auto os CREATE TABLE não fazem nada
+-- e só os índices e as restrições de status são ajustados.
+
+CREATE TABLE IF NOT EXISTS usuario (
+    id          bigint       NOT NULL PRIMARY KEY,
+    nome        varchar(255) NOT NULL,
+    cpf         varchar(11)  NOT NULL UNIQUE,
+    email       varchar(255) NOT NULL UNIQUE,
+    senha       varchar(255) NOT NULL,
+    active      boolean      NOT NULL,
+    created_at  timestamp(6) NOT NULL,
+    updated_at  timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS conta (
+    id                    bigint         NOT NULL PRIMARY KEY,
+    usuario_id            bigint         NOT NULL UNIQUE REFERENCES usuario (id),
+    saldo                 numeric(19, 2) NOT NULL,
+    ultimo_lancamento_id  bigint         NOT NULL DEFAULT 0,
+    created_at            timestamp(6)   NOT NULL,
+    updated_at            timestamp(6)   NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS cobrancas (
+    id                    bigint         NOT NULL PRIMARY KEY,
+    originador_id         bigint         NOT NULL REFERENCES usuario (id),
+    destinatario_id       bigint         NOT NULL REFERENCES usuario (id),
+    valor                 numeric(19, 2) NOT NULL,
+    descricao             text,
+    status                varchar(20)    NOT NULL,
+    tipo_pagamento        varchar(20),
+    numero_cartao         varchar(4),
+    autorizador_response  text,
+    created_at            timestamp(6)   NOT NULL,
+    updated_at            timestamp(6)   NOT NULL,
+    paid_at               timestamp(6),
+    cancelled_at          timestamp(6),
+    expired_at            timestamp(6),
+    versao                bigint         NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS lancamentos (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    conta_id     bigint         NOT NULL REFERENCES conta (id),
+    tipo         varchar(30)    NOT NULL,
+    valor        numeric(19, 2) NOT NULL,
+    cobranca_id  bigint         REFERENCES cobrancas (id),
+    created_at   timestamp(6)   NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS saldo_snapshots (
+    id                    bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    conta_id              bigint         NOT NULL REFERENCES conta (id),
+    saldo                 numeric(19, 2) NOT NULL,
+    ultimo_lancamento_id  bigint         NOT NULL,
+    lancamentos           bigint         NOT NULL,
+    created_at            timestamp(6)   NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS solicitacoes_pagamento (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cobranca_id    bigint       NOT NULL REFERENCES cobrancas (id),
+    status         varchar(20)  NOT NULL,
+    numero_cartao  varchar(4),
+    mensagem       text,
+    created_at     timestamp(6) NOT NULL,
+    updated_at     timestamp(6) NOT NULL,
+    concluida_em   timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS lotes_cobranca (
+    id             bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    originador_id  bigint       NOT NULL REFERENCES usuario (id),
+    status         varchar(20)  NOT NULL,
+    total          integer      NOT NULL,
+    processadas    integer      NOT NULL,
+    criadas        integer      NOT NULL,
+    recusadas      integer      NOT NULL,
+    recusas        text,
+    mensagem       text,
+    created_at     timestamp(6) NOT NULL,
+    updated_at     timestamp(6) NOT NULL,
+    concluido_em   timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS liquidacoes_cartao (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cobranca_id   bigint         NOT NULL UNIQUE REFERENCES cobrancas (id),
+    conta_id      bigint         NOT NULL REFERENCES conta (id),
+    valor         numeric(19, 2) NOT NULL,
+    status        varchar(20)    NOT NULL,
+    created_at    timestamp(6)   NOT NULL,
+    liquidada_em  timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS chaves_idempotencia (
+    id            bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    usuario_id    bigint       NOT NULL,
+    chave         varchar(255) NOT NULL,
+    impressao     varchar(64)  NOT NULL,
+    status_http   integer,
+    content_type  varchar(100),
+    location      varchar(500),
+    corpo         text,
+    created_at    timestamp(6) NOT NULL,
+    concluida_em  timestamp(6),
+    UNIQUE (usuario_id, chave)
+);
+
+CREATE TABLE IF NOT EXISTS engine_journal_posicoes (
+    particao          integer      NOT NULL PRIMARY KEY,
+    ultima_sequencia  bigint       NOT NULL,
+    updated_at        timestamp(6) NOT NULL
+);
+
+-- ============================================
+-- Restrições de status
+-- ============================================
+-- O ddl-auto cria um CHECK com os valores do enum na criação da tabela e não o atualiza depois (ex.: EXPIRADA
+-- em cobrancas). Aqui cada uma é recriada com os valores atuais; novos valores de enum exigem nova migração.
+ALTER TABLE cobrancas DROP CONSTRAINT IF EXISTS cobrancas_status_check;
+ALTER TABLE cobrancas ADD CONSTRAINT cobrancas_status_check
+    CHECK (status IN ('PENDENTE', 'PAGA', 'CANCELADA', 'EXPIRADA'));
+
+ALTER TABLE cobrancas DROP CONSTRAINT IF EXISTS cobrancas_tipo_pagamento_check;
+ALTER TABLE cobrancas ADD CONSTRAINT cobrancas_tipo_pagamento_check
+    CHECK (tipo_pagamento IN ('SALDO', 'CARTAO_CREDITO'));
+
+ALTER TABLE lancamentos DROP CONSTRAINT IF EXISTS lancamentos_tipo_check;
+ALTER TABLE lancamentos ADD CONSTRAINT lancamentos_tipo_check
+    CHECK (tipo IN ('DEPOSITO', 'PAGAMENTO_ENVIADO', 'PAGAMENTO_RECEBIDO', 'ESTORNO_ENVIADO', 'ESTORNO_RECEBIDO'));
+
+ALTER TABLE solicitacoes_pagamento DROP CONSTRAINT IF EXISTS solicitacoes_pagamento_status_check;
+ALTER TABLE solicitacoes_pagamento ADD CONSTRAINT solicitacoes_pagamento_status_check
+    CHECK (status IN ('PROCESSANDO', 'APROVADO', 'RECUSADO', 'FALHOU'));
+
+ALTER TABLE lotes_cobranca DROP CONSTRAINT IF EXISTS lotes_cobranca_status_check;
+ALTER TABLE lotes_cobranca ADD CONSTRAINT lotes_cobranca_status_check
+    CHECK (status IN ('PROCESSANDO', 'CONCLUIDO', 'FALHOU'));
+
+ALTER TABLE liquidacoes_cartao DROP CONSTRAINT IF EXISTS liquidacoes_cartao_status_check;
+ALTER TABLE liquidacoes_cartao ADD CONSTRAINT liquidacoes_cartao_status_check
+    CHECK (status IN ('PENDENTE', 'LIQUIDADA', 'CANCELADA'));
+
+-- ============================================
+-- Índices
+-- ============================================
+-- CPF, email, conta por usuário, liquidação por cobrança e chave de idempotência já têm índice pelas
+-- restrições UNIQUE.
+
+-- Cobranças do usuário filtradas por status (findBy...AndStatus e listagens com filtro), mais recentes primeiro
+CREATE INDEX IF NOT EXISTS idx_cobrancas_originador_status
+    ON cobrancas (originador_id, status, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_cobrancas_destinatario_status
+    ON cobrancas (destinatario_id, status, created_at DESC, id DESC);
+
+-- Listagens sem filtro de status: o cursor (created_at, id) vira um intervalo do índice
+CREATE INDEX IF NOT EXISTS idx_cobrancas_originador_created_at
+    ON cobrancas (originador_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_cobrancas_destinatario_created_at
+    ON cobrancas (destinatario_id, created_at, id);
+
+-- Expiração: só as pendentes, que são poucas perto do total. Substitui o índice (status, created_at)
+DROP INDEX IF EXISTS idx_cobrancas_status_created_at;
+CREATE INDEX IF NOT EXISTS idx_cobrancas_pendentes_created_at
+    ON cobrancas (created_at, id) WHERE status = 'PENDENTE';
+
+-- Última solicitação de pagamento da cobrança (consulta do pagamento assíncrono)
+CREATE INDEX IF NOT EXISTS idx_solicitacoes_pagamento_cobranca
+    ON solicitacoes_pagamento (cobranca_id, id);
+
+-- Saldo desde o último snapshot e lançamentos pendentes de snapshot
+CREATE INDEX IF NOT EXISTS idx_lancamentos_conta_id
+    ON lancamentos (conta_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_saldo_snapshots_conta_id
+    ON saldo_snapshots (conta_id);
+
+-- Fila de liquidação: só as pendentes, na ordem em que são reservadas. Substitui o índice (status, id)
+DROP INDEX IF EXISTS idx_liquidacoes_cartao_status;
+CREATE INDEX IF NOT EXISTS idx_liquidacoes_cartao_pendentes
+    ON liquidacoes_cartao (id) WHERE status = 'PENDENTE';
+
+-- Limpeza de chaves expiradas. Bancos criados pelo ddl-auto já têm um índice em created_at com nome gerado
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes
+                   WHERE tablename = 'chaves_idempotencia'
+                     AND indexdef LIKE '%(created_at)') THEN
+        CREATE INDEX idx_chaves_idempotencia_created_at ON chaves_idempotencia (created_at);
+    END IF;
+END $$;
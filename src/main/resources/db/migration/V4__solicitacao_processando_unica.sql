@@ -0,0 +1,16 @@
+-- No máximo uma solicitação de pagamento com cartão em processamento por cobrança. Antes do índice,
+-- duplicadas que já existam ficam só com a mais recente; as demais passam para FALHOU.
+UPDATE solicitacoes_pagamento s
+SET status = 'FALHOU',
+    mensagem = 'Solicitação duplicada',
+    concluida_em = now(),
+    updated_at = now()
+WHERE s.status = 'PROCESSANDO'
+  AND EXISTS (SELECT 1
+              FROM solicitacoes_pagamento o
+              WHERE o.cobranca_id = s.cobranca_id
+                AND o.status = 'PROCESSANDO'
+                AND o.id > s.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_solicitacoes_pagamento_processando
+    ON solicitacoes_pagamento (cobranca_id) WHERE status = 'PROCESSANDO';
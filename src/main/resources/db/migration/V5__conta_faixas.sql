@@ -0,0 +1,10 @@
+-- Faixas de trava para contas que recebem muitos créditos simultâneos. Cada crédito trava uma faixa sorteada
+-- em vez da linha da conta; as faixas não guardam saldo, que continua todo nos lançamentos.
+ALTER TABLE conta ADD COLUMN IF NOT EXISTS faixas integer;
+
+CREATE TABLE IF NOT EXISTS conta_faixas
+(
+    conta_id bigint  NOT NULL REFERENCES conta (id),
+    indice   integer NOT NULL,
+    PRIMARY KEY (conta_id, indice)
+);
@@ -0,0 +1,3 @@
+-- Momento em que a tarefa assumiu a solicitação e começou a chamar o autorizador. A expiração só marca como
+-- FALHOU solicitações que não começaram ou que começaram há mais tempo que o limite.
+ALTER TABLE solicitacoes_pagamento ADD COLUMN IF NOT EXISTS iniciada_em timestamp(6);
@@ -0,0 +1,93 @@
+package com.thuler.gateway.benchmark;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import com.thuler.gateway.infrastructure.config.AuthorizerHttpClientConfig;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerBulkhead;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerCircuitBreaker;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerRetryBudget;
+import com.thuler.gateway.stub.LatencyDistribution;
+import com.thuler.gateway.stub.StubAuthorizer;
+import com.thuler.gateway.stub.StubAuthorizer.Perfil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a latência de cauda do AuthorizerClient (a etapa de pagarComCartao que depende do
+ * autorizador) contra o {@link StubAuthorizer} com latência de cauda longa (mediana de 5 ms).
+ * Compara o cliente sem hedging com o cliente usando hedging pelo p95.
+ * <p>
+ * Execução: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.thuler.gateway.benchmark.AuthorizerHedgingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(4)
+@Fork(1)
+public class AuthorizerHedgingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean hedging;
+
+    private StubAuthorizer autorizador;
+    private CloseableHttpClient httpClient;
+    private AuthorizerClient authorizerClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        autorizador = StubAuthorizer.iniciar(Perfil.padrao()
+                .comLatencia(LatencyDistribution.caudaLonga(Duration.ofMillis(5), 1.2)));
+
+        AuthorizerProperties properties = new AuthorizerProperties();
+        properties.setUrl(autorizador.url());
+        properties.getHedging().setEnabled(hedging);
+        properties.getHedging().setMinDelay(Duration.ofMillis(10));
+        // Orçamento folgado: aqui interessa o efeito do hedging, não o limite de tentativas extras
+        properties.getRetry().setBudgetRatio(0.2);
+        properties.getCircuitBreaker().setSlowCallDuration(Duration.ofSeconds(5));
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        httpClient = new AuthorizerHttpClientConfig().authorizerHttpClient(properties, registry);
+        authorizerClient = new AuthorizerClient(
+                httpClient,
+                Jackson2ObjectMapperBuilder.json().build(),
+                new AuthorizerCircuitBreaker(properties, registry),
+                new AuthorizerBulkhead(properties, registry),
+                new AuthorizerRetryBudget(properties, registry),
+                properties);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        autorizador.close();
+    }
+
+    @Benchmark
+    public AuthorizerResponse autorizar() {
+        return authorizerClient.authorize();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AuthorizerHedgingBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
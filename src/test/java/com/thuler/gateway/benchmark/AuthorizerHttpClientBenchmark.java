@@ -0,0 +1,81 @@
+package com.thuler.gateway.benchmark;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import com.thuler.gateway.infrastructure.config.AuthorizerHttpClientConfig;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
+import com.thuler.gateway.stub.StubAuthorizer;
+import com.thuler.gateway.stub.StubAuthorizer.Perfil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o RestTemplate com a request factory padrão (HttpURLConnection, que guarda no
+ * máximo 5 conexões keep-alive por destino) com o RestTemplate sobre o pool do HttpClient 5,
+ * ambos contra um autorizador local. Com 16 threads concorrentes a factory padrão volta a
+ * abrir conexões, o que aparece no p99 do modo SampleTime.
+ * <p>
+ * Execução: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.thuler.gateway.benchmark.AuthorizerHttpClientBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class AuthorizerHttpClientBenchmark {
+
+    private StubAuthorizer autorizador;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplatePadrao;
+    private RestTemplate restTemplateComPool;
+    private String url;
+
+    @Setup
+    public void setUp() throws IOException {
+        autorizador = StubAuthorizer.iniciar(Perfil.padrao());
+        url = autorizador.url();
+
+        restTemplatePadrao = new RestTemplate(new SimpleClientHttpRequestFactory());
+
+        httpClient = new AuthorizerHttpClientConfig()
+                .authorizerHttpClient(new AuthorizerProperties(), new SimpleMeterRegistry());
+        restTemplateComPool = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        autorizador.close();
+    }
+
+    @Benchmark
+    public AuthorizerResponse factoryPadrao() {
+        return restTemplatePadrao.getForObject(url, AuthorizerResponse.class);
+    }
+
+    @Benchmark
+    public AuthorizerResponse httpClientComPool() {
+        return restTemplateComPool.getForObject(url, AuthorizerResponse.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AuthorizerHttpClientBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
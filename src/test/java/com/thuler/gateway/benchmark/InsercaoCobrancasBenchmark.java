@@ -0,0 +1,124 @@
+package com.thuler.gateway.benchmark;
+
+import com.thuler.gateway.GatewayApplication;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.valueobject.CPF;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cobranças inseridas por segundo, em transações de {@value #COBRANCAS_POR_TRANSACAO}. Os ids vêm da sequência
+ * com alocação em bloco nos dois modos. {@code sem-batch} desliga o batch JDBC e reproduz o comportamento de
+ * quando a cobrança usava IDENTITY: uma ida ao banco por INSERT. {@code batch} usa batches de 50 com
+ * {@code reWriteBatchedInserts}. Precisa do Postgres configurado no application.yml.
+ * <p>
+ * Execução: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.thuler.gateway.benchmark.InsercaoCobrancasBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(InsercaoCobrancasBenchmark.COBRANCAS_POR_TRANSACAO)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InsercaoCobrancasBenchmark {
+
+    static final int COBRANCAS_POR_TRANSACAO = 500;
+
+    @Param({"sem-batch", "batch"})
+    public String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private TransactionTemplate transactionTemplate;
+    private CobrancaRepository cobrancaRepository;
+    private UsuarioRepository usuarioRepository;
+    private Usuario originador;
+    private Usuario destinatario;
+
+    @Setup
+    public void setUp() {
+        boolean batch = modo.equals("batch");
+
+        contexto = new SpringApplicationBuilder(GatewayApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "conta.snapshot.habilitado=false",
+                        "idempotencia.limpeza.habilitada=false",
+                        "cartao.liquidacao.habilitada=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + (batch ? 50 : 1),
+                        "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=" + batch,
+                        "logging.level.com.thuler.gateway=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "spring.jpa.show-sql=false")
+                .run();
+
+        transactionTemplate = contexto.getBean(TransactionTemplate.class);
+        cobrancaRepository = contexto.getBean(CobrancaRepository.class);
+        usuarioRepository = contexto.getBean(UsuarioRepository.class);
+
+        originador = usuarioRepository.save(criarUsuario("31850427607", "originador"));
+        destinatario = usuarioRepository.save(criarUsuario("40721395805", "destinatario"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        // Remove só o que o benchmark criou
+        contexto.getBean(JdbcTemplate.class)
+                .update("DELETE FROM cobrancas WHERE originador_id = ?", originador.getId());
+        usuarioRepository.deleteAll(List.of(originador, destinatario));
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Cobranca> inserirCobrancas() {
+        return transactionTemplate.execute(status -> {
+            List<Cobranca> cobrancas = new ArrayList<>(COBRANCAS_POR_TRANSACAO);
+            for (int i = 0; i < COBRANCAS_POR_TRANSACAO; i++) {
+                cobrancas.add(Cobranca.builder()
+                        .originador(originador)
+                        .destinatario(destinatario)
+                        .valor(BigDecimal.TEN)
+                        .descricao("Benchmark")
+                        .build());
+            }
+            return cobrancaRepository.saveAll(cobrancas);
+        });
+    }
+
+    private static Usuario criarUsuario(String cpf, String nome) {
+        Usuario usuario = Usuario.builder()
+                .nome("Benchmark " + nome)
+                .cpf(CPF.of(cpf))
+                .email("benchmark-" + nome + "@example.com")
+                .senha("senha-nao-usada")
+                .active(true)
+                .build();
+        usuario.criarConta();
+        return usuario;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(InsercaoCobrancasBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
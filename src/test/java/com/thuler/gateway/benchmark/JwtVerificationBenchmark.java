@@ -0,0 +1,80 @@
+package com.thuler.gateway.benchmark;
+
+import com.thuler.gateway.infrastructure.security.JwtTokenProvider;
+import com.thuler.gateway.infrastructure.security.JwtTokenVerifier;
+import com.thuler.gateway.infrastructure.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o caminho antigo do filtro JWT (validateToken + getUserIdFromToken, cada um criando
+ * chave e parser) com o parse único e com o verificador em cache.
+ * <p>
+ * Execução: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.thuler.gateway.benchmark.JwtVerificationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "my-super-secret-key-for-jwt-token-generation-must-be-at-least-256-bits-long";
+
+    private JwtTokenProvider tokenProvider;
+    private JwtTokenVerifier tokenVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 3600000L);
+        tokenVerifier = new JwtTokenVerifier(tokenProvider, new SimpleMeterRegistry(), 10_000);
+        token = tokenProvider.generateToken(42L, "benchmark@example.com");
+    }
+
+    @Benchmark
+    public Long caminhoAnterior() {
+        Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token);
+
+        Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+
+        return Long.parseLong(claims.getSubject());
+    }
+
+    @Benchmark
+    public VerifiedToken parseUnico() {
+        return tokenProvider.parse(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verificadorComCache() {
+        return tokenVerifier.verify(token).orElseThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
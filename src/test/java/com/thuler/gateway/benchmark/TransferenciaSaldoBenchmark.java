@@ -0,0 +1,135 @@
+package com.thuler.gateway.benchmark;
+
+import com.thuler.gateway.GatewayApplication;
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.engine.ContaEngine;
+import com.thuler.gateway.stub.GeradorCpf;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Vazão de pagamentos com saldo de vários pagadores para um mesmo lojista (a conta quente), pelo
+ * {@link LancamentoService}: livro de lançamentos com travas no Postgres ({@code jpa}) contra a engine de
+ * contas em memória com journal ({@code engine}). Precisa do Postgres configurado no application.yml.
+ * <p>
+ * Execução: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.thuler.gateway.benchmark.TransferenciaSaldoBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class TransferenciaSaldoBenchmark {
+
+    private static final int PAGADORES = 64;
+    private static final BigDecimal VALOR = new BigDecimal("0.01");
+
+    @Param({"jpa", "engine"})
+    public String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private LancamentoService lancamentoService;
+    private TransactionTemplate transactionTemplate;
+    private final List<Usuario> usuarios = new ArrayList<>();
+    private final List<Long> contasPagadoras = new ArrayList<>();
+    private Long contaLojistaId;
+
+    @Setup
+    public void setUp() throws IOException {
+        contexto = new SpringApplicationBuilder(GatewayApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "conta.snapshot.habilitado=false",
+                        "idempotencia.limpeza.habilitada=false",
+                        "cartao.liquidacao.habilitada=false",
+                        "conta.engine.habilitado=" + modo.equals("engine"),
+                        "conta.engine.journal.diretorio=" + Files.createTempDirectory("engine-journal"),
+                        "logging.level.com.thuler.gateway=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "spring.jpa.show-sql=false")
+                .run();
+
+        lancamentoService = contexto.getBean(LancamentoService.class);
+        transactionTemplate = contexto.getBean(TransactionTemplate.class);
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        ContaRepository contaRepository = contexto.getBean(ContaRepository.class);
+
+        Usuario lojista = usuarioRepository.save(criarUsuario(0));
+        usuarios.add(lojista);
+        contaLojistaId = contaRepository.findIdByUsuarioId(lojista.getId()).orElseThrow();
+
+        for (int i = 1; i <= PAGADORES; i++) {
+            Usuario pagador = criarUsuario(i);
+            pagador.getConta().setSaldo(BigDecimal.valueOf(1_000_000));
+            pagador = usuarioRepository.save(pagador);
+            usuarios.add(pagador);
+            contasPagadoras.add(contaRepository.findIdByUsuarioId(pagador.getId()).orElseThrow());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.getBeanProvider(ContaEngine.class).ifAvailable(ContaEngine::persistirPendentes);
+
+        // Remove só o que o benchmark criou
+        List<Long> contas = new ArrayList<>(contasPagadoras);
+        contas.add(contaLojistaId);
+        String ids = contas.stream().map(String::valueOf).collect(Collectors.joining(","));
+        contexto.getBean(JdbcTemplate.class).update("DELETE FROM lancamentos WHERE conta_id IN (" + ids + ")");
+        contexto.getBean(UsuarioRepository.class).deleteAll(usuarios);
+        contexto.close();
+    }
+
+    @Benchmark
+    public Boolean pagarComSaldo() {
+        Long contaPagadorId = contasPagadoras.get(ThreadLocalRandom.current().nextInt(PAGADORES));
+
+        return transactionTemplate.execute(status -> lancamentoService.transferir(contaPagadorId, contaLojistaId,
+                VALOR, TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, null));
+    }
+
+    private static Usuario criarUsuario(int indice) {
+        Usuario usuario = Usuario.builder()
+                .nome("Benchmark " + indice)
+                .cpf(CPF.of(GeradorCpf.gerar(200000000, indice)))
+                .email("benchmark" + indice + "@example.com")
+                .senha("senha-nao-usada")
+                .active(true)
+                .build();
+        usuario.criarConta();
+        return usuario;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TransferenciaSaldoBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+}
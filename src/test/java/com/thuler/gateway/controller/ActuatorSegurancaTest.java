@@ -0,0 +1,31 @@
+package com.thuler.gateway.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisplayName("Segurança do Actuator")
+class ActuatorSegurancaTest extends BaseIntegrationTest {
+
+    @Test
+    @DisplayName("GET /actuator/metrics - Deve retornar 401 sem autenticação")
+    void deveExigirAutenticacaoNasMetricas() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics/http.server.requests"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("GET /actuator/health - Deve ser público")
+    void deveManterHealthPublico() throws Exception {
+        int status = mockMvc.perform(get("/actuator/health"))
+                .andReturn().getResponse().getStatus();
+
+        // 200 ou 503 conforme as dependências; o que importa é não pedir token
+        assertNotEquals(401, status);
+    }
+}
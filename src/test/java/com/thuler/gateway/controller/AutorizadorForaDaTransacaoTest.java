@@ -0,0 +1,180 @@
+package com.thuler.gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thuler.gateway.dto.request.DepositoRequest;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.SaldoSnapshotRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
+import com.thuler.gateway.infrastructure.security.JwtTokenProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sem o liquidante de cartão, que pegaria conexões do pool em segundo plano
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "cartao.liquidacao.habilitada=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Autorizador fora da transação - Integration Tests")
+class AutorizadorForaDaTransacaoTest {
+
+    private static final int DEPOSITOS_SIMULTANEOS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private CobrancaRepository cobrancaRepository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    private SaldoSnapshotRepository saldoSnapshotRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockitoBean
+    private AuthorizerClient authorizerClient;
+
+    private String token;
+
+    @BeforeEach
+    void setupUsuario() {
+        limparBanco();
+
+        Usuario usuario = Usuario.builder()
+                .nome("João Silva")
+                .cpf(CPF.of("52998224725"))
+                .email("joao@example.com")
+                .senha(passwordEncoder.encode("senha123"))
+                .active(true)
+                .build();
+        usuario.criarConta();
+        usuario = usuarioRepository.save(usuario);
+
+        token = jwtTokenProvider.generateToken(usuario.getId(), usuario.getEmail());
+    }
+
+    @AfterEach
+    void limparBanco() {
+        saldoSnapshotRepository.deleteAll();
+        lancamentoRepository.deleteAll();
+        cobrancaRepository.deleteAll();
+        contaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve manter o pool disponível enquanto o autorizador está lento")
+    void deveManterPoolDisponivelComAutorizadorLento() throws Exception {
+        CountDownLatch chamadasNoAutorizador = new CountDownLatch(DEPOSITOS_SIMULTANEOS);
+        CountDownLatch liberarAutorizador = new CountDownLatch(1);
+
+        when(authorizerClient.authorize()).thenAnswer(invocation -> {
+            chamadasNoAutorizador.countDown();
+            liberarAutorizador.await(10, TimeUnit.SECONDS);
+            return autorizado();
+        });
+
+        String corpo = objectMapper.writeValueAsString(DepositoRequest.builder()
+                .valor(BigDecimal.valueOf(100))
+                .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(DEPOSITOS_SIMULTANEOS);
+        try {
+            List<Future<Integer>> depositos = new ArrayList<>();
+            for (int i = 0; i < DEPOSITOS_SIMULTANEOS; i++) {
+                depositos.add(executor.submit(() -> mockMvc.perform(post("/api/conta/deposito")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(corpo))
+                        .andReturn()
+                        .getResponse()
+                        .getStatus()));
+            }
+
+            assertTrue(chamadasNoAutorizador.await(5, TimeUnit.SECONDS),
+                    "Todos os depósitos deveriam estar aguardando o autorizador");
+
+            // Mais depósitos presos no autorizador do que conexões no pool, e nenhuma em uso
+            HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            assertEquals(0, pool.getActiveConnections());
+
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () ->
+                    mockMvc.perform(get("/api/conta/saldo")
+                                    .header("Authorization", "Bearer " + token))
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$.saldo").value(0)));
+
+            liberarAutorizador.countDown();
+
+            for (Future<Integer> deposito : depositos) {
+                assertEquals(200, deposito.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            liberarAutorizador.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private AuthorizerResponse autorizado() {
+        AuthorizerResponse authorizerResponse = new AuthorizerResponse();
+        authorizerResponse.setStatus("APPROVED");
+        authorizerResponse.setData(new AuthorizerResponse.AuthorizerData(true));
+        return authorizerResponse;
+    }
+}
@@ -0,0 +1,178 @@
+package com.thuler.gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thuler.gateway.dto.request.PagarCobrancaSaldoRequest;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.SaldoSnapshotRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.security.JwtTokenProvider;
+import com.thuler.gateway.stub.GeradorCpf;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Base dos testes de pagamentos simultâneos: um lojista sem saldo e {@link #PAGADORES} clientes com saldo 100.
+ * Sem @Transactional: as requisições concorrentes precisam enxergar os dados já commitados, então o banco é
+ * limpo antes e depois de cada teste.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public abstract class BaseConcorrenciaTest {
+
+    protected static final int PAGADORES = 8;
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected UsuarioRepository usuarioRepository;
+
+    @Autowired
+    protected ContaRepository contaRepository;
+
+    @Autowired
+    protected CobrancaRepository cobrancaRepository;
+
+    @Autowired
+    protected LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    protected SaldoSnapshotRepository saldoSnapshotRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected PasswordEncoder passwordEncoder;
+
+    @Autowired
+    protected JwtTokenProvider jwtTokenProvider;
+
+    protected Usuario lojista;
+    protected String tokenLojista;
+    protected final List<Usuario> pagadores = new ArrayList<>();
+
+    @BeforeEach
+    void setupUsuarios() {
+        limparBanco();
+
+        lojista = criarUsuario("Loja Popular", "52998224725", "loja@example.com", 0);
+        tokenLojista = jwtTokenProvider.generateToken(lojista.getId(), lojista.getEmail());
+
+        for (int i = 0; i < PAGADORES; i++) {
+            pagadores.add(criarUsuario("Cliente " + i, GeradorCpf.gerar(i), "cliente" + i + "@example.com", 100));
+        }
+    }
+
+    @AfterEach
+    void limparBanco() {
+        pagadores.clear();
+        saldoSnapshotRepository.deleteAll();
+        lancamentoRepository.deleteAll();
+        cobrancaRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM conta_faixas");
+        contaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    /**
+     * Cria {@code cobrancasPorPagador} cobranças do lojista para cada pagador e paga todas com saldo ao mesmo
+     * tempo.
+     *
+     * @return status HTTP de cada pagamento
+     */
+    protected List<Integer> pagarSimultaneamente(BigDecimal valor, int cobrancasPorPagador) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(PAGADORES * cobrancasPorPagador);
+        try {
+            List<Future<Integer>> pagamentos = new ArrayList<>();
+            for (Usuario pagador : pagadores) {
+                String token = jwtTokenProvider.generateToken(pagador.getId(), pagador.getEmail());
+
+                for (int i = 0; i < cobrancasPorPagador; i++) {
+                    Cobranca cobranca = cobrancaRepository.save(Cobranca.builder()
+                            .originador(lojista)
+                            .destinatario(pagador)
+                            .valor(valor)
+                            .descricao("Compra")
+                            .status(CobrancaStatus.PENDENTE)
+                            .build());
+
+                    String corpo = objectMapper.writeValueAsString(PagarCobrancaSaldoRequest.builder()
+                            .cobrancaId(cobranca.getId())
+                            .build());
+
+                    pagamentos.add(executor.submit(() -> {
+                        largada.await();
+                        return mockMvc.perform(post("/api/cobrancas/pagar/saldo")
+                                        .header("Authorization", "Bearer " + token)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(corpo))
+                                .andReturn()
+                                .getResponse()
+                                .getStatus();
+                    }));
+                }
+            }
+
+            largada.countDown();
+
+            List<Integer> status = new ArrayList<>();
+            for (Future<Integer> pagamento : pagamentos) {
+                status.add(pagamento.get(30, TimeUnit.SECONDS));
+            }
+            return status;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected Usuario criarUsuario(String nome, String cpf, String email, long saldo) {
+        Usuario usuario = Usuario.builder()
+                .nome(nome)
+                .cpf(CPF.of(cpf))
+                .email(email)
+                .senha(passwordEncoder.encode("senha123"))
+                .active(true)
+                .build();
+        usuario.criarConta();
+        usuario = usuarioRepository.save(usuario);
+
+        if (saldo > 0) {
+            Conta conta = usuario.getConta();
+            conta.setSaldo(BigDecimal.valueOf(saldo));
+            contaRepository.save(conta);
+        }
+        return usuario;
+    }
+}
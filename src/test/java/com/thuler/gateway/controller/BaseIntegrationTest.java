@@ -3,6 +3,10 @@ package com.thuler.gateway.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thuler.gateway.domain.repository.CobrancaRepository;
 import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.LiquidacaoCartaoRepository;
+import com.thuler.gateway.domain.repository.LoteCobrancaRepository;
+import com.thuler.gateway.domain.repository.SaldoSnapshotRepository;
 import com.thuler.gateway.domain.repository.UsuarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,9 +37,25 @@ public abstract class BaseIntegrationTest {
     @Autowired
     protected CobrancaRepository cobrancaRepository;
 
+    @Autowired
+    protected LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    protected SaldoSnapshotRepository saldoSnapshotRepository;
+
+    @Autowired
+    protected LoteCobrancaRepository loteCobrancaRepository;
+
+    @Autowired
+    protected LiquidacaoCartaoRepository liquidacaoCartaoRepository;
+
     @BeforeEach
     void cleanDatabase() {
+        saldoSnapshotRepository.deleteAll();
+        lancamentoRepository.deleteAll();
+        liquidacaoCartaoRepository.deleteAll();
         cobrancaRepository.deleteAll();
+        loteCobrancaRepository.deleteAll();
         contaRepository.deleteAll();
         usuarioRepository.deleteAll();
     }
@@ -0,0 +1,162 @@
+package com.thuler.gateway.controller;
+
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.dto.response.CobrancaResponse;
+import com.thuler.gateway.dto.response.PaginaCobrancasResponse;
+import com.thuler.gateway.usecase.cobranca.ConsultarCobrancasUseCase;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fixa a quantidade de SELECTs das consultas de cobrança: originador e destinatário vêm no mesmo SELECT das
+ * cobranças, qualquer que seja a quantidade de usuários distintos na página. As listagens são projeções e não
+ * carregam entidades.
+ */
+@DisplayName("Consultas de cobrança sem N+1")
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class CobrancaConsultasSqlTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ConsultarCobrancasUseCase consultarCobrancasUseCase;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Usuario ana;
+    private List<Cobranca> cobrancasDaAna;
+
+    @BeforeEach
+    void setUp() {
+        ana = criarUsuario("Ana", "52998224725");
+        Usuario bruno = criarUsuario("Bruno", "12345678909");
+        Usuario carla = criarUsuario("Carla", "98765432100");
+        Usuario davi = criarUsuario("Davi", "11144477735");
+
+        // Ana cobra três usuários diferentes e recebe cobranças de cada um deles
+        cobrancasDaAna = List.of(bruno, carla, davi).stream()
+                .map(outro -> criarCobranca(ana, outro))
+                .toList();
+        List.of(bruno, carla, davi).forEach(outro -> criarCobranca(outro, ana));
+
+        // Consultas daqui em diante vão ao banco, não ao contexto de persistência
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Cobranças enviadas: um único SELECT para a página com destinatários distintos")
+    void deveListarEnviadasComUmaConsulta() {
+        PaginaCobrancasResponse pagina = consultarCobrancasUseCase.consultarCobrancasEnviadas(ana.getId(), null, null, null);
+
+        assertEquals(Set.of("Bruno", "Carla", "Davi"), nomes(pagina, CobrancaResponse::getDestinatarioNome));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Cobranças recebidas: um único SELECT por página, também nas páginas seguintes")
+    void deveListarRecebidasComUmaConsultaPorPagina() {
+        PaginaCobrancasResponse primeira = consultarCobrancasUseCase.consultarCobrancasRecebidas(ana.getId(), null, null, 2);
+        PaginaCobrancasResponse segunda = consultarCobrancasUseCase
+                .consultarCobrancasRecebidas(ana.getId(), null, primeira.getProximoCursor(), 2);
+
+        assertEquals(2, primeira.getCobrancas().size());
+        assertEquals(1, segunda.getCobrancas().size());
+        // Da mais recente para a mais antiga
+        assertEquals(Set.of("Carla", "Davi"), nomes(primeira, CobrancaResponse::getOriginadorNome));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Finders do repositório: um único SELECT com os dois usuários")
+    void deveCarregarUsuariosNosFinders() {
+        List<Cobranca> porOriginador = cobrancaRepository.findByOriginadorIdAndStatus(ana.getId(), CobrancaStatus.PENDENTE);
+        List<Cobranca> porDestinatario = cobrancaRepository.findByDestinatarioId(ana.getId());
+        List<Cobranca> porIds = cobrancaRepository.findComUsuariosByIdIn(
+                cobrancasDaAna.stream().map(Cobranca::getId).toList());
+
+        assertEquals(Set.of("Bruno", "Carla", "Davi"),
+                porOriginador.stream().map(cobranca -> cobranca.getDestinatario().getNome()).collect(Collectors.toSet()));
+        assertEquals(Set.of("Bruno", "Carla", "Davi"),
+                porDestinatario.stream().map(cobranca -> cobranca.getOriginador().getNome()).collect(Collectors.toSet()));
+        assertEquals(3, porIds.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        Cobranca porId = cobrancaRepository.findById(cobrancasDaAna.get(0).getId()).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(porId.getOriginador()));
+        assertTrue(Hibernate.isInitialized(porId.getDestinatario()));
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Sem o grafo, originador e destinatário ficam lazy")
+    void deveManterUsuariosLazySemGrafo() {
+        Cobranca cobranca = entityManager.find(Cobranca.class, cobrancasDaAna.get(0).getId());
+
+        assertFalse(Hibernate.isInitialized(cobranca.getOriginador()));
+        assertFalse(Hibernate.isInitialized(cobranca.getDestinatario()));
+        // O id vem da chave estrangeira, sem carregar o usuário
+        assertEquals(ana.getId(), cobranca.getOriginador().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Set<String> nomes(PaginaCobrancasResponse pagina, Function<CobrancaResponse, String> nome) {
+        return pagina.getCobrancas().stream().map(nome).collect(Collectors.toSet());
+    }
+
+    private Usuario criarUsuario(String nome, String cpf) {
+        Usuario usuario = Usuario.builder()
+                .nome(nome)
+                .cpf(CPF.of(cpf))
+                .email(nome.toLowerCase() + "@example.com")
+                .senha("senha-nao-usada")
+                .active(true)
+                .build();
+        usuario.criarConta();
+        return usuarioRepository.save(usuario);
+    }
+
+    private Cobranca criarCobranca(Usuario originador, Usuario destinatario) {
+        return cobrancaRepository.save(Cobranca.builder()
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.TEN)
+                .descricao("Cobrança de " + originador.getNome())
+                .build());
+    }
+}
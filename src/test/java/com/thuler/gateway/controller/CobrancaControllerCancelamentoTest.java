@@ -53,7 +53,7 @@ class CobrancaControllerCancelamentoTest extends BaseIntegrationTest {
         originador.criarConta();
         originador = usuarioRepository.save(originador);
         contaOriginador = originador.getConta();
-        contaOriginador.depositar(BigDecimal.valueOf(500));
+        contaOriginador.setSaldo(BigDecimal.valueOf(500));
         contaRepository.save(contaOriginador);
 
         destinatario = Usuario.builder()
@@ -107,8 +107,8 @@ class CobrancaControllerCancelamentoTest extends BaseIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("CANCELADA"));
 
-        Conta contaOrigAtualizada = contaRepository.findById(contaOriginador.getId()).get();
-        assert contaOrigAtualizada.getSaldo().compareTo(BigDecimal.valueOf(400)) == 0; // 500 - 100
+        BigDecimal saldoOriginador = contaRepository.calcularSaldo(contaOriginador.getId());
+        assert saldoOriginador.compareTo(BigDecimal.valueOf(400)) == 0; // 500 - 100
     }
 
     @Test
@@ -2,25 +2,36 @@ package com.thuler.gateway.controller;
 
 import com.thuler.gateway.dto.request.PagarCobrancaCartaoRequest;
 import com.thuler.gateway.dto.request.PagarCobrancaSaldoRequest;
+import com.thuler.gateway.dto.request.PagarCobrancasLoteRequest;
 import com.thuler.gateway.domain.model.Cobranca;
 import com.thuler.gateway.domain.model.Conta;
 import com.thuler.gateway.domain.model.Usuario;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.StatusLiquidacao;
 import com.thuler.gateway.domain.valueobject.CPF;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
 import com.thuler.gateway.infrastructure.security.JwtTokenProvider;
+import com.thuler.gateway.usecase.cobranca.ExpirarCobrancasUseCase;
+import com.thuler.gateway.usecase.cobranca.LiquidarPagamentosCartaoUseCase;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -33,6 +44,18 @@ class CobrancaControllerPagamentoTest extends BaseIntegrationTest {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private LiquidarPagamentosCartaoUseCase liquidarPagamentosCartaoUseCase;
+
+    @Autowired
+    private ExpirarCobrancasUseCase expirarCobrancasUseCase;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @MockitoBean
     private AuthorizerClient authorizerClient;
 
@@ -67,7 +90,7 @@ class CobrancaControllerPagamentoTest extends BaseIntegrationTest {
         destinatario = usuarioRepository.save(destinatario);
         contaDestinatario = destinatario.getConta();
 
-        contaDestinatario.depositar(BigDecimal.valueOf(1000));
+        contaDestinatario.setSaldo(BigDecimal.valueOf(1000));
         contaRepository.save(contaDestinatario);
 
         tokenDestinatario = jwtTokenProvider.generateToken(destinatario.getId(), destinatario.getEmail());
@@ -99,11 +122,50 @@ class CobrancaControllerPagamentoTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.tipoPagamento").value("SALDO"))
                 .andExpect(jsonPath("$.paidAt").exists());
 
-        Conta contaDestAtualizada = contaRepository.findById(contaDestinatario.getId()).get();
-        Conta contaOrigAtualizada = contaRepository.findById(contaOriginador.getId()).get();
+        BigDecimal saldoDestinatario = contaRepository.calcularSaldo(contaDestinatario.getId());
+        BigDecimal saldoOriginador = contaRepository.calcularSaldo(contaOriginador.getId());
 
-        assert contaDestAtualizada.getSaldo().compareTo(BigDecimal.valueOf(900)) == 0; // 1000 - 100
-        assert contaOrigAtualizada.getSaldo().compareTo(BigDecimal.valueOf(100)) == 0; // 0 + 100
+        assert saldoDestinatario.compareTo(BigDecimal.valueOf(900)) == 0; // 1000 - 100
+        assert saldoOriginador.compareTo(BigDecimal.valueOf(100)) == 0; // 0 + 100
+    }
+
+    @Test
+    @DisplayName("POST /api/cobrancas/pagar/saldo - Deve retornar 409 para cobrança expirada")
+    void deveRetornar409ParaCobrancaExpirada() throws Exception {
+        Cobranca recente = cobrancaRepository.saveAndFlush(Cobranca.builder()
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .build());
+        Cobranca outraAntiga = cobrancaRepository.saveAndFlush(Cobranca.builder()
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .build());
+        LocalDateTime criacaoAntiga = LocalDateTime.now().minusDays(31);
+        jdbcTemplate.update("UPDATE cobrancas SET created_at = ? WHERE id IN (?, ?)",
+                criacaoAntiga, cobranca.getId(), outraAntiga.getId());
+
+        // Blocos de 1: as duas antigas em dois UPDATEs, e um terceiro que não encontra mais nada
+        assertEquals(2, expirarCobrancasUseCase.execute(Duration.ofDays(30), 1));
+        entityManager.clear();
+
+        assertEquals(CobrancaStatus.EXPIRADA, cobrancaRepository.findById(cobranca.getId()).orElseThrow().getStatus());
+        assertEquals(CobrancaStatus.EXPIRADA, cobrancaRepository.findById(outraAntiga.getId()).orElseThrow().getStatus());
+        assertEquals(CobrancaStatus.PENDENTE, cobrancaRepository.findById(recente.getId()).orElseThrow().getStatus());
+
+        PagarCobrancaSaldoRequest request = PagarCobrancaSaldoRequest.builder()
+                .cobrancaId(cobranca.getId())
+                .build();
+
+        mockMvc.perform(post("/api/cobrancas/pagar/saldo")
+                        .header("Authorization", "Bearer " + tokenDestinatario)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Apenas cobranças pendentes podem ser pagas"));
+
+        assertEquals(0, contaRepository.calcularSaldo(contaDestinatario.getId()).compareTo(BigDecimal.valueOf(1000)));
     }
 
     @Test
@@ -124,6 +186,83 @@ class CobrancaControllerPagamentoTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Saldo insuficiente"));
     }
 
+    @Test
+    @DisplayName("POST /api/cobrancas/pagar/saldo/lote - Deve pagar várias cobranças em uma chamada")
+    void devePagarCobrancasEmLote() throws Exception {
+        Cobranca segunda = cobrancaRepository.save(Cobranca.builder()
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(250))
+                .descricao("Segunda cobrança")
+                .status(CobrancaStatus.PENDENTE)
+                .build());
+
+        PagarCobrancasLoteRequest request = PagarCobrancasLoteRequest.builder()
+                .cobrancaIds(List.of(cobranca.getId(), segunda.getId()))
+                .build();
+
+        mockMvc.perform(post("/api/cobrancas/pagar/saldo/lote")
+                        .header("Authorization", "Bearer " + tokenDestinatario)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pagas").value(2))
+                .andExpect(jsonPath("$.recusadas").value(0))
+                .andExpect(jsonPath("$.valorPago").value(350))
+                .andExpect(jsonPath("$.resultados[0].cobrancaId").value(cobranca.getId()))
+                .andExpect(jsonPath("$.resultados[0].cobranca.status").value("PAGA"))
+                .andExpect(jsonPath("$.resultados[1].cobranca.tipoPagamento").value("SALDO"));
+
+        assertEquals(0, contaRepository.calcularSaldo(contaDestinatario.getId()).compareTo(BigDecimal.valueOf(650)));
+        assertEquals(0, contaRepository.calcularSaldo(contaOriginador.getId()).compareTo(BigDecimal.valueOf(350)));
+        assertEquals(4, lancamentoRepository.count());
+    }
+
+    @Test
+    @DisplayName("POST /api/cobrancas/pagar/saldo/lote - Deve recusar sem saldo ou inexistente e pagar as demais")
+    void deveRecusarCobrancasSemSaldoNoLote() throws Exception {
+        contaDestinatario.setSaldo(BigDecimal.valueOf(150));
+        contaRepository.save(contaDestinatario);
+
+        Cobranca segunda = cobrancaRepository.save(Cobranca.builder()
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .descricao("Segunda cobrança")
+                .status(CobrancaStatus.PENDENTE)
+                .build());
+
+        PagarCobrancasLoteRequest request = PagarCobrancasLoteRequest.builder()
+                .cobrancaIds(List.of(cobranca.getId(), segunda.getId(), 999999L))
+                .build();
+
+        mockMvc.perform(post("/api/cobrancas/pagar/saldo/lote")
+                        .header("Authorization", "Bearer " + tokenDestinatario)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pagas").value(1))
+                .andExpect(jsonPath("$.recusadas").value(2))
+                .andExpect(jsonPath("$.resultados[0].paga").value(true))
+                .andExpect(jsonPath("$.resultados[1].paga").value(false))
+                .andExpect(jsonPath("$.resultados[1].motivo").value("Saldo insuficiente"))
+                .andExpect(jsonPath("$.resultados[1].cobranca.status").value("PENDENTE"))
+                .andExpect(jsonPath("$.resultados[2].motivo").value("Cobrança não encontrada"));
+
+        assertEquals(0, contaRepository.calcularSaldo(contaDestinatario.getId()).compareTo(BigDecimal.valueOf(50)));
+    }
+
+    @Test
+    @DisplayName("POST /api/cobrancas/pagar/saldo/lote - Deve retornar 400 com lote vazio")
+    void deveRetornar400ComLoteVazio() throws Exception {
+        mockMvc.perform(post("/api/cobrancas/pagar/saldo/lote")
+                        .header("Authorization", "Bearer " + tokenDestinatario)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cobrancaIds\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("cobrancaIds"));
+    }
+
     @Test
     @DisplayName("POST /api/cobrancas/pagar/cartao - Deve pagar com cartão com sucesso")
     void devePagarComCartaoComSucesso() throws Exception {
@@ -150,6 +289,55 @@ class CobrancaControllerPagamentoTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.tipoPagamento").value("CARTAO_CREDITO"))
                 .andExpect(jsonPath("$.numeroCartao").value("3456"))
                 .andExpect(jsonPath("$.paidAt").exists());
+
+        // O crédito do recebedor só entra na liquidação em lote
+        assertEquals(0, contaRepository.calcularSaldo(contaOriginador.getId()).signum());
+        assertEquals(StatusLiquidacao.PENDENTE,
+                liquidacaoCartaoRepository.travarPorCobrancaId(cobranca.getId()).orElseThrow().getStatus());
+
+        assertEquals(1, liquidarPagamentosCartaoUseCase.execute(500));
+
+        assertEquals(0, contaRepository.calcularSaldo(contaOriginador.getId()).compareTo(BigDecimal.valueOf(100)));
+        assertEquals(StatusLiquidacao.LIQUIDADA,
+                liquidacaoCartaoRepository.travarPorCobrancaId(cobranca.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("POST /api/cobrancas/pagar/cartao - Deve aceitar pagamento assíncrono com 202")
+    void deveAceitarPagamentoAssincronoCom202() throws Exception {
+        PagarCobrancaCartaoRequest request = PagarCobrancaCartaoRequest.builder()
+                .cobrancaId(cobranca.getId())
+                .numeroCartao("1234567890123456")
+                .dataExpiracao("12/25")
+                .cvv("123")
+                .build();
+
+        mockMvc.perform(post("/api/cobrancas/pagar/cartao")
+                        .header("Authorization", "Bearer " + tokenDestinatario)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/cobrancas/" + cobranca.getId() + "/pagamento"))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.cobrancaId").value(cobranca.getId()))
+                .andExpect(jsonPath("$.status").value("PROCESSANDO"))
+                .andExpect(jsonPath("$.numeroCartao").value("3456"));
+
+        mockMvc.perform(get("/api/cobrancas/" + cobranca.getId() + "/pagamento")
+                        .header("Authorization", "Bearer " + tokenDestinatario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cobrancaId").value(cobranca.getId()))
+                .andExpect(jsonPath("$.status").exists());
+    }
+
+    @Test
+    @DisplayName("GET /api/cobrancas/{id}/pagamento - Deve retornar 400 sem solicitação de pagamento")
+    void deveRetornar400SemSolicitacaoDePagamento() throws Exception {
+        mockMvc.perform(get("/api/cobrancas/" + cobranca.getId() + "/pagamento")
+                        .header("Authorization", "Bearer " + tokenDestinatario))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Nenhuma solicitação de pagamento para esta cobrança"));
     }
 
     @Test
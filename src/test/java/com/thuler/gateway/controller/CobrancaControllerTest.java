@@ -1,21 +1,39 @@
 package com.thuler.gateway.controller;
 
 import com.thuler.gateway.dto.request.CriarCobrancaRequest;
+import com.thuler.gateway.dto.request.CriarCobrancasLoteRequest;
+import com.thuler.gateway.dto.response.CobrancaResponse;
+import com.thuler.gateway.dto.response.PaginaCobrancasResponse;
 import com.thuler.gateway.domain.model.Cobranca;
 import com.thuler.gateway.domain.model.Usuario;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
 import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.exception.ExportacaoIndisponivelException;
 import com.thuler.gateway.infrastructure.security.JwtTokenProvider;
+import com.thuler.gateway.usecase.cobranca.ExportarCobrancasUseCase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -28,6 +46,13 @@ class CobrancaControllerTest extends BaseIntegrationTest {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private ExportarCobrancasUseCase exportarCobrancasUseCase;
+
+    // Síncrono: o lote roda na transação do teste e é desfeito junto com ela
+    @MockitoBean(name = "cobrancaLoteExecutor")
+    private TaskExecutor cobrancaLoteExecutor;
+
     private Usuario originador;
     private Usuario destinatario;
     private String tokenOriginador;
@@ -57,6 +82,11 @@ class CobrancaControllerTest extends BaseIntegrationTest {
 
         tokenOriginador = jwtTokenProvider.generateToken(originador.getId(), originador.getEmail());
         tokenDestinatario = jwtTokenProvider.generateToken(destinatario.getId(), destinatario.getEmail());
+
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(cobrancaLoteExecutor).execute(any());
     }
 
     @Test
@@ -116,6 +146,77 @@ class CobrancaControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Destinatário não encontrado"));
     }
 
+    @Test
+    @DisplayName("POST /api/cobrancas/lote - Deve criar cobranças em lote e recusar os itens inválidos")
+    void deveCriarCobrancasEmLote() throws Exception {
+        CriarCobrancasLoteRequest request = CriarCobrancasLoteRequest.builder()
+                .cobrancas(List.of(
+                        itemLote("123.456.789-09", 100),
+                        itemLote("12345678909", 50),
+                        itemLote("11111111111", 10),
+                        itemLote("98765432100", 10),
+                        itemLote("52998224725", 10)))
+                .build();
+
+        String location = mockMvc.perform(post("/api/cobrancas/lote")
+                        .header("Authorization", "Bearer " + tokenOriginador)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.id").exists())
+                .andExpect(jsonPath("$.total").value(5))
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(get(location)
+                        .header("Authorization", "Bearer " + tokenOriginador))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONCLUIDO"))
+                .andExpect(jsonPath("$.processadas").value(5))
+                .andExpect(jsonPath("$.criadas").value(2))
+                .andExpect(jsonPath("$.recusadas").value(3))
+                .andExpect(jsonPath("$.recusas[0]").value("linha 3: CPF inválido"))
+                .andExpect(jsonPath("$.recusas[1]").value("linha 4: Destinatário não encontrado"))
+                .andExpect(jsonPath("$.recusas[2]").value("linha 5: Não é possível criar cobrança para si mesmo"));
+
+        assertEquals(2, cobrancaRepository.findByDestinatarioId(destinatario.getId()).size());
+    }
+
+    @Test
+    @DisplayName("GET /api/cobrancas/lote/{id} - Deve retornar 400 para lote de outro usuário")
+    void deveRetornar400AoConsultarLoteDeOutroUsuario() throws Exception {
+        CriarCobrancasLoteRequest request = CriarCobrancasLoteRequest.builder()
+                .cobrancas(List.of(itemLote("12345678909", 100)))
+                .build();
+
+        String location = mockMvc.perform(post("/api/cobrancas/lote")
+                        .header("Authorization", "Bearer " + tokenOriginador)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(get(location)
+                        .header("Authorization", "Bearer " + tokenDestinatario))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Apenas o originador pode consultar o lote"));
+    }
+
+    @Test
+    @DisplayName("POST /api/cobrancas/lote - Deve retornar 400 com item sem valor")
+    void deveRetornar400ComItemDeLoteSemValor() throws Exception {
+        CriarCobrancasLoteRequest request = CriarCobrancasLoteRequest.builder()
+                .cobrancas(List.of(CriarCobrancaRequest.builder().cpfDestinatario("12345678909").build()))
+                .build();
+
+        mockMvc.perform(post("/api/cobrancas/lote")
+                        .header("Authorization", "Bearer " + tokenOriginador)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("cobrancas[0].valor"));
+    }
+
     @Test
     @DisplayName("GET /api/cobrancas/enviadas - Deve listar cobranças enviadas")
     void deveListarCobrancasEnviadas() throws Exception {
@@ -141,9 +242,10 @@ class CobrancaControllerTest extends BaseIntegrationTest {
         mockMvc.perform(get("/api/cobrancas/enviadas")
                         .header("Authorization", "Bearer " + tokenOriginador))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].originadorNome").value("João Silva"))
-                .andExpect(jsonPath("$[1].originadorNome").value("João Silva"));
+                .andExpect(jsonPath("$.cobrancas", hasSize(2)))
+                .andExpect(jsonPath("$.cobrancas[0].originadorNome").value("João Silva"))
+                .andExpect(jsonPath("$.cobrancas[1].originadorNome").value("João Silva"))
+                .andExpect(jsonPath("$.proximoCursor").doesNotExist());
     }
 
     @Test
@@ -170,8 +272,8 @@ class CobrancaControllerTest extends BaseIntegrationTest {
         mockMvc.perform(get("/api/cobrancas/enviadas?status=PENDENTE")
                         .header("Authorization", "Bearer " + tokenOriginador))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].status").value("PENDENTE"));
+                .andExpect(jsonPath("$.cobrancas", hasSize(1)))
+                .andExpect(jsonPath("$.cobrancas[0].status").value("PENDENTE"));
     }
 
     @Test
@@ -189,7 +291,126 @@ class CobrancaControllerTest extends BaseIntegrationTest {
         mockMvc.perform(get("/api/cobrancas/recebidas")
                         .header("Authorization", "Bearer " + tokenDestinatario))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].destinatarioNome").value("Maria Santos"));
+                .andExpect(jsonPath("$.cobrancas", hasSize(1)))
+                .andExpect(jsonPath("$.cobrancas[0].destinatarioNome").value("Maria Santos"));
+    }
+
+    @Test
+    @DisplayName("GET /api/cobrancas/enviadas?limite=2 - Deve paginar por cursor sem repetir cobranças")
+    void devePaginarCobrancasEnviadasPorCursor() throws Exception {
+        List<Cobranca> cobrancas = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            cobrancas.add(cobrancaRepository.save(Cobranca.builder()
+                    .originador(originador)
+                    .destinatario(destinatario)
+                    .valor(BigDecimal.valueOf(i))
+                    .status(CobrancaStatus.PENDENTE)
+                    .build()));
+        }
+
+        List<Long> listadas = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder requisicao = get("/api/cobrancas/enviadas")
+                    .param("limite", "2")
+                    .header("Authorization", "Bearer " + tokenOriginador);
+            if (cursor != null) {
+                requisicao.param("cursor", cursor);
+            }
+
+            String corpo = mockMvc.perform(requisicao)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            PaginaCobrancasResponse pagina = objectMapper.readValue(corpo, PaginaCobrancasResponse.class);
+
+            pagina.getCobrancas().stream().map(CobrancaResponse::getId).forEach(listadas::add);
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        // Da mais recente para a mais antiga, cada cobrança uma única vez
+        assertEquals(3, paginas);
+        assertEquals(cobrancas.stream().map(Cobranca::getId).sorted(Comparator.reverseOrder()).toList(), listadas);
+    }
+
+    @Test
+    @DisplayName("GET /api/cobrancas/enviadas?cursor=... - Deve retornar 400 para cursor inválido")
+    void deveRetornar400ParaCursorInvalido() throws Exception {
+        mockMvc.perform(get("/api/cobrancas/enviadas")
+                        .param("cursor", "invalido")
+                        .header("Authorization", "Bearer " + tokenOriginador))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor inválido"));
+    }
+
+    @Test
+    @DisplayName("GET /api/cobrancas/export?format=csv - Deve exportar em CSV comprimido com gzip")
+    void deveExportarCobrancasEmCsvComGzip() throws Exception {
+        MvcResult exportacao = mockMvc.perform(get("/api/cobrancas/export")
+                        .param("format", "csv")
+                        .header("Accept-Encoding", "gzip, deflate")
+                        .header("Authorization", "Bearer " + tokenOriginador))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(exportacao))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"cobrancas.csv\""));
+
+        // A exportação roda em outra thread e transação, que não enxerga os dados deste teste: só o cabeçalho
+        try (GZIPInputStream corpo = new GZIPInputStream(
+                new ByteArrayInputStream(exportacao.getResponse().getContentAsByteArray()))) {
+            String csv = new String(corpo.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals("id,originadorId,originadorNome,destinatarioId,destinatarioNome,valor,descricao,status,"
+                    + "tipoPagamento,numeroCartao,createdAt,paidAt,cancelledAt,expiredAt\n", csv);
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/cobrancas/export?format=xml - Deve retornar 400 para formato inválido")
+    void deveRetornar400ParaFormatoDeExportacaoInvalido() throws Exception {
+        mockMvc.perform(get("/api/cobrancas/export")
+                        .param("format", "xml")
+                        .header("Authorization", "Bearer " + tokenOriginador))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Formato de exportação inválido: use ndjson ou csv"));
+    }
+
+    @Test
+    @DisplayName("GET /api/cobrancas/export - Deve retornar 503 com todas as vagas de exportação ocupadas")
+    void deveRetornar503SemVagaDeExportacao() throws Exception {
+        int ocupadas = 0;
+        try {
+            while (true) {
+                exportarCobrancasUseCase.reservarVaga();
+                ocupadas++;
+            }
+        } catch (ExportacaoIndisponivelException e) {
+            // Todas as vagas ocupadas
+        }
+
+        try {
+            mockMvc.perform(get("/api/cobrancas/export")
+                            .header("Authorization", "Bearer " + tokenOriginador))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "30"))
+                    .andExpect(jsonPath("$.message")
+                            .value("Muitas exportações em andamento, tente novamente mais tarde"));
+        } finally {
+            for (int i = 0; i < ocupadas; i++) {
+                exportarCobrancasUseCase.liberarVaga();
+            }
+        }
+    }
+
+    private CriarCobrancaRequest itemLote(String cpf, int valor) {
+        return CriarCobrancaRequest.builder()
+                .cpfDestinatario(cpf)
+                .valor(BigDecimal.valueOf(valor))
+                .descricao("Mensalidade")
+                .build();
     }
-}
\ No newline at end of file
+}
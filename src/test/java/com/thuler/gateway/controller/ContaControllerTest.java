@@ -1,5 +1,6 @@
 package com.thuler.gateway.controller;
 
+import com.thuler.gateway.dto.request.AtivarFaixasRequest;
 import com.thuler.gateway.dto.request.DepositoRequest;
 import com.thuler.gateway.domain.model.Conta;
 import com.thuler.gateway.domain.model.Usuario;
@@ -51,7 +52,7 @@ class ContaControllerTest extends BaseIntegrationTest {
         usuario = usuarioRepository.save(usuario);
 
         conta = usuario.getConta();
-        conta.depositar(BigDecimal.valueOf(500));
+        conta.setSaldo(BigDecimal.valueOf(500));
         contaRepository.save(conta);
 
         token = jwtTokenProvider.generateToken(usuario.getId(), usuario.getEmail());
@@ -172,6 +173,22 @@ class ContaControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.errors[0].message").value("Valor é obrigatório"));
     }
 
+    @Test
+    @DisplayName("POST /api/conta/faixas - Deve retornar 400 com quantidade menor que 2")
+    void deveRetornar400ComPoucasFaixas() throws Exception {
+        AtivarFaixasRequest request = AtivarFaixasRequest.builder()
+                .quantidade(1)
+                .build();
+
+        mockMvc.perform(post("/api/conta/faixas")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("quantidade"))
+                .andExpect(jsonPath("$.errors[0].message").value("Quantidade de faixas deve ser no mínimo 2"));
+    }
+
     @Test
     @DisplayName("POST /api/conta/deposito - Deve retornar 401 sem autenticação")
     void deveRetornar401SemAutenticacaoNoDeposito() throws Exception {
@@ -0,0 +1,93 @@
+package com.thuler.gateway.controller;
+
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.infrastructure.engine.ContaEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "conta.snapshot.habilitado=false",
+        "cartao.liquidacao.habilitada=false",
+        "conta.engine.habilitado=true",
+        "conta.engine.particoes=2"
+})
+@DisplayName("Engine de contas em memória - Integration Tests")
+class EngineContasConcorrenteTest extends BaseConcorrenciaTest {
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        Path diretorio = Files.createTempDirectory("engine-journal");
+        registry.add("conta.engine.journal.diretorio", diretorio::toString);
+    }
+
+    @Autowired
+    private ContaEngine contaEngine;
+
+    @Override
+    @AfterEach
+    void limparBanco() {
+        // Nada pode ficar pendente na engine antes de apagar as contas
+        contaEngine.persistirPendentes();
+        super.limparBanco();
+    }
+
+    @Test
+    @DisplayName("Cada pagador deve conseguir pagar só uma de duas cobranças que somam mais que o saldo")
+    void pagamentosSimultaneosRespeitamSaldo() throws Exception {
+        List<Integer> status = pagarSimultaneamente(BigDecimal.valueOf(60), 2);
+
+        assertEquals(PAGADORES, status.stream().filter(s -> s == 200).count(), "Respostas: " + status);
+        assertEquals(PAGADORES, status.stream().filter(s -> s == 400).count(), "Respostas: " + status);
+
+        // Leitura vem da engine: já inclui o que ainda não foi gravado no banco
+        mockMvc.perform(get("/api/conta/saldo")
+                        .header("Authorization", "Bearer " + tokenLojista))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(60 * PAGADORES));
+
+        contaEngine.persistirPendentes();
+
+        Long contaLojistaId = contaRepository.findIdByUsuarioId(lojista.getId()).orElseThrow();
+        assertEquals(PAGADORES, lancamentoRepository.findByContaIdOrderByIdAsc(contaLojistaId).size());
+        assertEquals(0, contaRepository.calcularSaldo(contaLojistaId).compareTo(BigDecimal.valueOf(60L * PAGADORES)));
+
+        for (Usuario pagador : pagadores) {
+            Long contaPagadorId = contaRepository.findIdByUsuarioId(pagador.getId()).orElseThrow();
+            assertEquals(0, contaRepository.calcularSaldo(contaPagadorId).compareTo(BigDecimal.valueOf(40)));
+        }
+        assertEquals(PAGADORES, cobrancaRepository.findAll().stream().filter(Cobranca::isPaga).count());
+    }
+
+    @Test
+    @DisplayName("Pagamentos simultâneos para a mesma conta devem ser gravados no livro de lançamentos")
+    void pagamentosSimultaneosParaMesmaConta() throws Exception {
+        List<Integer> status = pagarSimultaneamente(BigDecimal.TEN, 1);
+
+        assertTrue(status.stream().allMatch(s -> s == 200), "Respostas: " + status);
+
+        contaEngine.persistirPendentes();
+
+        Conta contaLojista = contaRepository.findByUsuarioId(lojista.getId()).orElseThrow();
+        assertEquals(0, contaLojista.getSaldo().signum());
+        assertEquals(0, contaRepository.calcularSaldo(contaLojista.getId())
+                .compareTo(BigDecimal.valueOf(10L * PAGADORES)));
+    }
+}
@@ -0,0 +1,239 @@
+package com.thuler.gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thuler.gateway.dto.request.DepositoRequest;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.repository.ChaveIdempotenciaRepository;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.SaldoSnapshotRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.exception.AuthorizerException;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
+import com.thuler.gateway.infrastructure.security.JwtTokenProvider;
+import com.thuler.gateway.infrastructure.web.IdempotencyKeyFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sem @Transactional: as requisições concorrentes precisam enxergar a chave já reservada
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Idempotency-Key - Integration Tests")
+class IdempotencyKeyConcorrenteTest {
+
+    private static final int TENTATIVAS_SIMULTANEAS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private CobrancaRepository cobrancaRepository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    private SaldoSnapshotRepository saldoSnapshotRepository;
+
+    @Autowired
+    private ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockitoBean
+    private AuthorizerClient authorizerClient;
+
+    private Usuario usuario;
+    private String token;
+
+    @BeforeEach
+    void setupUsuario() {
+        limparBanco();
+
+        usuario = Usuario.builder()
+                .nome("João Silva")
+                .cpf(CPF.of("52998224725"))
+                .email("joao@example.com")
+                .senha(passwordEncoder.encode("senha123"))
+                .active(true)
+                .build();
+        usuario.criarConta();
+        usuario = usuarioRepository.save(usuario);
+
+        token = jwtTokenProvider.generateToken(usuario.getId(), usuario.getEmail());
+    }
+
+    @AfterEach
+    void limparBanco() {
+        chaveIdempotenciaRepository.deleteAll();
+        saldoSnapshotRepository.deleteAll();
+        lancamentoRepository.deleteAll();
+        cobrancaRepository.deleteAll();
+        contaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Tentativas simultâneas com a mesma chave devem depositar uma única vez")
+    void tentativasSimultaneasDevemDepositarUmaVez() throws Exception {
+        when(authorizerClient.authorize()).thenAnswer(invocation -> {
+            TimeUnit.MILLISECONDS.sleep(300);
+            return autorizado();
+        });
+
+        String corpo = deposito(100);
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(TENTATIVAS_SIMULTANEAS);
+        try {
+            List<Future<MockHttpServletResponse>> tentativas = new ArrayList<>();
+            for (int i = 0; i < TENTATIVAS_SIMULTANEAS; i++) {
+                tentativas.add(executor.submit(() -> {
+                    largada.await();
+                    return mockMvc.perform(post("/api/conta/deposito")
+                                    .header("Authorization", "Bearer " + token)
+                                    .header(IdempotencyKeyFilter.HEADER, "deposito-1")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(corpo))
+                            .andReturn()
+                            .getResponse();
+                }));
+            }
+
+            largada.countDown();
+
+            int repetidas = 0;
+            for (Future<MockHttpServletResponse> tentativa : tentativas) {
+                MockHttpServletResponse resposta = tentativa.get(10, TimeUnit.SECONDS);
+                assertEquals(200, resposta.getStatus(), resposta.getContentAsString());
+                assertTrue(resposta.getContentAsString().contains("\"saldo\":100"));
+                if ("true".equals(resposta.getHeader(IdempotencyKeyFilter.HEADER_REPETIDA))) {
+                    repetidas++;
+                }
+            }
+            assertEquals(TENTATIVAS_SIMULTANEAS - 1, repetidas);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(authorizerClient, times(1)).authorize();
+        assertSaldo(100);
+    }
+
+    @Test
+    @DisplayName("Nova tentativa após a resposta deve receber a resposta guardada")
+    void novaTentativaDeveReceberRespostaGuardada() throws Exception {
+        when(authorizerClient.authorize()).thenReturn(autorizado());
+
+        depositar("deposito-2", deposito(50))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyKeyFilter.HEADER_REPETIDA));
+
+        depositar("deposito-2", deposito(50))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyKeyFilter.HEADER_REPETIDA, "true"))
+                .andExpect(jsonPath("$.saldo").value(50));
+
+        verify(authorizerClient, times(1)).authorize();
+        assertSaldo(50);
+    }
+
+    @Test
+    @DisplayName("Deve recusar a mesma chave com outro corpo")
+    void deveRecusarMesmaChaveComOutroCorpo() throws Exception {
+        when(authorizerClient.authorize()).thenReturn(autorizado());
+
+        depositar("deposito-3", deposito(50)).andExpect(status().isOk());
+
+        depositar("deposito-3", deposito(70))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key já utilizada com outra requisição"));
+
+        assertSaldo(50);
+    }
+
+    @Test
+    @DisplayName("Falha transitória não deve ser guardada")
+    void falhaTransitoriaNaoDeveSerGuardada() throws Exception {
+        when(authorizerClient.authorize())
+                .thenThrow(new AuthorizerException("Autorizador indisponível"))
+                .thenReturn(autorizado());
+
+        depositar("deposito-4", deposito(30)).andExpect(status().isServiceUnavailable());
+        depositar("deposito-4", deposito(30))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyKeyFilter.HEADER_REPETIDA));
+
+        assertSaldo(30);
+    }
+
+    private ResultActions depositar(String chave, String corpo) throws Exception {
+        return mockMvc.perform(post("/api/conta/deposito")
+                .header("Authorization", "Bearer " + token)
+                .header(IdempotencyKeyFilter.HEADER, chave)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(corpo));
+    }
+
+    private String deposito(long valor) throws Exception {
+        return objectMapper.writeValueAsString(DepositoRequest.builder()
+                .valor(BigDecimal.valueOf(valor))
+                .build());
+    }
+
+    private void assertSaldo(long esperado) {
+        Long contaId = contaRepository.findIdByUsuarioId(usuario.getId()).orElseThrow();
+        assertEquals(0, contaRepository.calcularSaldo(contaId).compareTo(BigDecimal.valueOf(esperado)));
+    }
+
+    private AuthorizerResponse autorizado() {
+        AuthorizerResponse authorizerResponse = new AuthorizerResponse();
+        authorizerResponse.setStatus("APPROVED");
+        authorizerResponse.setData(new AuthorizerResponse.AuthorizerData(true));
+        return authorizerResponse;
+    }
+}
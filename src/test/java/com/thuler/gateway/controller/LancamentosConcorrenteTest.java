@@ -0,0 +1,102 @@
+package com.thuler.gateway.controller;
+
+import com.thuler.gateway.dto.request.AtivarFaixasRequest;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.Lancamento;
+import com.thuler.gateway.usecase.conta.GerarSnapshotsSaldoUseCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "conta.snapshot.habilitado=false")
+@DisplayName("Livro de lançamentos - Integration Tests")
+class LancamentosConcorrenteTest extends BaseConcorrenciaTest {
+
+    @Autowired
+    private GerarSnapshotsSaldoUseCase gerarSnapshotsSaldoUseCase;
+
+    @Test
+    @DisplayName("Pagamentos simultâneos para a mesma conta devem virar lançamentos e entrar no snapshot")
+    void pagamentosSimultaneosParaMesmaConta() throws Exception {
+        List<Integer> status = pagarSimultaneamente(BigDecimal.TEN, 1);
+
+        assertTrue(status.stream().allMatch(s -> s == 200), "Respostas: " + status);
+
+        // Créditos ficaram só no livro; a consulta de saldo já soma os lançamentos
+        Conta contaLojista = contaRepository.findByUsuarioId(lojista.getId()).orElseThrow();
+        assertEquals(0, contaLojista.getSaldo().signum());
+        assertEquals(PAGADORES, lancamentoRepository.findByContaIdOrderByIdAsc(contaLojista.getId()).size());
+        mockMvc.perform(get("/api/conta/saldo")
+                        .header("Authorization", "Bearer " + tokenLojista))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(10 * PAGADORES));
+
+        // Só o lojista atinge o mínimo; cada pagador tem um lançamento
+        assertEquals(1, gerarSnapshotsSaldoUseCase.execute(PAGADORES));
+
+        List<Lancamento> lancamentos = lancamentoRepository.findByContaIdOrderByIdAsc(contaLojista.getId());
+        contaLojista = contaRepository.findByUsuarioId(lojista.getId()).orElseThrow();
+        assertEquals(0, contaLojista.getSaldo().compareTo(BigDecimal.valueOf(10L * PAGADORES)));
+        assertEquals(lancamentos.get(lancamentos.size() - 1).getId(), contaLojista.getUltimoLancamentoId());
+        assertEquals(1, saldoSnapshotRepository.findByContaIdOrderByIdDesc(contaLojista.getId()).size());
+        assertEquals(0, contaRepository.calcularSaldo(contaLojista.getId())
+                .compareTo(BigDecimal.valueOf(10L * PAGADORES)));
+    }
+
+    @Test
+    @DisplayName("Snapshot não deve contar duas vezes os lançamentos já incorporados")
+    void snapshotNaoDeveContarLancamentosDuasVezes() throws Exception {
+        pagarSimultaneamente(BigDecimal.TEN, 1);
+
+        assertEquals(PAGADORES + 1, gerarSnapshotsSaldoUseCase.execute(1));
+        // Sem lançamentos novos, nada a fazer
+        assertEquals(0, gerarSnapshotsSaldoUseCase.execute(1));
+
+        Long contaPagadorId = contaRepository.findIdByUsuarioId(pagadores.get(0).getId()).orElseThrow();
+        Conta contaPagador = contaRepository.findById(contaPagadorId).orElseThrow();
+        assertEquals(0, contaPagador.getSaldo().compareTo(BigDecimal.valueOf(90)));
+        assertEquals(0, contaRepository.calcularSaldo(contaPagadorId).compareTo(BigDecimal.valueOf(90)));
+    }
+
+    @Test
+    @DisplayName("Conta com faixas deve receber pagamentos simultâneos travando faixas, sem mudar o saldo")
+    void pagamentosSimultaneosParaContaComFaixas() throws Exception {
+        mockMvc.perform(post("/api/conta/faixas")
+                        .header("Authorization", "Bearer " + tokenLojista)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AtivarFaixasRequest.builder()
+                                .quantidade(4)
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(0));
+
+        Conta contaLojista = contaRepository.findByUsuarioId(lojista.getId()).orElseThrow();
+        assertEquals(4, contaLojista.getFaixas());
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM conta_faixas WHERE conta_id = ?", Integer.class, contaLojista.getId()));
+
+        List<Integer> status = pagarSimultaneamente(BigDecimal.TEN, 1);
+
+        assertTrue(status.stream().allMatch(s -> s == 200), "Respostas: " + status);
+        mockMvc.perform(get("/api/conta/saldo")
+                        .header("Authorization", "Bearer " + tokenLojista))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(10 * PAGADORES));
+
+        // O snapshot trava conta e faixas e incorpora todos os créditos
+        assertEquals(1, gerarSnapshotsSaldoUseCase.execute(PAGADORES));
+        contaLojista = contaRepository.findByUsuarioId(lojista.getId()).orElseThrow();
+        assertEquals(0, contaLojista.getSaldo().compareTo(BigDecimal.valueOf(10L * PAGADORES)));
+    }
+}
@@ -0,0 +1,194 @@
+package com.thuler.gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thuler.gateway.dto.request.PagarCobrancaSaldoRequest;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.SaldoSnapshotRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.security.JwtTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Sem @Transactional: as requisições concorrentes precisam enxergar os dados já commitados
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Pagamento com saldo concorrente - Integration Tests")
+class PagamentoSaldoConcorrenteTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private CobrancaRepository cobrancaRepository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    private SaldoSnapshotRepository saldoSnapshotRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private Usuario originador;
+    private Usuario destinatario;
+    private String tokenDestinatario;
+
+    @BeforeEach
+    void setupUsuarios() {
+        limparBanco();
+
+        originador = Usuario.builder()
+                .nome("João Silva")
+                .cpf(CPF.of("52998224725"))
+                .email("joao@example.com")
+                .senha(passwordEncoder.encode("senha123"))
+                .active(true)
+                .build();
+        originador.criarConta();
+        originador = usuarioRepository.save(originador);
+
+        destinatario = Usuario.builder()
+                .nome("Maria Santos")
+                .cpf(CPF.of("12345678909"))
+                .email("maria@example.com")
+                .senha(passwordEncoder.encode("senha123"))
+                .active(true)
+                .build();
+        destinatario.criarConta();
+        destinatario = usuarioRepository.save(destinatario);
+
+        Conta contaDestinatario = destinatario.getConta();
+        contaDestinatario.setSaldo(BigDecimal.valueOf(150));
+        contaRepository.save(contaDestinatario);
+
+        tokenDestinatario = jwtTokenProvider.generateToken(destinatario.getId(), destinatario.getEmail());
+    }
+
+    @AfterEach
+    void limparBanco() {
+        saldoSnapshotRepository.deleteAll();
+        lancamentoRepository.deleteAll();
+        cobrancaRepository.deleteAll();
+        contaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Não deve permitir gastar o mesmo saldo em duas cobranças simultâneas")
+    void naoDevePermitirGastoDuploDoSaldo() throws Exception {
+        Cobranca primeira = criarCobranca();
+        Cobranca segunda = criarCobranca();
+
+        List<Integer> status = pagarSimultaneamente(primeira.getId(), segunda.getId());
+
+        assertEquals(1, status.stream().filter(s -> s == 200).count());
+        assertEquals(1, status.stream().filter(s -> s == 400).count());
+        assertSaldo(destinatario, 50);
+        assertSaldo(originador, 100);
+        assertEquals(1, cobrancaRepository.findByDestinatarioIdAndStatus(destinatario.getId(), CobrancaStatus.PAGA).size());
+    }
+
+    @Test
+    @DisplayName("Não deve pagar a mesma cobrança duas vezes em requisições simultâneas")
+    void naoDevePagarMesmaCobrancaDuasVezes() throws Exception {
+        Cobranca cobranca = criarCobranca();
+
+        List<Integer> status = pagarSimultaneamente(cobranca.getId(), cobranca.getId());
+
+        assertEquals(1, status.stream().filter(s -> s == 200).count());
+        assertEquals(1, status.stream().filter(s -> s == 409).count());
+        assertSaldo(destinatario, 50);
+        assertSaldo(originador, 100);
+    }
+
+    private Cobranca criarCobranca() {
+        return cobrancaRepository.save(Cobranca.builder()
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .descricao("Cobrança concorrente")
+                .status(CobrancaStatus.PENDENTE)
+                .build());
+    }
+
+    private List<Integer> pagarSimultaneamente(Long... cobrancaIds) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(cobrancaIds.length);
+        try {
+            List<Future<Integer>> pagamentos = new ArrayList<>();
+            for (Long cobrancaId : cobrancaIds) {
+                String corpo = objectMapper.writeValueAsString(PagarCobrancaSaldoRequest.builder()
+                        .cobrancaId(cobrancaId)
+                        .build());
+
+                pagamentos.add(executor.submit(() -> {
+                    largada.await();
+                    return mockMvc.perform(post("/api/cobrancas/pagar/saldo")
+                                    .header("Authorization", "Bearer " + tokenDestinatario)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(corpo))
+                            .andReturn()
+                            .getResponse()
+                            .getStatus();
+                }));
+            }
+
+            largada.countDown();
+
+            List<Integer> status = new ArrayList<>();
+            for (Future<Integer> pagamento : pagamentos) {
+                status.add(pagamento.get(10, TimeUnit.SECONDS));
+            }
+            return status;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertSaldo(Usuario usuario, long esperado) {
+        Long contaId = contaRepository.findIdByUsuarioId(usuario.getId()).orElseThrow();
+        assertEquals(0, contaRepository.calcularSaldo(contaId).compareTo(BigDecimal.valueOf(esperado)));
+    }
+}
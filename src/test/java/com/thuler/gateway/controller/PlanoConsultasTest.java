@@ -0,0 +1,195 @@
+package com.thuler.gateway.controller;
+
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.repository.SolicitacaoPagamentoRepository;
+import com.thuler.gateway.domain.valueobject.CPF;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Confere, pelo EXPLAIN, que as consultas dos repositórios têm índice nas migrações. Cada caso chama o método
+ * real do repositório e explica o SQL que o Hibernate gerou, capturado por um {@link StatementInspector}.
+ * <p>
+ * O SQL é preparado e explicado com {@code plan_cache_mode = force_generic_plan}: o plano não depende dos valores
+ * dos parâmetros, como o de um prepared statement reaproveitado. Com as tabelas quase vazias o Postgres
+ * preferiria varrer a tabela; {@code enable_seqscan = off} (só nesta transação) faz o plano mostrar se existe um
+ * índice que atenda a consulta.
+ */
+@DisplayName("Planos das consultas dos repositórios")
+class PlanoConsultasTest extends BaseIntegrationTest {
+
+    private static final List<CobrancaStatus> TODOS_STATUS = List.of(CobrancaStatus.values());
+    private static final LocalDateTime DATA = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final AtomicInteger PREPARADAS = new AtomicInteger();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SolicitacaoPagamentoRepository solicitacaoPagamentoRepository;
+
+    @Autowired
+    private CapturaSql capturaSql;
+
+    @TestConfiguration
+    static class CapturaSqlConfig {
+
+        @Bean
+        CapturaSql capturaSql() {
+            return new CapturaSql();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer inspetorDeSql(CapturaSql capturaSql) {
+            return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, capturaSql);
+        }
+    }
+
+    /**
+     * Guarda o SQL gerado na thread corrente enquanto {@link #capturar} executa.
+     */
+    static class CapturaSql implements StatementInspector {
+
+        private final ThreadLocal<List<String>> capturadas = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> lista = capturadas.get();
+            if (lista != null) {
+                lista.add(sql);
+            }
+            return sql;
+        }
+
+        List<String> capturar(Runnable chamada) {
+            capturadas.set(new ArrayList<>());
+            try {
+                chamada.run();
+                return capturadas.get();
+            } finally {
+                capturadas.remove();
+            }
+        }
+    }
+
+    @BeforeEach
+    void desligarSeqScan() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+    }
+
+    static Stream<Arguments> consultas() {
+        return Stream.of(
+                consulta("CobrancaRepository.findByOriginadorIdAndStatus",
+                        t -> t.cobrancaRepository.findByOriginadorIdAndStatus(1L, CobrancaStatus.PENDENTE),
+                        "idx_cobrancas_originador_status"),
+                consulta("CobrancaRepository.findByDestinatarioIdAndStatus",
+                        t -> t.cobrancaRepository.findByDestinatarioIdAndStatus(1L, CobrancaStatus.PENDENTE),
+                        "idx_cobrancas_destinatario_status"),
+                consulta("CobrancaRepository.findEnviadas",
+                        t -> t.cobrancaRepository.findEnviadas(1L, TODOS_STATUS, PageRequest.ofSize(50)),
+                        null),
+                consulta("CobrancaRepository.findEnviadasApos",
+                        t -> t.cobrancaRepository.findEnviadasApos(1L, TODOS_STATUS, DATA, 100L,
+                                PageRequest.ofSize(50)),
+                        null),
+                consulta("CobrancaRepository.findRecebidas",
+                        t -> t.cobrancaRepository.findRecebidas(1L, List.of(CobrancaStatus.PENDENTE),
+                                PageRequest.ofSize(50)),
+                        null),
+                consulta("CobrancaRepository.findRecebidasApos",
+                        t -> t.cobrancaRepository.findRecebidasApos(1L, List.of(CobrancaStatus.PENDENTE), DATA,
+                                100L, PageRequest.ofSize(50)),
+                        null),
+                consulta("CobrancaRepository.expirarPendentes",
+                        t -> t.cobrancaRepository.expirarPendentes(DATA, DATA, 1000),
+                        "idx_cobrancas_pendentes_created_at"),
+                consulta("ContaRepository.findByUsuarioId",
+                        t -> t.contaRepository.findByUsuarioId(1L),
+                        null),
+                consulta("UsuarioRepository.findByCpf",
+                        t -> t.usuarioRepository.findByCpf(CPF.of("52998224725")),
+                        null),
+                consulta("UsuarioRepository.findByEmail",
+                        t -> t.usuarioRepository.findByEmail("joao@example.com"),
+                        null),
+                consulta("LancamentoRepository.resumirDesde",
+                        t -> t.lancamentoRepository.resumirDesde(1L, 0L),
+                        "idx_lancamentos_conta_id"),
+                consulta("SaldoSnapshotRepository.findByContaIdOrderByIdDesc",
+                        t -> t.saldoSnapshotRepository.findByContaIdOrderByIdDesc(1L),
+                        "idx_saldo_snapshots_conta_id"),
+                consulta("SolicitacaoPagamentoRepository.findFirstByCobrancaIdOrderByIdDesc",
+                        t -> t.solicitacaoPagamentoRepository.findFirstByCobrancaIdOrderByIdDesc(1L),
+                        "idx_solicitacoes_pagamento_cobranca"),
+                consulta("LiquidacaoCartaoRepository.reservarPendentes",
+                        t -> t.liquidacaoCartaoRepository.reservarPendentes(500),
+                        "idx_liquidacoes_cartao_pendentes")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("consultas")
+    @DisplayName("Deve usar índice")
+    void deveUsarIndice(String consulta, Consumer<PlanoConsultasTest> chamada, String indiceEsperado) {
+        List<String> capturadas = capturaSql.capturar(() -> chamada.accept(this));
+        assertFalse(capturadas.isEmpty(), () -> consulta + " não gerou SQL");
+
+        String sql = capturadas.get(0);
+        String plano = explicar(sql);
+
+        assertFalse(plano.contains("Seq Scan"), () -> consulta + " sem índice:\n" + sql + "\n" + plano);
+        if (indiceEsperado != null) {
+            assertTrue(plano.contains(indiceEsperado),
+                    () -> consulta + " não usa " + indiceEsperado + ":\n" + sql + "\n" + plano);
+        }
+    }
+
+    private static Arguments consulta(String nome, Consumer<PlanoConsultasTest> chamada, String indiceEsperado) {
+        return arguments(nome, chamada, indiceEsperado);
+    }
+
+    // Troca os "?" do JDBC por $1..$n, prepara o comando e explica o plano genérico
+    private String explicar(String sql) {
+        StringBuilder numerado = new StringBuilder();
+        int parametros = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numerado.append('$').append(++parametros);
+            } else {
+                numerado.append(c);
+            }
+        }
+
+        String nome = "plano_consulta_" + PREPARADAS.incrementAndGet();
+        jdbcTemplate.execute("PREPARE " + nome + " AS " + numerado);
+        String argumentos = parametros == 0 ? ""
+                : "(" + String.join(", ", Collections.nCopies(parametros, "NULL")) + ")";
+        String plano = String.join("\n",
+                jdbcTemplate.queryForList("EXPLAIN EXECUTE " + nome + argumentos, String.class));
+        jdbcTemplate.execute("DEALLOCATE " + nome);
+        return plano;
+    }
+}
@@ -0,0 +1,209 @@
+package com.thuler.gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thuler.gateway.dto.request.PagarCobrancaSaldoRequest;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.TipoPagamento;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.SaldoSnapshotRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.security.JwtTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Sem @Transactional: as requisições concorrentes precisam enxergar os dados já commitados
+@SpringBootTest(properties = "conta.lock-timeout=10s")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Travas de conta em ordem - Integration Tests")
+class TravaContasOrdenadaConcorrenteTest {
+
+    private static final int OPERACOES_POR_FLUXO = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private CobrancaRepository cobrancaRepository;
+
+    @Autowired
+    private LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    private SaldoSnapshotRepository saldoSnapshotRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private Usuario joao;
+    private Usuario maria;
+    private String tokenJoao;
+    private String tokenMaria;
+
+    @BeforeEach
+    void setupUsuarios() {
+        limparBanco();
+
+        joao = criarUsuarioComSaldo("João Silva", "52998224725", "joao@example.com");
+        maria = criarUsuarioComSaldo("Maria Santos", "12345678909", "maria@example.com");
+
+        tokenJoao = jwtTokenProvider.generateToken(joao.getId(), joao.getEmail());
+        tokenMaria = jwtTokenProvider.generateToken(maria.getId(), maria.getEmail());
+    }
+
+    @AfterEach
+    void limparBanco() {
+        saldoSnapshotRepository.deleteAll();
+        lancamentoRepository.deleteAll();
+        cobrancaRepository.deleteAll();
+        contaRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Pagamentos e estornos em sentidos opostos entre as mesmas contas não devem entrar em deadlock")
+    void pagamentosEEstornosOpostosNaoDevemEntrarEmDeadlock() throws Exception {
+        List<RequestBuilder> operacoes = new ArrayList<>();
+
+        for (int i = 0; i < OPERACOES_POR_FLUXO; i++) {
+            // Maria paga João: trava as duas contas, João recebe
+            operacoes.add(pagar(criarCobranca(joao, maria, 10, false), tokenMaria));
+            // João paga Maria: mesmas contas, papéis invertidos
+            operacoes.add(pagar(criarCobranca(maria, joao, 20, false), tokenJoao));
+            // João estorna para Maria: debita João, credita Maria
+            operacoes.add(cancelar(criarCobranca(joao, maria, 30, true), tokenJoao));
+            // Maria estorna para João: debita Maria, credita João
+            operacoes.add(cancelar(criarCobranca(maria, joao, 50, true), tokenMaria));
+        }
+        Collections.shuffle(operacoes);
+
+        List<Integer> status = executarSimultaneamente(operacoes);
+
+        assertTrue(status.stream().allMatch(s -> s == 200), "Respostas: " + status);
+        // João: +5x10 -5x20 -5x30 +5x50 = +50; Maria o inverso
+        assertSaldo(joao, 1050);
+        assertSaldo(maria, 950);
+    }
+
+    private Usuario criarUsuarioComSaldo(String nome, String cpf, String email) {
+        Usuario usuario = Usuario.builder()
+                .nome(nome)
+                .cpf(CPF.of(cpf))
+                .email(email)
+                .senha(passwordEncoder.encode("senha123"))
+                .active(true)
+                .build();
+        usuario.criarConta();
+        usuario = usuarioRepository.save(usuario);
+
+        Conta conta = usuario.getConta();
+        conta.setSaldo(BigDecimal.valueOf(1000));
+        contaRepository.save(conta);
+        return usuario;
+    }
+
+    private Cobranca criarCobranca(Usuario originador, Usuario destinatario, long valor, boolean paga) {
+        Cobranca cobranca = Cobranca.builder()
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(valor))
+                .descricao("Cobrança concorrente")
+                .status(CobrancaStatus.PENDENTE)
+                .build();
+
+        if (paga) {
+            cobranca.marcarComoPaga(TipoPagamento.SALDO, null, "PAGAMENTO_SALDO");
+        }
+        return cobrancaRepository.save(cobranca);
+    }
+
+    private RequestBuilder pagar(Cobranca cobranca, String token) throws Exception {
+        return post("/api/cobrancas/pagar/saldo")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(PagarCobrancaSaldoRequest.builder()
+                        .cobrancaId(cobranca.getId())
+                        .build()));
+    }
+
+    private RequestBuilder cancelar(Cobranca cobranca, String token) {
+        return delete("/api/cobrancas/" + cobranca.getId())
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private List<Integer> executarSimultaneamente(List<RequestBuilder> operacoes) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(operacoes.size());
+        try {
+            List<Future<Integer>> respostas = new ArrayList<>();
+            for (RequestBuilder operacao : operacoes) {
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return mockMvc.perform(operacao)
+                            .andReturn()
+                            .getResponse()
+                            .getStatus();
+                }));
+            }
+
+            largada.countDown();
+
+            List<Integer> status = new ArrayList<>();
+            for (Future<Integer> resposta : respostas) {
+                status.add(resposta.get(30, TimeUnit.SECONDS));
+            }
+            return status;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertSaldo(Usuario usuario, long esperado) {
+        Long contaId = contaRepository.findIdByUsuarioId(usuario.getId()).orElseThrow();
+        BigDecimal saldo = contaRepository.calcularSaldo(contaId);
+        assertEquals(0, saldo.compareTo(BigDecimal.valueOf(esperado)),
+                "Saldo de " + usuario.getNome() + ": " + saldo);
+    }
+}
@@ -147,6 +147,25 @@ class CobrancaTest {
         assertEquals("Cobrança já está cancelada", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Deve lançar exceção ao tentar pagar ou cancelar cobrança expirada")
+    void deveLancarExcecaoAoTentarPagarOuCancelarCobrancaExpirada() {
+        cobranca.setStatus(CobrancaStatus.EXPIRADA);
+
+        IllegalStateException pagamento = assertThrows(
+                IllegalStateException.class,
+                () -> cobranca.marcarComoPaga(TipoPagamento.SALDO, null, "TENTATIVA_APOS_EXPIRACAO")
+        );
+        IllegalStateException cancelamento = assertThrows(
+                IllegalStateException.class,
+                () -> cobranca.cancelar(null)
+        );
+
+        assertEquals("Apenas cobranças pendentes podem ser pagas", pagamento.getMessage());
+        assertEquals("Cobrança expirada não pode ser cancelada", cancelamento.getMessage());
+        assertTrue(cobranca.isExpirada());
+    }
+
     @Test
     @DisplayName("Deve implementar equals baseado no ID")
     void deveImplementarEqualsBaseadoNoId() {
@@ -43,131 +43,12 @@ class ContaTest {
     }
 
     @Test
-    @DisplayName("Deve depositar valor positivo")
-    void deveDepositarValorPositivo() {
-        BigDecimal valorDeposito = BigDecimal.valueOf(500);
-        BigDecimal saldoEsperado = BigDecimal.valueOf(1500);
+    @DisplayName("Deve aplicar o saldo e o último lançamento do snapshot")
+    void deveAplicarSnapshot() {
+        conta.aplicarSnapshot(BigDecimal.valueOf(1200), 42L);
 
-        conta.depositar(valorDeposito);
-
-        assertEquals(0, saldoEsperado.compareTo(conta.getSaldo()));
-    }
-
-    @Test
-    @DisplayName("Deve lançar exceção ao depositar valor zero")
-    void deveLancarExcecaoAoDepositarValorZero() {
-        BigDecimal valorInvalido = BigDecimal.ZERO;
-
-        IllegalArgumentException exception = assertThrows(
-                IllegalArgumentException.class,
-                () -> conta.depositar(valorInvalido)
-        );
-
-        assertEquals("Valor do depósito deve ser positivo", exception.getMessage());
-    }
-
-    @Test
-    @DisplayName("Deve lançar exceção ao depositar valor negativo")
-    void deveLancarExcecaoAoDepositarValorNegativo() {
-        BigDecimal valorInvalido = BigDecimal.valueOf(-100);
-
-        IllegalArgumentException exception = assertThrows(
-                IllegalArgumentException.class,
-                () -> conta.depositar(valorInvalido)
-        );
-
-        assertEquals("Valor do depósito deve ser positivo", exception.getMessage());
-    }
-
-    @Test
-    @DisplayName("Deve debitar valor quando saldo é suficiente")
-    void deveDebitarValorQuandoSaldoSuficiente() {
-        BigDecimal valorDebito = BigDecimal.valueOf(300);
-        BigDecimal saldoEsperado = BigDecimal.valueOf(700);
-
-        conta.debitar(valorDebito);
-
-        assertEquals(0, saldoEsperado.compareTo(conta.getSaldo()));
-    }
-
-    @Test
-    @DisplayName("Deve lançar exceção ao debitar valor maior que saldo")
-    void deveLancarExcecaoAoDebitarValorMaiorQueSaldo() {
-        BigDecimal valorDebito = BigDecimal.valueOf(1500);
-
-        IllegalArgumentException exception = assertThrows(
-                IllegalArgumentException.class,
-                () -> conta.debitar(valorDebito)
-        );
-
-        assertEquals("Saldo insuficiente", exception.getMessage());
-    }
-
-    @Test
-    @DisplayName("Deve lançar exceção ao debitar valor zero")
-    void deveLancarExcecaoAoDebitarValorZero() {
-        BigDecimal valorInvalido = BigDecimal.ZERO;
-
-        IllegalArgumentException exception = assertThrows(
-                IllegalArgumentException.class,
-                () -> conta.debitar(valorInvalido)
-        );
-
-        assertEquals("Valor do débito deve ser positivo", exception.getMessage());
-    }
-
-    @Test
-    @DisplayName("Deve creditar valor positivo")
-    void deveCreditarValorPositivo() {
-        BigDecimal valorCredito = BigDecimal.valueOf(200);
-        BigDecimal saldoEsperado = BigDecimal.valueOf(1200);
-
-        conta.creditar(valorCredito);
-
-        assertEquals(0, saldoEsperado.compareTo(conta.getSaldo()));
-    }
-
-    @Test
-    @DisplayName("Deve lançar exceção ao creditar valor zero")
-    void deveLancarExcecaoAoCreditarValorZero() {
-        BigDecimal valorInvalido = BigDecimal.ZERO;
-
-        IllegalArgumentException exception = assertThrows(
-                IllegalArgumentException.class,
-                () -> conta.creditar(valorInvalido)
-        );
-
-        assertEquals("Valor do crédito deve ser positivo", exception.getMessage());
-    }
-
-    @Test
-    @DisplayName("Deve verificar se tem saldo suficiente - TRUE")
-    void deveVerificarSeSaldoSuficienteTrue() {
-        BigDecimal valor = BigDecimal.valueOf(500);
-
-        boolean resultado = conta.temSaldoSuficiente(valor);
-
-        assertTrue(resultado);
-    }
-
-    @Test
-    @DisplayName("Deve verificar se tem saldo suficiente - FALSE")
-    void deveVerificarSeSaldoSuficienteFalse() {
-        BigDecimal valor = BigDecimal.valueOf(1500);
-
-        boolean resultado = conta.temSaldoSuficiente(valor);
-
-        assertFalse(resultado);
-    }
-
-    @Test
-    @DisplayName("Deve verificar se tem saldo exato")
-    void deveVerificarSeSaldoExato() {
-        BigDecimal valor = BigDecimal.valueOf(1000);
-
-        boolean resultado = conta.temSaldoSuficiente(valor);
-
-        assertTrue(resultado);
+        assertEquals(0, BigDecimal.valueOf(1200).compareTo(conta.getSaldo()));
+        assertEquals(42L, conta.getUltimoLancamentoId());
     }
 
     @Test
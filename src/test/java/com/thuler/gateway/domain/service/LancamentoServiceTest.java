@@ -0,0 +1,266 @@
+package com.thuler.gateway.domain.service;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.Lancamento;
+import com.thuler.gateway.domain.model.SaldoSnapshot;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository;
+import com.thuler.gateway.domain.repository.LancamentoRepository.ResumoLancamentos;
+import com.thuler.gateway.domain.repository.LancamentoRepositoryCustom.NovoLancamento;
+import com.thuler.gateway.domain.repository.SaldoSnapshotRepository;
+import com.thuler.gateway.infrastructure.engine.ContaEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LancamentoService Tests")
+class LancamentoServiceTest {
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private LancamentoRepository lancamentoRepository;
+
+    @Mock
+    private SaldoSnapshotRepository saldoSnapshotRepository;
+
+    @Mock
+    private ContaLockService contaLockService;
+
+    @InjectMocks
+    private LancamentoService lancamentoService;
+
+    private Conta conta;
+
+    @BeforeEach
+    void setUp() {
+        conta = Conta.builder()
+                .id(1L)
+                .usuario(Usuario.builder().id(1L).build())
+                .saldo(BigDecimal.valueOf(100))
+                .ultimoLancamentoId(10L)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve creditar travando a conta só para crédito")
+    void deveCreditarTravandoContaParaCredito() {
+        when(contaRepository.getReferenceById(1L)).thenReturn(conta);
+
+        lancamentoService.creditar(1L, BigDecimal.TEN, TipoLancamento.DEPOSITO, null);
+
+        ArgumentCaptor<Lancamento> lancamento = ArgumentCaptor.forClass(Lancamento.class);
+        InOrder ordem = inOrder(contaLockService, lancamentoRepository);
+        ordem.verify(contaLockService).travarParaCredito(1L);
+        ordem.verify(lancamentoRepository).save(lancamento.capture());
+
+        assertEquals(TipoLancamento.DEPOSITO, lancamento.getValue().getTipo());
+        assertEquals(0, lancamento.getValue().getValor().compareTo(BigDecimal.TEN));
+        verify(contaLockService, never()).travarParaDebito(any());
+        verify(contaRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve debitar com valor negativo quando há saldo")
+    void deveDebitarComValorNegativoQuandoHaSaldo() {
+        when(contaRepository.calcularSaldo(1L)).thenReturn(BigDecimal.valueOf(100));
+        when(contaRepository.getReferenceById(1L)).thenReturn(conta);
+
+        boolean debitado = lancamentoService.debitar(1L, BigDecimal.TEN, TipoLancamento.ESTORNO_ENVIADO, null);
+
+        assertTrue(debitado);
+        ArgumentCaptor<Lancamento> lancamento = ArgumentCaptor.forClass(Lancamento.class);
+        InOrder ordem = inOrder(contaLockService, contaRepository, lancamentoRepository);
+        ordem.verify(contaLockService).travarParaDebito(1L);
+        ordem.verify(contaRepository).calcularSaldo(1L);
+        ordem.verify(lancamentoRepository).save(lancamento.capture());
+        assertEquals(0, lancamento.getValue().getValor().compareTo(BigDecimal.valueOf(-10)));
+    }
+
+    @Test
+    @DisplayName("Não deve debitar quando o saldo não cobre o valor")
+    void naoDeveDebitarQuandoSaldoNaoCobreValor() {
+        when(contaRepository.calcularSaldo(1L)).thenReturn(BigDecimal.valueOf(5));
+
+        boolean debitado = lancamentoService.debitar(1L, BigDecimal.TEN, TipoLancamento.ESTORNO_ENVIADO, null);
+
+        assertFalse(debitado);
+        verifyNoInteractions(lancamentoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve transferir com um único registro de dois lançamentos")
+    void deveTransferirComUmUnicoRegistro() {
+        when(contaRepository.calcularSaldo(2L)).thenReturn(BigDecimal.valueOf(100));
+
+        boolean transferido = lancamentoService.transferir(2L, 1L, BigDecimal.TEN,
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, null);
+
+        assertTrue(transferido);
+        InOrder ordem = inOrder(contaLockService, lancamentoRepository);
+        ordem.verify(contaLockService).travarParaTransferencia(2L, 1L);
+        ordem.verify(lancamentoRepository).registrarTransferencia(2L, 1L, BigDecimal.TEN,
+                "PAGAMENTO_ENVIADO", "PAGAMENTO_RECEBIDO", null);
+    }
+
+    @Test
+    @DisplayName("Não deve transferir quando a origem não tem saldo")
+    void naoDeveTransferirQuandoOrigemNaoTemSaldo() {
+        when(contaRepository.calcularSaldo(2L)).thenReturn(BigDecimal.ONE);
+
+        boolean transferido = lancamentoService.transferir(2L, 1L, BigDecimal.TEN,
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, null);
+
+        assertFalse(transferido);
+        verifyNoInteractions(lancamentoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve pagar cobrança com um único comando depois de travar as contas")
+    void devePagarCobrancaComUmUnicoComando() {
+        when(lancamentoRepository.pagarCobrancaComSaldo(10L, 2L, 2L, 1L)).thenReturn(2);
+
+        assertTrue(lancamentoService.pagarCobranca(2L, 1L, 10L, 2L));
+
+        InOrder ordem = inOrder(contaLockService, lancamentoRepository);
+        ordem.verify(contaLockService).travarParaTransferencia(2L, 1L);
+        ordem.verify(lancamentoRepository).pagarCobrancaComSaldo(10L, 2L, 2L, 1L);
+        verifyNoInteractions(contaRepository);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar lançamento com valor não positivo")
+    void deveRejeitarLancamentoComValorNaoPositivo() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> lancamentoService.creditar(1L, BigDecimal.ZERO, TipoLancamento.DEPOSITO, null)
+        );
+
+        assertEquals("Valor do lançamento deve ser positivo", exception.getMessage());
+        verifyNoInteractions(contaLockService, lancamentoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve gerar snapshot incorporando os lançamentos desde o último")
+    void deveGerarSnapshotIncorporandoLancamentos() {
+        ResumoLancamentos resumo = mock(ResumoLancamentos.class);
+        when(resumo.getQuantidade()).thenReturn(3L);
+        when(resumo.getTotal()).thenReturn(BigDecimal.valueOf(50));
+        when(resumo.getUltimoId()).thenReturn(13L);
+
+        when(contaRepository.findById(1L)).thenReturn(Optional.of(conta));
+        when(lancamentoRepository.resumirDesde(1L, 10L)).thenReturn(resumo);
+        when(saldoSnapshotRepository.save(any(SaldoSnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Optional<SaldoSnapshot> snapshot = lancamentoService.gerarSnapshot(1L);
+
+        assertTrue(snapshot.isPresent());
+        assertEquals(0, snapshot.get().getSaldo().compareTo(BigDecimal.valueOf(150)));
+        assertEquals(13L, snapshot.get().getUltimoLancamentoId());
+        assertEquals(0, conta.getSaldo().compareTo(BigDecimal.valueOf(150)));
+        assertEquals(13L, conta.getUltimoLancamentoId());
+
+        InOrder ordem = inOrder(contaLockService, contaRepository);
+        ordem.verify(contaLockService).travarParaSnapshot(1L);
+        ordem.verify(contaRepository).save(conta);
+    }
+
+    @Test
+    @DisplayName("Não deve gerar snapshot sem lançamentos novos")
+    void naoDeveGerarSnapshotSemLancamentosNovos() {
+        ResumoLancamentos resumo = mock(ResumoLancamentos.class);
+        when(resumo.getQuantidade()).thenReturn(0L);
+
+        when(contaRepository.findById(1L)).thenReturn(Optional.of(conta));
+        when(lancamentoRepository.resumirDesde(1L, 10L)).thenReturn(resumo);
+
+        Optional<SaldoSnapshot> snapshot = lancamentoService.gerarSnapshot(1L);
+
+        assertTrue(snapshot.isEmpty());
+        verify(contaRepository, never()).save(any());
+        verifyNoInteractions(saldoSnapshotRepository);
+    }
+
+    @Test
+    @DisplayName("Com a engine de contas habilitada, deve delegar a transferência sem travar contas no banco")
+    void deveDelegarTransferenciaParaEngine() {
+        ContaEngine contaEngine = mock(ContaEngine.class);
+        ReflectionTestUtils.setField(lancamentoService, "contaEngine", contaEngine);
+        when(contaEngine.transferir(1L, 2L, BigDecimal.TEN,
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, null)).thenReturn(true);
+
+        boolean transferido = lancamentoService.transferir(1L, 2L, BigDecimal.TEN,
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, null);
+
+        assertTrue(transferido);
+        verifyNoInteractions(contaLockService, lancamentoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve transferir em lote até onde o saldo cobre, travando cada conta uma vez")
+    void deveTransferirEmLoteAteOndeSaldoCobre() {
+        when(contaRepository.calcularSaldo(1L)).thenReturn(BigDecimal.valueOf(150));
+
+        List<Transferencia> transferencias = List.of(
+                new Transferencia(2L, BigDecimal.valueOf(100), 10L),
+                new Transferencia(3L, BigDecimal.valueOf(100), 11L),
+                new Transferencia(2L, BigDecimal.valueOf(50), 12L));
+
+        List<Transferencia> realizadas = lancamentoService.transferirEmLote(1L, transferencias,
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO);
+
+        assertEquals(List.of(transferencias.get(0), transferencias.get(2)), realizadas);
+
+        ArgumentCaptor<List<NovoLancamento>> lancamentos = ArgumentCaptor.captor();
+        InOrder ordem = inOrder(contaLockService, contaRepository, lancamentoRepository);
+        ordem.verify(contaLockService).travarParaLote(1L, Set.of(2L, 3L));
+        ordem.verify(contaRepository).calcularSaldo(1L);
+        ordem.verify(lancamentoRepository).registrarEmLote(lancamentos.capture());
+
+        assertEquals(4, lancamentos.getValue().size());
+        assertEquals(0, lancamentos.getValue().stream().map(NovoLancamento::valor)
+                .reduce(BigDecimal.ZERO, BigDecimal::add).signum());
+    }
+
+    @Test
+    @DisplayName("Deve creditar em lote travando cada conta uma vez e gravando um lançamento por cobrança")
+    void deveCreditarEmLote() {
+        List<Transferencia> creditos = List.of(
+                new Transferencia(2L, BigDecimal.valueOf(100), 10L),
+                new Transferencia(3L, BigDecimal.valueOf(40), 11L),
+                new Transferencia(2L, BigDecimal.valueOf(60), 12L));
+
+        lancamentoService.creditarEmLote(creditos, TipoLancamento.PAGAMENTO_RECEBIDO);
+
+        ArgumentCaptor<List<NovoLancamento>> lancamentos = ArgumentCaptor.captor();
+        InOrder ordem = inOrder(contaLockService, lancamentoRepository);
+        ordem.verify(contaLockService).travarParaCreditos(Set.of(2L, 3L));
+        ordem.verify(lancamentoRepository).registrarEmLote(lancamentos.capture());
+
+        assertEquals(List.of(10L, 11L, 12L), lancamentos.getValue().stream().map(NovoLancamento::cobrancaId).toList());
+        assertTrue(lancamentos.getValue().stream()
+                .allMatch(lancamento -> lancamento.tipo() == TipoLancamento.PAGAMENTO_RECEBIDO
+                        && lancamento.valor().signum() > 0));
+        verifyNoInteractions(contaRepository);
+    }
+}
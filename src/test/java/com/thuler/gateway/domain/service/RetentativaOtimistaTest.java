@@ -0,0 +1,88 @@
+package com.thuler.gateway.domain.service;
+
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.infrastructure.web.RequestDeadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("RetentativaOtimista Tests")
+class RetentativaOtimistaTest {
+
+    private final RetentativaOtimista retentativaOtimista = new RetentativaOtimista(
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), 3, Duration.ZERO);
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.limpar();
+    }
+
+    @Test
+    @DisplayName("Deve repetir a alteração após conflito de versão")
+    void deveRepetirAposConflito() {
+        AtomicInteger tentativas = new AtomicInteger();
+
+        String resultado = retentativaOtimista.executar(status -> {
+            if (tentativas.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Cobranca.class, 1L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        assertEquals(3, tentativas.get());
+    }
+
+    @Test
+    @DisplayName("Deve lançar IllegalStateException quando as tentativas se esgotarem")
+    void deveLancarExcecaoQuandoTentativasEsgotarem() {
+        AtomicInteger tentativas = new AtomicInteger();
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> retentativaOtimista.executar(status -> {
+                    tentativas.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException(Cobranca.class, 1L);
+                }));
+
+        assertEquals("Cobrança foi alterada por outra operação, tente novamente", exception.getMessage());
+        assertEquals(3, tentativas.get());
+    }
+
+    @Test
+    @DisplayName("Não deve repetir quando o prazo da requisição já acabou")
+    void naoDeveRepetirSemPrazo() {
+        RequestDeadline.iniciar(Duration.ZERO);
+        AtomicInteger tentativas = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retentativaOtimista.executar(status -> {
+            tentativas.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Cobranca.class, 1L);
+        }));
+
+        assertEquals(1, tentativas.get());
+    }
+
+    @Test
+    @DisplayName("Não deve repetir erros de negócio")
+    void naoDeveRepetirErrosDeNegocio() {
+        AtomicInteger tentativas = new AtomicInteger();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> retentativaOtimista.executar(status -> {
+                    tentativas.incrementAndGet();
+                    throw new IllegalArgumentException("Saldo insuficiente");
+                }));
+
+        assertEquals("Saldo insuficiente", exception.getMessage());
+        assertEquals(1, tentativas.get());
+    }
+}
@@ -0,0 +1,167 @@
+package com.thuler.gateway.infrastructure.engine;
+
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.infrastructure.engine.ParticaoContas.ConsultarSaldo;
+import com.thuler.gateway.infrastructure.engine.ParticaoContas.Movimentar;
+import com.thuler.gateway.infrastructure.engine.ParticaoContas.Repasse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ParticaoContas Tests")
+class ParticaoContasTest {
+
+    // Duas partições: contas pares na 0, ímpares na 1
+    private static final Map<Long, Long> SALDOS_NO_BANCO = Map.of(2L, 10_000L, 4L, 0L, 5L, 0L);
+
+    @TempDir
+    Path diretorio;
+
+    private final List<Repasse> repasses = new ArrayList<>();
+    private JournalParticao journal;
+    private Thread escritora;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (escritora != null) {
+            escritora.interrupt();
+            escritora.join(1000);
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve descartar linha incompleta no final do journal")
+    void deveDescartarLinhaIncompletaNoFinalDoJournal() throws Exception {
+        Path arquivo = diretorio.resolve("journal-0.log");
+        try (JournalParticao gravado = new JournalParticao(arquivo)) {
+            gravado.acrescentar(List.of(deposito(1, 2L, 500), deposito(2, 2L, 700)));
+        }
+        Files.writeString(arquivo, "3|-|2|900|-|DEPOS", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        journal = new JournalParticao(arquivo);
+        List<Movimento> movimentos = journal.ler();
+
+        assertEquals(2, movimentos.size());
+        assertEquals(700, movimentos.get(1).centavos());
+        assertEquals(TipoLancamento.DEPOSITO, movimentos.get(1).tipoCredito());
+        assertEquals(Files.size(arquivo), journal.tamanho());
+        assertTrue(Files.readString(arquivo).endsWith("\n"));
+    }
+
+    @Test
+    @DisplayName("Deve recuperar só as movimentações posteriores à posição persistida")
+    void deveRecuperarSoMovimentacoesNaoPersistidas() throws Exception {
+        Path arquivo = diretorio.resolve("journal-0.log");
+        try (JournalParticao gravado = new JournalParticao(arquivo)) {
+            gravado.acrescentar(List.of(deposito(1, 2L, 500), deposito(2, 2L, 700), deposito(3, 4L, 100)));
+        }
+
+        ParticaoContas particao = criarParticao(arquivo);
+        List<Movimento> naoPersistidos = particao.recuperar(1);
+
+        assertEquals(List.of(2L, 3L), naoPersistidos.stream().map(Movimento::sequencia).toList());
+        assertEquals(2, particao.prontosParaPersistir(10).size());
+
+        // A próxima movimentação continua a sequência do journal
+        iniciar(particao);
+        assertTrue(movimentar(particao, deposito(0, 2L, 100), false));
+        particao.confirmarPersistencia(2, 3);
+        assertEquals(4, particao.prontosParaPersistir(10).getFirst().sequencia());
+    }
+
+    @Test
+    @DisplayName("Deve recusar débito sem saldo e gravar no journal só o que foi aceito")
+    void deveRecusarDebitoSemSaldo() throws Exception {
+        Path arquivo = diretorio.resolve("journal-0.log");
+        ParticaoContas particao = criarParticao(arquivo);
+        particao.recuperar(0);
+        iniciar(particao);
+
+        assertTrue(movimentar(particao, transferencia(2L, 4L, 6_000), true));
+        assertFalse(movimentar(particao, transferencia(2L, 4L, 6_000), true));
+
+        assertEquals(4_000L, saldo(particao, 2L));
+        assertEquals(6_000L, saldo(particao, 4L));
+        assertEquals(1, Files.readAllLines(arquivo).size());
+    }
+
+    @Test
+    @DisplayName("Transferência para outra partição só vai ao banco depois de o crédito ser aplicado")
+    void transferenciaEntreParticoesAguardaCredito() throws Exception {
+        ParticaoContas particao = criarParticao(diretorio.resolve("journal-0.log"));
+        particao.recuperar(0);
+        iniciar(particao);
+
+        assertTrue(movimentar(particao, transferencia(2L, 5L, 1_000), true));
+
+        assertEquals(1, repasses.size());
+        assertEquals(5L, repasses.getFirst().movimento().contaCreditoId());
+        assertTrue(particao.prontosParaPersistir(10).isEmpty());
+
+        repasses.getFirst().pendente().pronto = true;
+        assertEquals(1, particao.prontosParaPersistir(10).size());
+    }
+
+    @Test
+    @DisplayName("Deve responder conta não encontrada sem parar a partição")
+    void deveResponderContaNaoEncontrada() throws Exception {
+        ParticaoContas particao = criarParticao(diretorio.resolve("journal-0.log"));
+        particao.recuperar(0);
+        iniciar(particao);
+
+        CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+        particao.submeter(new Movimentar(deposito(0, 8L, 100), false, resultado));
+
+        Exception erro = assertThrows(Exception.class, () -> resultado.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, erro.getCause());
+        assertEquals(10_000L, saldo(particao, 2L));
+    }
+
+    private ParticaoContas criarParticao(Path arquivo) throws IOException {
+        journal = new JournalParticao(arquivo);
+        return new ParticaoContas(0, 2, journal, SALDOS_NO_BANCO::get, repasses::add, 100, 16, 1024 * 1024);
+    }
+
+    private void iniciar(ParticaoContas particao) {
+        escritora = Thread.ofPlatform().start(particao);
+    }
+
+    private boolean movimentar(ParticaoContas particao, Movimento movimento, boolean verificarSaldo)
+            throws Exception {
+        CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+        particao.submeter(new Movimentar(movimento, verificarSaldo, resultado));
+        return resultado.get(1, TimeUnit.SECONDS);
+    }
+
+    private long saldo(ParticaoContas particao, long contaId) throws Exception {
+        CompletableFuture<Long> resultado = new CompletableFuture<>();
+        particao.submeter(new ConsultarSaldo(contaId, resultado));
+        return resultado.get(1, TimeUnit.SECONDS);
+    }
+
+    private static Movimento deposito(long sequencia, Long contaId, long centavos) {
+        return new Movimento(sequencia, null, contaId, centavos, null, TipoLancamento.DEPOSITO, null, 0);
+    }
+
+    private static Movimento transferencia(Long origem, Long destino, long centavos) {
+        return new Movimento(0, origem, destino, centavos,
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, 1L, 0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.thuler.gateway.infrastructure.external.authorizer;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerCircuitBreaker.Estado;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AuthorizerCircuitBreaker Tests")
+class AuthorizerCircuitBreakerTest {
+
+    private static final long RAPIDA = Duration.ofMillis(50).toNanos();
+    private static final long LENTA = Duration.ofSeconds(3).toNanos();
+
+    private final AtomicLong relogio = new AtomicLong();
+    private SimpleMeterRegistry registry;
+    private AuthorizerCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        AuthorizerProperties.CircuitBreaker config = new AuthorizerProperties.CircuitBreaker();
+        config.setSlidingWindowSize(10);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setSlowCallRateThreshold(75);
+        config.setSlowCallDuration(Duration.ofSeconds(2));
+        config.setWaitDurationInOpenState(Duration.ofSeconds(10));
+        config.setPermittedCallsInHalfOpenState(2);
+
+        registry = new SimpleMeterRegistry();
+        circuitBreaker = new AuthorizerCircuitBreaker(config, registry, relogio::get);
+    }
+
+    @Test
+    @DisplayName("Deve permanecer fechado antes do mínimo de chamadas")
+    void devePermanecerFechadoAntesDoMinimoDeChamadas() {
+        chamar(false);
+        chamar(false);
+        chamar(false);
+
+        assertEquals(Estado.FECHADO, circuitBreaker.getEstado());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Deve abrir quando a taxa de falhas ultrapassa o limite")
+    void deveAbrirQuandoTaxaDeFalhasUltrapassaLimite() {
+        chamar(true);
+        chamar(true);
+        chamar(false);
+        chamar(false);
+
+        assertEquals(Estado.ABERTO, circuitBreaker.getEstado());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1.0, registry.get("authorizer.circuitbreaker.calls").tag("outcome", "rejected").counter().count());
+        assertEquals(1.0, registry.get("authorizer.circuitbreaker.transitions")
+                .tag("from", "closed").tag("to", "open").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve abrir quando a maioria das chamadas é lenta")
+    void deveAbrirQuandoChamadasSaoLentas() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onSuccess(LENTA);
+        }
+
+        assertEquals(Estado.ABERTO, circuitBreaker.getEstado());
+    }
+
+    @Test
+    @DisplayName("Deve liberar chamadas de teste após o tempo de espera e fechar com sucesso")
+    void deveFecharAposChamadasDeTesteComSucesso() {
+        abrirCircuito();
+
+        relogio.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(Estado.MEIO_ABERTO, circuitBreaker.getEstado());
+
+        circuitBreaker.onSuccess(RAPIDA);
+        circuitBreaker.onSuccess(RAPIDA);
+
+        assertEquals(Estado.FECHADO, circuitBreaker.getEstado());
+    }
+
+    @Test
+    @DisplayName("Deve reabrir quando as chamadas de teste falham")
+    void deveReabrirQuandoChamadasDeTesteFalham() {
+        abrirCircuito();
+        relogio.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        chamar(true);
+        chamar(false);
+
+        assertEquals(Estado.ABERTO, circuitBreaker.getEstado());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Deve devolver permissão de teste não utilizada")
+    void deveDevolverPermissaoNaoUtilizada() {
+        abrirCircuito();
+        relogio.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.releasePermission();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void abrirCircuito() {
+        for (int i = 0; i < 4; i++) {
+            chamar(true);
+        }
+        assertEquals(Estado.ABERTO, circuitBreaker.getEstado());
+    }
+
+    private void chamar(boolean falha) {
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        if (falha) {
+            circuitBreaker.onError(RAPIDA);
+        } else {
+            circuitBreaker.onSuccess(RAPIDA);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.thuler.gateway.infrastructure.external.authorizer;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import com.thuler.gateway.infrastructure.config.AuthorizerHttpClientConfig;
+import com.thuler.gateway.infrastructure.exception.AuthorizerException;
+import com.thuler.gateway.stub.LatencyDistribution;
+import com.thuler.gateway.stub.StubAuthorizer;
+import com.thuler.gateway.stub.StubAuthorizer.Perfil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AuthorizerClient Tests")
+class AuthorizerClientTest {
+
+    private StubAuthorizer stub;
+    private AuthorizerProperties properties;
+    private CloseableHttpClient httpClient;
+    private AuthorizerClient authorizerClient;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = StubAuthorizer.iniciar(Perfil.padrao());
+
+        properties = new AuthorizerProperties();
+        properties.setUrl(stub.url());
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(20));
+        properties.getCircuitBreaker().setMinimumCalls(3);
+        properties.getCircuitBreaker().setSlidingWindowSize(3);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (authorizerClient != null) {
+            authorizerClient.encerrar();
+        }
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("Deve retornar resposta autorizada")
+    void deveRetornarRespostaAutorizada() {
+        AuthorizerResponse response = criarCliente().authorize();
+
+        assertTrue(response.isAutorizado());
+        assertEquals("success", response.getStatus());
+        assertEquals(1, stub.getRequisicoes());
+    }
+
+    @Test
+    @DisplayName("Deve tratar 403 do autorizador como negação sem nova tentativa")
+    void deveTratarNegacaoSemNovaTentativa() {
+        stub.setPerfil(Perfil.padrao().comNegacao(1.0));
+
+        AuthorizerResponse response = criarCliente().authorize();
+
+        assertFalse(response.isAutorizado());
+        assertEquals("fail", response.getStatus());
+        assertEquals(1, stub.getRequisicoes());
+    }
+
+    @Test
+    @DisplayName("Deve tentar novamente em erro 5xx até o limite de tentativas")
+    void deveTentarNovamenteEmErro5xx() {
+        stub.setPerfil(Perfil.padrao().comErro5xx(1.0));
+
+        assertThrows(AuthorizerException.class, () -> criarCliente().authorize());
+
+        assertEquals(3, stub.getRequisicoes());
+    }
+
+    @Test
+    @DisplayName("Deve tentar novamente quando a conexão é resetada")
+    void deveTentarNovamenteQuandoConexaoResetada() {
+        properties.getRetry().setMaxAttempts(2);
+        stub.setPerfil(Perfil.padrao().comReset(1.0));
+
+        assertThrows(AuthorizerException.class, () -> criarCliente().authorize());
+
+        assertEquals(2, stub.getRequisicoes());
+    }
+
+    @Test
+    @DisplayName("Deve falhar rápido sem chamar o autorizador com o circuito aberto")
+    void deveFalharRapidoComCircuitoAberto() {
+        properties.getRetry().setMaxAttempts(1);
+        stub.setPerfil(Perfil.padrao().comErro5xx(1.0));
+        AuthorizerClient cliente = criarCliente();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(AuthorizerException.class, cliente::authorize);
+        }
+        long requisicoesAntes = stub.getRequisicoes();
+
+        AuthorizerException exception = assertThrows(AuthorizerException.class, cliente::authorize);
+
+        assertEquals("Autorizador indisponível no momento, tente novamente mais tarde", exception.getMessage());
+        assertEquals(requisicoesAntes, stub.getRequisicoes());
+    }
+
+    @Test
+    @DisplayName("Deve abandonar a tentativa que passa do limite de tempo")
+    void deveAbandonarTentativaLenta() {
+        properties.getRetry().setMaxAttempts(1);
+        properties.getRetry().setAttemptTimeout(Duration.ofMillis(200));
+        stub.setPerfil(Perfil.padrao().comLatencia(LatencyDistribution.fixa(Duration.ofSeconds(3))));
+        AuthorizerClient cliente = criarCliente();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () ->
+                assertThrows(AuthorizerException.class, cliente::authorize));
+    }
+
+    @Test
+    @DisplayName("Deve devolver a vaga do bulkhead ao abortar a tentativa lenta")
+    void deveDevolverVagaAoAbortarTentativa() throws Exception {
+        properties.getBulkhead().setMaxConcurrentCalls(1);
+        properties.getBulkhead().setMaxWait(Duration.ofMillis(100));
+        properties.getRetry().setMaxAttempts(1);
+        properties.getRetry().setAttemptTimeout(Duration.ofMillis(200));
+        stub.setPerfil(Perfil.padrao().comLatencia(LatencyDistribution.fixa(Duration.ofSeconds(3))));
+        AuthorizerClient cliente = criarCliente();
+
+        assertThrows(AuthorizerException.class, cliente::authorize);
+
+        // Com a requisição anterior ainda rodando, a única vaga estaria ocupada por mais 2,8 s
+        long prazo = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (vagasLivres() < 1 && System.nanoTime() < prazo) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, vagasLivres());
+    }
+
+    @Test
+    @DisplayName("Deve devolver a vaga do bulkhead quando a requisição não pode ser enviada")
+    void deveDevolverVagaQuandoEnvioFalha() {
+        properties.getBulkhead().setMaxConcurrentCalls(1);
+        properties.getRetry().setMaxAttempts(1);
+        AuthorizerClient cliente = criarCliente();
+        // Executor encerrado recusa a tarefa da requisição
+        cliente.encerrar();
+
+        AuthorizerException exception = assertThrows(AuthorizerException.class, cliente::authorize);
+
+        assertEquals("Não foi possível enviar a consulta ao autorizador", exception.getMessage());
+        assertEquals(1, vagasLivres());
+        assertEquals(0, stub.getRequisicoes());
+    }
+
+    @Test
+    @DisplayName("Não deve disparar hedge sem vaga livre no bulkhead")
+    void naoDeveDispararHedgeSemVaga() {
+        properties.getBulkhead().setMaxConcurrentCalls(1);
+        properties.getRetry().setMaxAttempts(1);
+        properties.getRetry().setAttemptTimeout(Duration.ofSeconds(2));
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setMinSamples(0);
+        stub.setPerfil(Perfil.padrao().comLatencia(LatencyDistribution.fixa(Duration.ofMillis(300))));
+
+        AuthorizerResponse response = criarCliente().authorize();
+
+        assertTrue(response.isAutorizado());
+        assertEquals(1, stub.getRequisicoes());
+    }
+
+    @Test
+    @DisplayName("Deve aceitar corpo enviado lentamente dentro do prazo")
+    void deveAceitarCorpoLento() {
+        stub.setPerfil(Perfil.padrao().comCorpoLento(1.0, Duration.ofMillis(200)));
+
+        AuthorizerResponse response = criarCliente().authorize();
+
+        assertTrue(response.isAutorizado());
+        assertEquals(1, stub.getRequisicoes());
+    }
+
+    private double vagasLivres() {
+        return registry.get("authorizer.bulkhead.available").gauge().value();
+    }
+
+    private AuthorizerClient criarCliente() {
+        registry = new SimpleMeterRegistry();
+        httpClient = new AuthorizerHttpClientConfig().authorizerHttpClient(properties, registry);
+        authorizerClient = new AuthorizerClient(
+                httpClient,
+                Jackson2ObjectMapperBuilder.json().build(),
+                new AuthorizerCircuitBreaker(properties, registry),
+                new AuthorizerBulkhead(properties, registry),
+                new AuthorizerRetryBudget(properties, registry),
+                properties);
+        return authorizerClient;
+    }
+}
@@ -0,0 +1,57 @@
+package com.thuler.gateway.infrastructure.external.authorizer;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AuthorizerRetryBudget Tests")
+class AuthorizerRetryBudgetTest {
+
+    private AuthorizerRetryBudget retryBudget;
+
+    @BeforeEach
+    void setUp() {
+        AuthorizerProperties properties = new AuthorizerProperties();
+        properties.getRetry().setBudgetRatio(0.5);
+        properties.getRetry().setBudgetMaxTokens(2);
+
+        retryBudget = new AuthorizerRetryBudget(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Deve negar tentativas extras quando o orçamento se esgota")
+    void deveNegarQuandoOrcamentoEsgota() {
+        assertTrue(retryBudget.tryAcquire());
+        assertTrue(retryBudget.tryAcquire());
+        assertFalse(retryBudget.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Deve recompor o orçamento proporcionalmente às chamadas")
+    void deveRecomporOrcamentoComChamadas() {
+        retryBudget.tryAcquire();
+        retryBudget.tryAcquire();
+
+        retryBudget.registrarChamada();
+        assertFalse(retryBudget.tryAcquire());
+
+        retryBudget.registrarChamada();
+        assertTrue(retryBudget.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Não deve acumular acima do máximo configurado")
+    void naoDeveAcumularAcimaDoMaximo() {
+        for (int i = 0; i < 100; i++) {
+            retryBudget.registrarChamada();
+        }
+
+        assertTrue(retryBudget.tryAcquire());
+        assertTrue(retryBudget.tryAcquire());
+        assertFalse(retryBudget.tryAcquire());
+    }
+}
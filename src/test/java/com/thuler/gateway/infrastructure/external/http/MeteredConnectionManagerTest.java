@@ -0,0 +1,69 @@
+package com.thuler.gateway.infrastructure.external.http;
+
+import com.thuler.gateway.infrastructure.config.AuthorizerProperties;
+import com.thuler.gateway.infrastructure.config.AuthorizerHttpClientConfig;
+import com.thuler.gateway.stub.StubAuthorizer;
+import com.thuler.gateway.stub.StubAuthorizer.Perfil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MeteredConnectionManager Tests")
+class MeteredConnectionManagerTest {
+
+    private StubAuthorizer stub;
+    private SimpleMeterRegistry registry;
+    private CloseableHttpClient httpClient;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = StubAuthorizer.iniciar(Perfil.padrao());
+        url = stub.url();
+
+        registry = new SimpleMeterRegistry();
+        httpClient = new AuthorizerHttpClientConfig().authorizerHttpClient(new AuthorizerProperties(), registry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("Deve reutilizar a conexão keep-alive nas chamadas seguintes")
+    void deveReutilizarConexaoKeepAlive() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            httpClient.execute(new HttpGet(url), response -> EntityUtils.toString(response.getEntity()));
+        }
+
+        assertEquals(1.0, contador("false"));
+        assertEquals(2.0, contador("true"));
+        assertEquals(3, registry.get("httpcomponents.httpclient.pool.lease").timer().count());
+        assertEquals(1, stub.getConexoesAceitas());
+    }
+
+    @Test
+    @DisplayName("Deve expor as métricas do pool de conexões")
+    void deveExporMetricasDoPool() {
+        assertEquals(50.0, registry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "authorizer")
+                .gauge()
+                .value());
+    }
+
+    private double contador(String reutilizada) {
+        return registry.get("httpcomponents.httpclient.pool.connections")
+                .tag("reused", reutilizada)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,80 @@
+package com.thuler.gateway.infrastructure.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtTokenVerifier Tests")
+class JwtTokenVerifierTest {
+
+    private static final String SECRET = "my-super-secret-key-for-jwt-token-generation-must-be-at-least-256-bits-long";
+
+    private JwtTokenProvider tokenProvider;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenVerifier tokenVerifier;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 3600000L);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenVerifier = new JwtTokenVerifier(tokenProvider, meterRegistry, 100);
+    }
+
+    @Test
+    @DisplayName("Deve verificar token válido e retornar as claims tipadas")
+    void deveVerificarTokenValido() {
+        String token = tokenProvider.generateToken(1L, "joao@example.com");
+
+        Optional<VerifiedToken> verificado = tokenVerifier.verify(token);
+
+        assertTrue(verificado.isPresent());
+        assertEquals(1L, verificado.get().userId());
+        assertEquals("joao@example.com", verificado.get().email());
+        assertFalse(verificado.get().isExpired());
+    }
+
+    @Test
+    @DisplayName("Deve reutilizar token já verificado a partir do cache")
+    void deveReutilizarTokenDoCache() {
+        String token = tokenProvider.generateToken(1L, "joao@example.com");
+
+        VerifiedToken primeiro = tokenVerifier.verify(token).orElseThrow();
+        VerifiedToken segundo = tokenVerifier.verify(token).orElseThrow();
+
+        assertSame(primeiro, segundo);
+        assertEquals(1.0, contador("hit"));
+        assertEquals(1.0, contador("miss"));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token com assinatura inválida")
+    void deveRejeitarTokenComAssinaturaInvalida() {
+        String token = tokenProvider.generateToken(1L, "joao@example.com");
+        String adulterado = token.substring(0, token.length() - 2) + "xx";
+
+        assertTrue(tokenVerifier.verify(adulterado).isEmpty());
+        assertTrue(tokenVerifier.verify("token_invalido").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token expirado")
+    void deveRejeitarTokenExpirado() {
+        JwtTokenProvider providerExpirado = new JwtTokenProvider(SECRET, -1000L);
+        String token = providerExpirado.generateToken(1L, "joao@example.com");
+
+        assertTrue(tokenVerifier.verify(token).isEmpty());
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", JwtTokenVerifier.CACHE_NAME)
+                .tag("result", resultado)
+                .functionCounter()
+                .count();
+    }
+}
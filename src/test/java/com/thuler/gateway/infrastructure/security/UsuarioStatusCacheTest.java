@@ -0,0 +1,66 @@
+package com.thuler.gateway.infrastructure.security;
+
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UsuarioStatusCache Tests")
+class UsuarioStatusCacheTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    private UsuarioStatusCache usuarioStatusCache;
+
+    @BeforeEach
+    void setUp() {
+        usuarioStatusCache = new UsuarioStatusCache(
+                usuarioRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco apenas uma vez para o mesmo usuário")
+    void deveConsultarBancoApenasUmaVez() {
+        when(usuarioRepository.findActiveById(1L)).thenReturn(Optional.of(true));
+
+        assertTrue(usuarioStatusCache.isAtivo(1L));
+        assertTrue(usuarioStatusCache.isAtivo(1L));
+
+        verify(usuarioRepository, times(1)).findActiveById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve recarregar o status após invalidação")
+    void deveRecarregarStatusAposInvalidacao() {
+        when(usuarioRepository.findActiveById(1L))
+                .thenReturn(Optional.of(true))
+                .thenReturn(Optional.of(false));
+
+        assertTrue(usuarioStatusCache.isAtivo(1L));
+
+        usuarioStatusCache.invalidar(1L);
+
+        assertFalse(usuarioStatusCache.isAtivo(1L));
+        verify(usuarioRepository, times(2)).findActiveById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve considerar inativo usuário inexistente")
+    void deveConsiderarInativoUsuarioInexistente() {
+        when(usuarioRepository.findActiveById(999L)).thenReturn(Optional.empty());
+
+        assertFalse(usuarioStatusCache.isAtivo(999L));
+    }
+}
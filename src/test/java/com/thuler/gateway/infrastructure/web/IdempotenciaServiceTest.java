@@ -0,0 +1,211 @@
+package com.thuler.gateway.infrastructure.web;
+
+import com.thuler.gateway.domain.model.ChaveIdempotencia;
+import com.thuler.gateway.domain.repository.ChaveIdempotenciaRepository;
+import com.thuler.gateway.infrastructure.web.IdempotenciaService.Reserva;
+import com.thuler.gateway.infrastructure.web.IdempotenciaService.Situacao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotenciaService Tests")
+class IdempotenciaServiceTest {
+
+    private static final RespostaIdempotente RESPOSTA =
+            new RespostaIdempotente("abc", 200, "application/json", null, "{\"id\":1}");
+
+    @Mock
+    private ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+
+    private IdempotenciaService idempotenciaService;
+
+    @BeforeEach
+    void setUp() {
+        idempotenciaService = new IdempotenciaService(chaveIdempotenciaRepository, new SimpleMeterRegistry(),
+                100, Duration.ofHours(24), Duration.ofSeconds(2), Duration.ofMillis(10), Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Deve reservar chave nova")
+    void deveReservarChaveNova() {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(1);
+
+        Reserva reserva = idempotenciaService.reservar(1L, "k1", "abc");
+
+        assertEquals(Situacao.NOVA, reserva.situacao());
+    }
+
+    @Test
+    @DisplayName("Deve repetir resposta concluída sem consultar o banco de novo")
+    void deveRepetirRespostaConcluidaDoCache() {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(1);
+        idempotenciaService.reservar(1L, "k1", "abc");
+        idempotenciaService.concluir(1L, "k1", RESPOSTA);
+
+        Reserva reserva = idempotenciaService.reservar(1L, "k1", "abc");
+
+        assertEquals(Situacao.REPETIDA, reserva.situacao());
+        assertEquals(RESPOSTA, reserva.resposta());
+        verify(chaveIdempotenciaRepository, times(1)).reservar(any(), any(), any(), any());
+        verify(chaveIdempotenciaRepository).concluir(1L, "k1", 200, "application/json", null, "{\"id\":1}");
+    }
+
+    @Test
+    @DisplayName("Deve repetir resposta guardada na tabela quando não está em memória")
+    void deveRepetirRespostaGuardadaNaTabela() {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(0);
+        when(chaveIdempotenciaRepository.findByUsuarioIdAndChave(1L, "k1")).thenReturn(Optional.of(
+                ChaveIdempotencia.builder()
+                        .usuarioId(1L)
+                        .chave("k1")
+                        .impressao("abc")
+                        .statusHttp(201)
+                        .contentType("application/json")
+                        .corpo("{}")
+                        .build()));
+
+        Reserva reserva = idempotenciaService.reservar(1L, "k1", "abc");
+
+        assertEquals(Situacao.REPETIDA, reserva.situacao());
+        assertEquals(201, reserva.resposta().status());
+    }
+
+    @Test
+    @DisplayName("Deve recusar a mesma chave com outra requisição")
+    void deveRecusarMesmaChaveComOutraRequisicao() {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(1);
+        idempotenciaService.reservar(1L, "k1", "abc");
+        idempotenciaService.concluir(1L, "k1", RESPOSTA);
+
+        Reserva reserva = idempotenciaService.reservar(1L, "k1", "outra");
+
+        assertEquals(Situacao.OUTRA_REQUISICAO, reserva.situacao());
+    }
+
+    @Test
+    @DisplayName("Duplicata simultânea deve esperar a primeira e repetir sua resposta")
+    void duplicataSimultaneaDeveEsperarPrimeira() throws Exception {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(1);
+        assertEquals(Situacao.NOVA, idempotenciaService.reservar(1L, "k1", "abc").situacao());
+
+        CompletableFuture<Reserva> duplicata =
+                CompletableFuture.supplyAsync(() -> idempotenciaService.reservar(1L, "k1", "abc"));
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertFalse(duplicata.isDone());
+
+        idempotenciaService.concluir(1L, "k1", RESPOSTA);
+
+        Reserva reserva = duplicata.get(1, TimeUnit.SECONDS);
+        assertEquals(Situacao.REPETIDA, reserva.situacao());
+        verify(chaveIdempotenciaRepository, times(1)).reservar(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Chave liberada deve poder ser executada de novo")
+    void chaveLiberadaDevePoderSerExecutadaDeNovo() {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(1);
+        idempotenciaService.reservar(1L, "k1", "abc");
+
+        idempotenciaService.liberar(1L, "k1");
+
+        assertEquals(Situacao.NOVA, idempotenciaService.reservar(1L, "k1", "abc").situacao());
+        verify(chaveIdempotenciaRepository).liberar(1L, "k1");
+        verify(chaveIdempotenciaRepository, never()).concluir(any(), any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve assumir apenas reservas feitas antes do prazo de abandono")
+    void deveAssumirReservasAbandonadas() {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(1);
+        LocalDateTime antes = LocalDateTime.now();
+
+        idempotenciaService.reservar(1L, "k1", "abc");
+
+        ArgumentCaptor<LocalDateTime> abandonadasAntesDe = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(chaveIdempotenciaRepository).reservar(eq(1L), eq("k1"), eq("abc"), abandonadasAntesDe.capture());
+        assertFalse(abandonadasAntesDe.getValue().isBefore(antes.minusMinutes(10)));
+        assertFalse(abandonadasAntesDe.getValue().isAfter(LocalDateTime.now().minusMinutes(10)));
+    }
+
+    @Test
+    @DisplayName("Não deve liberar a chave quando a resposta não pode ser guardada")
+    void naoDeveLiberarChaveQuandoConclusaoFalha() {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(1);
+        when(chaveIdempotenciaRepository.concluir(1L, "k1", 200, "application/json", null, "{\"id\":1}"))
+                .thenThrow(new DataAccessResourceFailureException("conexão perdida"))
+                .thenReturn(1);
+        idempotenciaService.reservar(1L, "k1", "abc");
+
+        idempotenciaService.concluir(1L, "k1", RESPOSTA);
+
+        verify(chaveIdempotenciaRepository, times(2))
+                .concluir(1L, "k1", 200, "application/json", null, "{\"id\":1}");
+        verify(chaveIdempotenciaRepository, never()).liberar(any(), any());
+        assertEquals(Situacao.REPETIDA, idempotenciaService.reservar(1L, "k1", "abc").situacao());
+    }
+
+    @Test
+    @DisplayName("Deve manter a reserva e repetir a resposta local quando todas as gravações falham")
+    void deveManterReservaQuandoTodasAsGravacoesFalham() {
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(1);
+        when(chaveIdempotenciaRepository.concluir(any(), any(), anyInt(), any(), any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("conexão perdida"));
+        idempotenciaService.reservar(1L, "k1", "abc");
+
+        assertDoesNotThrow(() -> idempotenciaService.concluir(1L, "k1", RESPOSTA));
+
+        verify(chaveIdempotenciaRepository, times(3)).concluir(any(), any(), anyInt(), any(), any(), any());
+        verify(chaveIdempotenciaRepository, never()).liberar(any(), any());
+        Reserva reserva = idempotenciaService.reservar(1L, "k1", "abc");
+        assertEquals(Situacao.REPETIDA, reserva.situacao());
+        assertEquals(RESPOSTA, reserva.resposta());
+    }
+
+    @Test
+    @DisplayName("Deve desistir quando a primeira execução em outra instância não termina a tempo")
+    void deveDesistirQuandoOutraInstanciaNaoTermina() {
+        idempotenciaService = new IdempotenciaService(chaveIdempotenciaRepository, new SimpleMeterRegistry(),
+                100, Duration.ofHours(24), Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofMinutes(10));
+
+        when(chaveIdempotenciaRepository.reservar(eq(1L), eq("k1"), eq("abc"), any())).thenReturn(0);
+        when(chaveIdempotenciaRepository.findByUsuarioIdAndChave(1L, "k1")).thenReturn(Optional.of(
+                ChaveIdempotencia.builder().usuarioId(1L).chave("k1").impressao("abc").build()));
+
+        Reserva reserva = idempotenciaService.reservar(1L, "k1", "abc");
+
+        assertEquals(Situacao.EM_PROCESSAMENTO, reserva.situacao());
+        verify(chaveIdempotenciaRepository, atLeast(2)).findByUsuarioIdAndChave(1L, "k1");
+    }
+
+    @Test
+    @DisplayName("Não deve guardar respostas de erros transitórios")
+    void naoDeveGuardarRespostasDeErrosTransitorios() {
+        assertTrue(IdempotenciaService.armazenavel(200));
+        assertTrue(IdempotenciaService.armazenavel(202));
+        assertTrue(IdempotenciaService.armazenavel(400));
+        assertTrue(IdempotenciaService.armazenavel(422));
+        assertFalse(IdempotenciaService.armazenavel(409));
+        assertFalse(IdempotenciaService.armazenavel(429));
+        assertFalse(IdempotenciaService.armazenavel(503));
+    }
+}
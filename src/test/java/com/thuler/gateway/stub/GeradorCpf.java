@@ -0,0 +1,38 @@
+package com.thuler.gateway.stub;
+
+/**
+ * CPFs válidos e distintos para massas de teste.
+ */
+public final class GeradorCpf {
+
+    private GeradorCpf() {
+    }
+
+    public static String gerar(int seed) {
+        return gerar(100000000, seed);
+    }
+
+    /**
+     * @param inicio base de 9 dígitos do primeiro CPF; massas diferentes usam inícios diferentes para não colidir
+     */
+    public static String gerar(int inicio, int seed) {
+        String base = String.format("%09d", inicio + seed * 7919);
+        int[] digitos = new int[11];
+        for (int i = 0; i < 9; i++) {
+            digitos[i] = base.charAt(i) - '0';
+        }
+        for (int posicao = 9; posicao < 11; posicao++) {
+            int soma = 0;
+            for (int i = 0; i < posicao; i++) {
+                soma += digitos[i] * (posicao + 1 - i);
+            }
+            int resto = soma % 11;
+            digitos[posicao] = resto < 2 ? 0 : 11 - resto;
+        }
+        StringBuilder cpf = new StringBuilder();
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+}
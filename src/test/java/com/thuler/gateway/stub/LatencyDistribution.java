@@ -0,0 +1,52 @@
+package com.thuler.gateway.stub;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Distribuição de latência do autorizador simulado.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    Duration amostrar(Random random);
+
+    static LatencyDistribution nenhuma() {
+        return fixa(Duration.ZERO);
+    }
+
+    static LatencyDistribution fixa(Duration latencia) {
+        return random -> latencia;
+    }
+
+    static LatencyDistribution normal(Duration media, Duration desvioPadrao) {
+        return random -> {
+            double nanos = media.toNanos() + random.nextGaussian() * desvioPadrao.toNanos();
+            return Duration.ofNanos(Math.max(0, (long) nanos));
+        };
+    }
+
+    /**
+     * Log-normal: a maioria das respostas fica perto da mediana e uma cauda longa bem mais lenta.
+     * Com sigma = 1 o p99 fica em torno de 10x a mediana.
+     */
+    static LatencyDistribution caudaLonga(Duration mediana, double sigma) {
+        double logMediana = Math.log(Math.max(1, mediana.toNanos()));
+        return random -> Duration.ofNanos((long) Math.exp(logMediana + sigma * random.nextGaussian()));
+    }
+
+    /**
+     * Formatos aceitos: {@code fixa:20}, {@code normal:20:5}, {@code cauda-longa:20:1.0} (valores em ms).
+     */
+    static LatencyDistribution parse(String valor) {
+        String[] partes = valor.split(":");
+        return switch (partes[0]) {
+            case "nenhuma" -> nenhuma();
+            case "fixa" -> fixa(Duration.ofMillis(Long.parseLong(partes[1])));
+            case "normal" -> normal(Duration.ofMillis(Long.parseLong(partes[1])), Duration.ofMillis(Long.parseLong(partes[2])));
+            case "cauda-longa" -> caudaLonga(Duration.ofMillis(Long.parseLong(partes[1])),
+                    partes.length > 2 ? Double.parseDouble(partes[2]) : 1.0);
+            default -> throw new IllegalArgumentException("Distribuição de latência desconhecida: " + valor);
+        };
+    }
+}
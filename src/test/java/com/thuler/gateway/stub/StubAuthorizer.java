@@ -0,0 +1,346 @@
+package com.thuler.gateway.stub;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Autorizador simulado para testes de carga e de resiliência do AuthorizerClient sem rede externa.
+ * <p>
+ * Servidor HTTP/1.1 mínimo sobre sockets (keep-alive, uma thread virtual por conexão) que responde
+ * qualquer GET com o mesmo JSON do autorizador real. O {@link Perfil} controla latência, negações
+ * (403 com {@code authorized=false}), erros 5xx, conexões resetadas (RST) e corpos enviados devagar.
+ * Com a mesma semente a sequência de sorteios é reproduzível.
+ * <p>
+ * Uso em teste: {@code try (StubAuthorizer stub = StubAuthorizer.iniciar(Perfil.padrao())) { stub.url() ... }}
+ * <br>
+ * Standalone: {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.thuler.gateway.stub.StubAuthorizer
+ * -Dexec.args="porta=8081 latencia=cauda-longa:20:1.0 negacao=0.05 erro5xx=0.01 reset=0.01 corpo-lento=0.02:200"}
+ */
+public final class StubAuthorizer implements AutoCloseable {
+
+    private static final byte[] AUTORIZADO =
+            "{\"status\":\"success\",\"data\":{\"authorized\":true}}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEGADO =
+            "{\"status\":\"fail\",\"data\":{\"authorized\":false}}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERRO =
+            "{\"status\":\"error\",\"message\":\"Internal Server Error\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> conexoesAbertas = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requisicoes = new AtomicLong();
+    private final AtomicLong conexoesAceitas = new AtomicLong();
+
+    private volatile Perfil perfil;
+    private volatile Random random;
+    private volatile boolean fechado;
+
+    private StubAuthorizer(ServerSocket serverSocket, Perfil perfil) {
+        this.serverSocket = serverSocket;
+        setPerfil(perfil);
+        executor.execute(this::aceitarConexoes);
+    }
+
+    public static StubAuthorizer iniciar(Perfil perfil) throws IOException {
+        return iniciar(0, perfil);
+    }
+
+    public static StubAuthorizer iniciar(int porta, Perfil perfil) throws IOException {
+        ServerSocket serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 1024);
+        return new StubAuthorizer(serverSocket, perfil);
+    }
+
+    public String url() {
+        return "http://localhost:" + getPorta() + "/mock-authorizer";
+    }
+
+    public int getPorta() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Troca o perfil em tempo de execução (ex.: simular uma degradação no meio do teste).
+     */
+    public void setPerfil(Perfil perfil) {
+        this.perfil = perfil;
+        this.random = new Random(perfil.semente());
+    }
+
+    public long getRequisicoes() {
+        return requisicoes.get();
+    }
+
+    public long getConexoesAceitas() {
+        return conexoesAceitas.get();
+    }
+
+    @Override
+    public void close() {
+        fechado = true;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // já fechado
+        }
+        conexoesAbertas.forEach(StubAuthorizer::fecharSilenciosamente);
+        executor.shutdownNow();
+    }
+
+    private void aceitarConexoes() {
+        while (!fechado) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                conexoesAceitas.incrementAndGet();
+                conexoesAbertas.add(socket);
+                executor.execute(() -> atender(socket));
+            } catch (IOException e) {
+                if (!fechado) {
+                    System.err.println("StubAuthorizer: erro ao aceitar conexão: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+
+            while (!fechado) {
+                Requisicao requisicao = lerRequisicao(in);
+                if (requisicao == null) {
+                    return;
+                }
+                requisicoes.incrementAndGet();
+
+                Perfil atual = perfil;
+                Random sorteio = random;
+                Resultado resultado = atual.sortear(sorteio);
+                dormir(atual.latencia().amostrar(sorteio));
+
+                if (resultado == Resultado.RESET) {
+                    // SO_LINGER 0 faz o close enviar RST em vez de FIN
+                    socket.setSoLinger(true, 0);
+                    return;
+                }
+
+                boolean corpoLento = sorteio.nextDouble() < atual.taxaCorpoLento();
+                responder(out, resultado, corpoLento ? atual.atrasoCorpoLento() : Duration.ZERO, requisicao.fecharConexao());
+
+                if (requisicao.fecharConexao()) {
+                    return;
+                }
+            }
+        } catch (SocketException e) {
+            // cliente fechou a conexão ou o stub está sendo encerrado
+        } catch (IOException e) {
+            if (!fechado) {
+                System.err.println("StubAuthorizer: erro na conexão: " + e.getMessage());
+            }
+        } finally {
+            conexoesAbertas.remove(socket);
+        }
+    }
+
+    private static void responder(OutputStream out, Resultado resultado, Duration atrasoCorpo, boolean fecharConexao)
+            throws IOException {
+
+        byte[] corpo = switch (resultado) {
+            case AUTORIZADO -> AUTORIZADO;
+            case NEGADO -> NEGADO;
+            default -> ERRO;
+        };
+        String statusLine = switch (resultado) {
+            case AUTORIZADO -> "HTTP/1.1 200 OK";
+            case NEGADO -> "HTTP/1.1 403 Forbidden";
+            default -> "HTTP/1.1 500 Internal Server Error";
+        };
+
+        String cabecalho = statusLine + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + corpo.length + "\r\n"
+                + "Connection: " + (fecharConexao ? "close" : "keep-alive") + "\r\n"
+                + "\r\n";
+        out.write(cabecalho.getBytes(StandardCharsets.ISO_8859_1));
+
+        if (atrasoCorpo.isZero()) {
+            out.write(corpo);
+        } else {
+            // Envia o corpo em pedaços espalhados pelo atraso configurado
+            int pedacos = Math.min(corpo.length, 10);
+            int tamanho = (corpo.length + pedacos - 1) / pedacos;
+            Duration intervalo = atrasoCorpo.dividedBy(pedacos);
+            for (int inicio = 0; inicio < corpo.length; inicio += tamanho) {
+                out.write(corpo, inicio, Math.min(tamanho, corpo.length - inicio));
+                out.flush();
+                dormir(intervalo);
+            }
+        }
+        out.flush();
+    }
+
+    private static Requisicao lerRequisicao(InputStream in) throws IOException {
+        String linhaInicial = lerLinha(in);
+        if (linhaInicial == null || linhaInicial.isEmpty()) {
+            return null;
+        }
+
+        long contentLength = 0;
+        boolean fecharConexao = linhaInicial.endsWith("HTTP/1.0");
+        String header;
+        while ((header = lerLinha(in)) != null && !header.isEmpty()) {
+            String minusculo = header.toLowerCase(Locale.ROOT);
+            if (minusculo.startsWith("content-length:")) {
+                contentLength = Long.parseLong(header.substring(15).trim());
+            } else if (minusculo.startsWith("connection:")) {
+                fecharConexao = minusculo.contains("close");
+            }
+        }
+        if (header == null) {
+            return null;
+        }
+
+        in.skipNBytes(contentLength);
+        return new Requisicao(linhaInicial, fecharConexao);
+    }
+
+    private static String lerLinha(InputStream in) throws IOException {
+        ByteArrayOutputStream linha = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                String texto = linha.toString(StandardCharsets.ISO_8859_1);
+                return texto.endsWith("\r") ? texto.substring(0, texto.length() - 1) : texto;
+            }
+            linha.write(b);
+        }
+        return linha.size() == 0 ? null : linha.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void dormir(Duration duracao) {
+        if (duracao.isZero() || duracao.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duracao);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void fecharSilenciosamente(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // nada a fazer
+        }
+    }
+
+    private record Requisicao(String linhaInicial, boolean fecharConexao) {
+    }
+
+    enum Resultado { AUTORIZADO, NEGADO, ERRO_5XX, RESET }
+
+    /**
+     * Perfil de comportamento do autorizador. As taxas são probabilidades entre 0 e 1.
+     */
+    public record Perfil(LatencyDistribution latencia,
+                         double taxaNegacao,
+                         double taxaErro5xx,
+                         double taxaReset,
+                         double taxaCorpoLento,
+                         Duration atrasoCorpoLento,
+                         long semente) {
+
+        public static Perfil padrao() {
+            return new Perfil(LatencyDistribution.nenhuma(), 0, 0, 0, 0, Duration.ZERO, 42L);
+        }
+
+        public Perfil comLatencia(LatencyDistribution latencia) {
+            return new Perfil(latencia, taxaNegacao, taxaErro5xx, taxaReset, taxaCorpoLento, atrasoCorpoLento, semente);
+        }
+
+        public Perfil comNegacao(double taxa) {
+            return new Perfil(latencia, taxa, taxaErro5xx, taxaReset, taxaCorpoLento, atrasoCorpoLento, semente);
+        }
+
+        public Perfil comErro5xx(double taxa) {
+            return new Perfil(latencia, taxaNegacao, taxa, taxaReset, taxaCorpoLento, atrasoCorpoLento, semente);
+        }
+
+        public Perfil comReset(double taxa) {
+            return new Perfil(latencia, taxaNegacao, taxaErro5xx, taxa, taxaCorpoLento, atrasoCorpoLento, semente);
+        }
+
+        public Perfil comCorpoLento(double taxa, Duration atraso) {
+            return new Perfil(latencia, taxaNegacao, taxaErro5xx, taxaReset, taxa, atraso, semente);
+        }
+
+        public Perfil comSemente(long semente) {
+            return new Perfil(latencia, taxaNegacao, taxaErro5xx, taxaReset, taxaCorpoLento, atrasoCorpoLento, semente);
+        }
+
+        Resultado sortear(Random random) {
+            double valor = random.nextDouble();
+            if (valor < taxaReset) {
+                return Resultado.RESET;
+            }
+            if (valor < taxaReset + taxaErro5xx) {
+                return Resultado.ERRO_5XX;
+            }
+            if (valor < taxaReset + taxaErro5xx + taxaNegacao) {
+                return Resultado.NEGADO;
+            }
+            return Resultado.AUTORIZADO;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int porta = 8081;
+        Perfil perfil = Perfil.padrao();
+
+        for (String arg : args) {
+            String[] chaveValor = arg.split("=", 2);
+            String valor = chaveValor.length > 1 ? chaveValor[1] : "";
+            switch (chaveValor[0]) {
+                case "porta" -> porta = Integer.parseInt(valor);
+                case "latencia" -> perfil = perfil.comLatencia(LatencyDistribution.parse(valor));
+                case "negacao" -> perfil = perfil.comNegacao(Double.parseDouble(valor));
+                case "erro5xx" -> perfil = perfil.comErro5xx(Double.parseDouble(valor));
+                case "reset" -> perfil = perfil.comReset(Double.parseDouble(valor));
+                case "corpo-lento" -> {
+                    String[] partes = valor.split(":");
+                    perfil = perfil.comCorpoLento(Double.parseDouble(partes[0]), Duration.ofMillis(Long.parseLong(partes[1])));
+                }
+                case "semente" -> perfil = perfil.comSemente(Long.parseLong(valor));
+                default -> throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+            }
+        }
+
+        StubAuthorizer stub = StubAuthorizer.iniciar(porta, perfil);
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        System.out.println("StubAuthorizer ouvindo em " + stub.url() + " com " + perfil);
+        Thread.currentThread().join();
+    }
+}
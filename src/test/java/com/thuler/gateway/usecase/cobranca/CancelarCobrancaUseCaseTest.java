@@ -2,12 +2,17 @@ package com.thuler.gateway.usecase.cobranca;
 
 import com.thuler.gateway.dto.response.CobrancaResponse;
 import com.thuler.gateway.domain.model.Cobranca;
-import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.LiquidacaoCartao;
 import com.thuler.gateway.domain.model.Usuario;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.StatusLiquidacao;
+import com.thuler.gateway.domain.enums.TipoLancamento;
 import com.thuler.gateway.domain.enums.TipoPagamento;
 import com.thuler.gateway.domain.repository.CobrancaRepository;
 import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.LiquidacaoCartaoRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.service.RetentativaOtimista;
 import com.thuler.gateway.domain.valueobject.CPF;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
@@ -17,13 +22,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,16 +47,24 @@ class CancelarCobrancaUseCaseTest {
     @Mock
     private ContaRepository contaRepository;
 
+    @Mock
+    private LiquidacaoCartaoRepository liquidacaoCartaoRepository;
+
+    @Mock
+    private LancamentoService lancamentoService;
+
     @Mock
     private AuthorizerClient authorizerClient;
 
+    @Spy
+    private RetentativaOtimista retentativaOtimista = new RetentativaOtimista(
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), 3, Duration.ZERO);
+
     @InjectMocks
     private CancelarCobrancaUseCase cancelarCobrancaUseCase;
 
     private Usuario originador;
     private Usuario destinatario;
-    private Conta contaOriginador;
-    private Conta contaDestinatario;
     private Cobranca cobranca;
 
     @BeforeEach
@@ -64,18 +83,6 @@ class CancelarCobrancaUseCaseTest {
                 .email("maria@example.com")
                 .build();
 
-        contaOriginador = Conta.builder()
-                .id(1L)
-                .usuario(originador)
-                .saldo(BigDecimal.valueOf(500))
-                .build();
-
-        contaDestinatario = Conta.builder()
-                .id(2L)
-                .usuario(destinatario)
-                .saldo(BigDecimal.valueOf(1000))
-                .build();
-
         cobranca = Cobranca.builder()
                 .id(1L)
                 .originador(originador)
@@ -99,16 +106,46 @@ class CancelarCobrancaUseCaseTest {
                 .status(CobrancaStatus.CANCELADA)
                 .build();
 
-        when(cobrancaRepository.save(any(Cobranca.class))).thenReturn(cobrancaCancelada);
+        when(cobrancaRepository.saveAndFlush(any(Cobranca.class))).thenReturn(cobrancaCancelada);
 
         CobrancaResponse response = cancelarCobrancaUseCase.execute(1L, 1L);
 
         assertNotNull(response);
         assertEquals(CobrancaStatus.CANCELADA, response.getStatus());
 
-        verify(cobrancaRepository).findById(1L);
-        verify(cobrancaRepository).save(any(Cobranca.class));
-        verify(contaRepository, never()).save(any());
+        // Uma leitura para validar e outra dentro da transação, antes de gravar
+        verify(cobrancaRepository, times(2)).findById(1L);
+        verify(cobrancaRepository).saveAndFlush(any(Cobranca.class));
+        verifyNoInteractions(lancamentoService);
+    }
+
+    @Test
+    @DisplayName("Deve recusar cancelamento quando a cobrança for paga em paralelo")
+    void deveRecusarCancelamentoQuandoCobrancaForPagaEmParalelo() {
+        Cobranca cobrancaPagaEmParalelo = Cobranca.builder()
+                .id(1L)
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .status(CobrancaStatus.PENDENTE)
+                .build();
+        cobrancaPagaEmParalelo.marcarComoPaga(TipoPagamento.SALDO, null, "PAGAMENTO_SALDO");
+
+        when(cobrancaRepository.findById(1L))
+                .thenReturn(Optional.of(cobranca), Optional.of(cobranca), Optional.of(cobrancaPagaEmParalelo));
+        // O pagamento gravou primeiro: a versão lida pelo cancelamento ficou obsoleta
+        when(cobrancaRepository.saveAndFlush(any(Cobranca.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Cobranca.class, 1L));
+
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> cancelarCobrancaUseCase.execute(1L, 1L)
+        );
+
+        assertEquals("Cobrança foi alterada durante o cancelamento, tente novamente", exception.getMessage());
+        verify(retentativaOtimista).executar(any());
+        verify(cobrancaRepository, times(1)).saveAndFlush(any(Cobranca.class));
+        verifyNoInteractions(lancamentoService);
     }
 
     @Test
@@ -117,8 +154,10 @@ class CancelarCobrancaUseCaseTest {
         cobranca.marcarComoPaga(TipoPagamento.SALDO, null, "PAGAMENTO_SALDO");
 
         when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
-        when(contaRepository.findByUsuarioId(2L)).thenReturn(Optional.of(contaDestinatario));
-        when(contaRepository.findByUsuarioId(1L)).thenReturn(Optional.of(contaOriginador));
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.of(2L));
+        when(contaRepository.findIdByUsuarioId(1L)).thenReturn(Optional.of(1L));
+        when(lancamentoService.transferir(1L, 2L, BigDecimal.valueOf(100),
+                TipoLancamento.ESTORNO_ENVIADO, TipoLancamento.ESTORNO_RECEBIDO, cobranca)).thenReturn(true);
 
         Cobranca cobrancaCancelada = Cobranca.builder()
                 .id(1L)
@@ -128,21 +167,20 @@ class CancelarCobrancaUseCaseTest {
                 .status(CobrancaStatus.CANCELADA)
                 .build();
 
-        when(cobrancaRepository.save(any(Cobranca.class))).thenReturn(cobrancaCancelada);
+        when(cobrancaRepository.saveAndFlush(any(Cobranca.class))).thenReturn(cobrancaCancelada);
 
         CobrancaResponse response = cancelarCobrancaUseCase.execute(1L, 1L);
 
         assertNotNull(response);
         assertEquals(CobrancaStatus.CANCELADA, response.getStatus());
 
-        verify(contaRepository).findByUsuarioId(2L);
-        verify(contaRepository).findByUsuarioId(1L);
-        verify(contaRepository, times(2)).save(any(Conta.class));
-        verify(cobrancaRepository).save(any(Cobranca.class));
+        verify(lancamentoService).transferir(1L, 2L, BigDecimal.valueOf(100),
+                TipoLancamento.ESTORNO_ENVIADO, TipoLancamento.ESTORNO_RECEBIDO, cobranca);
+        verify(cobrancaRepository).saveAndFlush(any(Cobranca.class));
     }
 
     @Test
-    @DisplayName("Deve cancelar cobrança paga com cartão quando autorizado")
+    @DisplayName("Deve cancelar cobrança paga com cartão já liquidada, debitando o recebedor")
     void deveCancelarCobrancaPagaComCartaoQuandoAutorizado() {
         cobranca.marcarComoPaga(TipoPagamento.CARTAO_CREDITO, "1234", "APPROVED");
 
@@ -152,7 +190,14 @@ class CancelarCobrancaUseCaseTest {
 
         when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
         when(authorizerClient.authorize()).thenReturn(authorizerResponse);
-        when(contaRepository.findByUsuarioId(1L)).thenReturn(Optional.of(contaOriginador));
+        when(liquidacaoCartaoRepository.travarPorCobrancaId(1L)).thenReturn(Optional.of(LiquidacaoCartao.builder()
+                .cobranca(cobranca)
+                .valor(BigDecimal.valueOf(100))
+                .status(StatusLiquidacao.LIQUIDADA)
+                .build()));
+        when(contaRepository.findIdByUsuarioId(1L)).thenReturn(Optional.of(1L));
+        when(lancamentoService.debitar(1L, BigDecimal.valueOf(100), TipoLancamento.ESTORNO_ENVIADO, cobranca))
+                .thenReturn(true);
 
         Cobranca cobrancaCancelada = Cobranca.builder()
                 .id(1L)
@@ -162,7 +207,7 @@ class CancelarCobrancaUseCaseTest {
                 .status(CobrancaStatus.CANCELADA)
                 .build();
 
-        when(cobrancaRepository.save(any(Cobranca.class))).thenReturn(cobrancaCancelada);
+        when(cobrancaRepository.saveAndFlush(any(Cobranca.class))).thenReturn(cobrancaCancelada);
 
         CobrancaResponse response = cancelarCobrancaUseCase.execute(1L, 1L);
 
@@ -170,8 +215,35 @@ class CancelarCobrancaUseCaseTest {
         assertEquals(CobrancaStatus.CANCELADA, response.getStatus());
 
         verify(authorizerClient).authorize();
-        verify(contaRepository).save(any(Conta.class));
-        verify(cobrancaRepository).save(any(Cobranca.class));
+        verify(lancamentoService).debitar(1L, BigDecimal.valueOf(100), TipoLancamento.ESTORNO_ENVIADO, cobranca);
+        verify(cobrancaRepository).saveAndFlush(any(Cobranca.class));
+        verify(liquidacaoCartaoRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve cancelar cobrança paga com cartão ainda não liquidada sem debitar o recebedor")
+    void deveCancelarCobrancaPagaComCartaoAindaNaoLiquidada() {
+        cobranca.marcarComoPaga(TipoPagamento.CARTAO_CREDITO, "1234", "APPROVED");
+        LiquidacaoCartao liquidacao = LiquidacaoCartao.builder()
+                .cobranca(cobranca)
+                .valor(BigDecimal.valueOf(100))
+                .build();
+
+        AuthorizerResponse authorizerResponse = new AuthorizerResponse();
+        authorizerResponse.setStatus("APPROVED");
+        authorizerResponse.setData(new AuthorizerResponse.AuthorizerData(true));
+
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
+        when(authorizerClient.authorize()).thenReturn(authorizerResponse);
+        when(liquidacaoCartaoRepository.travarPorCobrancaId(1L)).thenReturn(Optional.of(liquidacao));
+        when(cobrancaRepository.saveAndFlush(any(Cobranca.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CobrancaResponse response = cancelarCobrancaUseCase.execute(1L, 1L);
+
+        assertEquals(CobrancaStatus.CANCELADA, response.getStatus());
+        assertEquals(StatusLiquidacao.CANCELADA, liquidacao.getStatus());
+        verify(liquidacaoCartaoRepository).save(liquidacao);
+        verifyNoInteractions(lancamentoService);
     }
 
     @Test
@@ -193,7 +265,23 @@ class CancelarCobrancaUseCaseTest {
 
         assertEquals("Cancelamento não autorizado pelo autorizador externo", exception.getMessage());
         verify(authorizerClient).authorize();
-        verify(cobrancaRepository, never()).save(any());
+        verify(cobrancaRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao tentar cancelar cobrança expirada")
+    void deveLancarExcecaoAoTentarCancelarCobrancaExpirada() {
+        cobranca.setStatus(CobrancaStatus.EXPIRADA);
+
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
+
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> cancelarCobrancaUseCase.execute(1L, 1L)
+        );
+
+        assertEquals("Cobrança expirada não pode ser cancelada", exception.getMessage());
+        verifyNoInteractions(authorizerClient, lancamentoService, retentativaOtimista);
     }
 
     @Test
@@ -207,7 +295,7 @@ class CancelarCobrancaUseCaseTest {
         );
 
         assertEquals("Apenas o originador pode cancelar esta cobrança", exception.getMessage());
-        verify(cobrancaRepository, never()).save(any());
+        verify(cobrancaRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -242,11 +330,12 @@ class CancelarCobrancaUseCaseTest {
     @DisplayName("Deve lançar exceção quando recebedor não tem saldo para estorno")
     void deveLancarExcecaoQuandoRecebedorNaoTemSaldoParaEstorno() {
         cobranca.marcarComoPaga(TipoPagamento.SALDO, null, "PAGAMENTO_SALDO");
-        contaOriginador.setSaldo(BigDecimal.valueOf(50)); // Saldo menor que o valor a estornar
 
         when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
-        when(contaRepository.findByUsuarioId(2L)).thenReturn(Optional.of(contaDestinatario));
-        when(contaRepository.findByUsuarioId(1L)).thenReturn(Optional.of(contaOriginador));
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.of(2L));
+        when(contaRepository.findIdByUsuarioId(1L)).thenReturn(Optional.of(1L));
+        // Saldo do recebedor menor que o valor a estornar
+        when(lancamentoService.transferir(eq(1L), eq(2L), any(), any(), any(), any())).thenReturn(false);
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(
@@ -255,5 +344,6 @@ class CancelarCobrancaUseCaseTest {
         );
 
         assertEquals("Recebedor não possui saldo suficiente para estorno", exception.getMessage());
+        verify(cobrancaRepository, never()).saveAndFlush(any());
     }
 }
\ No newline at end of file
@@ -1,142 +1,146 @@
 package com.thuler.gateway.usecase.cobranca;
 
 import com.thuler.gateway.dto.response.CobrancaResponse;
-import com.thuler.gateway.domain.model.Cobranca;
-import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.dto.response.PaginaCobrancasResponse;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
 import com.thuler.gateway.domain.repository.CobrancaRepository;
-import com.thuler.gateway.domain.valueobject.CPF;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("ConsultarCobrancasUseCase Tests")
 class ConsultarCobrancasUseCaseTest {
 
+    private static final List<CobrancaStatus> TODOS_STATUS = List.of(CobrancaStatus.values());
+
     @Mock
     private CobrancaRepository cobrancaRepository;
 
-    @InjectMocks
     private ConsultarCobrancasUseCase consultarCobrancasUseCase;
 
-    private Usuario originador;
-    private Usuario destinatario;
-
     @BeforeEach
     void setUp() {
-        originador = Usuario.builder()
-                .id(1L)
-                .nome("João Silva")
-                .cpf(CPF.of("12345678909"))
-                .email("joao@example.com")
-                .build();
-
-        destinatario = Usuario.builder()
-                .id(2L)
-                .nome("Maria Santos")
-                .cpf(CPF.of("98765432100"))
-                .email("maria@example.com")
-                .build();
+        consultarCobrancasUseCase = new ConsultarCobrancasUseCase(cobrancaRepository, 2, 3);
     }
 
     @Test
-    @DisplayName("Deve consultar cobranças enviadas sem filtro de status")
+    @DisplayName("Deve consultar a primeira página de cobranças enviadas sem filtro de status")
     void deveConsultarCobrancasEnviadasSemFiltro() {
-        List<Cobranca> cobrancas = Arrays.asList(
-                Cobranca.builder()
-                        .id(1L)
-                        .originador(originador)
-                        .destinatario(destinatario)
-                        .valor(BigDecimal.valueOf(100))
-                        .status(CobrancaStatus.PENDENTE)
-                        .build(),
-                Cobranca.builder()
-                        .id(2L)
-                        .originador(originador)
-                        .destinatario(destinatario)
-                        .valor(BigDecimal.valueOf(200))
-                        .status(CobrancaStatus.PAGA)
-                        .build()
-        );
-
-        when(cobrancaRepository.findByOriginadorId(1L)).thenReturn(cobrancas);
-
-        List<CobrancaResponse> responses = consultarCobrancasUseCase.consultarCobrancasEnviadas(1L, null);
-
-        assertNotNull(responses);
-        assertEquals(2, responses.size());
-        verify(cobrancaRepository).findByOriginadorId(1L);
-        verify(cobrancaRepository, never()).findByOriginadorIdAndStatus(any(), any());
+        List<CobrancaResponse> cobrancas = List.of(
+                cobranca(2L, CobrancaStatus.PAGA, LocalDateTime.of(2026, 1, 2, 10, 0)),
+                cobranca(1L, CobrancaStatus.PENDENTE, LocalDateTime.of(2026, 1, 1, 10, 0)));
+        when(cobrancaRepository.findEnviadas(1L, TODOS_STATUS, PageRequest.ofSize(2)))
+                .thenReturn(new SliceImpl<>(cobrancas, PageRequest.ofSize(2), false));
+
+        PaginaCobrancasResponse response = consultarCobrancasUseCase.consultarCobrancasEnviadas(1L, null, null, null);
+
+        assertEquals(2, response.getCobrancas().size());
+        assertEquals(2L, response.getCobrancas().get(0).getId());
+        assertNull(response.getProximoCursor());
+        verify(cobrancaRepository, never()).findEnviadasApos(any(), any(), any(), any(), any());
     }
 
     @Test
     @DisplayName("Deve consultar cobranças enviadas com filtro de status")
     void deveConsultarCobrancasEnviadasComFiltro() {
-        List<Cobranca> cobrancas = Collections.singletonList(
-                Cobranca.builder()
-                        .id(1L)
-                        .originador(originador)
-                        .destinatario(destinatario)
-                        .valor(BigDecimal.valueOf(100))
-                        .status(CobrancaStatus.PENDENTE)
-                        .build()
-        );
-
-        when(cobrancaRepository.findByOriginadorIdAndStatus(1L, CobrancaStatus.PENDENTE))
-                .thenReturn(cobrancas);
-
-        List<CobrancaResponse> responses = consultarCobrancasUseCase
-                .consultarCobrancasEnviadas(1L, CobrancaStatus.PENDENTE);
-
-        assertNotNull(responses);
-        assertEquals(1, responses.size());
-        assertEquals(CobrancaStatus.PENDENTE, responses.get(0).getStatus());
-        verify(cobrancaRepository).findByOriginadorIdAndStatus(1L, CobrancaStatus.PENDENTE);
+        List<CobrancaResponse> cobrancas = List.of(
+                cobranca(1L, CobrancaStatus.PENDENTE, LocalDateTime.of(2026, 1, 1, 10, 0)));
+        when(cobrancaRepository.findEnviadas(1L, List.of(CobrancaStatus.PENDENTE), PageRequest.ofSize(2)))
+                .thenReturn(new SliceImpl<>(cobrancas, PageRequest.ofSize(2), false));
+
+        PaginaCobrancasResponse response = consultarCobrancasUseCase
+                .consultarCobrancasEnviadas(1L, CobrancaStatus.PENDENTE, null, null);
+
+        assertEquals(1, response.getCobrancas().size());
+        assertEquals(CobrancaStatus.PENDENTE, response.getCobrancas().get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("Deve devolver cursor da última cobrança e continuar a partir dele")
+    void deveContinuarPeloCursor() {
+        LocalDateTime criadaEm = LocalDateTime.of(2026, 1, 2, 10, 0, 0, 123456000);
+        List<CobrancaResponse> primeiraPagina = List.of(
+                cobranca(3L, CobrancaStatus.PENDENTE, criadaEm.plusHours(1)),
+                cobranca(2L, CobrancaStatus.PENDENTE, criadaEm));
+        when(cobrancaRepository.findRecebidas(2L, TODOS_STATUS, PageRequest.ofSize(2)))
+                .thenReturn(new SliceImpl<>(primeiraPagina, PageRequest.ofSize(2), true));
+        when(cobrancaRepository.findRecebidasApos(2L, TODOS_STATUS, criadaEm, 2L, PageRequest.ofSize(2)))
+                .thenReturn(new SliceImpl<>(List.of(cobranca(1L, CobrancaStatus.PAGA, criadaEm)),
+                        PageRequest.ofSize(2), false));
+
+        PaginaCobrancasResponse pagina1 = consultarCobrancasUseCase.consultarCobrancasRecebidas(2L, null, null, null);
+        assertNotNull(pagina1.getProximoCursor());
+
+        PaginaCobrancasResponse pagina2 = consultarCobrancasUseCase
+                .consultarCobrancasRecebidas(2L, null, pagina1.getProximoCursor(), null);
+
+        assertEquals(1, pagina2.getCobrancas().size());
+        assertEquals(1L, pagina2.getCobrancas().get(0).getId());
+        assertNull(pagina2.getProximoCursor());
     }
 
     @Test
-    @DisplayName("Deve consultar cobranças recebidas sem filtro de status")
-    void deveConsultarCobrancasRecebidasSemFiltro() {
-        List<Cobranca> cobrancas = Arrays.asList(
-                Cobranca.builder()
-                        .id(1L)
-                        .originador(originador)
-                        .destinatario(destinatario)
-                        .valor(BigDecimal.valueOf(100))
-                        .status(CobrancaStatus.PENDENTE)
-                        .build()
-        );
-
-        when(cobrancaRepository.findByDestinatarioId(2L)).thenReturn(cobrancas);
-
-        List<CobrancaResponse> responses = consultarCobrancasUseCase.consultarCobrancasRecebidas(2L, null);
-
-        assertNotNull(responses);
-        assertEquals(1, responses.size());
-        verify(cobrancaRepository).findByDestinatarioId(2L);
+    @DisplayName("Deve limitar o tamanho da página ao máximo configurado")
+    void deveLimitarTamanhoDaPagina() {
+        when(cobrancaRepository.findEnviadas(1L, TODOS_STATUS, PageRequest.ofSize(3)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        consultarCobrancasUseCase.consultarCobrancasEnviadas(1L, null, null, 1000);
+
+        verify(cobrancaRepository).findEnviadas(1L, TODOS_STATUS, PageRequest.ofSize(3));
+    }
+
+    @Test
+    @DisplayName("Deve recusar cursor inválido e limite não positivo")
+    void deveRecusarCursorOuLimiteInvalido() {
+        IllegalArgumentException cursorInvalido = assertThrows(IllegalArgumentException.class,
+                () -> consultarCobrancasUseCase.consultarCobrancasEnviadas(1L, null, "nao-e-um-cursor", null));
+        assertEquals("Cursor inválido", cursorInvalido.getMessage());
+
+        IllegalArgumentException limiteInvalido = assertThrows(IllegalArgumentException.class,
+                () -> consultarCobrancasUseCase.consultarCobrancasEnviadas(1L, null, null, 0));
+        assertEquals("Limite deve ser maior que zero", limiteInvalido.getMessage());
+
+        verifyNoInteractions(cobrancaRepository);
     }
 
     @Test
-    @DisplayName("Deve retornar lista vazia quando não há cobranças")
+    @DisplayName("Deve retornar página vazia quando não há cobranças")
     void deveRetornarListaVaziaQuandoNaoHaCobrancas() {
-        when(cobrancaRepository.findByOriginadorId(1L)).thenReturn(Collections.emptyList());
+        when(cobrancaRepository.findEnviadas(1L, TODOS_STATUS, PageRequest.ofSize(2)))
+                .thenReturn(new SliceImpl<>(Collections.emptyList()));
 
-        List<CobrancaResponse> responses = consultarCobrancasUseCase.consultarCobrancasEnviadas(1L, null);
+        PaginaCobrancasResponse response = consultarCobrancasUseCase.consultarCobrancasEnviadas(1L, null, null, null);
 
-        assertNotNull(responses);
-        assertTrue(responses.isEmpty());
+        assertTrue(response.getCobrancas().isEmpty());
+        assertNull(response.getProximoCursor());
+    }
+
+    private CobrancaResponse cobranca(Long id, CobrancaStatus status, LocalDateTime createdAt) {
+        return CobrancaResponse.builder()
+                .id(id)
+                .originadorId(1L)
+                .originadorNome("João Silva")
+                .destinatarioId(2L)
+                .destinatarioNome("Maria Santos")
+                .valor(BigDecimal.valueOf(100))
+                .status(status)
+                .createdAt(createdAt)
+                .build();
     }
-}
\ No newline at end of file
+}
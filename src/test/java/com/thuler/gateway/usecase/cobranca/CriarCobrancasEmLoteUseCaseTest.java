@@ -0,0 +1,183 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.enums.StatusLoteCobranca;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.LoteCobranca;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.LoteCobrancaRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository;
+import com.thuler.gateway.domain.repository.UsuarioRepository.UsuarioPorCpf;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.dto.request.CriarCobrancaRequest;
+import com.thuler.gateway.dto.request.CriarCobrancasLoteRequest;
+import com.thuler.gateway.dto.response.LoteCobrancaResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CriarCobrancasEmLoteUseCase Tests")
+class CriarCobrancasEmLoteUseCaseTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private CobrancaRepository cobrancaRepository;
+
+    @Mock
+    private LoteCobrancaRepository loteCobrancaRepository;
+
+    private final TransactionTemplate transactionTemplate =
+            spy(new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    private Usuario originador;
+    private LoteCobranca lote;
+
+    @BeforeEach
+    void setUp() {
+        originador = Usuario.builder()
+                .id(1L)
+                .nome("João Silva")
+                .cpf(CPF.of("12345678909"))
+                .email("joao@example.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve processar em blocos, resolvendo os CPFs de cada bloco com uma única consulta")
+    void deveProcessarEmBlocos() {
+        // Executor síncrono e blocos de 2 itens: 3 itens geram 2 transações
+        CriarCobrancasEmLoteUseCase useCase = useCase(Runnable::run, 2);
+
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(originador));
+        salvarLote();
+        when(usuarioRepository.findIdsByCpfIn(Set.of("98765432100")))
+                .thenReturn(List.of(usuarioPorCpf(2L, "98765432100")));
+        when(usuarioRepository.findIdsByCpfIn(Set.of("12345678909")))
+                .thenReturn(List.of(usuarioPorCpf(1L, "12345678909")));
+        when(usuarioRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> Usuario.builder().id(invocation.getArgument(0)).build());
+
+        CriarCobrancasLoteRequest request = CriarCobrancasLoteRequest.builder()
+                .cobrancas(List.of(
+                        item("987.654.321-00", 100),
+                        item("111.111.111-11", 50),
+                        item("12345678909", 30)))
+                .build();
+
+        LoteCobrancaResponse response = useCase.execute(1L, request);
+
+        assertEquals(5L, response.getId());
+        assertEquals(3, response.getTotal());
+        assertEquals(StatusLoteCobranca.CONCLUIDO, lote.getStatus());
+        assertEquals(3, lote.getProcessadas());
+        assertEquals(1, lote.getCriadas());
+        assertEquals(2, lote.getRecusadas());
+        assertEquals(List.of("linha 2: CPF inválido", "linha 3: Não é possível criar cobrança para si mesmo"),
+                lote.listarRecusas());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Cobranca>> blocos = ArgumentCaptor.forClass(List.class);
+        verify(cobrancaRepository, times(2)).saveAll(blocos.capture());
+        assertEquals(1, blocos.getAllValues().get(0).size());
+        assertEquals(2L, blocos.getAllValues().get(0).get(0).getDestinatario().getId());
+        assertTrue(blocos.getAllValues().get(1).isEmpty());
+
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Deve marcar o lote como falho quando a fila estiver cheia")
+    void deveFalharLoteQuandoFilaCheia() {
+        CriarCobrancasEmLoteUseCase useCase = useCase(tarefa -> {
+            throw new TaskRejectedException("Fila cheia");
+        }, 500);
+
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(originador));
+        salvarLote();
+
+        CriarCobrancasLoteRequest request = CriarCobrancasLoteRequest.builder()
+                .cobrancas(List.of(item("98765432100", 100)))
+                .build();
+
+        assertThrows(TaskRejectedException.class, () -> useCase.execute(1L, request));
+
+        assertEquals(StatusLoteCobranca.FALHOU, lote.getStatus());
+        assertEquals("Fila de lotes de cobranças cheia", lote.getMensagem());
+        verify(cobrancaRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando originador não existe")
+    void deveLancarExcecaoQuandoOriginadorNaoExiste() {
+        CriarCobrancasEmLoteUseCase useCase = useCase(Runnable::run, 500);
+
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.empty());
+
+        CriarCobrancasLoteRequest request = CriarCobrancasLoteRequest.builder()
+                .cobrancas(List.of(item("98765432100", 100)))
+                .build();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> useCase.execute(1L, request));
+
+        assertEquals("Originador não encontrado", exception.getMessage());
+        verify(loteCobrancaRepository, never()).save(any());
+    }
+
+    private CriarCobrancasEmLoteUseCase useCase(TaskExecutor executor, int tamanhoBloco) {
+        return new CriarCobrancasEmLoteUseCase(usuarioRepository, cobrancaRepository, loteCobrancaRepository,
+                transactionTemplate, executor, tamanhoBloco);
+    }
+
+    private void salvarLote() {
+        when(loteCobrancaRepository.save(any(LoteCobranca.class))).thenAnswer(invocation -> {
+            lote = invocation.getArgument(0);
+            lote.setId(5L);
+            return lote;
+        });
+        lenient().when(loteCobrancaRepository.findById(5L)).thenAnswer(invocation -> Optional.of(lote));
+    }
+
+    private CriarCobrancaRequest item(String cpf, int valor) {
+        return CriarCobrancaRequest.builder()
+                .cpfDestinatario(cpf)
+                .valor(BigDecimal.valueOf(valor))
+                .descricao("Mensalidade")
+                .build();
+    }
+
+    private UsuarioPorCpf usuarioPorCpf(Long id, String cpf) {
+        return new UsuarioPorCpf() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getCpf() {
+                return cpf;
+            }
+        };
+    }
+}
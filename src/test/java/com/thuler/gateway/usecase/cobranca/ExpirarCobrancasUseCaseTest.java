@@ -0,0 +1,63 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpirarCobrancasUseCase Tests")
+class ExpirarCobrancasUseCaseTest {
+
+    @Mock
+    private CobrancaRepository cobrancaRepository;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private ExpirarCobrancasUseCase expirarCobrancasUseCase;
+
+    @Test
+    @DisplayName("Deve expirar em blocos, um UPDATE por transação, até sobrar um bloco incompleto")
+    void deveExpirarEmBlocos() {
+        when(cobrancaRepository.expirarPendentes(any(), any(), eq(100))).thenReturn(100, 100, 37);
+
+        int expiradas = expirarCobrancasUseCase.execute(Duration.ofDays(30), 100);
+
+        assertEquals(237, expiradas);
+        verify(transactionTemplate, times(3)).execute(any());
+
+        // Todos os blocos usam o mesmo corte, calculado uma vez
+        ArgumentCaptor<LocalDateTime> cortes = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> agora = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(cobrancaRepository, times(3)).expirarPendentes(cortes.capture(), agora.capture(), eq(100));
+        assertEquals(1, cortes.getAllValues().stream().distinct().count());
+        assertEquals(agora.getValue().minusDays(30), cortes.getValue());
+    }
+
+    @Test
+    @DisplayName("Deve executar um único UPDATE quando não houver cobranças a expirar")
+    void devePararQuandoNaoHouverCobrancas() {
+        when(cobrancaRepository.expirarPendentes(any(), any(), eq(1000))).thenReturn(0);
+
+        assertEquals(0, expirarCobrancasUseCase.execute(Duration.ofDays(30), 1000));
+
+        verify(cobrancaRepository, times(1)).expirarPendentes(any(), any(), eq(1000));
+    }
+}
@@ -0,0 +1,45 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.repository.SolicitacaoPagamentoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpirarSolicitacoesPagamentoUseCase Tests")
+class ExpirarSolicitacoesPagamentoUseCaseTest {
+
+    @Mock
+    private SolicitacaoPagamentoRepository solicitacaoPagamentoRepository;
+
+    @InjectMocks
+    private ExpirarSolicitacoesPagamentoUseCase expirarSolicitacoesPagamentoUseCase;
+
+    @Test
+    @DisplayName("Deve marcar como falha as solicitações em processamento além do timeout")
+    void deveMarcarFalhaAlemDoTimeout() {
+        when(solicitacaoPagamentoRepository.falharProcessandoAntesDe(any(), any(),
+                eq(ExpirarSolicitacoesPagamentoUseCase.MOTIVO))).thenReturn(2);
+
+        int expiradas = expirarSolicitacoesPagamentoUseCase.execute(Duration.ofMinutes(5));
+
+        assertEquals(2, expiradas);
+        ArgumentCaptor<LocalDateTime> corte = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> agora = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(solicitacaoPagamentoRepository).falharProcessandoAntesDe(corte.capture(), agora.capture(),
+                eq(ExpirarSolicitacoesPagamentoUseCase.MOTIVO));
+        assertEquals(agora.getValue().minusMinutes(5), corte.getValue());
+    }
+}
@@ -0,0 +1,164 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.thuler.gateway.dto.response.CobrancaResponse;
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.TipoPagamento;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.infrastructure.exception.ExportacaoIndisponivelException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExportarCobrancasUseCase Tests")
+class ExportarCobrancasUseCaseTest {
+
+    private static final List<CobrancaStatus> TODOS_STATUS = List.of(CobrancaStatus.values());
+
+    @Mock
+    private CobrancaRepository cobrancaRepository;
+
+    private ObjectMapper objectMapper;
+    private ExportarCobrancasUseCase exportarCobrancasUseCase;
+
+    @BeforeEach
+    void setUp() {
+        // Mesma configuração de datas do ObjectMapper do Spring Boot
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        exportarCobrancasUseCase = new ExportarCobrancasUseCase(cobrancaRepository, objectMapper, 1,
+                Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Deve exportar enviadas e depois recebidas em NDJSON, uma cobrança por linha")
+    void deveExportarEmNdjson() throws Exception {
+        when(cobrancaRepository.exportarEnviadas(1L, TODOS_STATUS))
+                .thenReturn(Stream.of(cobranca(1L, 1L, 2L, "Mensalidade")));
+        when(cobrancaRepository.exportarRecebidas(1L, TODOS_STATUS))
+                .thenReturn(Stream.of(cobranca(2L, 2L, 1L, "Aluguel")));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long exportadas = exportarCobrancasUseCase.exportar(1L, null, FormatoExportacao.NDJSON, saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exportadas);
+        assertEquals(2, linhas.length);
+        assertEquals(1L, objectMapper.readValue(linhas[0], CobrancaResponse.class).getId());
+        assertEquals("Aluguel", objectMapper.readValue(linhas[1], CobrancaResponse.class).getDescricao());
+    }
+
+    @Test
+    @DisplayName("Deve exportar em CSV com cabeçalho e campos escapados")
+    void deveExportarEmCsv() throws Exception {
+        when(cobrancaRepository.exportarEnviadas(1L, List.of(CobrancaStatus.PAGA)))
+                .thenReturn(Stream.of(cobranca(1L, 1L, 2L, "Jantar, \"rodízio\"")));
+        when(cobrancaRepository.exportarRecebidas(1L, List.of(CobrancaStatus.PAGA)))
+                .thenReturn(Stream.empty());
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        exportarCobrancasUseCase.exportar(1L, CobrancaStatus.PAGA, FormatoExportacao.CSV, saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+        assertTrue(linhas[0].startsWith("id,originadorId,originadorNome,"));
+        assertEquals("1,1,João Silva,2,Maria Santos,150.00,\"Jantar, \"\"rodízio\"\"\",PAGA,SALDO,,"
+                + "2026-01-02T10:00,2026-01-02T11:00,,", linhas[1]);
+    }
+
+    @Test
+    @DisplayName("Deve fechar as consultas ao terminar")
+    void deveFecharAsConsultas() throws Exception {
+        AtomicBoolean enviadasFechada = new AtomicBoolean();
+        AtomicBoolean recebidasFechada = new AtomicBoolean();
+        when(cobrancaRepository.exportarEnviadas(1L, TODOS_STATUS))
+                .thenReturn(Stream.<CobrancaResponse>empty().onClose(() -> enviadasFechada.set(true)));
+        when(cobrancaRepository.exportarRecebidas(1L, TODOS_STATUS))
+                .thenReturn(Stream.<CobrancaResponse>empty().onClose(() -> recebidasFechada.set(true)));
+
+        long exportadas = exportarCobrancasUseCase.exportar(1L, null, FormatoExportacao.NDJSON,
+                new ByteArrayOutputStream());
+
+        assertEquals(0, exportadas);
+        assertTrue(enviadasFechada.get());
+        assertTrue(recebidasFechada.get());
+    }
+
+    @Test
+    @DisplayName("Deve recusar exportação sem vaga até uma ser liberada")
+    void deveRecusarExportacaoSemVaga() {
+        exportarCobrancasUseCase.reservarVaga();
+
+        ExportacaoIndisponivelException exception = assertThrows(ExportacaoIndisponivelException.class,
+                () -> exportarCobrancasUseCase.reservarVaga());
+        assertEquals("Muitas exportações em andamento, tente novamente mais tarde", exception.getMessage());
+
+        exportarCobrancasUseCase.liberarVaga();
+        assertDoesNotThrow(() -> exportarCobrancasUseCase.reservarVaga());
+    }
+
+    @Test
+    @DisplayName("Deve interromper a exportação que passa do tempo máximo e fechar a consulta")
+    void deveInterromperExportacaoLenta() {
+        exportarCobrancasUseCase = new ExportarCobrancasUseCase(cobrancaRepository, objectMapper, 1, Duration.ZERO);
+        AtomicBoolean enviadasFechada = new AtomicBoolean();
+        when(cobrancaRepository.exportarEnviadas(1L, TODOS_STATUS))
+                .thenReturn(Stream.of(cobranca(1L, 1L, 2L, "Mensalidade")).onClose(() -> enviadasFechada.set(true)));
+
+        assertThrows(IOException.class, () -> exportarCobrancasUseCase.exportar(1L, null,
+                FormatoExportacao.NDJSON, new ByteArrayOutputStream()));
+
+        assertTrue(enviadasFechada.get());
+        verify(cobrancaRepository, never()).exportarRecebidas(any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve reconhecer o formato pelo nome e recusar formato desconhecido")
+    void deveReconhecerFormato() {
+        assertEquals(FormatoExportacao.NDJSON, FormatoExportacao.of(null));
+        assertEquals(FormatoExportacao.CSV, FormatoExportacao.of("CSV"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> FormatoExportacao.of("xml"));
+        assertEquals("Formato de exportação inválido: use ndjson ou csv", exception.getMessage());
+        verifyNoInteractions(cobrancaRepository);
+    }
+
+    private CobrancaResponse cobranca(Long id, Long originadorId, Long destinatarioId, String descricao) {
+        return CobrancaResponse.builder()
+                .id(id)
+                .originadorId(originadorId)
+                .originadorNome(originadorId == 1L ? "João Silva" : "Maria Santos")
+                .destinatarioId(destinatarioId)
+                .destinatarioNome(destinatarioId == 1L ? "João Silva" : "Maria Santos")
+                .valor(new BigDecimal("150.00"))
+                .descricao(descricao)
+                .status(CobrancaStatus.PAGA)
+                .tipoPagamento(TipoPagamento.SALDO)
+                .createdAt(LocalDateTime.of(2026, 1, 2, 10, 0))
+                .paidAt(LocalDateTime.of(2026, 1, 2, 11, 0))
+                .build();
+    }
+}
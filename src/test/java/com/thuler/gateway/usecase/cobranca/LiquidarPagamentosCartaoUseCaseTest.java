@@ -0,0 +1,106 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.enums.StatusLiquidacao;
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.LiquidacaoCartao;
+import com.thuler.gateway.domain.repository.LiquidacaoCartaoRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.service.Transferencia;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LiquidarPagamentosCartaoUseCase Tests")
+class LiquidarPagamentosCartaoUseCaseTest {
+
+    @Mock
+    private LiquidacaoCartaoRepository liquidacaoCartaoRepository;
+
+    @Mock
+    private LancamentoService lancamentoService;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private LiquidarPagamentosCartaoUseCase liquidarPagamentosCartaoUseCase;
+
+    @Test
+    @DisplayName("Deve creditar os recebedores com um lote por transação até esvaziar a fila")
+    void deveLiquidarEmLotes() {
+        // Lotes de 2: o primeiro vem cheio, o segundo não, e a fila acaba
+        List<LiquidacaoCartao> primeiroLote = List.of(liquidacao(1L, 30L, 10L, 100), liquidacao(2L, 30L, 11L, 50));
+        List<LiquidacaoCartao> segundoLote = List.of(liquidacao(3L, 40L, 12L, 70));
+        when(liquidacaoCartaoRepository.reservarPendentes(2)).thenReturn(primeiroLote, segundoLote);
+
+        int liquidados = liquidarPagamentosCartaoUseCase.execute(2);
+
+        assertEquals(3, liquidados);
+        assertTrue(Stream.concat(primeiroLote.stream(), segundoLote.stream())
+                .allMatch(liquidacao -> liquidacao.getStatus() == StatusLiquidacao.LIQUIDADA
+                        && liquidacao.getLiquidadaEm() != null));
+
+        InOrder ordem = inOrder(liquidacaoCartaoRepository, lancamentoService);
+        ordem.verify(liquidacaoCartaoRepository).reservarPendentes(2);
+        ordem.verify(lancamentoService).creditarEmLote(List.of(
+                        new Transferencia(30L, BigDecimal.valueOf(100), 10L),
+                        new Transferencia(30L, BigDecimal.valueOf(50), 11L)),
+                TipoLancamento.PAGAMENTO_RECEBIDO);
+        ordem.verify(liquidacaoCartaoRepository).reservarPendentes(2);
+        ordem.verify(lancamentoService).creditarEmLote(List.of(new Transferencia(40L, BigDecimal.valueOf(70), 12L)),
+                TipoLancamento.PAGAMENTO_RECEBIDO);
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Não deve creditar nada quando não houver liquidações pendentes")
+    void naoDeveCreditarSemPendentes() {
+        when(liquidacaoCartaoRepository.reservarPendentes(500)).thenReturn(List.of());
+
+        assertEquals(0, liquidarPagamentosCartaoUseCase.execute(500));
+
+        verifyNoInteractions(lancamentoService);
+    }
+
+    @Test
+    @DisplayName("Deve adiar o lote quando a conta do recebedor estiver ocupada")
+    void deveAdiarLoteQuandoContaOcupada() {
+        LiquidacaoCartao liquidacao = liquidacao(1L, 30L, 10L, 100);
+        when(liquidacaoCartaoRepository.reservarPendentes(anyInt())).thenReturn(List.of(liquidacao));
+        doThrow(new PessimisticLockingFailureException("lock timeout"))
+                .when(lancamentoService).creditarEmLote(any(), any());
+
+        assertEquals(0, liquidarPagamentosCartaoUseCase.execute(500));
+
+        assertTrue(liquidacao.isPendente());
+    }
+
+    private LiquidacaoCartao liquidacao(Long id, Long contaId, Long cobrancaId, int valor) {
+        return LiquidacaoCartao.builder()
+                .id(id)
+                .conta(Conta.builder().id(contaId).build())
+                .cobranca(Cobranca.builder().id(cobrancaId).build())
+                .valor(BigDecimal.valueOf(valor))
+                .build();
+    }
+}
@@ -5,11 +5,17 @@ import com.thuler.gateway.dto.request.PagarCobrancaSaldoRequest;
 import com.thuler.gateway.dto.response.CobrancaResponse;
 import com.thuler.gateway.domain.model.Cobranca;
 import com.thuler.gateway.domain.model.Conta;
+import com.thuler.gateway.domain.model.LiquidacaoCartao;
 import com.thuler.gateway.domain.model.Usuario;
 import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.TipoLancamento;
 import com.thuler.gateway.domain.enums.TipoPagamento;
 import com.thuler.gateway.domain.repository.CobrancaRepository;
 import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository.ContasDoPagamento;
+import com.thuler.gateway.domain.repository.LiquidacaoCartaoRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.service.RetentativaOtimista;
 import com.thuler.gateway.domain.valueobject.CPF;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
@@ -17,15 +23,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,16 +51,26 @@ class PagarCobrancaUseCaseTest {
     @Mock
     private ContaRepository contaRepository;
 
+    @Mock
+    private LiquidacaoCartaoRepository liquidacaoCartaoRepository;
+
+    @Mock
+    private LancamentoService lancamentoService;
+
     @Mock
     private AuthorizerClient authorizerClient;
 
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private RetentativaOtimista retentativaOtimista = new RetentativaOtimista(transactionTemplate, 3, Duration.ZERO);
+
     @InjectMocks
     private PagarCobrancaUseCase pagarCobrancaUseCase;
 
     private Usuario originador;
     private Usuario destinatario;
-    private Conta contaOriginador;
-    private Conta contaDestinatario;
     private Cobranca cobranca;
 
     @BeforeEach
@@ -66,18 +89,6 @@ class PagarCobrancaUseCaseTest {
                 .email("maria@example.com")
                 .build();
 
-        contaOriginador = Conta.builder()
-                .id(1L)
-                .usuario(originador)
-                .saldo(BigDecimal.valueOf(500))
-                .build();
-
-        contaDestinatario = Conta.builder()
-                .id(2L)
-                .usuario(destinatario)
-                .saldo(BigDecimal.valueOf(1000))
-                .build();
-
         cobranca = Cobranca.builder()
                 .id(1L)
                 .originador(originador)
@@ -95,45 +106,64 @@ class PagarCobrancaUseCaseTest {
                 .cobrancaId(1L)
                 .build();
 
-        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
-        when(contaRepository.findByUsuarioId(2L)).thenReturn(Optional.of(contaDestinatario));
-        when(contaRepository.findByUsuarioId(1L)).thenReturn(Optional.of(contaOriginador));
+        when(contaRepository.findContasDoPagamento(1L, 2L)).thenReturn(Optional.of(contas(2L, 1L)));
+        when(lancamentoService.pagarCobranca(2L, 1L, 1L, 2L)).thenReturn(true);
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobrancaPaga()));
 
-        Cobranca cobrancaPaga = Cobranca.builder()
-                .id(1L)
-                .originador(originador)
-                .destinatario(destinatario)
-                .valor(BigDecimal.valueOf(100))
-                .status(CobrancaStatus.PAGA)
-                .tipoPagamento(TipoPagamento.SALDO)
+        CobrancaResponse response = pagarCobrancaUseCase.pagarComSaldo(2L, request);
+
+        assertNotNull(response);
+        assertEquals(CobrancaStatus.PAGA, response.getStatus());
+        assertEquals(TipoPagamento.SALDO, response.getTipoPagamento());
+
+        InOrder ordem = inOrder(contaRepository, lancamentoService, cobrancaRepository);
+        ordem.verify(contaRepository).findContasDoPagamento(1L, 2L);
+        ordem.verify(lancamentoService).pagarCobranca(2L, 1L, 1L, 2L);
+        ordem.verify(cobrancaRepository).findById(1L);
+        verify(cobrancaRepository, never()).saveAndFlush(any());
+        verify(contaRepository, never()).save(any(Conta.class));
+    }
+
+    @Test
+    @DisplayName("Deve pagar cobrança com saldo pela engine de contas quando habilitada")
+    void devePagarCobrancaComSaldoPelaEngine() {
+        PagarCobrancaSaldoRequest request = PagarCobrancaSaldoRequest.builder()
+                .cobrancaId(1L)
                 .build();
 
-        when(cobrancaRepository.save(any(Cobranca.class))).thenReturn(cobrancaPaga);
+        when(lancamentoService.usaEngine()).thenReturn(true);
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.of(2L));
+        when(contaRepository.findIdByUsuarioId(1L)).thenReturn(Optional.of(1L));
+        when(lancamentoService.transferir(2L, 1L, BigDecimal.valueOf(100),
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, cobranca)).thenReturn(true);
+        when(cobrancaRepository.saveAndFlush(any(Cobranca.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         CobrancaResponse response = pagarCobrancaUseCase.pagarComSaldo(2L, request);
 
-        assertNotNull(response);
         assertEquals(CobrancaStatus.PAGA, response.getStatus());
-        assertEquals(TipoPagamento.SALDO, response.getTipoPagamento());
 
-        verify(cobrancaRepository).findById(1L);
-        verify(contaRepository).findByUsuarioId(2L);
-        verify(contaRepository).findByUsuarioId(1L);
-        verify(contaRepository, times(2)).save(any(Conta.class));
-        verify(cobrancaRepository).save(any(Cobranca.class));
+        InOrder ordem = inOrder(cobrancaRepository, lancamentoService);
+        ordem.verify(cobrancaRepository).findById(1L);
+        ordem.verify(lancamentoService).transferir(2L, 1L, BigDecimal.valueOf(100),
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO, cobranca);
+        ordem.verify(cobrancaRepository).saveAndFlush(cobranca);
+        verify(lancamentoService, never()).pagarCobranca(any(), any(), any(), any());
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao pagar com saldo insuficiente")
     void deveLancarExcecaoAoPagarComSaldoInsuficiente() {
-        contaDestinatario.setSaldo(BigDecimal.valueOf(50)); // Saldo menor que o valor da cobrança
-
         PagarCobrancaSaldoRequest request = PagarCobrancaSaldoRequest.builder()
                 .cobrancaId(1L)
                 .build();
 
+        when(contaRepository.findContasDoPagamento(1L, 2L)).thenReturn(Optional.of(contas(2L, 1L)));
+        when(lancamentoService.pagarCobranca(2L, 1L, 1L, 2L)).thenReturn(false);
         when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
-        when(contaRepository.findByUsuarioId(2L)).thenReturn(Optional.of(contaDestinatario));
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.of(2L));
+        when(contaRepository.findIdByUsuarioId(1L)).thenReturn(Optional.of(1L));
+        when(lancamentoService.saldo(2L)).thenReturn(BigDecimal.valueOf(50));
 
         IllegalArgumentException exception = assertThrows(
                 IllegalArgumentException.class,
@@ -141,7 +171,47 @@ class PagarCobrancaUseCaseTest {
         );
 
         assertEquals("Saldo insuficiente", exception.getMessage());
-        verify(cobrancaRepository, never()).save(any());
+        assertEquals(CobrancaStatus.PENDENTE, cobranca.getStatus());
+        verify(cobrancaRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Deve repetir o pagamento com saldo quando a cobrança muda durante o comando")
+    void deveRepetirPagamentoComSaldoQuandoCobrancaMuda() {
+        PagarCobrancaSaldoRequest request = PagarCobrancaSaldoRequest.builder()
+                .cobrancaId(1L)
+                .build();
+
+        when(contaRepository.findContasDoPagamento(1L, 2L)).thenReturn(Optional.of(contas(2L, 1L)));
+        when(lancamentoService.pagarCobranca(2L, 1L, 1L, 2L)).thenReturn(false, true);
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca), Optional.of(cobrancaPaga()));
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.of(2L));
+        when(contaRepository.findIdByUsuarioId(1L)).thenReturn(Optional.of(1L));
+        when(lancamentoService.saldo(2L)).thenReturn(BigDecimal.valueOf(500));
+
+        CobrancaResponse response = pagarCobrancaUseCase.pagarComSaldo(2L, request);
+
+        assertEquals(CobrancaStatus.PAGA, response.getStatus());
+        verify(lancamentoService, times(2)).pagarCobranca(2L, 1L, 1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando a conta do pagador não existe")
+    void deveLancarExcecaoQuandoContaDoPagadorNaoExiste() {
+        PagarCobrancaSaldoRequest request = PagarCobrancaSaldoRequest.builder()
+                .cobrancaId(1L)
+                .build();
+
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.empty());
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> pagarCobrancaUseCase.pagarComSaldo(2L, request)
+        );
+
+        assertEquals("Conta do pagador não encontrada", exception.getMessage());
+        verify(lancamentoService, never()).pagarCobranca(any(), any(), any(), any());
     }
 
     @Test
@@ -159,8 +229,9 @@ class PagarCobrancaUseCaseTest {
         );
 
         assertEquals("Apenas o destinatário pode pagar esta cobrança", exception.getMessage());
-        verify(contaRepository, never()).findByUsuarioId(any());
-        verify(cobrancaRepository, never()).save(any());
+        verify(lancamentoService, never()).pagarCobranca(any(), any(), any(), any());
+        verifyNoInteractions(liquidacaoCartaoRepository);
+        verify(cobrancaRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -183,7 +254,7 @@ class PagarCobrancaUseCaseTest {
     }
 
     @Test
-    @DisplayName("Deve pagar cobrança com cartão com sucesso")
+    @DisplayName("Deve pagar cobrança com cartão e enfileirar o crédito do recebedor para liquidação")
     void devePagarCobrancaComCartaoComSucesso() {
         PagarCobrancaCartaoRequest request = PagarCobrancaCartaoRequest.builder()
                 .cobrancaId(1L)
@@ -198,7 +269,6 @@ class PagarCobrancaUseCaseTest {
 
         when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
         when(authorizerClient.authorize()).thenReturn(authorizerResponse);
-        when(contaRepository.findByUsuarioId(1L)).thenReturn(Optional.of(contaOriginador));
 
         Cobranca cobrancaPaga = Cobranca.builder()
                 .id(1L)
@@ -210,7 +280,9 @@ class PagarCobrancaUseCaseTest {
                 .numeroCartao("3456")
                 .build();
 
-        when(cobrancaRepository.save(any(Cobranca.class))).thenReturn(cobrancaPaga);
+        when(cobrancaRepository.saveAndFlush(any(Cobranca.class))).thenReturn(cobrancaPaga);
+        when(contaRepository.findIdByUsuarioId(1L)).thenReturn(Optional.of(1L));
+        when(contaRepository.getReferenceById(1L)).thenReturn(Conta.builder().id(1L).build());
 
         // Act
         CobrancaResponse response = pagarCobrancaUseCase.pagarComCartao(2L, request);
@@ -222,8 +294,57 @@ class PagarCobrancaUseCaseTest {
         assertEquals("3456", response.getNumeroCartao());
 
         verify(authorizerClient).authorize();
-        verify(contaRepository).save(any(Conta.class));
-        verify(cobrancaRepository).save(any(Cobranca.class));
+        verify(cobrancaRepository).saveAndFlush(any(Cobranca.class));
+
+        // O recebedor não é creditado na requisição
+        ArgumentCaptor<LiquidacaoCartao> liquidacao = ArgumentCaptor.forClass(LiquidacaoCartao.class);
+        verify(liquidacaoCartaoRepository).save(liquidacao.capture());
+        assertEquals(1L, liquidacao.getValue().getConta().getId());
+        assertEquals(cobrancaPaga, liquidacao.getValue().getCobranca());
+        assertEquals(0, liquidacao.getValue().getValor().compareTo(BigDecimal.valueOf(100)));
+        assertTrue(liquidacao.getValue().isPendente());
+        verifyNoInteractions(lancamentoService);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o autorizador fora da transação e rejeitar cobrança paga nesse intervalo")
+    void deveRejeitarCobrancaPagaDuranteAutorizacao() {
+        PagarCobrancaCartaoRequest request = PagarCobrancaCartaoRequest.builder()
+                .cobrancaId(1L)
+                .numeroCartao("1234567890123456")
+                .dataExpiracao("12/25")
+                .cvv("123")
+                .build();
+
+        AuthorizerResponse authorizerResponse = new AuthorizerResponse();
+        authorizerResponse.setStatus("APPROVED");
+        authorizerResponse.setData(new AuthorizerResponse.AuthorizerData(true));
+
+        Cobranca cobrancaPagaEmParalelo = Cobranca.builder()
+                .id(1L)
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .status(CobrancaStatus.PAGA)
+                .tipoPagamento(TipoPagamento.SALDO)
+                .build();
+
+        when(cobrancaRepository.findById(1L))
+                .thenReturn(Optional.of(cobranca), Optional.of(cobrancaPagaEmParalelo));
+        when(authorizerClient.authorize()).thenReturn(authorizerResponse);
+
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> pagarCobrancaUseCase.pagarComCartao(2L, request)
+        );
+
+        assertEquals("Apenas cobranças pendentes podem ser pagas", exception.getMessage());
+
+        InOrder ordem = inOrder(authorizerClient, retentativaOtimista);
+        ordem.verify(authorizerClient).authorize();
+        ordem.verify(retentativaOtimista).executar(any());
+        verifyNoInteractions(lancamentoService, liquidacaoCartaoRepository);
+        verify(cobrancaRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -252,7 +373,7 @@ class PagarCobrancaUseCaseTest {
 
         assertEquals("Pagamento não autorizado pelo autorizador externo", exception.getMessage());
         verify(authorizerClient).authorize();
-        verify(cobrancaRepository, never()).save(any());
+        verify(cobrancaRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -273,4 +394,31 @@ class PagarCobrancaUseCaseTest {
 
         assertEquals("Cobrança não encontrada", exception.getMessage());
     }
+
+    private Cobranca cobrancaPaga() {
+        Cobranca paga = Cobranca.builder()
+                .id(1L)
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .descricao("Cobrança teste")
+                .status(CobrancaStatus.PENDENTE)
+                .build();
+        paga.marcarComoPaga(TipoPagamento.SALDO, null, "PAGAMENTO_SALDO");
+        return paga;
+    }
+
+    private static ContasDoPagamento contas(Long contaPagadorId, Long contaRecebedorId) {
+        return new ContasDoPagamento() {
+            @Override
+            public Long getContaPagadorId() {
+                return contaPagadorId;
+            }
+
+            @Override
+            public Long getContaRecebedorId() {
+                return contaRecebedorId;
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.TipoLancamento;
+import com.thuler.gateway.domain.enums.TipoPagamento;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.repository.ContaRepository.ContaDoUsuario;
+import com.thuler.gateway.domain.service.LancamentoService;
+import com.thuler.gateway.domain.service.RetentativaOtimista;
+import com.thuler.gateway.domain.service.Transferencia;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.dto.request.PagarCobrancasLoteRequest;
+import com.thuler.gateway.dto.response.PagamentoLoteResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PagarCobrancasEmLoteUseCase Tests")
+class PagarCobrancasEmLoteUseCaseTest {
+
+    @Mock
+    private CobrancaRepository cobrancaRepository;
+
+    @Mock
+    private ContaRepository contaRepository;
+
+    @Mock
+    private LancamentoService lancamentoService;
+
+    @Spy
+    private RetentativaOtimista retentativaOtimista = new RetentativaOtimista(
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), 3, Duration.ZERO);
+
+    @InjectMocks
+    private PagarCobrancasEmLoteUseCase pagarCobrancasEmLoteUseCase;
+
+    private Usuario originador;
+    private Usuario pagador;
+
+    @BeforeEach
+    void setUp() {
+        originador = Usuario.builder()
+                .id(1L)
+                .nome("João Silva")
+                .cpf(CPF.of("12345678909"))
+                .email("joao@example.com")
+                .build();
+
+        pagador = Usuario.builder()
+                .id(2L)
+                .nome("Maria Santos")
+                .cpf(CPF.of("98765432100"))
+                .email("maria@example.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve pagar as cobranças válidas com um único UPDATE, depois das transferências")
+    void devePagarCobrancasValidas() {
+        Cobranca primeira = cobranca(10L, pagador, CobrancaStatus.PENDENTE);
+        Cobranca segunda = cobranca(11L, pagador, CobrancaStatus.PENDENTE);
+
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.of(20L));
+        when(cobrancaRepository.findComUsuariosByIdIn(List.of(11L, 10L))).thenReturn(List.of(primeira, segunda));
+        when(contaRepository.findIdsByUsuarioIds(Set.of(1L))).thenReturn(List.of(contaDoUsuario(1L, 30L)));
+
+        List<Transferencia> transferencias = List.of(
+                new Transferencia(30L, BigDecimal.valueOf(100), 11L),
+                new Transferencia(30L, BigDecimal.valueOf(100), 10L));
+        when(lancamentoService.transferirEmLote(20L, transferencias,
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO)).thenReturn(transferencias);
+        when(cobrancaRepository.marcarComoPagas(eq(Set.of(10L, 11L)), any(), any(), any(), any(), any())).thenReturn(2);
+
+        PagamentoLoteResponse response = pagarCobrancasEmLoteUseCase.execute(2L, request(11L, 10L, 11L));
+
+        assertEquals(2, response.getPagas());
+        assertEquals(0, response.getRecusadas());
+        assertEquals(0, response.getValorPago().compareTo(BigDecimal.valueOf(200)));
+        assertEquals(List.of(11L, 10L), response.getResultados().stream()
+                .map(PagamentoLoteResponse.Resultado::getCobrancaId).toList());
+        assertEquals(CobrancaStatus.PAGA, response.getResultados().get(0).getCobranca().getStatus());
+
+        InOrder ordem = inOrder(cobrancaRepository, lancamentoService);
+        ordem.verify(cobrancaRepository).findComUsuariosByIdIn(List.of(11L, 10L));
+        ordem.verify(lancamentoService).transferirEmLote(eq(20L), any(), any(), any());
+        ordem.verify(cobrancaRepository).marcarComoPagas(eq(Set.of(10L, 11L)), eq(TipoPagamento.SALDO),
+                eq("PAGAMENTO_SALDO"), any(), eq(CobrancaStatus.PAGA), eq(CobrancaStatus.PENDENTE));
+        verify(cobrancaRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar cobranças inválidas e sem saldo sem impedir as demais")
+    void deveRecusarCobrancasInvalidasESemSaldo() {
+        Cobranca paga = cobranca(10L, pagador, CobrancaStatus.PAGA);
+        Cobranca deOutro = cobranca(11L, originador, CobrancaStatus.PENDENTE);
+        Cobranca semSaldo = cobranca(12L, pagador, CobrancaStatus.PENDENTE);
+
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.of(20L));
+        when(cobrancaRepository.findComUsuariosByIdIn(List.of(10L, 11L, 12L, 99L)))
+                .thenReturn(List.of(paga, deOutro, semSaldo));
+        when(contaRepository.findIdsByUsuarioIds(Set.of(1L))).thenReturn(List.of(contaDoUsuario(1L, 30L)));
+        when(lancamentoService.transferirEmLote(eq(20L), any(), any(), any())).thenReturn(List.of());
+
+        PagamentoLoteResponse response = pagarCobrancasEmLoteUseCase.execute(2L, request(10L, 11L, 12L, 99L));
+
+        assertEquals(0, response.getPagas());
+        assertEquals(4, response.getRecusadas());
+        assertEquals(List.of(
+                        "Apenas cobranças pendentes podem ser pagas",
+                        "Apenas o destinatário pode pagar esta cobrança",
+                        "Saldo insuficiente",
+                        "Cobrança não encontrada"),
+                response.getResultados().stream().map(PagamentoLoteResponse.Resultado::getMotivo).toList());
+        assertNull(response.getResultados().get(3).getCobranca());
+
+        verify(lancamentoService).transferirEmLote(20L, List.of(new Transferencia(30L, BigDecimal.valueOf(100), 12L)),
+                TipoLancamento.PAGAMENTO_ENVIADO, TipoLancamento.PAGAMENTO_RECEBIDO);
+        verify(cobrancaRepository, never()).marcarComoPagas(anyCollection(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve repetir o lote quando alguma cobrança mudar de status antes do UPDATE")
+    void deveRepetirLoteQuandoCobrancaMudarDeStatus() {
+        Cobranca primeira = cobranca(10L, pagador, CobrancaStatus.PENDENTE);
+        Cobranca segunda = cobranca(11L, pagador, CobrancaStatus.PENDENTE);
+
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.of(20L));
+        when(cobrancaRepository.findComUsuariosByIdIn(List.of(10L, 11L))).thenReturn(List.of(primeira, segunda));
+        when(contaRepository.findIdsByUsuarioIds(Set.of(1L))).thenReturn(List.of(contaDoUsuario(1L, 30L)));
+        when(lancamentoService.transferirEmLote(eq(20L), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        // Na primeira tentativa uma das cobranças já não estava pendente no UPDATE
+        when(cobrancaRepository.marcarComoPagas(anyCollection(), any(), any(), any(), any(), any()))
+                .thenReturn(1, 2);
+
+        PagamentoLoteResponse response = pagarCobrancasEmLoteUseCase.execute(2L, request(10L, 11L));
+
+        assertEquals(2, response.getPagas());
+        verify(cobrancaRepository, times(2)).findComUsuariosByIdIn(List.of(10L, 11L));
+        verify(lancamentoService, times(2)).transferirEmLote(eq(20L), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando conta do pagador não existe")
+    void deveLancarExcecaoQuandoContaDoPagadorNaoExiste() {
+        when(contaRepository.findIdByUsuarioId(2L)).thenReturn(Optional.empty());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> pagarCobrancasEmLoteUseCase.execute(2L, request(10L)));
+
+        assertEquals("Conta do pagador não encontrada", exception.getMessage());
+        verifyNoInteractions(lancamentoService);
+    }
+
+    private Cobranca cobranca(Long id, Usuario destinatario, CobrancaStatus status) {
+        return Cobranca.builder()
+                .id(id)
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .descricao("Cobrança " + id)
+                .status(status)
+                .build();
+    }
+
+    private static PagarCobrancasLoteRequest request(Long... cobrancaIds) {
+        return PagarCobrancasLoteRequest.builder()
+                .cobrancaIds(List.of(cobrancaIds))
+                .build();
+    }
+
+    private static ContaDoUsuario contaDoUsuario(Long usuarioId, Long contaId) {
+        return new ContaDoUsuario() {
+            @Override
+            public Long getUsuarioId() {
+                return usuarioId;
+            }
+
+            @Override
+            public Long getContaId() {
+                return contaId;
+            }
+        };
+    }
+}
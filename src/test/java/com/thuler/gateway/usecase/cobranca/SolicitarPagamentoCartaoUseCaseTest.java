@@ -0,0 +1,228 @@
+package com.thuler.gateway.usecase.cobranca;
+
+import com.thuler.gateway.dto.request.PagarCobrancaCartaoRequest;
+import com.thuler.gateway.dto.response.SolicitacaoPagamentoResponse;
+import com.thuler.gateway.domain.model.Cobranca;
+import com.thuler.gateway.domain.model.SolicitacaoPagamento;
+import com.thuler.gateway.domain.model.Usuario;
+import com.thuler.gateway.domain.enums.CobrancaStatus;
+import com.thuler.gateway.domain.enums.StatusSolicitacaoPagamento;
+import com.thuler.gateway.domain.repository.CobrancaRepository;
+import com.thuler.gateway.domain.repository.SolicitacaoPagamentoRepository;
+import com.thuler.gateway.domain.valueobject.CPF;
+import com.thuler.gateway.infrastructure.exception.AuthorizerException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SolicitarPagamentoCartaoUseCase Tests")
+class SolicitarPagamentoCartaoUseCaseTest {
+
+    @Mock
+    private CobrancaRepository cobrancaRepository;
+
+    @Mock
+    private SolicitacaoPagamentoRepository solicitacaoPagamentoRepository;
+
+    @Mock
+    private PagarCobrancaUseCase pagarCobrancaUseCase;
+
+    private SolicitarPagamentoCartaoUseCase solicitarPagamentoCartaoUseCase;
+
+    private Cobranca cobranca;
+    private PagarCobrancaCartaoRequest request;
+
+    @BeforeEach
+    void setUp() {
+        // Executor síncrono: o processamento em segundo plano roda dentro do próprio teste
+        solicitarPagamentoCartaoUseCase = new SolicitarPagamentoCartaoUseCase(
+                cobrancaRepository, solicitacaoPagamentoRepository, pagarCobrancaUseCase, Runnable::run);
+
+        Usuario originador = Usuario.builder()
+                .id(1L)
+                .nome("João Silva")
+                .cpf(CPF.of("12345678909"))
+                .email("joao@example.com")
+                .build();
+
+        Usuario destinatario = Usuario.builder()
+                .id(2L)
+                .nome("Maria Santos")
+                .cpf(CPF.of("98765432100"))
+                .email("maria@example.com")
+                .build();
+
+        cobranca = Cobranca.builder()
+                .id(1L)
+                .originador(originador)
+                .destinatario(destinatario)
+                .valor(BigDecimal.valueOf(100))
+                .status(CobrancaStatus.PENDENTE)
+                .build();
+
+        request = PagarCobrancaCartaoRequest.builder()
+                .cobrancaId(1L)
+                .numeroCartao("1234567890123456")
+                .dataExpiracao("12/30")
+                .cvv("123")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve aceitar a solicitação e aprovar após o pagamento")
+    void deveAceitarSolicitacaoEAprovarPagamento() {
+        SolicitacaoPagamento solicitacao = prepararSolicitacao();
+
+        SolicitacaoPagamentoResponse response = solicitarPagamentoCartaoUseCase.execute(2L, request);
+
+        assertEquals(10L, response.getId());
+        assertEquals(1L, response.getCobrancaId());
+        assertEquals("3456", response.getNumeroCartao());
+        assertEquals(StatusSolicitacaoPagamento.APROVADO, solicitacao.getStatus());
+        assertNotNull(solicitacao.getConcluidaEm());
+        verify(pagarCobrancaUseCase).pagarComCartao(2L, request);
+    }
+
+    @Test
+    @DisplayName("Deve recusar a solicitação quando o pagamento não é autorizado")
+    void deveRecusarQuandoPagamentoNaoAutorizado() {
+        SolicitacaoPagamento solicitacao = prepararSolicitacao();
+        when(pagarCobrancaUseCase.pagarComCartao(2L, request))
+                .thenThrow(new IllegalArgumentException("Pagamento não autorizado pelo autorizador externo"));
+
+        solicitarPagamentoCartaoUseCase.execute(2L, request);
+
+        assertEquals(StatusSolicitacaoPagamento.RECUSADO, solicitacao.getStatus());
+        assertEquals("Pagamento não autorizado pelo autorizador externo", solicitacao.getMensagem());
+    }
+
+    @Test
+    @DisplayName("Deve marcar como falha quando o autorizador está indisponível")
+    void deveMarcarFalhaQuandoAutorizadorIndisponivel() {
+        SolicitacaoPagamento solicitacao = prepararSolicitacao();
+        when(pagarCobrancaUseCase.pagarComCartao(2L, request))
+                .thenThrow(new AuthorizerException("Falha na comunicação com o autorizador"));
+
+        solicitarPagamentoCartaoUseCase.execute(2L, request);
+
+        assertEquals(StatusSolicitacaoPagamento.FALHOU, solicitacao.getStatus());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar quando já existe pagamento em processamento")
+    void deveRejeitarQuandoJaExistePagamentoEmProcessamento() {
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
+        when(solicitacaoPagamentoRepository.existsByCobrancaIdAndStatus(1L, StatusSolicitacaoPagamento.PROCESSANDO))
+                .thenReturn(true);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> solicitarPagamentoCartaoUseCase.execute(2L, request));
+
+        assertEquals("Já existe um pagamento em processamento para esta cobrança", exception.getMessage());
+        verify(solicitacaoPagamentoRepository, never()).save(any());
+        verifyNoInteractions(pagarCobrancaUseCase);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar quando outra solicitação da mesma cobrança é criada ao mesmo tempo")
+    void deveRejeitarSolicitacaoSimultanea() {
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
+        when(solicitacaoPagamentoRepository.existsByCobrancaIdAndStatus(1L, StatusSolicitacaoPagamento.PROCESSANDO))
+                .thenReturn(false);
+        when(solicitacaoPagamentoRepository.save(any(SolicitacaoPagamento.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_solicitacoes_pagamento_processando"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> solicitarPagamentoCartaoUseCase.execute(2L, request));
+
+        assertEquals("Já existe um pagamento em processamento para esta cobrança", exception.getMessage());
+        verifyNoInteractions(pagarCobrancaUseCase);
+    }
+
+    @Test
+    @DisplayName("Deve aplicar o resultado do pagamento quando a solicitação expirou durante o processamento")
+    void deveAprovarSolicitacaoExpiradaDuranteProcessamento() {
+        SolicitacaoPagamento solicitacao = prepararSolicitacao();
+        when(pagarCobrancaUseCase.pagarComCartao(2L, request)).thenAnswer(invocacao -> {
+            solicitacao.falhar(SolicitacaoPagamento.MOTIVO_EXPIRACAO);
+            return null;
+        });
+
+        solicitarPagamentoCartaoUseCase.execute(2L, request);
+
+        assertEquals(StatusSolicitacaoPagamento.APROVADO, solicitacao.getStatus());
+        assertNull(solicitacao.getMensagem());
+        verify(solicitacaoPagamentoRepository, times(2)).save(any());
+    }
+
+    @Test
+    @DisplayName("Não deve pagar quando a solicitação expirou antes de iniciar")
+    void naoDevePagarSolicitacaoExpiradaAntesDeIniciar() {
+        prepararSolicitacao();
+        when(solicitacaoPagamentoRepository.iniciar(eq(10L), any())).thenReturn(0);
+
+        solicitarPagamentoCartaoUseCase.execute(2L, request);
+
+        verifyNoInteractions(pagarCobrancaUseCase);
+        verify(solicitacaoPagamentoRepository, times(1)).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando usuário não é o destinatário")
+    void deveLancarExcecaoQuandoUsuarioNaoEDestinatario() {
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> solicitarPagamentoCartaoUseCase.execute(3L, request));
+
+        assertEquals("Apenas o destinatário pode pagar esta cobrança", exception.getMessage());
+        verifyNoInteractions(solicitacaoPagamentoRepository, pagarCobrancaUseCase);
+    }
+
+    @Test
+    @DisplayName("Deve marcar como falha e propagar quando a fila está cheia")
+    void deveMarcarFalhaQuandoFilaCheia() {
+        solicitarPagamentoCartaoUseCase = new SolicitarPagamentoCartaoUseCase(
+                cobrancaRepository, solicitacaoPagamentoRepository, pagarCobrancaUseCase,
+                tarefa -> {
+                    throw new TaskRejectedException("Fila cheia");
+                });
+        SolicitacaoPagamento solicitacao = prepararSolicitacao();
+
+        assertThrows(TaskRejectedException.class, () -> solicitarPagamentoCartaoUseCase.execute(2L, request));
+
+        assertEquals(StatusSolicitacaoPagamento.FALHOU, solicitacao.getStatus());
+        verifyNoInteractions(pagarCobrancaUseCase);
+    }
+
+    private SolicitacaoPagamento prepararSolicitacao() {
+        when(cobrancaRepository.findById(1L)).thenReturn(Optional.of(cobranca));
+        when(solicitacaoPagamentoRepository.existsByCobrancaIdAndStatus(1L, StatusSolicitacaoPagamento.PROCESSANDO))
+                .thenReturn(false);
+
+        SolicitacaoPagamento solicitacao = SolicitacaoPagamento.builder()
+                .id(10L)
+                .cobranca(cobranca)
+                .numeroCartao("3456")
+                .build();
+
+        when(solicitacaoPagamentoRepository.save(any(SolicitacaoPagamento.class))).thenReturn(solicitacao);
+        lenient().when(solicitacaoPagamentoRepository.findById(10L)).thenReturn(Optional.of(solicitacao));
+        lenient().when(solicitacaoPagamentoRepository.iniciar(eq(10L), any())).thenReturn(1);
+        return solicitacao;
+    }
+}
@@ -2,9 +2,11 @@ package com.thuler.gateway.usecase.conta;
 
 import com.thuler.gateway.dto.request.DepositoRequest;
 import com.thuler.gateway.dto.response.ContaResponse;
+import com.thuler.gateway.domain.enums.TipoLancamento;
 import com.thuler.gateway.domain.model.Conta;
 import com.thuler.gateway.domain.model.Usuario;
 import com.thuler.gateway.domain.repository.ContaRepository;
+import com.thuler.gateway.domain.service.LancamentoService;
 import com.thuler.gateway.domain.valueobject.CPF;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerClient;
 import com.thuler.gateway.infrastructure.external.authorizer.AuthorizerResponse;
@@ -14,7 +16,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -30,9 +35,15 @@ class DepositarUseCaseTest {
     @Mock
     private ContaRepository contaRepository;
 
+    @Mock
+    private LancamentoService lancamentoService;
+
     @Mock
     private AuthorizerClient authorizerClient;
 
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private DepositarUseCase depositarUseCase;
 
@@ -68,14 +79,7 @@ class DepositarUseCaseTest {
 
         when(contaRepository.findByUsuarioId(1L)).thenReturn(Optional.of(conta));
         when(authorizerClient.authorize()).thenReturn(authorizerResponse);
-
-        Conta contaAtualizada = Conta.builder()
-                .id(1L)
-                .usuario(usuario)
-                .saldo(BigDecimal.valueOf(600))
-                .build();
-
-        when(contaRepository.save(any(Conta.class))).thenReturn(contaAtualizada);
+        when(lancamentoService.saldo(1L)).thenReturn(BigDecimal.valueOf(600));
 
         ContaResponse response = depositarUseCase.execute(1L, request);
 
@@ -84,7 +88,8 @@ class DepositarUseCaseTest {
 
         verify(contaRepository).findByUsuarioId(1L);
         verify(authorizerClient).authorize();
-        verify(contaRepository).save(any(Conta.class));
+        verify(lancamentoService).creditar(1L, BigDecimal.valueOf(100), TipoLancamento.DEPOSITO, null);
+        verify(contaRepository, never()).save(any());
     }
 
     @Test
@@ -108,7 +113,7 @@ class DepositarUseCaseTest {
 
         assertEquals("Depósito não autorizado pelo autorizador externo", exception.getMessage());
         verify(authorizerClient).authorize();
-        verify(contaRepository, never()).save(any());
+        verifyNoInteractions(lancamentoService);
     }
 
     @Test
@@ -128,6 +133,6 @@ class DepositarUseCaseTest {
         assertEquals("Conta não encontrada", exception.getMessage());
         verify(contaRepository).findByUsuarioId(1L);
         verify(authorizerClient, never()).authorize();
-        verify(contaRepository, never()).save(any());
+        verifyNoInteractions(lancamentoService);
     }
 }
\ No newline at end of file